@@ -134,7 +134,7 @@ public class ControladorConfigurarJugador {
     private void procesarRespuestaRegistro(MensajeDTO respuesta) {
         switch (respuesta.getTipo()) {
             case REGISTRO_EXITOSO:
-                JugadorDTO jugador = (JugadorDTO) respuesta.getDatos();
+                JugadorDTO jugador = servicioConexion.getJugadorLocal();
                 this.jugadorRegistrado = jugador; // Guardar en el controlador
                 System.out.println("[CONTROLADOR] Registro exitoso: " + jugador.getNombre());
                 vista.registroExitoso(jugador.getNombre(), jugador.getId());
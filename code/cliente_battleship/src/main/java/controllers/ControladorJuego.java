@@ -57,7 +57,7 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
         void actualizarTableros(TableroDTO miTablero, TableroDTO tableroOponente);
         void mostrarResultadoDisparo(DisparoDTO disparo);
         void actualizarTurno(boolean miTurno, JugadorDTO jugadorEnTurno);
-        void actualizarTiempoTurno(int tiempoRestante);
+        void iniciarCuentaRegresiva(long limiteLocal);
         void mostrarMensaje(String mensaje);
         void mostrarError(String error);
         void partidaFinalizada(boolean gane, JugadorDTO ganador, EstadisticaDTO misEstadisticas);
@@ -179,6 +179,62 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
         }
     }
 
+    /**
+     * Arranca la cuenta regresiva local a partir del límite absoluto del turno
+     * @param turno Turno recibido del servidor
+     */
+    private void iniciarCuentaRegresiva(TurnoDTO turno) {
+        long limiteLocal = servicioConexion.aRelojLocal(turno.getLimiteTurno());
+        estadoLocal.establecerLimiteTurno(limiteLocal);
+        if (vistaJuego != null) {
+            vistaJuego.iniciarCuentaRegresiva(limiteLocal);
+        }
+    }
+
+    /**
+     * Avisa al servidor que la vista de juego ya está montada y puede recibir el primer turno
+     */
+    public void notificarVistaLista() {
+        try {
+            servicioConexion.enviarMensaje(new MensajeDTO(
+                TipoMensaje.VISTA_LISTA,
+                "Vista de juego lista"
+            ));
+        } catch (Exception e) {
+            System.err.println("[CONTROLADOR_JUEGO] Error al notificar vista lista: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Confirma al servidor la versión de tableros aplicada, para que los siguientes envíos sean solo cambios
+     * @param version Versión aplicada
+     */
+    private void confirmarTableros(int version) {
+        try {
+            servicioConexion.enviarMensaje(new MensajeDTO(
+                TipoMensaje.CONFIRMAR_TABLEROS,
+                "Tableros aplicados",
+                version
+            ));
+        } catch (Exception e) {
+            System.err.println("[CONTROLADOR_JUEGO] Error al confirmar tableros: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pide al servidor los tableros completos cuando un delta no se puede aplicar
+     */
+    private void solicitarTablerosCompletos() {
+        try {
+            servicioConexion.enviarMensaje(new MensajeDTO(
+                TipoMensaje.SOLICITAR_TABLEROS,
+                "Resincronizar tableros"
+            ));
+        } catch (Exception e) {
+            System.err.println("[CONTROLADOR_JUEGO] Error al solicitar tableros: " + e.getMessage());
+        }
+    }
+
     /**
      * Notifica al servidor que el jugador abandona la partida
      */
@@ -199,6 +255,42 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
         }
     }
 
+    /**
+     * Aplica la instantánea de una sesión reanudada como si hubiera llegado
+     * del servidor: primero los tableros y luego el turno con su límite
+     * @param sesion Sesión con la partida en curso
+     */
+    public void reanudarPartida(SesionDTO sesion) {
+        procesarMensaje(new MensajeDTO(
+            TipoMensaje.ACTUALIZAR_TABLEROS,
+            "Tableros al reanudar",
+            sesion.getTableros()
+        ));
+
+        TurnoDTO turno = sesion.getTurno();
+        if (turno != null) {
+            boolean esMiTurno = turno.getJugadorEnTurno().getId().equals(estadoLocal.getJugadorLocal().getId());
+            procesarMensaje(new MensajeDTO(
+                esMiTurno ? TipoMensaje.TURNO_INICIADO : TipoMensaje.CAMBIO_TURNO,
+                "Turno al reanudar",
+                turno
+            ));
+        }
+    }
+
+    /**
+     * Avisa que la partida terminó mientras no había conexión; su resultado ya no llegará
+     */
+    public void partidaTerminadaSinConexion() {
+        System.out.println("[CONTROLADOR_JUEGO] La partida terminó sin conexión");
+        estadoActual = EstadoJuego.FINALIZADO;
+        if (vistaJuego != null) {
+            vistaJuego.mostrarError("La partida terminó mientras no había conexión");
+        } else if (vistaColocacion != null) {
+            vistaColocacion.mostrarError("La partida terminó mientras no había conexión");
+        }
+    }
+
     // Implementación de ICallbackMensaje
 
     @Override
@@ -262,7 +354,8 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 break;
 
             case TURNO_INICIADO:
-                JugadorDTO jugadorEnTurno = (JugadorDTO) mensaje.getDatos();
+                TurnoDTO turno = (TurnoDTO) mensaje.getDatos();
+                JugadorDTO jugadorEnTurno = turno.getJugadorEnTurno();
                 boolean esMiTurno = jugadorEnTurno.getId().equals(estadoLocal.getJugadorLocal().getId());
                 estadoActual = EstadoJuego.EN_JUEGO;
 
@@ -274,10 +367,12 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 if (vistaJuego != null) {
                     vistaJuego.actualizarTurno(esMiTurno, jugadorEnTurno);
                 }
+                iniciarCuentaRegresiva(turno);
                 break;
 
             case CAMBIO_TURNO:
-                JugadorDTO nuevoTurno = (JugadorDTO) mensaje.getDatos();
+                TurnoDTO turnoOponente = (TurnoDTO) mensaje.getDatos();
+                JugadorDTO nuevoTurno = turnoOponente.getJugadorEnTurno();
                 boolean esNuevoMiTurno = nuevoTurno.getId().equals(estadoLocal.getJugadorLocal().getId());
 
                 // Actualizar MODELO
@@ -288,6 +383,7 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 if (vistaJuego != null) {
                     vistaJuego.actualizarTurno(esNuevoMiTurno, nuevoTurno);
                 }
+                iniciarCuentaRegresiva(turnoOponente);
                 break;
 
             case TURNO_TIMEOUT:
@@ -297,18 +393,6 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 }
                 break;
 
-            case ACTUALIZAR_TIEMPO_TURNO:
-                Integer tiempoRestante = (Integer) mensaje.getDatos();
-
-                // Actualizar MODELO
-                estadoLocal.actualizarTiempo(tiempoRestante);
-
-                System.out.println("[CONTROLADOR_JUEGO] Actualización tiempo: " + tiempoRestante + "s");
-                if (vistaJuego != null) {
-                    vistaJuego.actualizarTiempoTurno(tiempoRestante);
-                }
-                break;
-
             case RESULTADO_DISPARO:
                 DisparoDTO disparo = (DisparoDTO) mensaje.getDatos();
                 System.out.println("[CONTROLADOR_JUEGO] Resultado disparo: " + disparo.getResultado());
@@ -360,6 +444,7 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 // Actualizar MODELO
                 if (miTablero != null && tableroOponente != null) {
                     estadoLocal.actualizarTableros(miTablero, tableroOponente);
+                    confirmarTableros(estadoLocal.getVersionTableros());
                 }
 
                 System.out.println("[CONTROLADOR_JUEGO] miTablero: " + (miTablero != null ? "OK" : "NULL"));
@@ -379,6 +464,23 @@ public class ControladorJuego implements ListenerServidor.ICallbackMensaje {
                 System.out.println("[CONTROLADOR_JUEGO] ========== FIN ACTUALIZAR_TABLEROS ==========");
                 break;
 
+            case DELTA_TABLEROS:
+                DeltaTablerosDTO delta = (DeltaTablerosDTO) mensaje.getDatos();
+                System.out.println("[CONTROLADOR_JUEGO] Recibido " + delta + " (local v" + estadoLocal.getVersionTableros() + ")");
+
+                // Actualizar MODELO en su lugar; si la copia local quedó atrás, pedir los tableros completos
+                if (!estadoLocal.aplicarDelta(delta)) {
+                    System.out.println("[CONTROLADOR_JUEGO] Versión desfasada, solicitando tableros completos");
+                    solicitarTablerosCompletos();
+                    break;
+                }
+                confirmarTableros(estadoLocal.getVersionTableros());
+
+                if (vistaJuego != null) {
+                    vistaJuego.actualizarTableros(estadoLocal.getMiTablero(), estadoLocal.getTableroOponente());
+                }
+                break;
+
             case PARTIDA_GANADA:
             case PARTIDA_PERDIDA:
                 Object datosRecibidos = mensaje.getDatos();
@@ -4,7 +4,10 @@ import mx.itson.utils.dtos.*;
 import services.ServicioConexion;
 import services.ListenerServidor;
 import views.FlujoVista;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.SwingUtilities;
 import mx.itson.utils.enums.TipoMensaje;
 
@@ -27,11 +30,22 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
     private ControladorJuego controladorJuego;
     private SolicitudPartidaDTO solicitudActual;
 
+    // Réplica local del lobby; solo se toca desde el EDT
+    private final Map<String, JugadorDTO> jugadoresLobby = new LinkedHashMap<>();
+    private long versionLobby = -1; // -1: todavía no llega la primera lista
+    private boolean resincronizando;
+    private String prefijoFiltro; // null: sin filtro
+    private String siguienteCursor; // null: ya se cargaron todas las páginas
+    private boolean cargandoPagina;
+
     /**
      * Interfaz que debe implementar la vista
      */
     public interface IVistaListaJugadores {
         void actualizarListaJugadores(List<JugadorDTO> jugadores);
+        void agregarJugador(JugadorDTO jugador);
+        void agregarJugadores(List<JugadorDTO> jugadores);
+        void quitarJugador(String idJugador);
         void mostrarMensaje(String mensaje);
         void mostrarError(String error);
         void jugadorSeleccionado(JugadorDTO jugador);
@@ -39,7 +53,11 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
         void mostrarInvitacion(SolicitudPartidaDTO solicitud);
         void partidaAceptada(SolicitudPartidaDTO solicitud);
         void partidaRechazada(String mensaje);
+        void invitacionExpirada(String mensaje);
+        void invitacionCancelada(String mensaje);
         void partidaIniciada(SolicitudPartidaDTO solicitud);
+        void busquedaIniciada();
+        void busquedaCancelada();
     }
 
     /**
@@ -67,7 +85,7 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
         // Solo crear listener si no existe o no está ejecutando
         if (listenerServidor == null || !listenerServidor.isEjecutando()) {
             System.out.println("[CONTROLADOR] Creando nuevo listener");
-            listenerServidor = new ListenerServidor(servicioConexion.getEntrada(), this);
+            listenerServidor = new ListenerServidor(servicioConexion, this);
             listenerServidor.start();
             System.out.println("[CONTROLADOR] Listener iniciado");
         } else {
@@ -79,19 +97,79 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
     }
 
     /**
-     * Solicita la lista de jugadores disponibles al servidor
+     * Solicita la primera página de jugadores disponibles al servidor
      * La respuesta será manejada de forma asíncrona por el ListenerServidor
      */
     public void solicitarListaJugadores() {
+        solicitarPagina(null);
+    }
+
+    /**
+     * Cambia el filtro por prefijo del nombre y vuelve a pedir la primera página
+     * @param prefijo Inicio del nombre a buscar; vacío para quitar el filtro
+     */
+    public void filtrarJugadores(String prefijo) {
+        prefijoFiltro = prefijo == null || prefijo.isBlank() ? null : prefijo.strip();
+        solicitarListaJugadores();
+    }
+
+    /**
+     * Pide la siguiente página del lobby si hay más y no se está esperando otra
+     * La vista lo llama cuando el usuario se acerca al final de la tabla
+     */
+    public void cargarMasJugadores() {
+        if (siguienteCursor == null || cargandoPagina || resincronizando) return;
+        solicitarPagina(siguienteCursor);
+    }
+
+    /**
+     * Envía la consulta de una página del lobby
+     * @param cursor Cursor de la página anterior, o null para la primera
+     */
+    private void solicitarPagina(String cursor) {
         try {
-            System.out.println("[CONTROLADOR] Solicitando lista de jugadores...");
-            servicioConexion.solicitarJugadores();
+            System.out.println("[CONTROLADOR] Solicitando " + (cursor == null ? "lista" : "más") + " jugadores...");
+            cargandoPagina = true;
+            servicioConexion.solicitarJugadores(new ConsultaJugadoresDTO(
+                    prefijoFiltro, cursor, ConsultaJugadoresDTO.TAMANIO_PAGINA_POR_DEFECTO));
         } catch (Exception e) {
+            cargandoPagina = false;
             System.err.println("[CONTROLADOR] Error al solicitar jugadores: " + e.getMessage());
             vista.mostrarError("Error al obtener lista de jugadores: " + e.getMessage());
         }
     }
 
+    /**
+     * Entra a la cola de emparejamiento automático del servidor
+     * Cuando encuentra rival, el servidor envía PARTIDA_INICIADA y COLOCAR_NAVES
+     * igual que al aceptar una invitación
+     */
+    public void buscarPartida() {
+        try {
+            System.out.println("[CONTROLADOR] Buscando partida automática...");
+            servicioConexion.enviarMensaje(new MensajeDTO(
+                TipoMensaje.BUSCAR_PARTIDA,
+                "Buscar partida"
+            ));
+        } catch (Exception e) {
+            vista.mostrarError("Error al buscar partida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sale de la cola de emparejamiento automático
+     */
+    public void cancelarBusqueda() {
+        try {
+            servicioConexion.enviarMensaje(new MensajeDTO(
+                TipoMensaje.CANCELAR_BUSQUEDA,
+                "Cancelar búsqueda"
+            ));
+        } catch (Exception e) {
+            vista.mostrarError("Error al cancelar la búsqueda: " + e.getMessage());
+        }
+    }
+
     /**
      * Maneja la selección de un jugador y envía solicitud de partida
      * @param jugadorSeleccionado Jugador seleccionado como oponente
@@ -126,12 +204,15 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
 
     /**
      * Acepta una invitación de partida
+     * Con varias invitaciones recibidas, el servidor necesita saber cuál se acepta
+     * @param invitacion Invitación que se acepta
      */
-    public void aceptarInvitacion() {
+    public void aceptarInvitacion(SolicitudPartidaDTO invitacion) {
         try {
             MensajeDTO mensaje = new MensajeDTO(
                 TipoMensaje.ACEPTAR_PARTIDA,
-                "Aceptar invitación"
+                "Aceptar invitación",
+                invitacion
             );
             servicioConexion.enviarMensaje(mensaje);
         } catch (Exception e) {
@@ -141,12 +222,14 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
 
     /**
      * Rechaza una invitación de partida
+     * @param invitacion Invitación que se rechaza
      */
-    public void rechazarInvitacion() {
+    public void rechazarInvitacion(SolicitudPartidaDTO invitacion) {
         try {
             MensajeDTO mensaje = new MensajeDTO(
                 TipoMensaje.RECHAZAR_PARTIDA,
-                "Rechazar invitación"
+                "Rechazar invitación",
+                invitacion
             );
             servicioConexion.enviarMensaje(mensaje);
         } catch (Exception e) {
@@ -163,6 +246,11 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
 
     @Override
     public void onError(Exception e) {
+        // Si hay sesión, onDesconexion intentará reanudarla antes de molestar al usuario
+        if (servicioConexion.tieneSesion()) {
+            System.err.println("[CONTROLADOR] Error de conexión: " + e.getMessage());
+            return;
+        }
         SwingUtilities.invokeLater(() -> {
             vista.mostrarError("Error de conexión: " + e.getMessage());
         });
@@ -170,11 +258,39 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
 
     @Override
     public void onDesconexion() {
+        // Se llama desde el thread del listener, así que los reintentos no congelan la interfaz
+        if (listenerServidor != null && listenerServidor.isEjecutando() && servicioConexion.tieneSesion()) {
+            MensajeDTO respuesta = servicioConexion.reanudarSesion();
+            if (respuesta != null && respuesta.getTipo() == TipoMensaje.SESION_REANUDADA) {
+                listenerServidor = new ListenerServidor(servicioConexion, this);
+                listenerServidor.start();
+                SwingUtilities.invokeLater(() -> aplicarSesionReanudada((SesionDTO) respuesta.getDatos()));
+                return;
+            }
+        }
         SwingUtilities.invokeLater(() -> {
             vista.mostrarError("Se perdió la conexión con el servidor");
         });
     }
 
+    /**
+     * Retoma el estado tras reanudar la sesión: la partida en curso si
+     * sigue, y el lobby desde cero porque los cambios intermedios se perdieron
+     * @param sesion Sesión reanudada
+     */
+    private void aplicarSesionReanudada(SesionDTO sesion) {
+        System.out.println("[CONTROLADOR] Sesión reanudada: " + sesion);
+        if (controladorJuego != null) {
+            if (sesion.tienePartida() && sesion.getIdPartida().equals(controladorJuego.getIdPartida())) {
+                controladorJuego.reanudarPartida(sesion);
+                return;
+            }
+            controladorJuego.partidaTerminadaSinConexion();
+        }
+        versionLobby = -1;
+        solicitarListaJugadores();
+    }
+
     /**
      * Procesa mensajes recibidos del servidor
      * @param mensaje Mensaje a procesar
@@ -191,9 +307,9 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
                 case TURNO_INICIADO:
                 case CAMBIO_TURNO:
                 case TURNO_TIMEOUT:
-                case ACTUALIZAR_TIEMPO_TURNO:
                 case RESULTADO_DISPARO:
                 case ACTUALIZAR_TABLEROS:
+                case DELTA_TABLEROS:
                 case PARTIDA_GANADA:
                 case PARTIDA_PERDIDA:
                 case PARTIDA_FINALIZADA:
@@ -206,9 +322,11 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
 
         switch (mensaje.getTipo()) {
             case LISTA_JUGADORES:
-                @SuppressWarnings("unchecked")
-                List<JugadorDTO> jugadores = (List<JugadorDTO>) mensaje.getDatos();
-                vista.actualizarListaJugadores(jugadores);
+                aplicarListaJugadores((ListaJugadoresDTO) mensaje.getDatos());
+                break;
+
+            case CAMBIOS_LOBBY:
+                aplicarLoteLobby((LoteLobbyDTO) mensaje.getDatos());
                 break;
 
             case SIN_JUGADORES_DISPONIBLES:
@@ -234,6 +352,22 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
                 vista.partidaRechazada(mensaje.getContenido());
                 break;
 
+            case SOLICITUD_EXPIRADA:
+                vista.invitacionExpirada(mensaje.getContenido());
+                break;
+
+            case SOLICITUD_CANCELADA:
+                vista.invitacionCancelada(mensaje.getContenido());
+                break;
+
+            case BUSCAR_PARTIDA:
+                vista.busquedaIniciada();
+                break;
+
+            case CANCELAR_BUSQUEDA:
+                vista.busquedaCancelada();
+                break;
+
             case PARTIDA_INICIADA:
                 SolicitudPartidaDTO partidaIniciada = (SolicitudPartidaDTO) mensaje.getDatos();
                 solicitudActual = partidaIniciada;
@@ -258,6 +392,74 @@ public class ControladorListaJugadores implements ListenerServidor.ICallbackMens
         }
     }
 
+    /**
+     * Aplica una página del lobby enviada por el servidor
+     * La primera página reemplaza la réplica y su versión; una continuación
+     * solo agrega jugadores, porque los lotes siguientes ya la cubren
+     * @param lista Jugadores de la página, versión y cursor de la siguiente
+     */
+    private void aplicarListaJugadores(ListaJugadoresDTO lista) {
+        cargandoPagina = false;
+        if (lista.isContinuacion() && versionLobby < 0) return;
+
+        siguienteCursor = lista.getSiguienteCursor();
+        List<JugadorDTO> pagina = new ArrayList<>(lista.getJugadores().size());
+        for (JugadorDTO jugador : lista.getJugadores()) {
+            if (!jugador.getId().equals(jugadorLocal.getId())) {
+                pagina.add(jugador);
+            }
+        }
+
+        if (lista.isContinuacion()) {
+            for (JugadorDTO jugador : pagina) {
+                jugadoresLobby.put(jugador.getId(), jugador);
+            }
+            vista.agregarJugadores(pagina);
+            return;
+        }
+
+        jugadoresLobby.clear();
+        for (JugadorDTO jugador : pagina) {
+            jugadoresLobby.put(jugador.getId(), jugador);
+        }
+        versionLobby = lista.getVersion();
+        resincronizando = false;
+        vista.actualizarListaJugadores(pagina);
+    }
+
+    /**
+     * Aplica un lote de cambios de presencia si parte de una versión que ya se tiene
+     * Los lotes ya incluidos en la última lista se ignoran; si falta alguno,
+     * se pide la lista completa otra vez
+     * @param lote Cambios acumulados por el servidor en una ventana
+     */
+    private void aplicarLoteLobby(LoteLobbyDTO lote) {
+        if (versionLobby < 0 || lote.getVersion() <= versionLobby) return;
+
+        if (lote.getVersionBase() > versionLobby) {
+            if (!resincronizando) {
+                System.out.println("[CONTROLADOR] Faltan cambios del lobby (local " + versionLobby
+                        + ", lote desde " + lote.getVersionBase() + "), solicitando lista completa");
+                resincronizando = true;
+                solicitarListaJugadores();
+            }
+            return;
+        }
+
+        versionLobby = lote.getVersion();
+        for (CambioLobbyDTO cambio : lote.getCambios()) {
+            JugadorDTO jugador = cambio.getJugador();
+            if (jugador.getId().equals(jugadorLocal.getId())) continue;
+
+            if (cambio.getTipo() == TipoMensaje.JUGADOR_ENTRA) {
+                jugadoresLobby.put(jugador.getId(), jugador);
+                vista.agregarJugador(jugador);
+            } else if (jugadoresLobby.remove(jugador.getId()) != null) {
+                vista.quitarJugador(jugador.getId());
+            }
+        }
+    }
+
     /**
      * Detiene el listener
      */
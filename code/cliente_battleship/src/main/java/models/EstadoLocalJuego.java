@@ -1,6 +1,7 @@
 package models;
 
 import mx.itson.utils.dtos.*;
+import mx.itson.utils.enums.EstadoNave;
 import java.util.ArrayList;
 import java.util.List;
 import patterns.observer.IObserver;
@@ -29,8 +30,9 @@ public class EstadoLocalJuego implements ISubject {
     private TableroDTO miTablero;
     private TableroDTO tableroOponente;
     private boolean miTurno;
-    private int tiempoRestante;
+    private long limiteTurno; // Instante en que vence el turno, en el reloj local
     private String idPartida;
+    private int versionTableros;
 
     // Patrón Observer
     private final List<IObserver> observadores;
@@ -45,7 +47,7 @@ public class EstadoLocalJuego implements ISubject {
         this.oponente = oponente;
         this.observadores = new ArrayList<>();
         this.miTurno = false;
-        this.tiempoRestante = 30;
+        this.versionTableros = -1;
     }
 
     /**
@@ -69,9 +71,83 @@ public class EstadoLocalJuego implements ISubject {
     public void actualizarTableros(TableroDTO miTablero, TableroDTO tableroOponente) {
         this.miTablero = miTablero;
         this.tableroOponente = tableroOponente;
+        this.versionTableros = miTablero.getVersion();
         notificarObservadores("TABLEROS_ACTUALIZADOS");
     }
 
+    /**
+     * Aplica sobre los tableros locales los cambios enviados por el servidor
+     * @param delta Cambios desde la versión base del delta
+     * @return false si la copia local es anterior a la versión base y hay que pedir los tableros completos
+     */
+    public boolean aplicarDelta(DeltaTablerosDTO delta) {
+        if (miTablero == null || tableroOponente == null || delta.getVersionBase() > versionTableros) {
+            return false;
+        }
+        if (delta.getVersion() <= versionTableros) {
+            return true; // Ya aplicado
+        }
+
+        for (CambioCasillaDTO cambio : delta.getCasillas()) {
+            TableroDTO tablero = tableroDe(cambio.getIdJugador());
+            if (tablero != null) {
+                tablero.getCasillas()[cambio.getX()][cambio.getY()] = cambio.getEstado();
+            }
+        }
+
+        for (CambioNaveDTO cambio : delta.getNaves()) {
+            TableroDTO tablero = tableroDe(cambio.getIdJugador());
+            if (tablero != null && cambio.getNave() != null) {
+                // Nave del oponente que se acaba de hundir: el servidor la revela completa
+                revelarNave(tablero, cambio.getNave());
+                continue;
+            }
+            if (tablero == null || cambio.getIndice() >= tablero.getNaves().size()) {
+                return false;
+            }
+            NaveDTO nave = tablero.getNaves().get(cambio.getIndice());
+            nave.setEstado(cambio.getEstado());
+            nave.setImpactosRecibidos(cambio.getImpactosRecibidos());
+        }
+        if (!delta.getNaves().isEmpty()) {
+            contarHundidas(miTablero);
+            contarHundidas(tableroOponente);
+        }
+
+        versionTableros = delta.getVersion();
+        miTablero.setVersion(versionTableros);
+        tableroOponente.setVersion(versionTableros);
+        notificarObservadores("TABLEROS_ACTUALIZADOS");
+        return true;
+    }
+
+    private void revelarNave(TableroDTO tablero, NaveDTO nave) {
+        CoordenadaDTO inicio = nave.getCoordenadas()[0];
+        for (NaveDTO conocida : tablero.getNaves()) {
+            CoordenadaDTO otra = conocida.getCoordenadas()[0];
+            if (otra.getX() == inicio.getX() && otra.getY() == inicio.getY()) {
+                conocida.setEstado(nave.getEstado());
+                conocida.setImpactosRecibidos(nave.getImpactosRecibidos());
+                return;
+            }
+        }
+        tablero.getNaves().add(nave);
+    }
+
+    private TableroDTO tableroDe(String idJugador) {
+        if (idJugador.equals(miTablero.getIdJugador())) return miTablero;
+        if (idJugador.equals(tableroOponente.getIdJugador())) return tableroOponente;
+        return null;
+    }
+
+    private void contarHundidas(TableroDTO tablero) {
+        int hundidas = 0;
+        for (NaveDTO nave : tablero.getNaves()) {
+            if (nave.getEstado() == EstadoNave.HUNDIDA) hundidas++;
+        }
+        tablero.setNavesHundidas(hundidas);
+    }
+
     /**
      * Cambia el turno del juego
      * @param esMiTurno true si es el turno del jugador local
@@ -91,12 +167,12 @@ public class EstadoLocalJuego implements ISubject {
     }
 
     /**
-     * Actualiza el tiempo restante del turno
-     * @param segundos Segundos restantes
+     * Establece el límite del turno actual
+     * @param limiteLocal Instante en que vence el turno, ya convertido al reloj local
      */
-    public void actualizarTiempo(int segundos) {
-        this.tiempoRestante = segundos;
-        notificarObservadores("TIEMPO_ACTUALIZADO", String.valueOf(segundos));
+    public void establecerLimiteTurno(long limiteLocal) {
+        this.limiteTurno = limiteLocal;
+        notificarObservadores("TIEMPO_ACTUALIZADO", String.valueOf(getTiempoRestante()));
     }
 
     /**
@@ -136,10 +212,12 @@ public class EstadoLocalJuego implements ISubject {
 
     public boolean isMiTurno() {return miTurno;}
 
-    public int getTiempoRestante() {return tiempoRestante;}
+    public int getTiempoRestante() {return (int) Math.max(0, (limiteTurno - System.currentTimeMillis() + 999) / 1000);}
 
     public String getIdPartida() {return idPartida;}
 
+    public int getVersionTableros() {return versionTableros;}
+
     public void setIdPartida(String idPartida) {this.idPartida = idPartida;}
 
     // ========== IMPLEMENTACIÓN DE ISubject (Patrón Observer) ==========
@@ -1,11 +1,14 @@
 package services;
 
 import mx.itson.utils.dtos.MensajeDTO;
-import java.io.ObjectInputStream;
+import mx.itson.utils.enums.TipoMensaje;
+import mx.itson.utils.protocolo.IConexionMensajes;
 
 /**
  * Thread que escucha mensajes del servidor en segundo plano
  * Permite recibir notificaciones asíncronas del servidor
+ * Los PING del servidor se contestan aquí mismo, sin pasar por el callback
+ * ni por el EDT, para que una vista ocupada no haga parecer muerta la conexión
  *
  * @author Leonardo Flores Leyva ID: 00000252390
  * @author Yuri Germán García López ID: 00000252583
@@ -17,7 +20,8 @@ public class ListenerServidor extends Thread {
 
     private static int contadorInstancias = 0;
     private final int idInstancia;
-    private final ObjectInputStream entrada;
+    private final ServicioConexion servicioConexion;
+    private final IConexionMensajes conexion;
     private final ICallbackMensaje callback;
     private volatile boolean ejecutando;
 
@@ -32,13 +36,14 @@ public class ListenerServidor extends Thread {
 
     /**
      * Constructor
-     * @param entrada Stream de entrada del servidor
+     * @param servicioConexion Servicio con la conexión al servidor; por él se contestan los latidos
      * @param callback Callback para procesar mensajes
      */
-    public ListenerServidor(ObjectInputStream entrada, ICallbackMensaje callback) {
+    public ListenerServidor(ServicioConexion servicioConexion, ICallbackMensaje callback) {
         super("ListenerServidor");
         this.idInstancia = ++contadorInstancias;
-        this.entrada = entrada;
+        this.servicioConexion = servicioConexion;
+        this.conexion = servicioConexion.getConexion();
         this.callback = callback;
         this.ejecutando = true;
         setDaemon(true); // Thread daemon para que no impida el cierre de la app
@@ -53,21 +58,13 @@ public class ListenerServidor extends Thread {
             while (ejecutando) {
                 // Leer mensaje del servidor
                 System.out.println("[LISTENER #" + idInstancia + "] Esperando mensaje...");
-                Object objetoRecibido = entrada.readObject();
+                MensajeDTO mensaje = conexion.recibir();
 
-                System.out.println("[LISTENER #" + idInstancia + "] Objeto recibido - Tipo: " +
-                    (objetoRecibido != null ? objetoRecibido.getClass().getName() : "null"));
-
-                if (!(objetoRecibido instanceof MensajeDTO)) {
-                    System.err.println("[LISTENER #" + idInstancia + "] ERROR: Se esperaba MensajeDTO pero se recibió: " +
-                        objetoRecibido.getClass().getName());
-                    System.err.println("[LISTENER #" + idInstancia + "] Contenido: " + objetoRecibido);
-                    throw new ClassCastException("Se esperaba MensajeDTO pero se recibió " +
-                        objetoRecibido.getClass().getName());
+                if (mensaje.getTipo() == TipoMensaje.PING) {
+                    servicioConexion.responderLatido(mensaje);
+                    continue;
                 }
 
-                MensajeDTO mensaje = (MensajeDTO) objetoRecibido;
-
                 System.out.println("[LISTENER #" + idInstancia + "] Mensaje recibido: " + mensaje.getTipo());
 
                 // Notificar al callback
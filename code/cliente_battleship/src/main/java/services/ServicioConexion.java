@@ -5,6 +5,10 @@ import java.io.*;
 import java.net.*;
 import java.awt.Color;
 import mx.itson.utils.enums.TipoMensaje;
+import mx.itson.utils.protocolo.ConexionObjetos;
+import mx.itson.utils.protocolo.FormatoMensajes;
+import mx.itson.utils.protocolo.IConexionMensajes;
+import mx.itson.utils.protocolo.NegociacionProtocolo;
 
 /**
  * Servicio que maneja la conexión con el servidor
@@ -23,13 +27,17 @@ public class ServicioConexion {
     private static final int MAX_INTENTOS_DISCOVERY = 3; // Número máximo de intentos
     private static final int DELAY_ENTRE_INTENTOS = 1000; // 1 segundo entre intentos
     private static final String MENSAJE_DISCOVERY = "BATTLESHIP_DISCOVERY";
+    private static final String PROTOCOLO_MARCOS = "MARCOS";
+    private static final int MAX_INTENTOS_REANUDAR = 5; // Intentos de reconexión tras perder la conexión
 
     private Socket socketTCP;
-    private ObjectOutputStream salida;
-    private ObjectInputStream entrada;
+    private IConexionMensajes conexion;
     private String ipServidor;
     private int puertoTCP;
+    private boolean negociarFormato;
     private JugadorDTO jugadorLocal;
+    private String tokenSesion; // Token para reanudar la sesión si se cae la conexión
+    private long desfaseReloj; // Reloj del servidor menos reloj local, en milisegundos
 
     /**
      * Descubre el servidor mediante broadcast UDP con reintentos automáticos
@@ -68,12 +76,13 @@ public class ServicioConexion {
                 String respuesta = new String(paqueteRespuesta.getData(), 0, paqueteRespuesta.getLength()).trim();
                 System.out.println("[CLIENTE] Respuesta recibida: " + respuesta);
 
-                // Parsear respuesta: "BATTLESHIP_SERVER:<IP>:<PUERTO>"
+                // Parsear respuesta: "BATTLESHIP_SERVER:<IP>:<PUERTO>[:MARCOS]"
                 if (respuesta.startsWith("BATTLESHIP_SERVER:")) {
                     String[] partes = respuesta.split(":");
-                    if (partes.length == 3) {
+                    if (partes.length == 3 || partes.length == 4) {
                         ipServidor = partes[1];
                         puertoTCP = Integer.parseInt(partes[2]);
+                        negociarFormato = partes.length == 4 && PROTOCOLO_MARCOS.equals(partes[3]);
                         System.out.println("[CLIENTE] Servidor encontrado en " + ipServidor + ":" + puertoTCP);
                         return true;
                     }
@@ -114,12 +123,16 @@ public class ServicioConexion {
             System.out.println("[CLIENTE] Conectando a " + ipServidor + ":" + puertoTCP);
             socketTCP = new Socket(ipServidor, puertoTCP);
 
-            // Configurar streams
-            salida = new ObjectOutputStream(socketTCP.getOutputStream());
-            salida.flush();
-            entrada = new ObjectInputStream(socketTCP.getInputStream());
+            // Negociar el formato si el servidor lo anuncia; si no, ObjectStream como antes
+            if (negociarFormato) {
+                conexion = NegociacionProtocolo.negociarCliente(socketTCP.getInputStream(), socketTCP.getOutputStream(),
+                        FormatoMensajes.BINARIO, FormatoMensajes.SERIALIZADO);
+            } else {
+                conexion = new ConexionObjetos(socketTCP.getInputStream(), socketTCP.getOutputStream());
+            }
 
-            System.out.println("[CLIENTE] Conexión TCP establecida");
+            System.out.println("[CLIENTE] Conexión TCP establecida" + (negociarFormato ? " (formato negociado)" : ""));
+            sincronizarReloj();
             return true;
 
         } catch (IOException e) {
@@ -128,6 +141,51 @@ public class ServicioConexion {
         }
     }
 
+    /**
+     * Mide el desfase entre el reloj del servidor y el local con un solo intercambio.
+     * Se toma la hora del servidor como la del punto medio del viaje de ida y vuelta.
+     * Si falla, el desfase queda en 0 y la cuenta regresiva usa el reloj local.
+     */
+    private void sincronizarReloj() {
+        try {
+            long envio = System.currentTimeMillis();
+            conexion.enviar(new MensajeDTO(TipoMensaje.SINCRONIZAR_RELOJ, "Hora del servidor"));
+            MensajeDTO respuesta = recibirRespuesta();
+            long recepcion = System.currentTimeMillis();
+
+            if (respuesta.getTipo() == TipoMensaje.SINCRONIZAR_RELOJ && respuesta.getDatos() instanceof Long horaServidor) {
+                desfaseReloj = horaServidor - (envio + recepcion) / 2;
+                System.out.println("[CLIENTE] Desfase con el reloj del servidor: " + desfaseReloj + " ms (ida y vuelta " +
+                        (recepcion - envio) + " ms)");
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("[CLIENTE] No se pudo sincronizar el reloj: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Espera la respuesta a una petición síncrona (antes de que exista el ListenerServidor),
+     * contestando los latidos que el servidor envíe mientras tanto
+     * @return Primer mensaje que no es un PING
+     */
+    private MensajeDTO recibirRespuesta() throws IOException, ClassNotFoundException {
+        MensajeDTO mensaje = conexion.recibir();
+        while (mensaje.getTipo() == TipoMensaje.PING) {
+            responderLatido(mensaje);
+            mensaje = conexion.recibir();
+        }
+        return mensaje;
+    }
+
+    /**
+     * Contesta un PING del servidor con un PONG que lleva los mismos datos
+     * @param ping Latido recibido
+     * @throws IOException si hay error al enviar
+     */
+    public void responderLatido(MensajeDTO ping) throws IOException {
+        enviarMensaje(new MensajeDTO(TipoMensaje.PONG, "Latido", ping.getDatos()));
+    }
+
     /**
      * Registra un jugador en el servidor
      * @param nombre Nombre del jugador
@@ -148,22 +206,95 @@ public class ServicioConexion {
 
         // Enviar mensaje
         System.out.println("[CLIENTE] Enviando registro: " + nombre);
-        salida.writeObject(mensaje);
-        salida.flush();
+        conexion.enviar(mensaje);
 
         // Esperar respuesta
-        MensajeDTO respuesta = (MensajeDTO) entrada.readObject();
+        MensajeDTO respuesta = recibirRespuesta();
         System.out.println("[CLIENTE] Respuesta recibida: " + respuesta.getTipo());
 
-        // Si el registro fue exitoso, guardar el jugador
+        // Si el registro fue exitoso, guardar el jugador y su sesión
         if (respuesta.getTipo() == TipoMensaje.REGISTRO_EXITOSO) {
-            jugadorLocal = (JugadorDTO) respuesta.getDatos();
+            if (respuesta.getDatos() instanceof SesionDTO sesion) {
+                jugadorLocal = sesion.getJugador();
+                tokenSesion = sesion.getToken();
+            } else {
+                jugadorLocal = (JugadorDTO) respuesta.getDatos();
+            }
             System.out.println("[CLIENTE] Jugador registrado con ID: " + jugadorLocal.getId());
         }
 
         return respuesta;
     }
 
+    /**
+     * @return true si el servidor entregó un token con el que se puede reanudar la sesión
+     */
+    public boolean tieneSesion() {
+        return tokenSesion != null;
+    }
+
+    /**
+     * Vuelve a conectarse al mismo servidor y reanuda la sesión con el token del registro
+     * Se bloquea mientras reintenta, así que no debe llamarse desde el EDT.
+     * Los mensajes que lleguen antes de la respuesta se descartan: la
+     * instantánea de SESION_REANUDADA ya trae el estado vigente
+     * @return SESION_REANUDADA con la sesión, SESION_EXPIRADA, o null si no se pudo conectar
+     */
+    public MensajeDTO reanudarSesion() {
+        cerrarSilenciosamente();
+
+        for (int intento = 1; intento <= MAX_INTENTOS_REANUDAR && tokenSesion != null; intento++) {
+            System.out.println("[CLIENTE] Reanudando sesión, intento " + intento + " de " + MAX_INTENTOS_REANUDAR);
+            if (conectarServidor()) {
+                try {
+                    enviarMensaje(new MensajeDTO(TipoMensaje.REANUDAR_SESION, "Reanudar sesión", tokenSesion));
+                    MensajeDTO respuesta = recibirRespuesta();
+                    while (respuesta.getTipo() != TipoMensaje.SESION_REANUDADA
+                            && respuesta.getTipo() != TipoMensaje.SESION_EXPIRADA
+                            && respuesta.getTipo() != TipoMensaje.ERROR) {
+                        respuesta = recibirRespuesta();
+                    }
+
+                    if (respuesta.getTipo() == TipoMensaje.SESION_REANUDADA && respuesta.getDatos() instanceof SesionDTO sesion) {
+                        jugadorLocal = sesion.getJugador();
+                        // Cada reanudación canjea el token; el anterior ya no sirve
+                        tokenSesion = sesion.getToken();
+                        System.out.println("[CLIENTE] Sesión reanudada: " + sesion);
+                        return respuesta;
+                    }
+                    // El servidor ya no guarda el lugar; reintentar no cambiaría la respuesta
+                    tokenSesion = null;
+                    cerrarSilenciosamente();
+                    return respuesta;
+                } catch (IOException | ClassNotFoundException e) {
+                    System.err.println("[CLIENTE] Error al reanudar la sesión: " + e.getMessage());
+                    cerrarSilenciosamente();
+                }
+            }
+
+            try {
+                Thread.sleep(DELAY_ENTRE_INTENTOS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cierra la conexión actual sin avisar al servidor, para que este
+     * conserve el lugar del jugador durante la gracia
+     */
+    private void cerrarSilenciosamente() {
+        try {
+            if (conexion != null) conexion.cerrar();
+            if (socketTCP != null) socketTCP.close();
+        } catch (IOException e) {
+            System.err.println("[CLIENTE] Error al cerrar la conexión: " + e.getMessage());
+        }
+    }
+
     /**
      * Solicita la lista de jugadores disponibles
      * La respuesta será manejada por el ListenerServidor de forma asíncrona
@@ -175,27 +306,42 @@ public class ServicioConexion {
             "Solicitud de jugadores disponibles"
         );
 
-        salida.writeObject(mensaje);
-        salida.flush();
+        enviarMensaje(mensaje);
+    }
+
+    /**
+     * Solicita una página de la lista de jugadores disponibles
+     * La respuesta será manejada por el ListenerServidor de forma asíncrona
+     * @param consulta Prefijo del nombre, cursor de la página anterior y tamaño de página
+     * @throws IOException si hay error en la comunicación
+     */
+    public void solicitarJugadores(ConsultaJugadoresDTO consulta) throws IOException {
+        MensajeDTO mensaje = new MensajeDTO(
+            TipoMensaje.SOLICITAR_JUGADORES,
+            "Solicitud de jugadores disponibles",
+            consulta
+        );
+
+        enviarMensaje(mensaje);
     }
 
     /**
      * Desconecta del servidor
      */
     public void desconectar() {
+        tokenSesion = null; // Una salida voluntaria no se reanuda
         try {
-            if (salida != null && socketTCP != null && !socketTCP.isClosed()) {
+            if (conexion != null && socketTCP != null && !socketTCP.isClosed()) {
                 // Enviar mensaje de desconexión
                 MensajeDTO mensaje = new MensajeDTO(
                     TipoMensaje.DESCONEXION,
                     "Desconexión del cliente"
                 );
-                salida.writeObject(mensaje);
-                salida.flush();
+                // Por enviarMensaje para no intercalarse con un PONG del ListenerServidor
+                enviarMensaje(mensaje);
             }
 
-            if (entrada != null) entrada.close();
-            if (salida != null) salida.close();
+            if (conexion != null) conexion.cerrar();
             if (socketTCP != null) socketTCP.close();
 
             System.out.println("[CLIENTE] Desconectado del servidor");
@@ -222,11 +368,20 @@ public class ServicioConexion {
     }
 
     /**
-     * Obtiene el ObjectInputStream para recibir mensajes
-     * @return ObjectInputStream
+     * Convierte un instante del reloj del servidor al reloj local
+     * @param instanteServidor Milisegundos de época según el servidor
+     * @return El mismo instante según el reloj local
+     */
+    public long aRelojLocal(long instanteServidor) {
+        return instanteServidor - desfaseReloj;
+    }
+
+    /**
+     * Obtiene la conexión para recibir mensajes
+     * @return Conexión con el servidor
      */
-    public ObjectInputStream getEntrada() {
-        return entrada;
+    public IConexionMensajes getConexion() {
+        return conexion;
     }
 
     /**
@@ -234,10 +389,9 @@ public class ServicioConexion {
      * @param mensaje Mensaje a enviar
      * @throws IOException si hay error al enviar
      */
-    public void enviarMensaje(MensajeDTO mensaje) throws IOException {
-        if (salida != null) {
-            salida.writeObject(mensaje);
-            salida.flush();
+    public synchronized void enviarMensaje(MensajeDTO mensaje) throws IOException {
+        if (conexion != null) {
+            conexion.enviar(mensaje);
         }
     }
 }
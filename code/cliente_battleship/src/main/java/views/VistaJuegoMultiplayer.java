@@ -45,6 +45,11 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
     private JLabel lblTurno;
     private JLabel lblTiempo;
     private JTextArea txtLog;
+
+    // Cuenta regresiva local del turno: se recalcula contra el límite, no se decrementa
+    private javax.swing.Timer relojTurno;
+    private long limiteTurnoLocal;
+    private int ultimoSegundoMostrado = -1;
     private JButton[][] botonesTableroPropio;
     private JButton[][] botonesTableroOponente;
     private JButton btnAbandonar;
@@ -107,6 +112,8 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
         inicializarComponentes();
         log("¡Batalla iniciada!");
         log("Esperando asignación de turno...");
+
+        controlador.notificarVistaLista();
     }
     
     /**
@@ -739,8 +746,6 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
                 lblTurno.setForeground(Color.GRAY);
                 bloquearOponente(true);
             }
-            // Resetear el label del tiempo cuando cambia el turno
-            actualizarTiempoTurno(30);
         });
     }
     
@@ -756,21 +761,53 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
     }
 
     @Override
-    public void actualizarTiempoTurno(int tiempoRestante) {
+    public void iniciarCuentaRegresiva(long limiteLocal) {
         SwingUtilities.invokeLater(() -> {
-            lblTiempo.setText("⏱️ Tiempo: " + tiempoRestante + "s");
-
-            // Cambiar color según el tiempo restante
-            if (tiempoRestante <= 10) {
-                lblTiempo.setForeground(Color.RED);
-            } else if (tiempoRestante <= 20) {
-                lblTiempo.setForeground(new Color(255, 165, 0)); // Naranja
-            } else {
-                lblTiempo.setForeground(new Color(0, 150, 0)); // Verde
+            limiteTurnoLocal = limiteLocal;
+            ultimoSegundoMostrado = -1;
+            if (relojTurno == null) {
+                relojTurno = new javax.swing.Timer(250, e -> refrescarCuentaRegresiva());
             }
+            refrescarCuentaRegresiva();
+            relojTurno.restart();
         });
     }
 
+    /**
+     * Recalcula los segundos que faltan para el límite del turno y actualiza la etiqueta
+     * solo cuando cambia el segundo. Se ejecuta en el EDT.
+     */
+    private void refrescarCuentaRegresiva() {
+        long restanteMs = limiteTurnoLocal - System.currentTimeMillis();
+        int tiempoRestante = (int) Math.max(0, (restanteMs + 999) / 1000);
+        if (tiempoRestante != ultimoSegundoMostrado) {
+            ultimoSegundoMostrado = tiempoRestante;
+            mostrarTiempoTurno(tiempoRestante);
+        }
+        if (tiempoRestante == 0) {
+            relojTurno.stop();
+        }
+    }
+
+    private void detenerCuentaRegresiva() {
+        SwingUtilities.invokeLater(() -> {
+            if (relojTurno != null) relojTurno.stop();
+        });
+    }
+
+    private void mostrarTiempoTurno(int tiempoRestante) {
+        lblTiempo.setText("⏱️ Tiempo: " + tiempoRestante + "s");
+
+        // Cambiar color según el tiempo restante
+        if (tiempoRestante <= 10) {
+            lblTiempo.setForeground(Color.RED);
+        } else if (tiempoRestante <= 20) {
+            lblTiempo.setForeground(new Color(255, 165, 0)); // Naranja
+        } else {
+            lblTiempo.setForeground(new Color(0, 150, 0)); // Verde
+        }
+    }
+
     @Override public void mostrarMensaje(String mensaje) { log("INFO: " + mensaje); }
 
     @Override
@@ -783,6 +820,7 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
     
     @Override
     public void partidaFinalizada(boolean gane, JugadorDTO ganador, EstadisticaDTO misEstadisticas) {
+        detenerCuentaRegresiva();
         SwingUtilities.invokeLater(() -> {
             EstadisticaDTO statsFinales = misEstadisticas;
 
@@ -845,6 +883,7 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
 
     @Override
     public void partidaAbandonada(String nombreAbandonador) {
+        detenerCuentaRegresiva();
         SwingUtilities.invokeLater(() -> {
             String titulo = "Partida Abandonada";
             String mensaje = nombreAbandonador + " ha abandonado la partida.";
@@ -931,8 +970,7 @@ public class VistaJuegoMultiplayer extends JPanel implements ControladorJuego.IV
                     break;
 
                 case "TIEMPO_ACTUALIZADO":
-                    // El tiempo se actualiza automáticamente por el controlador
-                    // Aquí podríamos agregar efectos visuales adicionales
+                    // La cuenta regresiva la lleva el reloj de la vista a partir del límite
                     break;
 
                 case "TABLEROS_ACTUALIZADOS":
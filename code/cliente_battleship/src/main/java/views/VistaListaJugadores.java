@@ -7,7 +7,9 @@ import mx.itson.utils.dtos.SolicitudPartidaDTO;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Vista que muestra la lista de jugadores disponibles para jugar
@@ -31,10 +33,16 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
     private DefaultTableModel modeloTabla;
     private JButton btnSeleccionar;
     private JButton btnRefrescar;
+    private JButton btnBuscarPartida;
+    private boolean buscandoPartida;
     private JPanel panelSuperior;
     private JPanel panelCentro;
     private JPanel panelInferior;
     private JScrollPane scrollPane;
+    private JTextField txtBuscar;
+
+    /** Distancia al final de la tabla, en pixeles, a la que se pide la siguiente página */
+    private static final int UMBRAL_SIGUIENTE_PAGINA = 140;
 
     /**
      * Constructor
@@ -98,12 +106,34 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
         tablaJugadores.getTableHeader().setFont(new Font("Arial", Font.BOLD, 16));
         tablaJugadores.getTableHeader().setBackground(new Color(70, 130, 180));
         tablaJugadores.getTableHeader().setForeground(Color.WHITE);
-        tablaJugadores.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tablaJugadores.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         tablaJugadores.setSelectionBackground(new Color(135, 206, 250));
 
         scrollPane = new JScrollPane(tablaJugadores);
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(70, 130, 180), 2));
 
+        // Las páginas siguientes se piden al acercarse al final; si la tabla no llena
+        // el área visible, el cambio de tamaño también la dispara
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar barra = scrollPane.getVerticalScrollBar();
+            if (barra.getValue() + barra.getVisibleAmount() >= barra.getMaximum() - UMBRAL_SIGUIENTE_PAGINA) {
+                controlador.cargarMasJugadores();
+            }
+        });
+
+        // Búsqueda por inicio del nombre; se aplica con Enter
+        JPanel panelBusqueda = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        panelBusqueda.setBackground(new Color(240, 248, 255));
+        JLabel lblBuscar = new JLabel("Buscar:");
+        lblBuscar.setFont(new Font("Arial", Font.PLAIN, 14));
+        txtBuscar = new JTextField(20);
+        txtBuscar.setFont(new Font("Arial", Font.PLAIN, 14));
+        txtBuscar.setToolTipText("Inicio del nombre; presione Enter para buscar");
+        txtBuscar.addActionListener(e -> controlador.filtrarJugadores(txtBuscar.getText()));
+        panelBusqueda.add(lblBuscar);
+        panelBusqueda.add(txtBuscar);
+
+        panelCentro.add(panelBusqueda, BorderLayout.NORTH);
         panelCentro.add(scrollPane, BorderLayout.CENTER);
 
         add(panelCentro, BorderLayout.CENTER);
@@ -137,8 +167,24 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
         btnRefrescar.setCursor(new Cursor(Cursor.HAND_CURSOR));
         btnRefrescar.addActionListener(e -> controlador.solicitarListaJugadores());
 
+        btnBuscarPartida = new JButton("Partida Rápida");
+        btnBuscarPartida.setFont(new Font("Arial", Font.PLAIN, 14));
+        btnBuscarPartida.setPreferredSize(new Dimension(180, 40));
+        btnBuscarPartida.setBackground(new Color(60, 179, 113));
+        btnBuscarPartida.setForeground(Color.WHITE);
+        btnBuscarPartida.setFocusPainted(false);
+        btnBuscarPartida.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        btnBuscarPartida.addActionListener(e -> {
+            if (buscandoPartida) {
+                controlador.cancelarBusqueda();
+            } else {
+                controlador.buscarPartida();
+            }
+        });
+
         panelBotones.add(btnSeleccionar);
         panelBotones.add(btnRefrescar);
+        panelBotones.add(btnBuscarPartida);
 
         // Label de estado
         lblEstado = new JLabel("Cargando jugadores disponibles...");
@@ -163,28 +209,38 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
     private List<JugadorDTO> jugadoresActuales;
 
     /**
-     * Maneja la selección de un oponente
+     * Maneja la selección de oponentes
+     * Se puede invitar a varios a la vez; la partida se juega con el primero que acepte
      */
     private void seleccionarOponente() {
-        int filaSeleccionada = tablaJugadores.getSelectedRow();
-        if (filaSeleccionada == -1 || jugadoresActuales == null || filaSeleccionada >= jugadoresActuales.size()) {
+        List<JugadorDTO> seleccionados = new ArrayList<>();
+        for (int fila : tablaJugadores.getSelectedRows()) {
+            if (jugadoresActuales != null && fila < jugadoresActuales.size()) {
+                seleccionados.add(jugadoresActuales.get(fila));
+            }
+        }
+        if (seleccionados.isEmpty()) {
             mostrarError("Por favor, seleccione un jugador válido");
             return;
         }
 
-        JugadorDTO jugadorSeleccionado = jugadoresActuales.get(filaSeleccionada);
+        String nombres = seleccionados.size() == 1
+                ? seleccionados.get(0).getNombre()
+                : seleccionados.size() + " jugadores";
 
         int confirmacion = JOptionPane.showConfirmDialog(
             this,
-            "¿Desea invitar a " + jugadorSeleccionado.getNombre() + " a una partida?",
+            "¿Desea invitar a " + nombres + " a una partida?",
             "Confirmar Invitación",
             JOptionPane.YES_NO_OPTION,
             JOptionPane.QUESTION_MESSAGE
         );
 
         if (confirmacion == JOptionPane.YES_OPTION) {
-            controlador.seleccionarOponente(jugadorSeleccionado);
-            lblEstado.setText("Invitación enviada a " + jugadorSeleccionado.getNombre() + ". Esperando respuesta...");
+            for (JugadorDTO jugadorSeleccionado : seleccionados) {
+                controlador.seleccionarOponente(jugadorSeleccionado);
+            }
+            lblEstado.setText("Invitación enviada a " + nombres + ". Esperando respuesta...");
             lblEstado.setForeground(new Color(100, 149, 237));
         }
     }
@@ -194,7 +250,7 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
     @Override
     public void actualizarListaJugadores(List<JugadorDTO> jugadores) {
         SwingUtilities.invokeLater(() -> {
-            this.jugadoresActuales = jugadores;
+            this.jugadoresActuales = new ArrayList<>(jugadores);
             modeloTabla.setRowCount(0);
 
             if (jugadores.isEmpty()) {
@@ -203,17 +259,117 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
             }
 
             for (JugadorDTO jugador : jugadores) {
-                String nombre = jugador.getNombre();
-                String color = jugador.getColor().equals(Color.RED) ? "Rojo" : "Azul";
-                String estado = jugador.isEnPartida() ? "En partida" : "Disponible";
-                modeloTabla.addRow(new Object[]{nombre, color, estado});
+                modeloTabla.addRow(filaJugador(jugador));
             }
 
-            lblEstado.setText("Jugadores disponibles: " + jugadores.size());
-            lblEstado.setForeground(new Color(0, 150, 0));
+            mostrarCantidadJugadores();
+        });
+    }
+
+    @Override
+    public void agregarJugador(JugadorDTO jugador) {
+        SwingUtilities.invokeLater(() -> {
+            insertarJugador(jugador);
+            mostrarCantidadJugadores();
+        });
+    }
+
+    @Override
+    public void agregarJugadores(List<JugadorDTO> jugadores) {
+        SwingUtilities.invokeLater(() -> {
+            for (JugadorDTO jugador : jugadores) {
+                insertarJugador(jugador);
+            }
+            if (jugadoresActuales != null && !jugadoresActuales.isEmpty()) {
+                mostrarCantidadJugadores();
+            }
+        });
+    }
+
+    /**
+     * Agrega un jugador en su lugar por nombre, o actualiza su fila si ya estaba
+     * El orden es el mismo del índice del servidor, así las páginas siguientes quedan al final
+     * @param jugador Jugador a mostrar
+     */
+    private void insertarJugador(JugadorDTO jugador) {
+        if (jugadoresActuales == null) {
+            jugadoresActuales = new ArrayList<>();
+        }
+        int fila = buscarFila(jugador.getId());
+        if (fila >= 0) {
+            // Ya estaba en la tabla: solo se actualizan sus datos
+            jugadoresActuales.set(fila, jugador);
+            Object[] datos = filaJugador(jugador);
+            for (int columna = 0; columna < datos.length; columna++) {
+                modeloTabla.setValueAt(datos[columna], fila, columna);
+            }
+        } else {
+            String clave = claveOrden(jugador);
+            int posicion = 0;
+            while (posicion < jugadoresActuales.size()
+                    && claveOrden(jugadoresActuales.get(posicion)).compareTo(clave) < 0) {
+                posicion++;
+            }
+            jugadoresActuales.add(posicion, jugador);
+            modeloTabla.insertRow(posicion, filaJugador(jugador));
+        }
+    }
+
+    /**
+     * @param jugador Jugador de la tabla
+     * @return Nombre normalizado con el que el servidor ordena el lobby
+     */
+    private static String claveOrden(JugadorDTO jugador) {
+        return jugador.getNombre().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void quitarJugador(String idJugador) {
+        SwingUtilities.invokeLater(() -> {
+            int fila = buscarFila(idJugador);
+            if (fila < 0) return;
+
+            jugadoresActuales.remove(fila);
+            modeloTabla.removeRow(fila);
+
+            if (jugadoresActuales.isEmpty()) {
+                mostrarSinJugadores();
+            } else {
+                mostrarCantidadJugadores();
+            }
         });
     }
 
+    /**
+     * Busca la fila de un jugador en la tabla
+     * @param idJugador ID del jugador
+     * @return Índice de la fila, o -1 si no está
+     */
+    private int buscarFila(String idJugador) {
+        if (jugadoresActuales == null) return -1;
+        for (int i = 0; i < jugadoresActuales.size(); i++) {
+            if (jugadoresActuales.get(i).getId().equals(idJugador)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Construye los valores de la fila de un jugador
+     * @param jugador Jugador a mostrar
+     * @return Nombre, color y estado
+     */
+    private Object[] filaJugador(JugadorDTO jugador) {
+        String nombre = jugador.getNombre();
+        String color = jugador.getColor().equals(Color.RED) ? "Rojo" : "Azul";
+        String estado = jugador.isEnPartida() ? "En partida" : "Disponible";
+        return new Object[]{nombre, color, estado};
+    }
+
+    private void mostrarCantidadJugadores() {
+        lblEstado.setText("Jugadores disponibles: " + jugadoresActuales.size());
+        lblEstado.setForeground(new Color(0, 150, 0));
+    }
+
     @Override
     public void mostrarMensaje(String mensaje) {
         SwingUtilities.invokeLater(() -> {
@@ -258,6 +414,42 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
         });
     }
 
+    @Override
+    public void invitacionExpirada(String mensaje) {
+        SwingUtilities.invokeLater(() -> {
+            lblEstado.setText(mensaje);
+            lblEstado.setForeground(Color.ORANGE);
+        });
+    }
+
+    @Override
+    public void invitacionCancelada(String mensaje) {
+        SwingUtilities.invokeLater(() -> {
+            lblEstado.setText(mensaje);
+            lblEstado.setForeground(new Color(100, 100, 100));
+        });
+    }
+
+    @Override
+    public void busquedaIniciada() {
+        SwingUtilities.invokeLater(() -> {
+            buscandoPartida = true;
+            btnBuscarPartida.setText("Cancelar Búsqueda");
+            lblEstado.setText("Buscando oponente...");
+            lblEstado.setForeground(new Color(100, 149, 237));
+        });
+    }
+
+    @Override
+    public void busquedaCancelada() {
+        SwingUtilities.invokeLater(() -> {
+            buscandoPartida = false;
+            btnBuscarPartida.setText("Partida Rápida");
+            lblEstado.setText("Búsqueda cancelada");
+            lblEstado.setForeground(new Color(100, 100, 100));
+        });
+    }
+
     @Override
     public void mostrarInvitacion(SolicitudPartidaDTO solicitud) {
         SwingUtilities.invokeLater(() -> {
@@ -270,9 +462,9 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
             );
 
             if (respuesta == JOptionPane.YES_OPTION) {
-                controlador.aceptarInvitacion();
+                controlador.aceptarInvitacion(solicitud);
             } else {
-                controlador.rechazarInvitacion();
+                controlador.rechazarInvitacion(solicitud);
             }
         });
     }
@@ -297,6 +489,8 @@ public class VistaListaJugadores extends JPanel implements IVistaListaJugadores
     @Override
     public void partidaIniciada(SolicitudPartidaDTO solicitud) {
         SwingUtilities.invokeLater(() -> {
+            buscandoPartida = false;
+            btnBuscarPartida.setText("Partida Rápida");
             lblEstado.setText("Partida iniciada!");
             lblEstado.setForeground(new Color(0, 150, 0));
             JOptionPane.showMessageDialog(
@@ -3,6 +3,7 @@ package mx.itson.factory;
 import mx.itson.models.IJugador;
 import mx.itson.models.IPartida;
 import mx.itson.models.Partida;
+import mx.itson.subsistema_gestor_partidas.RuedaTemporizadores;
 
 /**
  * PartidaFactory.java
@@ -30,9 +31,10 @@ public class PartidaFactory {
      * @param idPartida Identificador único de la partida
      * @param jugador1 Primer jugador de la partida
      * @param jugador2 Segundo jugador de la partida
+     * @param rueda Rueda de temporizadores compartida por las partidas
      * @return Nueva instancia de Partida
      */
-    public static IPartida crearPartida(String idPartida, IJugador jugador1, IJugador jugador2){
-        return new Partida(idPartida, jugador1, jugador2);
+    public static IPartida crearPartida(String idPartida, IJugador jugador1, IJugador jugador2, RuedaTemporizadores rueda){
+        return new Partida(idPartida, jugador1, jugador2, rueda);
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import mx.itson.exceptions.ModelException;
 import mx.itson.models.ITableroDisparos;
 import mx.itson.models.ITableroNaves;
 import mx.itson.models.TableroDisparosServidor;
+import mx.itson.models.TableroNavesBits;
 import mx.itson.models.TableroNavesServidor;
 
 /**
@@ -27,6 +28,30 @@ import mx.itson.models.TableroNavesServidor;
  */
 public class TableroFactory {
 
+    /**
+     * Implementaciones disponibles del tablero de naves
+     */
+    public enum MotorTableroNaves {
+        /** Máscaras de bits con índice de casilla a nave (por defecto) */
+        BITS,
+        /** Matriz de objetos Casilla */
+        OBJETOS
+    }
+
+    private static volatile MotorTableroNaves motorTableroNaves = MotorTableroNaves.BITS;
+
+    /**
+     * Selecciona la implementación de los tableros de naves que se creen a partir de ahora.
+     *
+     * @param motor Implementación a usar
+     */
+    public static void setMotorTableroNaves(MotorTableroNaves motor) {motorTableroNaves = motor;}
+
+    /**
+     * @return Implementación usada para los tableros de naves nuevos
+     */
+    public static MotorTableroNaves getMotorTableroNaves() {return motorTableroNaves;}
+
     /**
      * Crea y retorna una nueva instancia de ITableroDisparos.
      * Este tablero registra los disparos realizados hacia el oponente.
@@ -43,11 +68,16 @@ public class TableroFactory {
      * Crea y retorna una nueva instancia de ITableroNaves.
      * Este tablero contiene las naves del jugador y registra los impactos recibidos.
      *
+     * La implementación depende del motor seleccionado.
+     *
      * @param tamanio Tamaño del tablero (número de filas y columnas)
-     * @return Nueva instancia de TableroNavesServidor
+     * @return Nueva instancia de TableroNavesBits o TableroNavesServidor
      * @throws ModelException Si el tamaño es inválido
      */
     public static ITableroNaves crearTableroNaves(int tamanio) throws ModelException{
-        return new TableroNavesServidor(tamanio);
+        return switch (motorTableroNaves) {
+            case BITS -> new TableroNavesBits(tamanio);
+            case OBJETOS -> new TableroNavesServidor(tamanio);
+        };
     }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package mx.itson.mappers;
 
 import mx.itson.exceptions.ModelException;
-import mx.itson.models.Casilla;
 import mx.itson.models.IJugador;
 import mx.itson.models.ITableroNaves;
+import mx.itson.utils.dtos.NaveDTO;
 import mx.itson.utils.dtos.TableroDTO;
 import mx.itson.utils.enums.EstadoCasilla;
+import mx.itson.utils.enums.EstadoNave;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * TableroNavesMapper.java
@@ -44,20 +47,50 @@ public class TableroNavesMapper {
         tableroDTO.setTotalNaves(tableroNaves.getTotalNaves());
         tableroDTO.setNaves(NaveMapper.toDTOList(tableroNaves.getNaves()));
 
-        Casilla[][] casillasTablero = tableroNaves.getCasillas();
+        int tamanio = tableroNaves.getTamanio();
 
-        int filasCasillas = casillasTablero.length;
-        int columnasCasillas = casillasTablero[0].length;
+        EstadoCasilla[][] casillas = new EstadoCasilla[tamanio][tamanio];
 
-        EstadoCasilla[][] casillas = new EstadoCasilla[filasCasillas][columnasCasillas];
-
-        for (int i = 0; i < filasCasillas; i++)
-            for (int j = 0; j < columnasCasillas; j++)
-                casillas[i][j] = casillasTablero[i][j].obtenerEstado();
+        for (int i = 0; i < tamanio; i++)
+            for (int j = 0; j < tamanio; j++)
+                casillas[i][j] = tableroNaves.obtenerEstadoCasilla(i, j);
 
         tableroDTO.setCasillas(casillas);
 
         return tableroDTO;
     }
 
-}
\ No newline at end of file
+    /**
+     * Proyecta un tablero completo a lo que su oponente puede ver: las casillas
+     * ocupadas sin impacto aparecen vacías y solo se incluyen las naves hundidas.
+     *
+     * @param tablero Tablero completo (se deja intacto)
+     * @return Nuevo TableroDTO con la vista del oponente, en la misma versión
+     */
+    public static TableroDTO proyectarParaOponente(TableroDTO tablero) {
+        TableroDTO proyeccion = new TableroDTO();
+        proyeccion.setIdJugador(tablero.getIdJugador());
+        proyeccion.setNombreJugador(tablero.getNombreJugador());
+        proyeccion.setVersion(tablero.getVersion());
+
+        EstadoCasilla[][] casillas = tablero.getCasillas();
+        EstadoCasilla[][] visibles = new EstadoCasilla[casillas.length][];
+        for (int i = 0; i < casillas.length; i++) {
+            visibles[i] = new EstadoCasilla[casillas[i].length];
+            for (int j = 0; j < casillas[i].length; j++) {
+                visibles[i][j] = (casillas[i][j] == EstadoCasilla.OCUPADA) ? EstadoCasilla.VACIA : casillas[i][j];
+            }
+        }
+        proyeccion.setCasillas(visibles);
+
+        List<NaveDTO> hundidas = new ArrayList<>();
+        for (NaveDTO nave : tablero.getNaves()) {
+            if (nave.getEstado() == EstadoNave.HUNDIDA) hundidas.add(nave);
+        }
+        proyeccion.setNaves(hundidas);
+        proyeccion.setNavesHundidas(tablero.getNavesHundidas());
+        proyeccion.setTotalNaves(tablero.getTotalNaves());
+
+        return proyeccion;
+    }
+}
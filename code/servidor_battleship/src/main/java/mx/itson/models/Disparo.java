@@ -36,6 +36,19 @@ public class Disparo {
         this.fechaHora = LocalDateTime.now();
     }
     
+    /**
+     * Constructor para reconstruir un disparo del historial con su fecha original
+     * @param coordenada La coordenada donde se realizó el disparo
+     * @param resultado El resultado del disparo, o null si no se registró
+     * @param fechaHora Momento en que se realizó el disparo
+     */
+    public Disparo(Coordenada coordenada, ResultadoDisparo resultado, LocalDateTime fechaHora) {
+        this.coordenada = coordenada;
+        this.resultado = resultado;
+        this.jugador = null;
+        this.fechaHora = fechaHora;
+    }
+    
     /**
      * Constructor sin resultado 
      * 
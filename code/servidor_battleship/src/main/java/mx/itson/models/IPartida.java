@@ -2,6 +2,7 @@ package mx.itson.models;
 
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import mx.itson.exceptions.ModelException;
 import mx.itson.utils.dtos.CoordenadaDTO;
 import mx.itson.utils.dtos.DisparoDTO;
@@ -91,6 +92,29 @@ public interface IPartida {
      */
     public int getTiempoRestante();
 
+    /**
+     * Obtiene el instante en que vence el turno actual.
+     *
+     * @return Milisegundos de época del límite, o 0 si el temporizador no corre
+     */
+    public long getLimiteTurno();
+
+    /**
+     * Obtiene la duración de un turno completo.
+     *
+     * @return Duración del turno en segundos
+     */
+    public int getDuracionTurno();
+
+    /**
+     * Obtiene la versión del estado de la partida.
+     * Aumenta cada vez que cambia algo de lo que muestra el PartidaDTO,
+     * salvo el tiempo restante del turno, que depende del reloj.
+     *
+     * @return Versión actual, mayor que cualquiera de las anteriores
+     */
+    public long getVersion();
+
     /**
      * Obtiene el estado actual de la partida.
      *
@@ -152,17 +176,28 @@ public interface IPartida {
     public void establecerRespuestaTiempoAgotado(Consumer<String> callback);
 
     /**
-     * Establece el callback para actualizaciones periódicas del tiempo restante.
+     * Establece cómo llega el vencimiento de un turno desde la rueda de
+     * temporizadores; por defecto se llama a alVencerTurno en el hilo de la rueda.
+     *
+     * @param entrega Recibe la generación del timer que venció
+     */
+    public void establecerEntregaVencimiento(LongConsumer entrega);
+
+    /**
+     * Cambia el turno si el timer de la generación indicada sigue vigente
+     * y avisa al callback de tiempo agotado.
      *
-     * @param callback Consumer que recibe el tiempo restante en segundos
+     * @param generacion Generación del timer que venció
      */
-    public void establecerCallbackActualizacionTiempo(Consumer<Integer> callback);
+    public void alVencerTurno(long generacion);
 
     /**
      * Inicia el temporizador del turno actual.
      * Reinicia el tiempo y comienza la cuenta regresiva.
+     *
+     * @return Instante en que vence el turno, en milisegundos de época del servidor
      */
-    public void iniciarTemporizador();
+    public long iniciarTemporizador();
 
     /**
      * Detiene el temporizador del turno actual.
@@ -171,7 +206,7 @@ public interface IPartida {
 
     /**
      * Libera todos los recursos asociados a la partida.
-     * Detiene temporizadores y cierra executors.
+     * Detiene el temporizador del turno.
      */
     public void liberarRecursos();
 }
\ No newline at end of file
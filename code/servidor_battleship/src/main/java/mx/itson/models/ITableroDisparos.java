@@ -2,6 +2,7 @@ package mx.itson.models;
 
 import java.util.Set;
 import mx.itson.exceptions.ModelException;
+import mx.itson.utils.enums.ResultadoDisparo;
 
 /**
  * ITableroDisparos.java
@@ -31,6 +32,15 @@ public interface ITableroDisparos {
      */
     public void añadirDisparo(Disparo disparo) throws ModelException;
 
+    /**
+     * Registra un disparo sin crear un objeto Disparo.
+     *
+     * @param coordenada Coordenada del disparo
+     * @param resultado Resultado del disparo
+     * @throws ModelException Si la coordenada es inválida o ya fue disparada
+     */
+    public void registrarDisparo(Coordenada coordenada, ResultadoDisparo resultado) throws ModelException;
+
     /**
      * Valida si un disparo en una coordenada es válido.
      * Verifica que la coordenada esté dentro del tablero y no se haya disparado antes.
@@ -56,4 +66,18 @@ public interface ITableroDisparos {
      * @return Set con el historial de disparos
      */
     public Set<Disparo> getDisparosRealizados();
+
+    /**
+     * Obtiene la cantidad de disparos realizados.
+     *
+     * @return Total de disparos
+     */
+    public int getTotalDisparos();
+
+    /**
+     * Obtiene la cantidad de disparos que impactaron una nave.
+     *
+     * @return Total de aciertos
+     */
+    public int getAciertos();
 }
\ No newline at end of file
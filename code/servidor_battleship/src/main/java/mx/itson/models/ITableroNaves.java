@@ -98,6 +98,24 @@ public interface ITableroNaves {
      */
     public Casilla[][] getCasillas();
 
+    /**
+     * Obtiene el estado de una casilla del tablero.
+     * Es la forma preferida de leer el tablero porque no obliga a
+     * la implementación a mantener una matriz de objetos Casilla.
+     *
+     * @param x Fila de la casilla
+     * @param y Columna de la casilla
+     * @return Estado actual de la casilla
+     */
+    public EstadoCasilla obtenerEstadoCasilla(int x, int y);
+
+    /**
+     * Obtiene el tamaño del tablero (número de filas y columnas).
+     *
+     * @return Tamaño del tablero
+     */
+    public int getTamanio();
+
     /**
      * Obtiene el número total de naves que debe tener el tablero.
      *
@@ -2,11 +2,9 @@ package mx.itson.models;
 
 import java.awt.Color;
 import java.util.List;
-import java.util.Set;
 import mx.itson.exceptions.ModelException;
 import mx.itson.utils.dtos.EstadisticaDTO;
 import mx.itson.utils.enums.EstadoCasilla;
-import mx.itson.utils.enums.ResultadoDisparo;
 
 /**
  * JugadorServidor.java
@@ -193,7 +191,7 @@ public class JugadorServidor implements IJugador{
 
     /**
      * Genera las estadísticas finales del jugador al terminar la partida.
-     * Calcula los aciertos y totales basándose en el historial del tablero de disparos.
+     * Los aciertos y totales salen de los contadores del tablero de disparos.
      *
      * @param esGanador true si este jugador ganó la partida
      * @param barcosHundidos Cantidad de barcos que este jugador hundió
@@ -201,18 +199,9 @@ public class JugadorServidor implements IJugador{
      */
     @Override
     public EstadisticaDTO generarEstadisticas(boolean esGanador, int barcosHundidos) {
-        //Se obtiene el historial de disparos del tablero
-        Set<Disparo> historialDisparos = this.tableroDisparos.getDisparosRealizados();
-        
-        int totalDisparos = historialDisparos.size();
-        int aciertos = 0;
-
-        //Se verifica entre todo el historial aquellos disparos que su resultado sea diferente de "AGUA"
-        for (Disparo d : historialDisparos) {
-            if (d.obtenerResultado() != ResultadoDisparo.AGUA) {
-                aciertos++;
-            }
-        }
+        //Se leen los contadores del tablero de disparos
+        int totalDisparos = this.tableroDisparos.getTotalDisparos();
+        int aciertos = this.tableroDisparos.getAciertos();
         
         //Se crea y se retorna el DTO con la nueva información
         return new EstadisticaDTO(
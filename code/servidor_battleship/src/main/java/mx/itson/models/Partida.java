@@ -2,13 +2,11 @@ package mx.itson.models;
 
 import java.security.SecureRandom;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import mx.itson.exceptions.ModelException;
 import mx.itson.mappers.CoordenadaMapper;
+import mx.itson.subsistema_gestor_partidas.RuedaTemporizadores;
 import mx.itson.utils.dtos.CoordenadaDTO;
 import mx.itson.utils.dtos.DisparoDTO;
 import mx.itson.utils.enums.EstadoCasilla;
@@ -20,7 +18,12 @@ import mx.itson.utils.enums.ResultadoDisparo;
  *
  * Clase que representa una partida de batalla naval entre dos jugadores.
  * Gestiona el estado de la partida, los turnos, el temporizador y el procesamiento
- * de disparos. Utiliza un ScheduledExecutorService para controlar el tiempo de cada turno.
+ * de disparos. El tiempo de cada turno se controla con la rueda de temporizadores
+ * compartida por todas las partidas del servidor.
+ * No usa candados: el estado solo se toca dentro del buzón de su ActorPartida,
+ * y el vencimiento de un turno también entra por ese buzón (ver
+ * establecerEntregaVencimiento). Los pocos campos que se leen desde fuera
+ * son volatile.
  *
  * @author Leonardo Flores Leyva
  * ID: 00000252390
@@ -39,7 +42,7 @@ public class Partida implements IPartida {
     private static final int TIEMPO_TURNO = 30; // segundos (cambiado de 60 a 30)
     
     private final String idPartida;
-    private EstadoPartida estado;
+    private volatile EstadoPartida estado; // El barrido de partidas lo lee sin pasar por el buzón
     private final IJugador jugador1;
     private final IJugador jugador2;
     
@@ -48,35 +51,37 @@ public class Partida implements IPartida {
     private boolean navesColocadasJugador2;
     
     // Control de turno
-    private String idJugadorEnTurno;
-    private int tiempoRestante;
+    private volatile String idJugadorEnTurno; // Se lee fuera del buzón para enrutar acciones
+    private long limiteTurno; // Instante (ms de época) en que vence el turno; 0 si el timer no corre
 
     // Ganador
     private String idGanador;
 
+    // Versión del estado; cambia con naves, disparos, turnos y el final
+    private volatile long version;
+
     // Timer para controlar el tiempo del turno
-    private final ScheduledExecutorService timerExecutor;
-    private ScheduledFuture<?> tareaTimer;
+    private final RuedaTemporizadores rueda;
+    private RuedaTemporizadores.Temporizador tareaTimer;
+    private long generacionTimer; // Descarta avisos de un timer que ya se canceló
     private Consumer<String> callbackTimeout; // Callback para notificar timeout
-    private Consumer<Integer> callbackActualizacionTiempo; // Callback para actualizaciones periódicas del tiempo
+    private LongConsumer entregaVencimiento = this::alVencerTurno; // Cómo llega el vencimiento desde la rueda
 
     /**
      * Constructor para iniciar una nueva partida.
-     * Inicializa el executor para el temporizador y establece el estado inicial.
+     * Establece el estado inicial; el temporizador usa la rueda compartida.
      *
      * @param idPartida ID único de la partida
      * @param jugador1 Primer jugador
      * @param jugador2 Segundo jugador
+     * @param rueda Rueda de temporizadores del servidor
      */
-    public Partida(String idPartida, IJugador jugador1, IJugador jugador2) {
+    public Partida(String idPartida, IJugador jugador1, IJugador jugador2, RuedaTemporizadores rueda) {
         this.idPartida = idPartida;
         this.jugador1 = jugador1;
         this.jugador2 = jugador2;
         this.estado = EstadoPartida.EN_CURSO;
-        this.tiempoRestante = TIEMPO_TURNO;
-        
-        // Inicializar executor para el timer
-        this.timerExecutor = Executors.newSingleThreadScheduledExecutor();
+        this.rueda = rueda;
         
         System.out.println("[PARTIDA] Partida creada: " + jugador1.getNombre() + " vs " + jugador2.getNombre());
     }
@@ -121,6 +126,14 @@ public class Partida implements IPartida {
     @Override
     public String getIdGanador() {return idGanador;}
 
+    /**
+     * Obtiene la versión del estado de la partida.
+     *
+     * @return Versión actual
+     */
+    @Override
+    public long getVersion() {return version;}
+
     /**
      * Verifica si la partida tiene un ganador.
      *
@@ -151,7 +164,29 @@ public class Partida implements IPartida {
      * @return Tiempo restante en segundos
      */
     @Override
-    public int getTiempoRestante() {return tiempoRestante;}
+    public int getTiempoRestante() {
+        if (limiteTurno == 0) return TIEMPO_TURNO;
+        long restanteMs = limiteTurno - System.currentTimeMillis();
+        return (int) Math.max(0, (restanteMs + 999) / 1000);
+    }
+
+    /**
+     * Obtiene el instante en que vence el turno actual.
+     *
+     * @return Milisegundos de época del límite, o 0 si el temporizador no corre
+     */
+    @Override
+    public long getLimiteTurno() {
+        return limiteTurno;
+    }
+
+    /**
+     * Obtiene la duración de un turno completo.
+     *
+     * @return Duración del turno en segundos
+     */
+    @Override
+    public int getDuracionTurno() {return TIEMPO_TURNO;}
     
     /**
      * Inicia el juego una vez que ambos jugadores han colocado sus naves.
@@ -162,7 +197,6 @@ public class Partida implements IPartida {
         SecureRandom random = new SecureRandom();
         boolean jugador1Inicia = random.nextBoolean();
         idJugadorEnTurno = jugador1Inicia ? jugador1.getId() : jugador2.getId();
-        tiempoRestante = TIEMPO_TURNO;
 
         String nombreInicia = jugador1Inicia ? jugador1.getNombre() : jugador2.getNombre();
         System.out.println("[PARTIDA] Juego iniciado. Turno aleatorio asignado a: " + nombreInicia);
@@ -177,6 +211,7 @@ public class Partida implements IPartida {
     private void finalizarPartida(String idGanador) {
         this.idGanador = idGanador;
         this.estado = EstadoPartida.FINALIZADA;
+        version++;
         System.out.println("[PARTIDA] Partida finalizada. Ganador: " + getNombreGanador());
     }
 
@@ -252,77 +287,81 @@ public class Partida implements IPartida {
      * @throws ModelException Si ocurre un error al procesar el disparo
      */
     @Override
-    public synchronized DisparoDTO procesarDisparo(String idJugadorDispara, CoordenadaDTO coordenada) throws ModelException {
-        
+    public DisparoDTO procesarDisparo(String idJugadorDispara, CoordenadaDTO coordenada) throws ModelException {
+    
         /*
             El subsistema valida el turno del jugador, aunque podría incluirse 
             para una mayor integrida en caso de reutilización de la clase
         */
         IJugador jugador = getJugadorOponente(idJugadorDispara);
-                
+            
         // Coordenadas
         int x = coordenada.getX();
         int y = coordenada.getY();
 
         // Validar coordenadas
         if (x < 0 || x >= TAMANO_TABLERO || y < 0 || y >= TAMANO_TABLERO) return null;
-        
+    
         // DTO con la información del disparo
         DisparoDTO disparo = new DisparoDTO(coordenada, jugador.getNombre());
-        
+    
         // Mapea la coordenada
         Coordenada coordenadaImpacto = CoordenadaMapper.toEntity(coordenada);
-        
+    
         // Ejecuta el disparo en el tablero del oponente
         EstadoCasilla estadoCasilla = jugador.recibirDisparo(coordenadaImpacto);
-        
+
+        // El disparo cierra el turno: un vencimiento que ya salió de la rueda y llegue
+        // antes de que el manejador reinicie el timer no debe volver a cambiarlo
+        detenerTemporizador();
+    
         // Mensaje personalizado con información del resultado
         String mensaje;
-        
+    
         // Guarda el resultado del disparo
         ResultadoDisparo resultadoDisparo;
-        
+    
         switch(estadoCasilla){
             case IMPACTADA_AVERIADA -> {
                 // Se actualiza el estado del resultado del disparo
                 resultadoDisparo = ResultadoDisparo.IMPACTO_AVERIADA;
-                
+            
                 // Se obtiene la nave impactada
                 Nave naveImpactada = jugador.getTableroNaves().encontrarNaveEnCoordenada(coordenadaImpacto);
                 mensaje = "¡Impacto en " + naveImpactada.getTipo() + "!"; // Después puede que implemente un método para devolver una nave como en la otra clase
-                
+            
             } case IMPACTADA_HUNDIDA -> {
                 // Se actualiza el estado del resultado del disparo
                 resultadoDisparo = ResultadoDisparo.IMPACTO_HUNDIDA;
-                
+            
                 // Se obtiene el tablero de naves del jugador oponente
                 ITableroNaves tableroNaves = jugador.getTableroNaves();
-                
+            
                 // Se obtiene la nave hundida
                 Nave naveHundida = tableroNaves.encontrarNaveEnCoordenada(coordenadaImpacto);
                 mensaje = "¡" + naveHundida.getTipo() + " hundido!"; // Después puede que implemente un método para devolver una nave como en la otra clase
-                
+            
                 // Si todas las naves fueron hundidas, se finaliza la partida
                 if(tableroNaves.todasNavesHundidas())
                     finalizarPartida(idJugadorDispara);
-                
+            
             } default -> {
                 // Se actualiza el estado del resultado del disparo
                 resultadoDisparo = ResultadoDisparo.AGUA;
                 // Se cambia el turno del jugador
                 cambiarTurno();
-                
+            
                 mensaje = "¡Agua!";
             }
         }
         // Se agregan al disparo tanto su resultado como el mensaje personalizado
         disparo.setResultado(resultadoDisparo);
         disparo.setMensaje(mensaje);
+        version++; // Cambió el tablero del oponente
 
         // Registrar el disparo en el historial del jugador que disparó
         IJugador jugadorQueDispara = getJugador(idJugadorDispara);
-        Disparo disparoParaRegistrar = new Disparo(coordenadaImpacto, resultadoDisparo, jugadorQueDispara);
-        jugadorQueDispara.getTableroDisparos().añadirDisparo(disparoParaRegistrar);
+        jugadorQueDispara.getTableroDisparos().registrarDisparo(coordenadaImpacto, resultadoDisparo);
 
 //        // Cambiar turno si es agua
 //        if (resultadoDisparo == ResultadoDisparo.AGUA)
@@ -347,32 +386,33 @@ public class Partida implements IPartida {
      * @throws ModelException Si ocurre un error al colocar las naves
      */
     @Override
-    public synchronized boolean colocarNaves(String idJugador, List<Nave> naves) throws ModelException {
+    public boolean colocarNaves(String idJugador, List<Nave> naves) throws ModelException {
         IJugador jugadorNaves;
         boolean esJugador1 = idJugador.equals(jugador1.getId());
-        
+    
         if (esJugador1)
             jugadorNaves = jugador1;
         else if (idJugador.equals(jugador2.getId()))
             jugadorNaves = jugador2;
         else 
             return false;
-        
+    
         if(jugadorNaves.colocarNaves(naves)){
             // Falta validar si ya están todas las naves colocadas...
             if(esJugador1)
                 navesColocadasJugador1 = true;
             else
                 navesColocadasJugador2 = true;
-            
+            version++;
+        
             System.out.println("[PARTIDA] Naves colocadas para " + jugadorNaves.getNombre());
-            
+        
             // Si ambos jugadores han colocado naves, iniciar el juego
             if (navesColocadasJugador1 && navesColocadasJugador2)
                 iniciarJuego();
-            
+        
             return true;
-            
+        
         } else
             return false;
     }
@@ -387,7 +427,8 @@ public class Partida implements IPartida {
                 jugador2.getId() : 
                 jugador1.getId();
         
-        tiempoRestante = TIEMPO_TURNO;
+        limiteTurno = 0;
+        version++;
         
         System.out.println("[PARTIDA] Cambio de turno. Ahora juega: " + getNombreJugadorEnTurno());
     }
@@ -397,7 +438,7 @@ public class Partida implements IPartida {
      * Cambia el turno automáticamente al siguiente jugador.
      */
     @Override
-    public synchronized void manejarTiempoAgotado() {
+    public void manejarTiempoAgotado() {
         System.out.println("[PARTIDA] Timeout para: " + getNombreJugadorEnTurno());
         cambiarTurno();
     }
@@ -411,96 +452,91 @@ public class Partida implements IPartida {
     public void establecerRespuestaTiempoAgotado(Consumer<String> callback) {this.callbackTimeout = callback;}
 
     /**
-     * Establece el callback para actualizaciones periódicas del tiempo restante.
+     * Establece cómo llega a la partida el vencimiento de un turno.
+     * La rueda corre en su propio hilo; quien serializa los comandos de la
+     * partida (su actor) recibe la generación y llama a alVencerTurno en su turno.
      *
-     * @param callback Consumer que recibe el tiempo restante en segundos
+     * @param entrega Recibe la generación del timer que venció
      */
     @Override
-    public void establecerCallbackActualizacionTiempo(Consumer<Integer> callback) {
-        this.callbackActualizacionTiempo = callback;
-    }
+    public void establecerEntregaVencimiento(LongConsumer entrega) {this.entregaVencimiento = entrega;}
 
     /**
      * Inicia el temporizador del turno actual.
-     * Crea una tarea que se ejecuta cada segundo para decrementar el tiempo
-     * y notificar cuando se agote.
+     * Fija el límite absoluto del turno y programa un solo vencimiento en la rueda;
+     * los clientes llevan la cuenta regresiva por su cuenta a partir del límite.
+     *
+     * @return Instante en que vence el turno, en milisegundos de época del servidor
      */
     @Override
-    public synchronized void iniciarTemporizador() {
+    public long iniciarTemporizador() {
         // Cancelar timer anterior si existe
         detenerTemporizador();
 
-        tiempoRestante = TIEMPO_TURNO;
+        limiteTurno = System.currentTimeMillis() + TIEMPO_TURNO * 1000L;
+        long generacion = generacionTimer;
+        LongConsumer entrega = entregaVencimiento;
+        tareaTimer = rueda.programar(TIEMPO_TURNO * 1000L, () -> entrega.accept(generacion));
 
         System.out.println("[PARTIDA] Timer iniciado para el turno de: " +
             (idJugadorEnTurno.equals(jugador1.getId()) ? jugador1.getNombre() : jugador2.getNombre()));
+        return limiteTurno;
+    }
 
-        // Crear tarea que se ejecuta cada segundo
-        tareaTimer = timerExecutor.scheduleAtFixedRate(() -> {
-            try {
-                synchronized (this) {
-                    if (estado == EstadoPartida.EN_CURSO && !hayGanador()) {
-                        // Decrementar tiempo restante
-                        tiempoRestante--;
-
-                        // Enviar actualización periódica al cliente (cada 5 segundos)
-                        if (tiempoRestante % 5 == 0 && callbackActualizacionTiempo != null) {
-                            callbackActualizacionTiempo.accept(tiempoRestante);
-                        }
-
-                        // Verificar timeout
-                        if (tiempoRestante <= 0) {
-                            System.out.println("[PARTIDA] Timeout para jugador " +
-                                (idJugadorEnTurno.equals(jugador1.getId()) ? jugador1.getNombre() : jugador2.getNombre()));
-
-                            String idJugadorQuePerdiTurno = idJugadorEnTurno;
-
-                            // Cambiar turno automáticamente
-                            cambiarTurno();
-
-                            // NO detener el timer aquí, dejar que la tarea termine y sea cancelada por iniciarTemporizador()
-                            // El ManejadorCliente llamará iniciarTemporizador() que cancela y reinicia correctamente
-
-                            // Notificar al manejador si hay callback
-                            if (callbackTimeout != null) {
-                                callbackTimeout.accept(idJugadorQuePerdiTurno);
-                            }
-
-                            // Detener esta ejecución específica del timer
-                            return;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("[PARTIDA] Error en timer: " + e.getMessage());
-                e.printStackTrace();
+    /**
+     * Cambia el turno cuando vence el tiempo y avisa al callback.
+     * Un vencimiento de un timer que ya se detuvo o reinició se ignora.
+     *
+     * @param generacion Generación del timer que programó este vencimiento
+     */
+    @Override
+    public void alVencerTurno(long generacion) {
+        if (generacion != generacionTimer || estado != EstadoPartida.EN_CURSO || hayGanador()) {
+            return;
+        }
+
+        System.out.println("[PARTIDA] Timeout para jugador " +
+            (idJugadorEnTurno.equals(jugador1.getId()) ? jugador1.getNombre() : jugador2.getNombre()));
+
+        String idJugadorQuePerdioTurno = idJugadorEnTurno;
+        Consumer<String> avisoTimeout = callbackTimeout;
+        tareaTimer = null;
+
+        // Cambiar turno automáticamente; el ManejadorCliente vuelve a iniciar el timer
+        cambiarTurno();
+
+        try {
+            if (avisoTimeout != null) {
+                avisoTimeout.accept(idJugadorQuePerdioTurno);
             }
-        }, 1, 1, TimeUnit.SECONDS); // Ejecutar cada 1 segundo, empezando después de 1 segundo
+        } catch (Exception e) {
+            System.err.println("[PARTIDA] Error en timer: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     /**
      * Detiene el temporizador del turno actual.
-     * Cancela la tarea programada si está en ejecución.
+     * Quita de la rueda el aviso pendiente, si lo hay.
      */
     @Override
-    public synchronized void detenerTemporizador() {
-        if (tareaTimer != null && !tareaTimer.isDone()) {
-            tareaTimer.cancel(false);
+    public void detenerTemporizador() {
+        generacionTimer++;
+        limiteTurno = 0;
+        if (tareaTimer != null) {
+            tareaTimer.cancelar();
+            tareaTimer = null;
             System.out.println("[PARTIDA] Timer detenido");
         }
     }
 
     /**
      * Libera los recursos asociados a la partida.
-     * Detiene el temporizador y cierra el executor.
+     * La rueda es compartida, así que basta con detener el temporizador.
      */
     @Override
     public void liberarRecursos() {
         detenerTemporizador();
-        if (timerExecutor != null && !timerExecutor.isShutdown()) {
-            timerExecutor.shutdown();
-            System.out.println("[PARTIDA] Executor del timer cerrado");
-        }
     }
 
     /**
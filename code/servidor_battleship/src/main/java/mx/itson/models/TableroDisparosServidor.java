@@ -1,8 +1,10 @@
 package mx.itson.models;
 
-import java.util.HashSet;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import mx.itson.exceptions.ModelException;
+import mx.itson.utils.enums.ResultadoDisparo;
 
 /**
  * TableroDisparosServidor.java
@@ -11,6 +13,11 @@ import mx.itson.exceptions.ModelException;
  * Registra todos los disparos realizados por el jugador hacia el oponente
  * y valida que no se repitan disparos en la misma coordenada.
  *
+ * Las casillas disparadas se guardan en un mapa de bits y el historial en
+ * arreglos primitivos de solo anexado (casilla, resultado y nanosegundos desde
+ * la creación del tablero). Como no se repiten casillas, el historial nunca
+ * pasa de tamanio * tamanio entradas y se reserva completo al crear el tablero.
+ *
  * @author Leonardo Flores Leyva
  * ID: 00000252390
  * @author Yuri Germán García López
@@ -24,18 +31,35 @@ import mx.itson.exceptions.ModelException;
  */
 public class TableroDisparosServidor extends Tablero implements ITableroDisparos {
     
-    private final Set<Disparo> disparos;
+    private static final ResultadoDisparo[] RESULTADOS = ResultadoDisparo.values();
+    // Valor del historial para un disparo registrado sin resultado
+    private static final byte SIN_RESULTADO = -1;
+
+    private final long[] disparadas;
+    private final short[] historialCasillas;
+    private final byte[] historialResultados;
+    private final long[] historialNanos;
+    private final LocalDateTime creacion;
+    private final long nanosCreacion;
+    private int totalDisparos;
+    private int aciertos;
 
     /**
      * Constructor de la clase TableroDisparosServidor.
-     * Inicializa el tablero con el tamaño especificado y crea el conjunto de disparos.
+     * Inicializa el tablero con el tamaño especificado y reserva el historial.
      *
      * @param tamanio Tamaño del tablero
      * @throws ModelException Si el tamaño es inválido
      */
     public TableroDisparosServidor(int tamanio) throws ModelException {
         super(tamanio);
-        this.disparos = new HashSet<>();
+        int totalCasillas = tamanio * tamanio;
+        this.disparadas = new long[(totalCasillas + 63) >>> 6];
+        this.historialCasillas = new short[totalCasillas];
+        this.historialResultados = new byte[totalCasillas];
+        this.historialNanos = new long[totalCasillas];
+        this.creacion = LocalDateTime.now();
+        this.nanosCreacion = System.nanoTime();
     }
 
     /**
@@ -49,10 +73,31 @@ public class TableroDisparosServidor extends Tablero implements ITableroDisparos
     public void añadirDisparo(Disparo disparo) throws ModelException{
         // Verifica que el disparo no sea null
         if(disparo == null) throw new ModelException("Disparo inválido");
+        registrarDisparo(disparo.obtenerCoordenada(), disparo.obtenerResultado());
+    }
+
+    /**
+     * Registra un disparo en el mapa de bits y lo anexa al historial.
+     *
+     * @param coordenada Coordenada del disparo
+     * @param resultado Resultado del disparo
+     * @throws ModelException Si la coordenada es null, está fuera del tablero o ya fue disparada
+     */
+    @Override
+    public void registrarDisparo(Coordenada coordenada, ResultadoDisparo resultado) throws ModelException {
         // Valida el disparo (podría ser innecesario si es validado por la partida o el subsistema)
-        validarDisparo(disparo.obtenerCoordenada());
-        // Añade el disparo
-        this.disparos.add(disparo);
+        validarDisparo(coordenada);
+
+        int casilla = indice(coordenada);
+        disparadas[casilla >>> 6] |= 1L << casilla;
+
+        historialCasillas[totalDisparos] = (short) casilla;
+        historialResultados[totalDisparos] = resultado == null ? SIN_RESULTADO : (byte) resultado.ordinal();
+        historialNanos[totalDisparos] = System.nanoTime() - nanosCreacion;
+        totalDisparos++;
+
+        if(resultado == ResultadoDisparo.IMPACTO_AVERIADA || resultado == ResultadoDisparo.IMPACTO_HUNDIDA)
+            aciertos++;
     }
 
     /**
@@ -71,9 +116,8 @@ public class TableroDisparosServidor extends Tablero implements ITableroDisparos
         // Si la coordenada está fuera de los límites del tablero
         if(!super.validarCoordenada(coordenada)) throw new ModelException("Coordenada del disparo fuera de los límites del tablero");
         
-        // Verifica las coordenadas de cada disparo
-        for (Disparo d : disparos) 
-            if (d.obtenerCoordenada().equals(coordenada)) throw new ModelException("Ya existe otro disparo con la misma coordenada.");
+        // Consulta el bit de la casilla
+        if(yaDisparado(coordenada)) throw new ModelException("Ya existe otro disparo con la misma coordenada.");
         
         // Verdadero si pasa todas las validaciones
         return true;
@@ -87,18 +131,51 @@ public class TableroDisparosServidor extends Tablero implements ITableroDisparos
      */
     @Override
     public boolean yaDisparado(Coordenada coordenada) {
-        for (Disparo disparo : disparos)
-            if (disparo.obtenerCoordenada().equals(coordenada)) return true;
-        return false;
+        int x = coordenada.obtenerX();
+        int y = coordenada.obtenerY();
+        if(x < 0 || x >= tamanio || y < 0 || y >= tamanio) return false;
+        int casilla = indice(coordenada);
+        return (disparadas[casilla >>> 6] & (1L << casilla)) != 0;
     }
 
     /**
-     * Obtiene el conjunto de todos los disparos realizados.
+     * Reconstruye el historial de disparos en el orden en que se hicieron.
+     * Es una copia; los disparos no guardan al jugador porque el tablero ya
+     * pertenece a quien disparó.
      *
      * @return Set con el historial de disparos
      */
     @Override
     public Set<Disparo> getDisparosRealizados() {
-        return this.disparos;
+        Set<Disparo> disparos = new LinkedHashSet<>();
+        for (int i = 0; i < totalDisparos; i++) {
+            int casilla = historialCasillas[i];
+            byte resultado = historialResultados[i];
+            disparos.add(new Disparo(
+                    new Coordenada(casilla / tamanio, casilla % tamanio),
+                    resultado == SIN_RESULTADO ? null : RESULTADOS[resultado],
+                    creacion.plusNanos(historialNanos[i])));
+        }
+        return disparos;
+    }
+
+    /**
+     * Obtiene la cantidad de disparos realizados.
+     *
+     * @return Total de disparos
+     */
+    @Override
+    public int getTotalDisparos() {return totalDisparos;}
+
+    /**
+     * Obtiene la cantidad de disparos que impactaron una nave.
+     *
+     * @return Total de aciertos
+     */
+    @Override
+    public int getAciertos() {return aciertos;}
+
+    private int indice(Coordenada coordenada) {
+        return coordenada.obtenerX() * tamanio + coordenada.obtenerY();
     }
-}
\ No newline at end of file
+}
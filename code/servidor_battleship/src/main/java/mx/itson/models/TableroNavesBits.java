@@ -0,0 +1,371 @@
+package mx.itson.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import mx.itson.exceptions.ModelException;
+import mx.itson.utils.enums.EstadoCasilla;
+import mx.itson.utils.enums.EstadoNave;
+
+/**
+ * TableroNavesBits.java
+ *
+ * Tablero de naves del servidor representado con mapas de bits.
+ * Cada casilla es un bit en tres máscaras (ocupadas, impactadas y hundidas)
+ * y un arreglo de bytes indica qué nave ocupa cada casilla. Así un disparo
+ * se resuelve con unas cuantas operaciones de bits y un acceso al índice, sin
+ * recorrer las naves ni crear objetos.
+ *
+ * Se comporta igual que TableroNavesServidor y comparte sus validaciones;
+ * TableroFactory decide cuál de las dos implementaciones se usa.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+public class TableroNavesBits extends Tablero implements ITableroNaves {
+
+    private static final byte SIN_NAVE = -1;
+
+    // Una posición por casilla: índice = x * tamanio + y
+    private final long[] ocupadas;
+    private final long[] impactadas;
+    private final long[] hundidas;
+    private final byte[] indiceNave;
+
+    // Naves por ranura; el índice de la ranura es el que guarda indiceNave
+    private Nave[] naves;
+    private byte[] impactosRestantes;
+    private int cantidadNaves;
+    private int navesHundidas;
+
+    /**
+     * Constructor de la clase TableroNavesBits.
+     * Crea las máscaras vacías y el índice de casillas sin naves.
+     *
+     * @param tamanio Tamaño del tablero
+     * @throws ModelException Si el tamaño es inválido
+     */
+    public TableroNavesBits(int tamanio) throws ModelException {
+        super(tamanio);
+        int totalCasillas = tamanio * tamanio;
+        int palabras = (totalCasillas + 63) >>> 6;
+        this.ocupadas = new long[palabras];
+        this.impactadas = new long[palabras];
+        this.hundidas = new long[palabras];
+        this.indiceNave = new byte[totalCasillas];
+        Arrays.fill(indiceNave, SIN_NAVE);
+        this.naves = new Nave[TableroNavesServidor.totalFlota()];
+        this.impactosRestantes = new byte[naves.length];
+    }
+
+    /**
+     * Añade una nave al tablero.
+     * Valida que la nave sea válida y que las casillas no estén ocupadas.
+     *
+     * @param nave Nave a añadir
+     * @return true si se añadió exitosamente
+     * @throws ModelException Si la nave es inválida o la posición está ocupada
+     */
+    @Override
+    public boolean añadirNave(Nave nave) throws ModelException {
+        if(nave == null || nave.obtenerCoordenadas() == null || nave.getTipo() == null)
+            throw new ModelException("Ingrese una nave válida.");
+
+        TableroNavesServidor.verificarNave(nave, tamanio);
+
+        Coordenada[] coordenadasNave = nave.obtenerCoordenadas();
+        // Una casilla ocupada o ya impactada no admite otra nave
+        for(Coordenada coordenada : coordenadasNave){
+            int casilla = indice(coordenada.obtenerX(), coordenada.obtenerY());
+            if(leerBit(ocupadas, casilla) || leerBit(impactadas, casilla))
+                throw new ModelException("Ya se encuentra una nave en la posición.");
+        }
+
+        int ranura = ranuraLibre();
+        naves[ranura] = nave;
+        impactosRestantes[ranura] = (byte) coordenadasNave.length;
+        cantidadNaves++;
+
+        for(Coordenada coordenada : coordenadasNave){
+            int casilla = indice(coordenada.obtenerX(), coordenada.obtenerY());
+            encenderBit(ocupadas, casilla);
+            indiceNave[casilla] = (byte) ranura;
+        }
+        return true;
+    }
+
+    /**
+     * Elimina una nave del tablero.
+     * La nave se localiza con el índice de su primera casilla y se compara
+     * por tipo y coordenadas.
+     *
+     * @param nave Nave a eliminar
+     * @return true si se eliminó exitosamente, false si no se encontró
+     * @throws ModelException Si la nave es inválida
+     */
+    @Override
+    public boolean eliminarNave(Nave nave) throws ModelException {
+        if(nave == null || nave.obtenerCoordenadas() == null || nave.getTipo() == null)
+            throw new ModelException("Ingrese una nave válida.");
+
+        TableroNavesServidor.verificarNave(nave, tamanio);
+
+        Coordenada[] coordenadasNave = nave.obtenerCoordenadas();
+        int ranura = indiceNave[indice(coordenadasNave[0].obtenerX(), coordenadasNave[0].obtenerY())];
+        if(ranura == SIN_NAVE)
+            return false;
+
+        Nave naveActual = naves[ranura];
+        Coordenada[] coordenadasNaveActual = naveActual.obtenerCoordenadas();
+        if(naveActual.getTipo() != nave.getTipo() || coordenadasNaveActual.length != coordenadasNave.length)
+            return false;
+        for (int i = 0; i < coordenadasNaveActual.length; i++)
+            if(!coordenadasNaveActual[i].compararCoordenada(coordenadasNave[i]))
+                return false;
+
+        // Las casillas de la nave quedan vacías, igual que en TableroNavesServidor
+        for(Coordenada coordenada : coordenadasNaveActual){
+            int casilla = indice(coordenada.obtenerX(), coordenada.obtenerY());
+            apagarBit(ocupadas, casilla);
+            apagarBit(impactadas, casilla);
+            apagarBit(hundidas, casilla);
+            indiceNave[casilla] = SIN_NAVE;
+        }
+        naves[ranura] = null;
+        cantidadNaves--;
+        return true;
+    }
+
+    /**
+     * Coloca todas las naves en el tablero.
+     * Si alguna nave no se puede colocar, se retiran las que ya se habían agregado.
+     *
+     * @param naves Lista de naves a colocar
+     * @return true si se colocaron exitosamente todas las naves
+     * @throws ModelException Si faltan naves o hay errores en la colocación
+     */
+    @Override
+    public boolean colocarNaves(List<Nave> naves) throws ModelException {
+        TableroNavesServidor.verificarFlota(naves);
+
+        List<Nave> navesAgregadas = new ArrayList<>();
+        try {
+            for(Nave nave : naves){
+                añadirNave(nave);
+                navesAgregadas.add(nave);
+            }
+            return true;
+        } catch (ModelException e) {
+            for(Nave naveAgregada : navesAgregadas)
+                eliminarNave(naveAgregada);
+            throw new ModelException("No se pudieron agregar todas las naves al tablero. Verifique la posición de cada una.");
+        }
+    }
+
+    /**
+     * Busca y retorna la nave ubicada en una coordenada específica.
+     *
+     * @param coordenada Coordenada a buscar
+     * @return La nave en esa coordenada, o null si no hay ninguna
+     */
+    @Override
+    public Nave encontrarNaveEnCoordenada(Coordenada coordenada) {
+        if(coordenada == null || !dentroDelTablero(coordenada.obtenerX(), coordenada.obtenerY()))
+            return null;
+        int ranura = indiceNave[indice(coordenada.obtenerX(), coordenada.obtenerY())];
+        return ranura == SIN_NAVE ? null : naves[ranura];
+    }
+
+    /**
+     * Recibe un impacto en una coordenada específica.
+     * La nave impactada se obtiene del índice y su contador de impactos
+     * restantes indica si quedó hundida.
+     *
+     * @param coordenada Coordenada del impacto
+     * @return Estado de la casilla después del impacto
+     * @throws ModelException Si la coordenada es inválida o ya fue impactada
+     */
+    @Override
+    public EstadoCasilla recibirImpacto(Coordenada coordenada) throws ModelException {
+        if(coordenada == null)
+            throw new ModelException("Ingrese una coordenada válida.");
+
+        int x = coordenada.obtenerX();
+        int y = coordenada.obtenerY();
+        if(!dentroDelTablero(x, y))
+            throw new ModelException("La coordenada está fuera del tablero.");
+
+        int casilla = indice(x, y);
+        if(leerBit(impactadas, casilla))
+            throw new ModelException("La casilla ya ha sido impactada previamente");
+        encenderBit(impactadas, casilla);
+
+        int ranura = indiceNave[casilla];
+        if(ranura == SIN_NAVE)
+            return EstadoCasilla.IMPACTADA_VACIA;
+
+        // Se mantiene el estado de la nave para los mappers y los mensajes de la partida
+        Nave nave = naves[ranura];
+        nave.setImpactosRecibidos(nave.getImpactosRecibidos() + 1);
+
+        if(--impactosRestantes[ranura] > 0){
+            nave.setEstado(EstadoNave.AVERIADA);
+            return EstadoCasilla.IMPACTADA_AVERIADA;
+        }
+
+        nave.setEstado(EstadoNave.HUNDIDA);
+        for(Coordenada coordenadaNave : nave.obtenerCoordenadas())
+            encenderBit(hundidas, indice(coordenadaNave.obtenerX(), coordenadaNave.obtenerY()));
+        navesHundidas++;
+        return EstadoCasilla.IMPACTADA_HUNDIDA;
+    }
+
+    /**
+     * Obtiene el estado de una casilla a partir de las máscaras.
+     *
+     * @param x Fila de la casilla
+     * @param y Columna de la casilla
+     * @return Estado actual de la casilla
+     */
+    @Override
+    public EstadoCasilla obtenerEstadoCasilla(int x, int y) {
+        int casilla = indice(x, y);
+        boolean ocupada = leerBit(ocupadas, casilla);
+        if(!leerBit(impactadas, casilla))
+            return ocupada ? EstadoCasilla.OCUPADA : EstadoCasilla.VACIA;
+        if(!ocupada)
+            return EstadoCasilla.IMPACTADA_VACIA;
+        return leerBit(hundidas, casilla) ? EstadoCasilla.IMPACTADA_HUNDIDA : EstadoCasilla.IMPACTADA_AVERIADA;
+    }
+
+    /**
+     * Construye una matriz de casillas con el estado actual del tablero.
+     * Es una copia: modificarla no afecta al tablero.
+     *
+     * @return Matriz bidimensional de casillas
+     */
+    @Override
+    public Casilla[][] getCasillas() {
+        Casilla[][] casillas = new Casilla[tamanio][tamanio];
+        try {
+            for (int i = 0; i < tamanio; i++) {
+                for (int j = 0; j < tamanio; j++) {
+                    Casilla casilla = new Casilla(new Coordenada(i, j));
+                    // Se reproducen las transiciones de Casilla hasta llegar al estado actual
+                    switch(obtenerEstadoCasilla(i, j)){
+                        case OCUPADA -> casilla.ocuparCasilla();
+                        case IMPACTADA_VACIA -> casilla.marcarImpactoAgua();
+                        case IMPACTADA_AVERIADA -> {
+                            casilla.ocuparCasilla();
+                            casilla.marcarImpactoAveriada();
+                        }
+                        case IMPACTADA_HUNDIDA -> {
+                            casilla.ocuparCasilla();
+                            casilla.marcarImpactoAveriada();
+                            casilla.marcarImpactoHundida();
+                        }
+                        default -> {}
+                    }
+                    casillas[i][j] = casilla;
+                }
+            }
+        } catch (ModelException e) {
+            throw new IllegalStateException("Estado de casilla inconsistente: " + e.getMessage(), e);
+        }
+        return casillas;
+    }
+
+    /**
+     * Verifica si todas las naves han sido colocadas en el tablero.
+     *
+     * @return true si todas las naves están colocadas
+     */
+    @Override
+    public boolean navesColocadas() {return cantidadNaves == TableroNavesServidor.totalFlota();}
+
+    /**
+     * Obtiene el número de naves hundidas.
+     *
+     * @return Cantidad de naves hundidas
+     */
+    @Override
+    public int getNavesHundidas() {return navesHundidas;}
+
+    /**
+     * Obtiene la lista de todas las naves en el tablero.
+     *
+     * @return Lista de naves, o null si no hay naves
+     */
+    @Override
+    public List<Nave> getNaves() {
+        if(cantidadNaves == 0)
+            return null;
+        List<Nave> navesLista = new ArrayList<>(cantidadNaves);
+        for(Nave nave : naves)
+            if(nave != null)
+                navesLista.add(nave);
+        return navesLista;
+    }
+
+    /**
+     * Obtiene el número total de naves que debe tener el tablero.
+     *
+     * @return Total de naves requeridas
+     */
+    @Override
+    public int getTotalNaves() {return TableroNavesServidor.totalFlota();}
+
+    /**
+     * Verifica si todas las naves del tablero han sido hundidas.
+     *
+     * @return true si todas las naves están hundidas
+     */
+    @Override
+    public boolean todasNavesHundidas() {
+        int totalNaves = TableroNavesServidor.totalFlota();
+        return totalNaves > 0 && navesHundidas >= totalNaves;
+    }
+
+    /**
+     * Busca una ranura libre para una nave nueva; si no hay, amplía los arreglos.
+     * El índice de casillas es de tipo byte, así que caben hasta 127 naves.
+     */
+    private int ranuraLibre() throws ModelException {
+        for (int i = 0; i < naves.length; i++)
+            if(naves[i] == null)
+                return i;
+        if(naves.length >= Byte.MAX_VALUE)
+            throw new ModelException("El tablero no admite más naves.");
+        int ranura = naves.length;
+        int capacidad = Math.min(Byte.MAX_VALUE, naves.length * 2 + 1);
+        naves = Arrays.copyOf(naves, capacidad);
+        impactosRestantes = Arrays.copyOf(impactosRestantes, capacidad);
+        return ranura;
+    }
+
+    private boolean dentroDelTablero(int x, int y) {
+        return x >= 0 && x < tamanio && y >= 0 && y < tamanio;
+    }
+
+    private int indice(int x, int y) {return x * tamanio + y;}
+
+    private static boolean leerBit(long[] mascara, int casilla) {
+        return (mascara[casilla >>> 6] & (1L << casilla)) != 0;
+    }
+
+    private static void encenderBit(long[] mascara, int casilla) {
+        mascara[casilla >>> 6] |= 1L << casilla;
+    }
+
+    private static void apagarBit(long[] mascara, int casilla) {
+        mascara[casilla >>> 6] &= ~(1L << casilla);
+    }
+}
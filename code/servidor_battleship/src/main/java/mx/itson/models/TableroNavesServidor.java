@@ -33,10 +33,10 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
     private Set<Nave> naves;
     private final Casilla[][] casillas;
     private int navesHundidas;
-    private final int totalPortaaviones = 2;
-    private final int totalCruceros = 2;
-    private final int totalSubmarinos = 4;
-    private final int totalBarcos = 3;
+    private static final int totalPortaaviones = 2;
+    private static final int totalCruceros = 2;
+    private static final int totalSubmarinos = 4;
+    private static final int totalBarcos = 3;
 
     /**
      * Constructor de la clase TableroNavesServidor.
@@ -68,7 +68,7 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
             throw new ModelException("Ingrese una nave válida.");
         
         // Verifica que la nave sea válida
-        verificarNave(nave);
+        verificarNave(nave, tamanio);
         
         Coordenada[] coordenadasNave = nave.obtenerCoordenadas();
         // Verifica si alguna de las casillas ya está ocupada (para cada coordenada que abarca la nave)
@@ -102,7 +102,7 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
             throw new ModelException("Ingrese una nave válida.");
         
         // Verifica que la nave sea válida
-        verificarNave(nave);
+        verificarNave(nave, tamanio);
         
         // Obtiene las coordenadas de la nave a eliminar
         Coordenada[] coordenadasNave = nave.obtenerCoordenadas();
@@ -147,6 +147,39 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
     public boolean colocarNaves(List<Nave> naves) throws ModelException{
         // Lista de naves agregadas
         List<Nave> navesAgregadas = new ArrayList<>();
+        // Verifica que se recibió la flota completa
+        verificarFlota(naves);
+        // Si se recibió el total de naves esperado
+        try {
+            // Intenta agregar cada nave al tablero
+            for(Nave nave: naves){
+                // Agrega la nave al conjunto de naves del tablero
+                añadirNave(nave);
+                // Agrega la nave a la lista de naves agregadas
+                navesAgregadas.add(nave);
+            }
+            // Confirma la exitosa colocación de las naves
+            return true;
+            
+        } catch (ModelException e) {
+            // Si la lista de naves agregadas no está vacía
+            if(!navesAgregadas.isEmpty())
+                // Elimina cada nave agregada del tablero
+                for(Nave naveAgregada : navesAgregadas)
+                    eliminarNave(naveAgregada);
+            // Lanza la excepción correspondiente
+            throw new ModelException("No se pudieron agregar todas las naves al tablero. Verifique la posición de cada una.");
+        }
+    }
+
+    /**
+     * Verifica que una lista de naves corresponda con la flota completa del tablero.
+     * Es compartido por las implementaciones de ITableroNaves del servidor.
+     *
+     * @param naves Lista de naves a verificar
+     * @throws ModelException Si falta o sobra algún tipo de nave, con el detalle por tipo
+     */
+    static void verificarFlota(List<Nave> naves) throws ModelException{
         // Variables para guardar la cantidad de cada tipo de naves del conjunto de naves recibido
         int portaaviones = 0, cruceros = 0, submarinos = 0, barcos = 0;
         // Recorre cada nave
@@ -190,27 +223,6 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
             // Se lanza la excepción con el mensaje de error personalizado
             throw new ModelException(mensajeError);
         }
-        // Si se recibió el total de naves esperado
-        try {
-            // Intenta agregar cada nave al tablero
-            for(Nave nave: naves){
-                // Agrega la nave al conjunto de naves del tablero
-                añadirNave(nave);
-                // Agrega la nave a la lista de naves agregadas
-                navesAgregadas.add(nave);
-            }
-            // Confirma la exitosa colocación de las naves
-            return true;
-            
-        } catch (ModelException e) {
-            // Si la lista de naves agregadas no está vacía
-            if(!navesAgregadas.isEmpty())
-                // Elimina cada nave agregada del tablero
-                for(Nave naveAgregada : navesAgregadas)
-                    eliminarNave(naveAgregada);
-            // Lanza la excepción correspondiente
-            throw new ModelException("No se pudieron agregar todas las naves al tablero. Verifique la posición de cada una.");
-        }
     }
 
     /**
@@ -298,9 +310,10 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
      * Valida el tipo, tamaño, orientación y que esté dentro del tablero.
      *
      * @param nave Nave a verificar
+     * @param tamanio Tamaño del tablero donde se colocará
      * @throws ModelException Si la nave no cumple con las validaciones
      */
-    private void verificarNave(Nave nave) throws ModelException{
+    static void verificarNave(Nave nave, int tamanio) throws ModelException{
         // Obtiene las coordenadas de la nave
         Coordenada[] coordenadas = nave.obtenerCoordenadas();
         // Obtiene el tipo de nave
@@ -398,7 +411,7 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
      * @return true si todas las naves están colocadas
      */
     @Override
-    public boolean navesColocadas(){return naves.size() == (totalPortaaviones + totalCruceros + totalSubmarinos + totalBarcos);}
+    public boolean navesColocadas(){return naves.size() == totalFlota();}
 
     /**
      * Obtiene el número de naves hundidas.
@@ -433,13 +446,30 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
     @Override
     public Casilla[][] getCasillas() {return casillas;}
 
+    /**
+     * Obtiene el estado de una casilla sin exponer la matriz.
+     *
+     * @param x Fila de la casilla
+     * @param y Columna de la casilla
+     * @return Estado actual de la casilla
+     */
+    @Override
+    public EstadoCasilla obtenerEstadoCasilla(int x, int y) {return casillas[x][y].obtenerEstado();}
+
     /**
      * Obtiene el número total de naves que debe tener el tablero.
      *
      * @return Total de naves requeridas
      */
     @Override
-    public int getTotalNaves() {return totalPortaaviones + totalCruceros + totalSubmarinos + totalBarcos;}
+    public int getTotalNaves() {return totalFlota();}
+
+    /**
+     * Obtiene el número de naves que forman la flota completa.
+     *
+     * @return Suma de naves requeridas de cada tipo
+     */
+    static int totalFlota() {return totalPortaaviones + totalCruceros + totalSubmarinos + totalBarcos;}
 
     /**
      * Verifica si todas las naves del tablero han sido hundidas.
@@ -448,7 +478,7 @@ public class TableroNavesServidor extends Tablero implements ITableroNaves {
      */
     @Override
     public boolean todasNavesHundidas() {
-        int totalNaves = totalPortaaviones + totalCruceros + totalSubmarinos + totalBarcos;
+        int totalNaves = totalFlota();
         return totalNaves > 0 && navesHundidas >= totalNaves;
     }
 }
\ No newline at end of file
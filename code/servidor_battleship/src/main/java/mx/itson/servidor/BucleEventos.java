@@ -0,0 +1,206 @@
+package mx.itson.servidor;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Bucle de eventos del transporte NIO. Un solo thread atiende con un
+ * Selector todas las conexiones asignadas: lee marcos, entrega los mensajes
+ * completos al ManejadorCliente y vacía las colas de salida.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class BucleEventos implements Runnable {
+
+    private final String nombre;
+    private final Selector selector;
+    private final Queue<Runnable> tareas;
+    private final AtomicInteger conexiones;
+    private volatile boolean ejecutando;
+    private Thread hilo;
+
+    /**
+     * Constructor
+     * @param nombre Nombre del bucle, usado para el thread y los logs
+     * @throws IOException si no se puede abrir el Selector
+     */
+    public BucleEventos(String nombre) throws IOException {
+        this.nombre = nombre;
+        this.selector = Selector.open();
+        this.tareas = new ConcurrentLinkedQueue<>();
+        this.conexiones = new AtomicInteger();
+        this.ejecutando = false;
+    }
+
+    /**
+     * Inicia el thread del bucle
+     */
+    public void iniciar() {
+        ejecutando = true;
+        hilo = new Thread(this, nombre);
+        hilo.start();
+    }
+
+    /**
+     * Asigna un canal nuevo a este bucle
+     * @param canal Canal aceptado
+     * @param manejador Manejador que procesará sus mensajes
+     */
+    public void registrar(CanalNIO canal, ManejadorCliente manejador) {
+        canal.setManejador(manejador);
+        conexiones.incrementAndGet();
+        ejecutarEnBucle(() -> {
+            try {
+                canal.getCanal().register(selector, SelectionKey.OP_READ, canal);
+                System.out.println("[NIO] " + nombre + " atiende cliente " + canal.getDireccionRemota());
+            } catch (ClosedChannelException e) {
+                canal.cerrar();
+            }
+        });
+    }
+
+    /**
+     * Pide al bucle que escriba los marcos pendientes de un canal.
+     * Puede llamarse desde cualquier thread.
+     * @param canal Canal con datos por escribir
+     */
+    void solicitarEscritura(CanalNIO canal) {
+        ejecutarEnBucle(() -> {
+            SelectionKey llave = canal.getCanal().keyFor(selector);
+            if (llave != null && llave.isValid()) {
+                llave.interestOps(llave.interestOps() | SelectionKey.OP_WRITE);
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        while (ejecutando) {
+            try {
+                selector.select();
+                ejecutarTareas();
+
+                Iterator<SelectionKey> iterador = selector.selectedKeys().iterator();
+                while (iterador.hasNext()) {
+                    SelectionKey llave = iterador.next();
+                    iterador.remove();
+                    atender(llave);
+                }
+            } catch (IOException e) {
+                if (ejecutando) {
+                    System.err.println("[NIO] Error en " + nombre + ": " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                // Una tarea encolada que falla no debe dejar sin servicio al resto de las conexiones del bucle
+                System.err.println("[NIO] Error inesperado en " + nombre + ": " + e);
+            }
+        }
+        cerrarConexiones();
+    }
+
+    /**
+     * Atiende los eventos listos de una conexión
+     * @param llave Llave seleccionada
+     */
+    private void atender(SelectionKey llave) {
+        CanalNIO canal = (CanalNIO) llave.attachment();
+        ManejadorCliente manejador = canal.getManejador();
+        try {
+            if (llave.isReadable()) {
+                for (MensajeDTO mensaje : canal.leer()) {
+                    manejador.recibirMensaje(mensaje);
+                    if (!manejador.isConectado()) break;
+                }
+            }
+            if (llave.isValid() && llave.isWritable() && canal.escribirPendientes()) {
+                llave.interestOps(llave.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+            if (!manejador.isConectado() || !canal.isAbierto()) {
+                cerrar(llave, canal);
+            }
+        } catch (IOException | CancelledKeyException e) {
+            System.err.println("[NIO] Conexión terminada (" + canal.getDireccionRemota() + "): " + e.getMessage());
+            cerrar(llave, canal);
+        } catch (RuntimeException e) {
+            // Un mensaje que el manejador no supo procesar cierra solo esa conexión; el bucle sigue
+            System.err.println("[NIO] Error al atender " + canal.getDireccionRemota() + ", se cierra la conexión: " + e);
+            cerrar(llave, canal);
+        }
+    }
+
+    private void cerrar(SelectionKey llave, CanalNIO canal) {
+        llave.cancel();
+        canal.cerrar();
+    }
+
+    /**
+     * Da de baja un canal que se cerró, desde cualquier thread
+     * (por ejemplo, al desbordarse su cola de salida)
+     * @param canal Canal cerrado
+     */
+    void liberar(CanalNIO canal) {
+        ejecutarEnBucle(() -> {
+            conexiones.decrementAndGet();
+            ManejadorCliente manejador = canal.getManejador();
+            if (manejador != null) manejador.desconectar();
+        });
+    }
+
+    private void ejecutarEnBucle(Runnable tarea) {
+        if (Thread.currentThread() == hilo) {
+            tarea.run();
+            return;
+        }
+        tareas.add(tarea);
+        selector.wakeup();
+    }
+
+    private void ejecutarTareas() {
+        Runnable tarea;
+        while ((tarea = tareas.poll()) != null) {
+            tarea.run();
+        }
+    }
+
+    private void cerrarConexiones() {
+        for (SelectionKey llave : selector.keys()) {
+            if (llave.attachment() instanceof CanalNIO canal) {
+                canal.cerrar();
+            }
+        }
+        ejecutarTareas();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("[NIO] Error al cerrar selector: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detiene el bucle y cierra sus conexiones
+     */
+    public void detener() {
+        ejecutando = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Obtiene el número de conexiones atendidas por el bucle
+     * @return Conexiones activas
+     */
+    public int getConexiones() {
+        return conexiones.get();
+    }
+}
@@ -0,0 +1,135 @@
+package mx.itson.servidor;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.protocolo.FormatoMensajes;
+import mx.itson.utils.protocolo.GobernadorSerializacion;
+import mx.itson.utils.protocolo.IConexionMensajes;
+import mx.itson.utils.protocolo.NegociacionProtocolo;
+
+/**
+ * Canal del transporte bloqueante: un socket con la conexión que resulte de
+ * la negociación (marcos, o ObjectStream para clientes anteriores), atendido por un thread lector que procesa mensajes en bucle y un
+ * thread escritor que vacía la cola de salida de la conexión.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CanalBloqueante implements ICanalCliente {
+
+    private final Socket socket;
+    private final ColaSalida colaSalida;
+    private final Thread.Builder constructorHilos;
+    private final FormatoMensajes formatoPreferido;
+    private final GobernadorSerializacion gobernador;
+    private final int tiempoMaximoLecturaMs;
+    private volatile IConexionMensajes conexion;
+
+    /**
+     * Constructor
+     * @param socket Socket del cliente
+     * @param colaSalida Cola acotada de mensajes por enviar
+     * @param constructorHilos Constructor del thread escritor (de plataforma o virtual)
+     * @param formatoPreferido Formato elegido si el cliente lo ofrece al negociar
+     * @param gobernador Reinicios y contadores del ObjectOutputStream si el cliente no negocia
+     * @param tiempoMaximoLecturaMs SO_TIMEOUT del socket: una lectura que espera más da la conexión por muerta
+     */
+    public CanalBloqueante(Socket socket, ColaSalida colaSalida, Thread.Builder constructorHilos,
+            FormatoMensajes formatoPreferido, GobernadorSerializacion gobernador, int tiempoMaximoLecturaMs) {
+        this.socket = socket;
+        this.colaSalida = colaSalida;
+        this.constructorHilos = constructorHilos;
+        this.formatoPreferido = formatoPreferido;
+        this.gobernador = gobernador;
+        this.tiempoMaximoLecturaMs = tiempoMaximoLecturaMs;
+    }
+
+    /**
+     * Negocia el formato, abre los streams y procesa mensajes del cliente hasta que se desconecte.
+     * Se ejecuta en el thread asignado a este cliente.
+     * @param manejador Manejador que procesa los mensajes recibidos
+     */
+    public void atender(ManejadorCliente manejador) {
+        try {
+            // También acota la espera del preámbulo de un cliente que nunca lo envía
+            socket.setSoTimeout(tiempoMaximoLecturaMs);
+            conexion = NegociacionProtocolo.aceptarServidor(socket.getInputStream(), socket.getOutputStream(),
+                    formatoPreferido, gobernador);
+            constructorHilos.start(this::escribirPendientes);
+
+            System.out.println("[MANEJADOR] Cliente conectado desde: " + socket.getInetAddress() +
+                               " (" + conexion.getClass().getSimpleName() + ")");
+
+            while (manejador.isConectado()) {
+                manejador.recibirMensaje(conexion.recibir());
+            }
+
+        } catch (SocketTimeoutException e) {
+            System.err.println("[MANEJADOR] Sin datos de " + socket.getInetAddress() + " en " + tiempoMaximoLecturaMs + " ms, se cierra la conexión");
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("[MANEJADOR] Error en comunicación: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("[MANEJADOR] Error al procesar un mensaje de " + socket.getInetAddress() + ", se cierra la conexión: " + e);
+        } finally {
+            manejador.desconectar();
+            if (gobernador.getMensajes() > 0) {
+                System.out.println("[MANEJADOR] Flujo de objetos de " + socket.getInetAddress() + ": " + gobernador);
+            }
+        }
+    }
+
+    /**
+     * Bucle del thread escritor: envía los mensajes en el orden en que se encolaron
+     */
+    private void escribirPendientes() {
+        try {
+            MensajeDTO mensaje;
+            while ((mensaje = colaSalida.tomar()) != null) {
+                conexion.enviar(mensaje);
+                if (colaSalida.getPendientes() == 0) {
+                    conexion.finLote();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[MANEJADOR] Error al escribir al cliente: " + e.getMessage());
+            cerrar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void enviar(MensajeDTO mensaje) throws IOException {
+        if (!colaSalida.encolar(mensaje)) {
+            cerrar();
+            throw new IOException("Cola de salida desbordada o cerrada");
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        colaSalida.cerrar();
+        // Cerrar el socket libera a la vez al lector y al escritor
+        try {
+            if (!socket.isClosed()) socket.close();
+        } catch (IOException e) {
+            System.err.println("[MANEJADOR] Error al cerrar socket: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Contadores del ObjectOutputStream de esta conexión (en cero si el cliente negoció marcos)
+     * @return Gobernador de la conexión
+     */
+    public GobernadorSerializacion getGobernador() {return gobernador;}
+
+    @Override
+    public String getDireccionRemota() {
+        return String.valueOf(socket.getInetAddress());
+    }
+}
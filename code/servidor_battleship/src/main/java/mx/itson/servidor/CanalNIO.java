@@ -0,0 +1,193 @@
+package mx.itson.servidor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.protocolo.ConexionMarcos;
+import mx.itson.utils.protocolo.FormatoMensajes;
+import mx.itson.utils.protocolo.ICodificadorMensajes;
+import mx.itson.utils.protocolo.NegociacionProtocolo;
+
+/**
+ * Canal del transporte NIO. Lo primero que llega es el preámbulo de
+ * NegociacionProtocolo; después los mensajes viajan en marcos con prefijo de
+ * longitud en el formato acordado. enviar() solo encola en la ColaSalida y el BucleEventos dueño
+ * del canal codifica y escribe cuando el socket acepta datos.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CanalNIO implements ICanalCliente {
+
+    private static final int TAMANO_BUFFER_INICIAL = 8 * 1024;
+
+    private final SocketChannel canal;
+    private final BucleEventos bucle;
+    private final FormatoMensajes formatoPreferido;
+    private final ColaSalida colaSalida;
+    private final String direccionRemota;
+    private final AtomicBoolean abierto;
+    private ByteBuffer lectura;
+    private ByteBuffer marcoActual;
+    private ICodificadorMensajes codificador;
+    private ManejadorCliente manejador;
+
+    /**
+     * Constructor
+     * @param canal Canal aceptado, ya en modo no bloqueante
+     * @param bucle Bucle de eventos que atenderá el canal
+     * @param formatoPreferido Formato elegido si el cliente lo ofrece al negociar
+     * @param colaSalida Cola acotada de mensajes por enviar
+     */
+    public CanalNIO(SocketChannel canal, BucleEventos bucle, FormatoMensajes formatoPreferido, ColaSalida colaSalida) {
+        this.canal = canal;
+        this.bucle = bucle;
+        this.formatoPreferido = formatoPreferido;
+        this.colaSalida = colaSalida;
+        this.lectura = ByteBuffer.allocate(TAMANO_BUFFER_INICIAL);
+        this.direccionRemota = obtenerDireccion(canal);
+        this.abierto = new AtomicBoolean(true);
+    }
+
+    @Override
+    public void enviar(MensajeDTO mensaje) throws IOException {
+        if (!abierto.get()) {
+            throw new IOException("Canal cerrado");
+        }
+        if (!colaSalida.encolar(mensaje)) {
+            cerrar();
+            throw new IOException("Cola de salida desbordada");
+        }
+        bucle.solicitarEscritura(this);
+    }
+
+    /**
+     * Lee los bytes disponibles y decodifica los marcos completos.
+     * Solo lo invoca el bucle de eventos.
+     * @return Mensajes completos recibidos (puede estar vacía)
+     * @throws IOException si el cliente cerró la conexión o envió un marco inválido
+     */
+    List<MensajeDTO> leer() throws IOException {
+        if (canal.read(lectura) < 0) {
+            throw new EOFException("El cliente cerró la conexión");
+        }
+
+        List<MensajeDTO> mensajes = new ArrayList<>();
+        lectura.flip();
+        if (codificador == null) {
+            negociar();
+        }
+        while (codificador != null && lectura.remaining() >= Integer.BYTES) {
+            int longitud = lectura.getInt(lectura.position());
+            if (longitud < 0 || longitud > ConexionMarcos.TAMANO_MAXIMO_MARCO) {
+                throw new IOException("Longitud de marco inválida: " + longitud);
+            }
+            if (lectura.remaining() < Integer.BYTES + longitud) {
+                break;
+            }
+            lectura.position(lectura.position() + Integer.BYTES);
+            mensajes.add(codificador.decodificar(lectura.array(), lectura.arrayOffset() + lectura.position(), longitud));
+            lectura.position(lectura.position() + longitud);
+        }
+        lectura.compact();
+
+        // Crecer el buffer si el marco pendiente no cabe
+        if (!lectura.hasRemaining()) {
+            ByteBuffer mayor = ByteBuffer.allocate(lectura.capacity() * 2);
+            lectura.flip();
+            mayor.put(lectura);
+            lectura = mayor;
+        }
+        return mensajes;
+    }
+
+    /**
+     * Intenta leer el preámbulo del cliente; la respuesta se envía antes que cualquier marco
+     */
+    private void negociar() throws IOException {
+        FormatoMensajes elegido = NegociacionProtocolo.leerPreambulo(lectura, formatoPreferido);
+        if (elegido == null) {
+            return;
+        }
+        codificador = elegido.crearCodificador();
+        marcoActual = ByteBuffer.wrap(NegociacionProtocolo.respuesta(elegido));
+        bucle.solicitarEscritura(this);
+        System.out.println("[NIO] Formato negociado con " + direccionRemota + ": " + elegido);
+    }
+
+    /**
+     * Codifica y escribe los mensajes pendientes hasta vaciar la cola o llenar el socket.
+     * Solo lo invoca el bucle de eventos.
+     * @return true si ya no quedan mensajes pendientes
+     * @throws IOException si falla la escritura
+     */
+    boolean escribirPendientes() throws IOException {
+        while (true) {
+            if (marcoActual == null) {
+                if (codificador == null) {
+                    // Aún sin negociar: los mensajes esperan en la cola
+                    return true;
+                }
+                MensajeDTO mensaje = colaSalida.sacar();
+                if (mensaje == null) {
+                    return true;
+                }
+                byte[] contenido = codificador.codificar(mensaje);
+                marcoActual = ByteBuffer.allocate(Integer.BYTES + contenido.length);
+                marcoActual.putInt(contenido.length).put(contenido).flip();
+            }
+            canal.write(marcoActual);
+            if (marcoActual.hasRemaining()) {
+                return false;
+            }
+            marcoActual = null;
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        if (!abierto.compareAndSet(true, false)) return;
+        colaSalida.cerrar();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("[NIO] Error al cerrar canal: " + e.getMessage());
+        }
+        bucle.liberar(this);
+    }
+
+    @Override
+    public String getDireccionRemota() {
+        return direccionRemota;
+    }
+
+    /**
+     * Verifica si el canal sigue abierto
+     * @return true si está abierto
+     */
+    boolean isAbierto() {
+        return abierto.get();
+    }
+
+    SocketChannel getCanal() {return canal;}
+
+    ManejadorCliente getManejador() {return manejador;}
+
+    void setManejador(ManejadorCliente manejador) {this.manejador = manejador;}
+
+    private static String obtenerDireccion(SocketChannel canal) {
+        try {
+            return String.valueOf(canal.getRemoteAddress());
+        } catch (IOException e) {
+            return "desconocida";
+        }
+    }
+}
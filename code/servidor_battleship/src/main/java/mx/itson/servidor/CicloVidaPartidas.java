@@ -0,0 +1,145 @@
+package mx.itson.servidor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.itson.models.IPartida;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.subsistema_gestor_partidas.ReferenciaPartida;
+import mx.itson.utils.enums.EstadoPartida;
+
+/**
+ * Barrido periódico de partidas que ya no tienen quién las juegue
+ * Los caminos normales (victoria, abandono, desconexión) retiran la partida
+ * por su cuenta; este barrido es la red de seguridad para lo que se escape:
+ * partidas terminadas cuyo retiro no llegó a correr y partidas huérfanas,
+ * donde algún jugador ya no está conectado o ya está en otra partida.
+ * Una partida se retira solo si sigue en ese estado en dos barridos
+ * seguidos, para no tocar una que se está creando en ese momento
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CicloVidaPartidas {
+
+    /** Intervalo entre barridos cuando no se configura otro */
+    public static final long INTERVALO_BARRIDO_MS = 30_000;
+
+    /** Tiempo que una partida terminada sigue respondiendo antes de retirarse */
+    public static final long GRACIA_PARTIDA_TERMINADA_MS = 5_000;
+
+    private final GestorJugadores gestorJugadores;
+    private final IGestorPartidas gestorPartidas;
+    private final long intervaloMs;
+    private final ScheduledExecutorService planificador;
+    private final AtomicLong retiradasPorBarrido;
+
+    // Solo lo usa el hilo del barrido
+    private Set<String> candidatas;
+
+    /**
+     * Constructor
+     * @param gestorJugadores Gestor con el que se revisa si los jugadores siguen conectados
+     * @param gestorPartidas Gestor del que se retiran las partidas
+     * @param intervaloMs Milisegundos entre barridos
+     */
+    public CicloVidaPartidas(GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas, long intervaloMs) {
+        this.gestorJugadores = gestorJugadores;
+        this.gestorPartidas = gestorPartidas;
+        this.intervaloMs = intervaloMs;
+        this.retiradasPorBarrido = new AtomicLong();
+        this.candidatas = new HashSet<>();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "Thread-CicloVidaPartidas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa los barridos
+     */
+    public void iniciar() {
+        planificador.scheduleWithFixedDelay(() -> {
+            try {
+                barrer();
+            } catch (RuntimeException e) {
+                System.err.println("[CICLO_PARTIDAS] Error en el barrido: " + e.getMessage());
+            }
+        }, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene los barridos
+     */
+    public void detener() {
+        planificador.shutdownNow();
+    }
+
+    /**
+     * @return Partidas vivas contra retiradas, y cuántas retiró el barrido
+     */
+    public String getEstadisticas() {
+        return gestorPartidas.cantidadPartidas() + " vivas, " + gestorPartidas.cantidadPartidasRetiradas()
+                + " retiradas (" + retiradasPorBarrido.get() + " por barrido)";
+    }
+
+    /**
+     * Revisa todas las partidas; retira las que ya eran candidatas en el barrido anterior
+     */
+    private void barrer() {
+        List<String> ids = gestorPartidas.obtenerIdsPartidas();
+        Set<String> nuevasCandidatas = new HashSet<>();
+        int retiradas = 0;
+
+        for (String idPartida : ids) {
+            IPartida partida = gestorPartidas.obtenerPartidaModelo(idPartida);
+            if (partida == null) continue;
+
+            String idJugador1 = partida.getJugador1().getId();
+            String idJugador2 = partida.getJugador2().getId();
+            boolean presente1 = jugadorPresente(idJugador1, idPartida);
+            boolean presente2 = jugadorPresente(idJugador2, idPartida);
+            boolean terminada = partida.getEstadoPartida() == EstadoPartida.FINALIZADA;
+            if (presente1 && presente2 && !terminada) continue;
+
+            if (!candidatas.contains(idPartida)) {
+                nuevasCandidatas.add(idPartida);
+                continue;
+            }
+
+            // En una huérfana sin terminar, quien sigue conectado y atado a ella vuelve al lobby;
+            // los de una terminada ya volvieron al declararse el ganador
+            if (!terminada) {
+                if (presente1) gestorJugadores.liberarJugador(idJugador1);
+                if (presente2) gestorJugadores.liberarJugador(idJugador2);
+            }
+            gestorPartidas.retirarPartida(idPartida, 0);
+            retiradas++;
+        }
+        candidatas = nuevasCandidatas;
+
+        if (retiradas > 0) {
+            retiradasPorBarrido.addAndGet(retiradas);
+            System.out.println("[CICLO_PARTIDAS] Barrido: " + retiradas + " partidas retiradas, " + getEstadisticas());
+        }
+    }
+
+    /**
+     * @param idJugador ID del jugador
+     * @param idPartida Partida que se revisa
+     * @return true si el jugador sigue conectado y esta sigue siendo su partida
+     */
+    private boolean jugadorPresente(String idJugador, String idPartida) {
+        if (gestorJugadores.obtenerJugador(idJugador) == null) return false;
+        ReferenciaPartida referencia = gestorPartidas.obtenerReferenciaDeJugador(idJugador);
+        return referencia != null && referencia.idPartida().equals(idPartida);
+    }
+}
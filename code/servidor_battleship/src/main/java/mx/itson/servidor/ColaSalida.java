@@ -0,0 +1,194 @@
+package mx.itson.servidor;
+
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.enums.TipoMensaje;
+
+/**
+ * Cola acotada de mensajes pendientes de enviar a un cliente.
+ * Los productores (cualquier ManejadorCliente) solo encolan y nunca esperan
+ * a que el socket del cliente tenga espacio; un escritor propio de la
+ * conexión la vacía.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ColaSalida {
+
+    /**
+     * Qué hacer cuando la cola está llena
+     */
+    public enum PoliticaDesborde {
+        /** Descarta la actualización más antigua que ya fue reemplazada por otra más nueva */
+        DESCARTAR_OBSOLETOS,
+        /** Cierra la conexión del cliente lento */
+        DESCONECTAR
+    }
+
+    /**
+     * Mensajes cuyo contenido queda reemplazado por el siguiente del mismo tipo:
+     * solo las actualizaciones de tableros. ACTUALIZAR_TABLEROS trae los
+     * tableros completos y DELTA_TABLEROS se calcula siempre desde la versión
+     * que el cliente confirmó, así que el más nuevo incluye todo lo del anterior.
+     * LISTA_JUGADORES no está: cada una es una página de una consulta con su
+     * prefijo y cursor, y la siguiente no reemplaza a la anterior. Un lobby
+     * vacío también llega como una página, sin mensaje propio.
+     */
+    private static final Set<TipoMensaje> REEMPLAZABLES = EnumSet.of(
+            TipoMensaje.ACTUALIZAR_TABLEROS,
+            TipoMensaje.DELTA_TABLEROS
+    );
+
+    private final ArrayDeque<MensajeDTO> mensajes;
+    private final int capacidad;
+    private final PoliticaDesborde politica;
+    private final ReentrantLock candado;
+    private final Condition hayMensajes;
+    private boolean cerrada;
+    private long descartados;
+
+    /**
+     * Constructor
+     * @param capacidad Máximo de mensajes pendientes
+     * @param politica Política a aplicar cuando la cola se llena
+     */
+    public ColaSalida(int capacidad, PoliticaDesborde politica) {
+        this.mensajes = new ArrayDeque<>(Math.min(capacidad, 64));
+        this.capacidad = capacidad;
+        this.politica = politica;
+        this.candado = new ReentrantLock();
+        this.hayMensajes = candado.newCondition();
+    }
+
+    /**
+     * Agrega un mensaje sin bloquear
+     * @param mensaje Mensaje a enviar
+     * @return false si la cola se desbordó y la conexión debe cerrarse
+     */
+    public boolean encolar(MensajeDTO mensaje) {
+        candado.lock();
+        try {
+            if (cerrada) return false;
+
+            if (mensajes.size() >= capacidad && !liberarEspacio(mensaje)) {
+                System.err.println("[COLA] Cola de salida desbordada (" + capacidad + " mensajes)");
+                return false;
+            }
+            mensajes.addLast(mensaje);
+            hayMensajes.signal();
+            return true;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Intenta hacer espacio descartando la actualización obsoleta más antigua.
+     * Una actualización es obsoleta si detrás de ella hay otra del mismo tipo.
+     * @param entrante Mensaje que se quiere encolar
+     * @return true si se liberó un lugar
+     */
+    private boolean liberarEspacio(MensajeDTO entrante) {
+        if (politica == PoliticaDesborde.DESCONECTAR) return false;
+
+        Iterator<MensajeDTO> iterador = mensajes.iterator();
+        while (iterador.hasNext()) {
+            TipoMensaje tipo = iterador.next().getTipo();
+            if (REEMPLAZABLES.contains(tipo) && (entrante.getTipo() == tipo || hayPosterior(tipo))) {
+                iterador.remove();
+                descartados++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hayPosterior(TipoMensaje tipo) {
+        boolean primero = true;
+        for (MensajeDTO mensaje : mensajes) {
+            if (mensaje.getTipo() == tipo) {
+                if (!primero) return true;
+                primero = false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Espera hasta que haya un mensaje o la cola se cierre
+     * @return Siguiente mensaje, o null si la cola se cerró
+     * @throws InterruptedException si el escritor es interrumpido
+     */
+    public MensajeDTO tomar() throws InterruptedException {
+        candado.lock();
+        try {
+            while (mensajes.isEmpty() && !cerrada) {
+                hayMensajes.await();
+            }
+            return mensajes.pollFirst();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el siguiente mensaje sin bloquear
+     * @return Siguiente mensaje, o null si no hay
+     */
+    public MensajeDTO sacar() {
+        candado.lock();
+        try {
+            return mensajes.pollFirst();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Cierra la cola y descarta los mensajes pendientes
+     */
+    public void cerrar() {
+        candado.lock();
+        try {
+            cerrada = true;
+            mensajes.clear();
+            hayMensajes.signalAll();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de mensajes pendientes
+     * @return Mensajes en la cola
+     */
+    public int getPendientes() {
+        candado.lock();
+        try {
+            return mensajes.size();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene cuántas actualizaciones obsoletas se han descartado
+     * @return Mensajes descartados
+     */
+    public long getDescartados() {
+        candado.lock();
+        try {
+            return descartados;
+        } finally {
+            candado.unlock();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package mx.itson.servidor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import mx.itson.factory.TableroFactory;
+import mx.itson.utils.protocolo.FormatoMensajes;
+import mx.itson.utils.protocolo.GobernadorSerializacion;
+
+/**
+ * Opciones de arranque del servidor, leídas de los argumentos de main.
+ * Formato: --clave=valor. Las opciones no indicadas conservan su valor por defecto.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ConfiguracionServidor {
+
+    /**
+     * Transportes TCP disponibles
+     */
+    public enum Transporte {
+        /** Un thread bloqueante por cliente (por defecto) */
+        BLOQUEANTE,
+        /** Reactor NIO con bucles de eventos */
+        NIO
+    }
+
+    private Transporte transporte = Transporte.BLOQUEANTE;
+    private int hilosEventos = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private boolean hilosVirtuales = false;
+    private int capacidadColaSalida = 256;
+    private ColaSalida.PoliticaDesborde politicaDesborde = ColaSalida.PoliticaDesborde.DESCARTAR_OBSOLETOS;
+    private FormatoMensajes formatoPreferido = FormatoMensajes.BINARIO;
+    private GobernadorSerializacion.Politica politicaReinicio = GobernadorSerializacion.Politica.POR_MENSAJE;
+    private int bytesEntreReinicios = 64 * 1024;
+    private TableroFactory.MotorTableroNaves motorTablero = TableroFactory.MotorTableroNaves.BITS;
+    private int ventanaLobbyMs = (int) GestorJugadores.VENTANA_LOBBY_MS;
+    private int intervaloEmparejamientoMs = (int) Emparejador.INTERVALO_MS;
+    private int ttlInvitacionMs = (int) GestorJugadores.TTL_INVITACION_MS;
+    private int intervaloBarridoPartidasMs = (int) CicloVidaPartidas.INTERVALO_BARRIDO_MS;
+    private int intervaloLatidoMs = (int) MonitorLatidos.INTERVALO_LATIDO_MS;
+    private int latidosPerdidos = MonitorLatidos.LATIDOS_PERDIDOS;
+    private int graciaReconexionMs = (int) GestorJugadores.GRACIA_RECONEXION_MS;
+    private final Map<LimitadorMensajes.ClaseMensaje, LimitadorMensajes.Presupuesto> presupuestos =
+            new EnumMap<>(LimitadorMensajes.ClaseMensaje.class);
+    private LimitadorMensajes.Politica politicaLimite = LimitadorMensajes.Politica.DESCARTAR;
+
+    /**
+     * Crea la configuración a partir de los argumentos de línea de comandos
+     * @param args Argumentos de main
+     * @return Configuración resultante
+     * @throws IllegalArgumentException si algún argumento no es válido
+     */
+    public static ConfiguracionServidor desdeArgumentos(String[] args) {
+        ConfiguracionServidor configuracion = new ConfiguracionServidor();
+
+        for (String argumento : args) {
+            if (!argumento.startsWith("--") || !argumento.contains("=")) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + argumento);
+            }
+            String clave = argumento.substring(2, argumento.indexOf('='));
+            String valor = argumento.substring(argumento.indexOf('=') + 1);
+
+            switch (clave) {
+                case "transporte" -> configuracion.transporte = Transporte.valueOf(valor.toUpperCase());
+                case "hilos-eventos" -> configuracion.hilosEventos = leerEnteroPositivo(clave, valor);
+                case "hilos-virtuales" -> configuracion.hilosVirtuales = leerBooleano(clave, valor);
+                case "cola-salida" -> configuracion.capacidadColaSalida = leerEnteroPositivo(clave, valor);
+                case "desborde" -> configuracion.politicaDesborde = ColaSalida.PoliticaDesborde.valueOf(valor.toUpperCase());
+                case "codec" -> configuracion.formatoPreferido = FormatoMensajes.valueOf(valor.toUpperCase());
+                case "reinicio-flujo" -> configuracion.politicaReinicio =
+                        GobernadorSerializacion.Politica.valueOf(valor.toUpperCase().replace('-', '_'));
+                case "reinicio-bytes" -> configuracion.bytesEntreReinicios = leerEnteroPositivo(clave, valor);
+                case "tablero" -> configuracion.motorTablero = TableroFactory.MotorTableroNaves.valueOf(valor.toUpperCase());
+                case "lobby-ventana-ms" -> configuracion.ventanaLobbyMs = leerEnteroPositivo(clave, valor);
+                case "emparejamiento-ms" -> configuracion.intervaloEmparejamientoMs = leerEnteroPositivo(clave, valor);
+                case "invitacion-ttl-ms" -> configuracion.ttlInvitacionMs = leerEnteroPositivo(clave, valor);
+                case "barrido-partidas-ms" -> configuracion.intervaloBarridoPartidasMs = leerEnteroPositivo(clave, valor);
+                case "latido-ms" -> configuracion.intervaloLatidoMs = leerEnteroPositivo(clave, valor);
+                case "latidos-perdidos" -> configuracion.latidosPerdidos = leerEnteroPositivo(clave, valor);
+                case "gracia-reconexion-ms" -> configuracion.graciaReconexionMs = leerEnteroPositivo(clave, valor);
+                case "limite-lobby" -> configuracion.presupuestos.put(LimitadorMensajes.ClaseMensaje.LOBBY, leerPresupuesto(clave, valor));
+                case "limite-invitaciones" -> configuracion.presupuestos.put(LimitadorMensajes.ClaseMensaje.INVITACIONES, leerPresupuesto(clave, valor));
+                case "limite-partida" -> configuracion.presupuestos.put(LimitadorMensajes.ClaseMensaje.PARTIDA, leerPresupuesto(clave, valor));
+                case "limite-general" -> configuracion.presupuestos.put(LimitadorMensajes.ClaseMensaje.GENERAL, leerPresupuesto(clave, valor));
+                case "limite-exceso" -> configuracion.politicaLimite = LimitadorMensajes.Politica.valueOf(valor.toUpperCase());
+                default -> throw new IllegalArgumentException("Opción desconocida: --" + clave);
+            }
+        }
+        return configuracion;
+    }
+
+    private static int leerEnteroPositivo(String clave, String valor) {
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero <= 0) throw new NumberFormatException();
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + clave + " debe ser un entero positivo: " + valor);
+        }
+    }
+
+    /**
+     * Lee un presupuesto con el formato porSegundo/rafaga, por ejemplo 5/10
+     */
+    private static LimitadorMensajes.Presupuesto leerPresupuesto(String clave, String valor) {
+        String[] partes = valor.split("/");
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("--" + clave + " debe tener el formato porSegundo/rafaga: " + valor);
+        }
+        return new LimitadorMensajes.Presupuesto(leerEnteroPositivo(clave, partes[0]), leerEnteroPositivo(clave, partes[1]));
+    }
+
+    private static boolean leerBooleano(String clave, String valor) {
+        if (!valor.equalsIgnoreCase("true") && !valor.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("--" + clave + " debe ser true o false: " + valor);
+        }
+        return Boolean.parseBoolean(valor);
+    }
+
+    public Transporte getTransporte() {return transporte;}
+
+    public int getHilosEventos() {return hilosEventos;}
+
+    public boolean isHilosVirtuales() {return hilosVirtuales;}
+
+    public int getCapacidadColaSalida() {return capacidadColaSalida;}
+
+    public ColaSalida.PoliticaDesborde getPoliticaDesborde() {return politicaDesborde;}
+
+    public FormatoMensajes getFormatoPreferido() {return formatoPreferido;}
+
+    public GobernadorSerializacion.Politica getPoliticaReinicio() {return politicaReinicio;}
+
+    public int getBytesEntreReinicios() {return bytesEntreReinicios;}
+
+    public TableroFactory.MotorTableroNaves getMotorTablero() {return motorTablero;}
+
+    public int getVentanaLobbyMs() {return ventanaLobbyMs;}
+
+    public int getIntervaloEmparejamientoMs() {return intervaloEmparejamientoMs;}
+
+    public int getTtlInvitacionMs() {return ttlInvitacionMs;}
+
+    public int getIntervaloBarridoPartidasMs() {return intervaloBarridoPartidasMs;}
+
+    public int getIntervaloLatidoMs() {return intervaloLatidoMs;}
+
+    public int getLatidosPerdidos() {return latidosPerdidos;}
+
+    public int getGraciaReconexionMs() {return graciaReconexionMs;}
+
+    public LimitadorMensajes.Politica getPoliticaLimite() {return politicaLimite;}
+
+    /**
+     * Crea una cola de salida nueva con la capacidad y política configuradas
+     * @return Cola para una conexión
+     */
+    public ColaSalida crearColaSalida() {
+        return new ColaSalida(capacidadColaSalida, politicaDesborde);
+    }
+
+    /**
+     * Crea el monitor de latidos de un transporte con el intervalo y el umbral configurados
+     * @param nombre Nombre del thread del monitor
+     * @return Monitor sin iniciar
+     */
+    public MonitorLatidos crearMonitorLatidos(String nombre) {
+        return new MonitorLatidos(nombre, intervaloLatidoMs, latidosPerdidos);
+    }
+
+    /**
+     * Crea el límite de mensajes de un transporte con los presupuestos y la política configurados
+     * @return Limitador compartido por las conexiones del transporte
+     */
+    public LimitadorMensajes crearLimitadorMensajes() {
+        return new LimitadorMensajes(presupuestos, politicaLimite);
+    }
+
+    /**
+     * Crea el gobernador del ObjectOutputStream de una conexión que no negocia formato
+     * @return Gobernador con la política configurada
+     */
+    public GobernadorSerializacion crearGobernador() {
+        return new GobernadorSerializacion(politicaReinicio, bytesEntreReinicios);
+    }
+
+    /**
+     * Obtiene el constructor de threads para clientes y escritores
+     * @param prefijo Prefijo del nombre de los threads
+     * @return Constructor de threads virtuales o de plataforma
+     */
+    public Thread.Builder crearConstructorHilos(String prefijo) {
+        return hilosVirtuales
+                ? Thread.ofVirtual().name(prefijo + "virtual-", 1)
+                : Thread.ofPlatform().name(prefijo, 1);
+    }
+}
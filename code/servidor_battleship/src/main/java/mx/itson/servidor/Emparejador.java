@@ -0,0 +1,276 @@
+package mx.itson.servidor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.itson.exceptions.GestorPartidasException;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.utils.dtos.JugadorDTO;
+import mx.itson.utils.dtos.PartidaDTO;
+import mx.itson.utils.dtos.SolicitudPartidaDTO;
+
+/**
+ * Cola de BUSCAR_PARTIDA que empareja jugadores por rondas
+ * Los manejadores solo encolan boletos en una cola sin candados; un único
+ * hilo la vacía cada cierto intervalo, ordena a los que esperan por
+ * puntuación y junta vecinos cuya diferencia cabe en la tolerancia. La
+ * tolerancia crece con el tiempo de espera, así nadie se queda en la cola
+ * por no tener rival cercano. Las partidas se crean en el servidor sin
+ * preguntar a los clientes: ambos reciben PARTIDA_INICIADA y COLOCAR_NAVES
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class Emparejador {
+
+    /** Intervalo entre rondas cuando no se configura otro */
+    public static final long INTERVALO_MS = 200;
+
+    /** Diferencia de puntuación aceptada al entrar a la cola */
+    private static final int TOLERANCIA_INICIAL = 100;
+
+    /** Cuánto se amplía la tolerancia por cada segundo de espera */
+    private static final int TOLERANCIA_POR_SEGUNDO = 50;
+
+    private static final Comparator<Boleto> POR_PUNTUACION =
+            Comparator.comparingInt((Boleto b) -> b.puntuacion).thenComparingLong(b -> b.llegadaNanos);
+
+    private final GestorJugadores gestorJugadores;
+    private final IGestorPartidas gestorPartidas;
+    private final long intervaloMs;
+    private final Queue<Boleto> llegadas;
+    private final Map<String, Boleto> boletos; // Key: ID del jugador; el boleto vigente de cada uno
+    private final ScheduledExecutorService planificador;
+    private final AtomicLong partidasCreadas;
+    private final AtomicLong rondas;
+
+    // Solo lo usa el hilo de rondas
+    private List<Boleto> enEspera;
+
+    /**
+     * Constructor
+     * @param gestorJugadores Gestor del que se toman y marcan los jugadores
+     * @param gestorPartidas Gestor en el que se crean las partidas
+     * @param intervaloMs Milisegundos entre rondas de emparejamiento
+     */
+    public Emparejador(GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas, long intervaloMs) {
+        this.gestorJugadores = gestorJugadores;
+        this.gestorPartidas = gestorPartidas;
+        this.intervaloMs = intervaloMs;
+        this.llegadas = new ConcurrentLinkedQueue<>();
+        this.boletos = new ConcurrentHashMap<>();
+        this.enEspera = new ArrayList<>();
+        this.partidasCreadas = new AtomicLong();
+        this.rondas = new AtomicLong();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "Thread-Emparejador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa las rondas de emparejamiento
+     */
+    public void iniciar() {
+        planificador.scheduleWithFixedDelay(() -> {
+            try {
+                ronda();
+            } catch (RuntimeException e) {
+                System.err.println("[EMPAREJADOR] Error en la ronda: " + e.getMessage());
+            }
+        }, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pone a un jugador en la cola
+     * @param idJugador ID del jugador
+     * @param puntuacion Puntuación con la que se buscan rivales cercanos
+     * @return false si ya estaba buscando partida
+     */
+    public boolean encolar(String idJugador, int puntuacion) {
+        Boleto boleto = new Boleto(idJugador, puntuacion, System.nanoTime());
+        if (boletos.putIfAbsent(idJugador, boleto) != null) return false;
+        llegadas.offer(boleto);
+        return true;
+    }
+
+    /**
+     * Saca a un jugador de la cola; el boleto queda en la lista de la ronda
+     * pero ya no es el vigente, así que se descarta al revisarla
+     * @param idJugador ID del jugador
+     * @return true si estaba buscando partida
+     */
+    public boolean cancelar(String idJugador) {
+        return boletos.remove(idJugador) != null;
+    }
+
+    /**
+     * @param idJugador ID del jugador
+     * @return true si el jugador está en la cola
+     */
+    public boolean estaBuscando(String idJugador) {
+        return boletos.containsKey(idJugador);
+    }
+
+    /**
+     * @return Jugadores en cola, partidas creadas y rondas ejecutadas
+     */
+    public String getEstadisticas() {
+        return boletos.size() + " en cola, " + partidasCreadas.get() + " partidas creadas en " + rondas.get() + " rondas";
+    }
+
+    /**
+     * Detiene las rondas; los jugadores que esperaban se quedan en el lobby
+     */
+    public void detener() {
+        planificador.shutdownNow();
+    }
+
+    /**
+     * Junta las llegadas con los que ya esperaban y empareja vecinos por puntuación
+     */
+    private void ronda() {
+        Boleto llegada;
+        while ((llegada = llegadas.poll()) != null) {
+            enEspera.add(llegada);
+        }
+        if (enEspera.isEmpty()) return;
+
+        rondas.incrementAndGet();
+        List<Boleto> vigentes = new ArrayList<>(enEspera.size());
+        for (Boleto boleto : enEspera) {
+            if (boletos.get(boleto.idJugador) == boleto) vigentes.add(boleto);
+        }
+        vigentes.sort(POR_PUNTUACION);
+
+        long ahora = System.nanoTime();
+        List<Boleto> siguen = new ArrayList<>();
+        int creadas = 0;
+        int i = 0;
+        while (i < vigentes.size()) {
+            Boleto a = vigentes.get(i);
+            if (i + 1 == vigentes.size()) {
+                siguen.add(a);
+                break;
+            }
+            Boleto b = vigentes.get(i + 1);
+            int tolerancia = Math.max(a.tolerancia(ahora), b.tolerancia(ahora));
+            if (b.puntuacion - a.puntuacion > tolerancia) {
+                siguen.add(a);
+                i++;
+                continue;
+            }
+
+            switch (emparejar(a, b)) {
+                case CREADA -> {
+                    creadas++;
+                    i += 2;
+                }
+                case FALLIDA -> i += 2;
+                case DESCARTAR_A -> i++;
+                case DESCARTAR_B -> {
+                    // a puede emparejarse con el que sigue de b
+                    vigentes.remove(i + 1);
+                }
+            }
+        }
+        enEspera = siguen;
+
+        if (creadas > 0) {
+            partidasCreadas.addAndGet(creadas);
+            System.out.println("[EMPAREJADOR] Ronda: " + creadas + " partidas creadas, " + siguen.size() + " en espera");
+        }
+    }
+
+    private enum ResultadoPar {CREADA, FALLIDA, DESCARTAR_A, DESCARTAR_B}
+
+    /**
+     * Toma los dos boletos, aparta a los jugadores del lobby y crea la partida
+     * Un boleto solo se toma si sigue vigente, así que una cancelación que
+     * llega primero lo saca de la ronda
+     */
+    private ResultadoPar emparejar(Boleto a, Boleto b) {
+        if (!boletos.remove(a.idJugador, a)) return ResultadoPar.DESCARTAR_A;
+        if (!boletos.remove(b.idJugador, b)) {
+            boletos.putIfAbsent(a.idJugador, a);
+            return ResultadoPar.DESCARTAR_B;
+        }
+
+        // Un jugador que aceptó una invitación mientras esperaba ya no cuenta
+        if (!gestorJugadores.reservarPareja(a.idJugador, b.idJugador)) {
+            if (!gestorJugadores.estaLibre(a.idJugador)) {
+                if (gestorJugadores.estaLibre(b.idJugador)) boletos.putIfAbsent(b.idJugador, b);
+                return ResultadoPar.DESCARTAR_A;
+            }
+            boletos.putIfAbsent(a.idJugador, a);
+            if (gestorJugadores.estaLibre(b.idJugador) && boletos.putIfAbsent(b.idJugador, b) == null) {
+                // Ambos siguen libres (la otra reserva no se concretó); b vuelve a la siguiente ronda
+                llegadas.offer(b);
+            }
+            return ResultadoPar.DESCARTAR_B;
+        }
+
+        JugadorDTO jugador1 = gestorJugadores.obtenerJugador(a.idJugador);
+        JugadorDTO jugador2 = gestorJugadores.obtenerJugador(b.idJugador);
+        ManejadorCliente manejador1 = gestorJugadores.obtenerManejador(a.idJugador);
+        ManejadorCliente manejador2 = gestorJugadores.obtenerManejador(b.idJugador);
+        if (jugador1 == null || jugador2 == null || manejador1 == null || manejador2 == null) {
+            // Uno se desconectó entre la ronda y ahora; el otro vuelve al lobby sin perder su lugar
+            if (jugador1 != null) {
+                gestorJugadores.liberarJugador(a.idJugador);
+                boletos.putIfAbsent(a.idJugador, a);
+            }
+            if (jugador2 != null) {
+                gestorJugadores.liberarJugador(b.idJugador);
+                boletos.putIfAbsent(b.idJugador, b);
+            }
+            return jugador1 == null ? ResultadoPar.DESCARTAR_A : ResultadoPar.DESCARTAR_B;
+        }
+
+        try {
+            PartidaDTO partida = gestorPartidas.crearPartida(jugador1, jugador2);
+            SolicitudPartidaDTO emparejamiento = new SolicitudPartidaDTO(
+                    jugador1.getId(), jugador1.getNombre(), jugador2.getId(), jugador2.getNombre());
+            manejador1.iniciarPartidaEmparejada(emparejamiento, partida.getIdPartida(), jugador2.getNombre());
+            manejador2.iniciarPartidaEmparejada(emparejamiento, partida.getIdPartida(), jugador1.getNombre());
+            return ResultadoPar.CREADA;
+        } catch (GestorPartidasException e) {
+            System.err.println("[EMPAREJADOR] No se pudo crear la partida: " + e.getMessage());
+            gestorJugadores.liberarJugador(a.idJugador);
+            gestorJugadores.liberarJugador(b.idJugador);
+            return ResultadoPar.FALLIDA; // Ambos salen de la cola; pueden volver a buscar
+        }
+    }
+
+    /**
+     * Lugar de un jugador en la cola
+     */
+    private static final class Boleto {
+        private final String idJugador;
+        private final int puntuacion;
+        private final long llegadaNanos;
+
+        private Boleto(String idJugador, int puntuacion, long llegadaNanos) {
+            this.idJugador = idJugador;
+            this.puntuacion = puntuacion;
+            this.llegadaNanos = llegadaNanos;
+        }
+
+        private int tolerancia(long ahora) {
+            long segundos = TimeUnit.NANOSECONDS.toSeconds(ahora - llegadaNanos);
+            return (int) Math.min(Integer.MAX_VALUE, TOLERANCIA_INICIAL + segundos * TOLERANCIA_POR_SEGUNDO);
+        }
+    }
+}
@@ -1,13 +1,41 @@
 package mx.itson.servidor;
 
+import mx.itson.utils.dtos.ConsultaJugadoresDTO;
 import mx.itson.utils.dtos.JugadorDTO;
+import mx.itson.utils.dtos.ListaJugadoresDTO;
 import mx.itson.utils.dtos.SolicitudPartidaDTO;
+import mx.itson.utils.enums.TipoMensaje;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Gestor centralizado de jugadores conectados al servidor
- * Thread-safe para manejo concurrente
+ * Thread-safe sin candado global: cada operación es atómica sobre un
+ * ConcurrentHashMap. Los nombres se reservan con putIfAbsent en un índice de
+ * nombres normalizados, y la disponibilidad es un conjunto concurrente de IDs,
+ * así que registrar, consultar y marcar jugadores no se serializan entre sí
+ *
+ * Los jugadores en el lobby reciben una instantánea versionada al entrar y
+ * después solo los cambios de presencia (JUGADOR_ENTRA, JUGADOR_SALE,
+ * JUGADOR_OCUPADO), agrupados por el PublicadorLobby. La lista se entrega
+ * por páginas recorriendo un índice ordenado (skip list) de los disponibles
+ * por nombre normalizado, así que el tamaño de cada respuesta no depende de
+ * cuántos jugadores hay conectados
+ *
+ * Las invitaciones pendientes vencen después de un plazo; quien la registra
+ * programa su vencimiento, que solo la quita si nadie respondió antes. Un
+ * jugador puede invitar a varios a la vez y recibir varias invitaciones: la
+ * primera que se acepta aparta a ambos jugadores con un compareAndSet sobre
+ * su palabra de estado (LIBRE a EN_PARTIDA), de modo que nadie queda en dos
+ * partidas aunque varias aceptaciones lleguen al mismo tiempo
+ *
+ * Cada registro abre una sesión con un token. Si la conexión se cae sin
+ * DESCONEXION, el jugador queda suspendido durante una gracia: sale del
+ * lobby pero conserva su nombre, su palabra de estado y su partida, y quien
+ * vuelva con el token recupera su lugar con un manejador nuevo
  *
  * @author Leonardo Flores Leyva ID: 00000252390
  * @author Yuri Germán García López ID: 00000252583
@@ -19,42 +47,141 @@ public class GestorJugadores {
 
     private final Map<String, JugadorDTO> jugadoresConectados;
     private final Map<String, ManejadorCliente> manejadores;
-    private final Map<String, SolicitudPartidaDTO> solicitudesPendientes; // Key: ID del invitado
+    private final Map<String, String> nombresReservados; // Key: nombre normalizado, valor: ID del jugador
+    private final Set<String> disponibles; // IDs de jugadores que no están en partida
+    private final ConcurrentSkipListMap<String, String> indiceDisponibles; // Key: nombre normalizado, valor: ID
+    private final Map<String, AtomicInteger> estados; // Key: ID del jugador, valor: LIBRE, EN_PARTIDA o DESCONECTADO
+    private final Map<String, Map<String, SolicitudPartidaDTO>> solicitudesPendientes; // Key: ID del invitado, luego ID del solicitante
+    private final Map<String, Set<String>> invitadosPorSolicitante; // Key: ID del solicitante, valor: IDs de sus invitados
+    private final AtomicInteger invitacionesPendientes;
+    private final PublicadorLobby publicadorLobby;
+    private volatile Emparejador emparejador;
+    private final long ttlInvitacionMs;
+    private final AtomicLong invitacionesAceptadas;
+    private final AtomicLong invitacionesExpiradas;
+    private final Map<String, String> sesiones; // Key: token, valor: ID del jugador
+    private final Map<String, String> tokens; // Key: ID del jugador, valor: su token
+    private final Map<String, Long> suspendidos; // Key: ID del jugador, valor: generación de la suspensión
+    private final AtomicLong generacionSuspensiones;
+    private final long graciaReconexionMs;
+    private final AtomicLong sesionesReanudadas;
+    private final AtomicLong sesionesExpiradas;
+
+    /** Ventana de agrupación de cambios del lobby cuando no se configura otra */
+    public static final long VENTANA_LOBBY_MS = 100;
+
+    // Valores de la palabra de estado de cada jugador
+    private static final int LIBRE = 0;
+    private static final int EN_PARTIDA = 1;
+    private static final int DESCONECTADO = 2;
+
+    /** Máximo de invitaciones que un jugador puede tener enviadas al mismo tiempo */
+    public static final int MAXIMO_INVITACIONES = 8;
+
+    /** Tiempo que una invitación espera respuesta cuando no se configura otro */
+    public static final long TTL_INVITACION_MS = 30000;
+
+    /** Tiempo que se guarda el lugar de un jugador que perdió la conexión, cuando no se configura otro */
+    public static final long GRACIA_RECONEXION_MS = 30000;
+
+    /** Máximo de jugadores por página, pida lo que pida el cliente */
+    public static final int TAMANIO_PAGINA_MAXIMO = 200;
 
     /**
-     * Constructor
+     * Constructor con la ventana de agrupación por defecto
      */
     public GestorJugadores() {
+        this(VENTANA_LOBBY_MS);
+    }
+
+    /**
+     * Constructor con el plazo de invitaciones por defecto
+     * @param ventanaLobbyMs Milisegundos durante los que se acumulan cambios del lobby antes de enviarlos
+     */
+    public GestorJugadores(long ventanaLobbyMs) {
+        this(ventanaLobbyMs, TTL_INVITACION_MS);
+    }
+
+    /**
+     * Constructor con la gracia de reconexión por defecto
+     * @param ventanaLobbyMs Milisegundos durante los que se acumulan cambios del lobby antes de enviarlos
+     * @param ttlInvitacionMs Milisegundos que una invitación espera respuesta antes de vencer
+     */
+    public GestorJugadores(long ventanaLobbyMs, long ttlInvitacionMs) {
+        this(ventanaLobbyMs, ttlInvitacionMs, GRACIA_RECONEXION_MS);
+    }
+
+    /**
+     * Constructor
+     * @param ventanaLobbyMs Milisegundos durante los que se acumulan cambios del lobby antes de enviarlos
+     * @param ttlInvitacionMs Milisegundos que una invitación espera respuesta antes de vencer
+     * @param graciaReconexionMs Milisegundos que se guarda el lugar de un jugador que perdió la conexión
+     */
+    public GestorJugadores(long ventanaLobbyMs, long ttlInvitacionMs, long graciaReconexionMs) {
         this.jugadoresConectados = new ConcurrentHashMap<>();
         this.manejadores = new ConcurrentHashMap<>();
+        this.nombresReservados = new ConcurrentHashMap<>();
+        this.disponibles = ConcurrentHashMap.newKeySet();
+        this.indiceDisponibles = new ConcurrentSkipListMap<>();
+        this.estados = new ConcurrentHashMap<>();
         this.solicitudesPendientes = new ConcurrentHashMap<>();
+        this.invitadosPorSolicitante = new ConcurrentHashMap<>();
+        this.invitacionesPendientes = new AtomicInteger();
+        this.publicadorLobby = new PublicadorLobby(this, ventanaLobbyMs);
+        this.ttlInvitacionMs = ttlInvitacionMs;
+        this.invitacionesAceptadas = new AtomicLong();
+        this.invitacionesExpiradas = new AtomicLong();
+        this.sesiones = new ConcurrentHashMap<>();
+        this.tokens = new ConcurrentHashMap<>();
+        this.suspendidos = new ConcurrentHashMap<>();
+        this.generacionSuspensiones = new AtomicLong();
+        this.graciaReconexionMs = graciaReconexionMs;
+        this.sesionesReanudadas = new AtomicLong();
+        this.sesionesExpiradas = new AtomicLong();
+    }
+
+    /**
+     * Normaliza un nombre para compararlo sin distinguir mayúsculas
+     * @param nombre Nombre tal como lo escribió el jugador
+     * @return Clave del índice de nombres
+     */
+    static String normalizarNombre(String nombre) {
+        return nombre.toLowerCase(Locale.ROOT);
     }
 
     /**
      * Verifica si un nombre de jugador ya está en uso
+     * El resultado puede cambiar en cuanto regresa; para reservar el nombre
+     * se usa registrarJugador, que decide de forma atómica
      * @param nombre Nombre a verificar
      * @return true si el nombre está disponible, false si ya existe
      */
-    public synchronized boolean nombreDisponible(String nombre) {
-        return jugadoresConectados.values().stream()
-                .noneMatch(j -> j.getNombre().equalsIgnoreCase(nombre));
+    public boolean nombreDisponible(String nombre) {
+        return !nombresReservados.containsKey(normalizarNombre(nombre));
     }
 
     /**
      * Registra un nuevo jugador en el sistema
+     * El nombre se reserva con putIfAbsent: si dos clientes piden el mismo
+     * nombre al mismo tiempo, solo uno lo obtiene
      * @param jugador DTO del jugador
      * @param manejador Manejador asociado al cliente
      * @return true si se registró exitosamente, false si el nombre ya existe
      */
-    public synchronized boolean registrarJugador(JugadorDTO jugador, ManejadorCliente manejador) {
-        if (!nombreDisponible(jugador.getNombre())) {
+    public boolean registrarJugador(JugadorDTO jugador, ManejadorCliente manejador) {
+        String id = jugador.getId();
+        if (nombresReservados.putIfAbsent(normalizarNombre(jugador.getNombre()), id) != null) {
             return false;
         }
 
-        jugadoresConectados.put(jugador.getId(), jugador);
-        manejadores.put(jugador.getId(), manejador);
-
-        System.out.println("[GESTOR] Jugador registrado: " + jugador.getNombre() + " (ID: " + jugador.getId() + ")");
+        // El manejador se publica antes que el jugador para que quien lo vea en la lista pueda contactarlo
+        manejadores.put(id, manejador);
+        estados.put(id, new AtomicInteger(jugador.isEnPartida() ? EN_PARTIDA : LIBRE));
+        jugadoresConectados.put(id, jugador);
+        System.out.println("[GESTOR] Jugador registrado: " + jugador.getNombre() + " (ID: " + id + ")");
+        if (!jugador.isEnPartida() && agregarDisponible(jugador)) {
+            publicarCambio(TipoMensaje.JUGADOR_ENTRA, jugador);
+        }
         return true;
     }
 
@@ -62,21 +189,184 @@ public class GestorJugadores {
      * Obtiene la lista de jugadores disponibles (no en partida)
      * @return Lista de jugadores disponibles
      */
-    public synchronized List<JugadorDTO> obtenerJugadoresDisponibles() {
-        return new ArrayList<>(jugadoresConectados.values().stream()
-                .filter(j -> !j.isEnPartida())
-                .toList());
+    public List<JugadorDTO> obtenerJugadoresDisponibles() {
+        List<JugadorDTO> lista = new ArrayList<>(disponibles.size());
+        for (String id : disponibles) {
+            JugadorDTO jugador = jugadoresConectados.get(id);
+            if (jugador != null) {
+                lista.add(jugador);
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Obtiene una página del lobby junto con la versión que refleja
+     * A partir de ella, el jugador que la pidió recibe solo los lotes de cambios
+     * que caen dentro de lo que ya cargó
+     * @param idSuscriptor ID del jugador que la pide, que no se incluye a sí mismo
+     * @param consulta Prefijo, cursor y tamaño de la página; null repite el filtro anterior desde el inicio
+     * @return Página de jugadores disponibles con su versión
+     */
+    public ListaJugadoresDTO obtenerInstantanea(String idSuscriptor, ConsultaJugadoresDTO consulta) {
+        return publicadorLobby.instantanea(idSuscriptor, consulta);
+    }
+
+    /**
+     * Recorre el índice ordenado de disponibles a partir de un cursor
+     * Se piden hasta limite + 1 claves para saber si queda otra página sin contar el resto
+     * @param prefijo Prefijo normalizado, o null para todos
+     * @param cursor Última clave de la página anterior (exclusiva), o null para empezar desde el prefijo
+     * @param limite Máximo de jugadores a devolver
+     * @param idExcluido ID que no se incluye (el propio suscriptor), o null
+     * @param claves Recibe la clave de cada jugador devuelto, en el mismo orden
+     * @return Jugadores de la página; si claves tiene más elementos que la lista, hay más páginas
+     */
+    List<JugadorDTO> consultarDisponibles(String prefijo, String cursor, int limite, String idExcluido, List<String> claves) {
+        NavigableMap<String, String> rango;
+        if (cursor != null) {
+            rango = indiceDisponibles.tailMap(cursor, false);
+        } else if (prefijo != null) {
+            rango = indiceDisponibles.tailMap(prefijo, true);
+        } else {
+            rango = indiceDisponibles;
+        }
+
+        List<JugadorDTO> pagina = new ArrayList<>(Math.min(limite, 64));
+        for (Map.Entry<String, String> entrada : rango.entrySet()) {
+            if (prefijo != null && !entrada.getKey().startsWith(prefijo)) break;
+            if (entrada.getValue().equals(idExcluido)) continue;
+            JugadorDTO jugador = jugadoresConectados.get(entrada.getValue());
+            if (jugador == null) continue;
+
+            claves.add(entrada.getKey());
+            if (pagina.size() == limite) break; // La clave extra solo indica que hay otra página
+            pagina.add(jugador);
+        }
+        return pagina;
+    }
+
+    /**
+     * @return Vista de solo lectura de los IDs de jugadores disponibles (suscriptores del lobby)
+     */
+    Set<String> idsDisponibles() {
+        return Collections.unmodifiableSet(disponibles);
+    }
+
+    /**
+     * @return Resumen de la actividad del publicador del lobby
+     */
+    public String getEstadisticasLobby() {
+        return publicadorLobby.getEstadisticas();
+    }
+
+    /**
+     * Detiene el publicador del lobby
+     */
+    public void detener() {
+        publicadorLobby.detener();
+    }
+
+    /**
+     * Asocia la cola de emparejamiento para sacar de ella a quien entra a
+     * una partida o se desconecta
+     * @param emparejador Cola de BUSCAR_PARTIDA del servidor
+     */
+    public void setEmparejador(Emparejador emparejador) {
+        this.emparejador = emparejador;
+    }
+
+    /**
+     * @return Cola de emparejamiento, o null si el servidor no la inició
+     */
+    public Emparejador getEmparejador() {
+        return emparejador;
+    }
+
+    /**
+     * Verifica si un jugador está conectado y fuera de partida
+     * @param id ID del jugador
+     * @return true si está disponible
+     */
+    public boolean estaDisponible(String id) {
+        return disponibles.contains(id);
+    }
+
+    /**
+     * Verifica si un jugador puede entrar a una partida según su palabra de estado
+     * @param id ID del jugador
+     * @return true si está conectado y no está en partida
+     */
+    public boolean estaLibre(String id) {
+        AtomicInteger estado = estados.get(id);
+        return estado != null && estado.get() == LIBRE && !suspendidos.containsKey(id);
     }
 
     /**
      * Marca un jugador como en partida
+     * Si estaba buscando partida sale de la cola de emparejamiento
      * @param id ID del jugador
+     * @return true si estaba libre; false si ya estaba en otra partida o no existe
      */
-    public synchronized void marcarEnPartida(String id) {
+    public boolean marcarEnPartida(String id) {
+        AtomicInteger estado = estados.get(id);
+        if (estado == null || !estado.compareAndSet(LIBRE, EN_PARTIDA)) return false;
+        ocupar(id);
+        return true;
+    }
+
+    /**
+     * Aparta a dos jugadores para una partida: los dos pasan de LIBRE a
+     * EN_PARTIDA o ninguno cambia
+     * Se toman en orden de ID para que dos reservas que comparten jugador no
+     * se bloqueen mutuamente: la que gana el primero de ellos termina
+     * Un jugador suspendido conserva su estado LIBRE pero no tiene conexión,
+     * así que no cuenta como libre (igual que en estaLibre); se revisa otra
+     * vez después de apartarlos por si la suspensión llegó entre tanto
+     * @param id1 ID de un jugador
+     * @param id2 ID del otro jugador
+     * @return true si ambos estaban libres y quedaron en partida
+     */
+    public boolean reservarPareja(String id1, String id2) {
+        if (id1.equals(id2)) return false;
+        String primero = id1.compareTo(id2) < 0 ? id1 : id2;
+        String segundo = primero.equals(id1) ? id2 : id1;
+
+        AtomicInteger estadoPrimero = estados.get(primero);
+        AtomicInteger estadoSegundo = estados.get(segundo);
+        if (estadoPrimero == null || estadoSegundo == null) return false;
+        if (suspendidos.containsKey(primero) || suspendidos.containsKey(segundo)) return false;
+
+        if (!estadoPrimero.compareAndSet(LIBRE, EN_PARTIDA)) return false;
+        if (!estadoSegundo.compareAndSet(LIBRE, EN_PARTIDA)) {
+            estadoPrimero.compareAndSet(EN_PARTIDA, LIBRE);
+            return false;
+        }
+        if (suspendidos.containsKey(primero) || suspendidos.containsKey(segundo)) {
+            estadoSegundo.compareAndSet(EN_PARTIDA, LIBRE);
+            estadoPrimero.compareAndSet(EN_PARTIDA, LIBRE);
+            return false;
+        }
+        ocupar(primero);
+        ocupar(segundo);
+        return true;
+    }
+
+    /**
+     * Saca del lobby y de la cola de emparejamiento a un jugador que ya quedó EN_PARTIDA
+     * @param id ID del jugador
+     */
+    private void ocupar(String id) {
+        Emparejador cola = emparejador;
+        if (cola != null) {
+            cola.cancelar(id);
+        }
         JugadorDTO jugador = jugadoresConectados.get(id);
-        if (jugador != null) {
-            jugador.setEnPartida(true);
-            System.out.println("[GESTOR] Jugador " + jugador.getNombre() + " ahora está en partida");
+        if (jugador == null) return;
+        jugador.setEnPartida(true);
+        System.out.println("[GESTOR] Jugador " + jugador.getNombre() + " ahora está en partida");
+        if (quitarDisponible(jugador)) {
+            publicarCambio(TipoMensaje.JUGADOR_OCUPADO, jugador);
         }
     }
 
@@ -84,14 +374,32 @@ public class GestorJugadores {
      * Libera un jugador de la partida (disponible nuevamente)
      * @param id ID del jugador
      */
-    public synchronized void liberarJugador(String id) {
+    public void liberarJugador(String id) {
         JugadorDTO jugador = jugadoresConectados.get(id);
-        if (jugador != null) {
+        AtomicInteger estado = estados.get(id);
+        if (jugador != null && estado != null && estado.get() != DESCONECTADO) {
             jugador.setEnPartida(false);
+            if (suspendidos.containsKey(id)) {
+                // Sin conexión no vuelve al lobby; lo hará al reanudar la sesión
+                estado.compareAndSet(EN_PARTIDA, LIBRE);
+                return;
+            }
             System.out.println("[GESTOR] Jugador " + jugador.getNombre() + " ahora está disponible");
-
-            // Notificar a jugadores en espera
-            notificarJugadorDisponible(jugador);
+            // Vuelve al lobby antes de quedar LIBRE: quien lo reserve después lo encuentra ahí para sacarlo
+            boolean volvio = agregarDisponible(jugador);
+            estado.compareAndSet(EN_PARTIDA, LIBRE);
+            if (volvio && suspendidos.containsKey(id)) {
+                // Se suspendió mientras volvía: la suspensión pudo no encontrarlo en el lobby
+                volvio = !quitarDisponible(jugador);
+            }
+            if (volvio) {
+                // Los demás reciben el cambio en el siguiente lote; el jugador que vuelve necesita la lista completa
+                publicarCambio(TipoMensaje.JUGADOR_ENTRA, jugador);
+                ManejadorCliente manejador = manejadores.get(id);
+                if (manejador != null) {
+                    manejador.enviarListaJugadores();
+                }
+            }
         }
     }
 
@@ -99,45 +407,209 @@ public class GestorJugadores {
      * Marca un jugador como disponible (alias de liberarJugador)
      * @param id ID del jugador
      */
-    public synchronized void marcarDisponible(String id) {
+    public void marcarDisponible(String id) {
         liberarJugador(id);
     }
 
     /**
      * Elimina un jugador del sistema (cuando se desconecta)
+     * El nombre queda libre para otro registro
      * @param id ID del jugador
      */
-    public synchronized void eliminarJugador(String id) {
+    public void eliminarJugador(String id) {
+        AtomicInteger estado = estados.remove(id);
+        if (estado != null) {
+            // Una reserva que ya tenía la referencia ya no puede tomarlo
+            estado.set(DESCONECTADO);
+        }
         JugadorDTO jugador = jugadoresConectados.remove(id);
         manejadores.remove(id);
+        suspendidos.remove(id);
+        String token = tokens.remove(id);
+        if (token != null) {
+            sesiones.remove(token);
+        }
+        publicadorLobby.olvidar(id);
+        Emparejador cola = emparejador;
+        if (cola != null) {
+            cola.cancelar(id);
+        }
 
         if (jugador != null) {
+            boolean estabaDisponible = quitarDisponible(jugador);
+            // Solo libera el nombre si sigue reservado para este jugador
+            nombresReservados.remove(normalizarNombre(jugador.getNombre()), id);
             System.out.println("[GESTOR] Jugador eliminado: " + jugador.getNombre());
+            if (estabaDisponible) {
+                publicarCambio(TipoMensaje.JUGADOR_SALE, jugador);
+            }
+        }
+    }
+
+    /**
+     * Abre la sesión de un jugador recién registrado
+     * @param id ID del jugador
+     * @return Token con el que el cliente puede reanudar la sesión
+     */
+    public String abrirSesion(String id) {
+        String token = UUID.randomUUID().toString();
+        sesiones.put(token, id);
+        tokens.put(id, token);
+        return token;
+    }
+
+    /**
+     * Obtiene el jugador dueño de una sesión
+     * @param token Token de la sesión
+     * @return Jugador, o null si el token no existe o el jugador ya se eliminó
+     */
+    public JugadorDTO obtenerJugadorDeSesion(String token) {
+        String id = token != null ? sesiones.get(token) : null;
+        return id != null ? jugadoresConectados.get(id) : null;
+    }
+
+    /**
+     * Suspende a un jugador cuya conexión se cayó: sale del lobby y de la
+     * cola de emparejamiento, pero conserva su nombre, su estado y su partida
+     * Solo lo suspende el manejador que lo atiende en ese momento; si otra
+     * conexión ya reanudó la sesión, no hace nada
+     * @param id ID del jugador
+     * @param manejador Manejador cuya conexión se cayó
+     * @return Generación de la suspensión, que se usa para vencerla; -1 si no se suspendió
+     */
+    public long suspenderJugador(String id, ManejadorCliente manejador) {
+        JugadorDTO jugador = jugadoresConectados.get(id);
+        if (jugador == null || !tokens.containsKey(id)) return -1;
+
+        long generacion = generacionSuspensiones.incrementAndGet();
+        suspendidos.put(id, generacion);
+        if (!manejadores.remove(id, manejador)) {
+            suspendidos.remove(id, generacion);
+            return -1;
         }
+
+        publicadorLobby.olvidar(id);
+        Emparejador cola = emparejador;
+        if (cola != null) {
+            cola.cancelar(id);
+        }
+        if (quitarDisponible(jugador)) {
+            publicarCambio(TipoMensaje.JUGADOR_SALE, jugador);
+        }
+        System.out.println("[GESTOR] Jugador suspendido: " + jugador.getNombre() + " (gracia de " + graciaReconexionMs + " ms)");
+        return generacion;
+    }
+
+    /**
+     * Devuelve su lugar a un jugador con un manejador nuevo
+     * Si estaba suspendido, la reanudación le gana al vencimiento de la
+     * gracia; si su conexión anterior seguía abierta para el servidor (se
+     * cayó sin que este lo notara), el manejador nuevo la releva
+     * El token se canjea por uno nuevo: el que se presentó deja de servir,
+     * así que de dos reanudaciones con el mismo token solo gana una
+     * @param id ID del jugador
+     * @param token Token con el que el cliente pidió reanudar
+     * @param manejador Manejador de la conexión nueva
+     * @return Token nuevo de la sesión, o null si el jugador no quedó atendido por el manejador nuevo
+     */
+    public String reanudarSesion(String id, String token, ManejadorCliente manejador) {
+        JugadorDTO jugador = jugadoresConectados.get(id);
+        if (jugador == null || token == null || !sesiones.remove(token, id)) return null;
+
+        if (suspendidos.remove(id) != null) {
+            manejadores.put(id, manejador);
+        } else {
+            ManejadorCliente anterior = manejadores.get(id);
+            if (anterior == null || anterior == manejador || !manejadores.replace(id, anterior, manejador)) {
+                // El token sigue vigente para reintentar, salvo que el jugador se haya eliminado mientras tanto
+                tokens.computeIfPresent(id, (clave, actual) -> {
+                    if (actual.equals(token)) sesiones.put(token, id);
+                    return actual;
+                });
+                return null;
+            }
+            anterior.relevar();
+        }
+        sesionesReanudadas.incrementAndGet();
+        String nuevo = UUID.randomUUID().toString();
+        sesiones.put(nuevo, id);
+        if (!tokens.replace(id, token, nuevo)) {
+            // Se eliminó mientras tanto; el token nuevo no debe quedar huérfano
+            sesiones.remove(nuevo);
+        }
+
+        AtomicInteger estado = estados.get(id);
+        if (estado != null && estado.get() == LIBRE && agregarDisponible(jugador)) {
+            publicarCambio(TipoMensaje.JUGADOR_ENTRA, jugador);
+        }
+        System.out.println("[GESTOR] Sesión reanudada: " + jugador.getNombre());
+        return nuevo;
+    }
+
+    /**
+     * Vence la suspensión de un jugador si nadie la reanudó
+     * @param id ID del jugador
+     * @param generacion Generación que devolvió suspenderJugador
+     * @return true si seguía suspendido con esa generación; quien llama debe eliminarlo
+     */
+    public boolean expirarSuspension(String id, long generacion) {
+        if (!suspendidos.remove(id, generacion)) return false;
+        sesionesExpiradas.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return Milisegundos que se guarda el lugar de un jugador que perdió la conexión
+     */
+    public long getGraciaReconexionMs() {
+        return graciaReconexionMs;
+    }
+
+    /**
+     * @return Jugadores suspendidos, y sesiones reanudadas y vencidas desde que arrancó el servidor
+     */
+    public String getEstadisticasSesiones() {
+        return suspendidos.size() + " suspendidas, " + sesionesReanudadas.get() + " reanudadas, "
+                + sesionesExpiradas.get() + " vencidas";
     }
 
     /**
      * Obtiene el número total de jugadores conectados
      * @return Número de jugadores
      */
-    public synchronized int cantidadJugadores() {
+    public int cantidadJugadores() {
         return jugadoresConectados.size();
     }
 
     /**
-     * Notifica a todos los jugadores en espera que hay un nuevo jugador disponible
-     * @param nuevoJugador Jugador que ahora está disponible
+     * Marca un jugador como disponible y lo agrega al índice por nombre
+     * @param jugador Jugador que queda en el lobby
+     * @return true si no estaba disponible
      */
-    private void notificarJugadorDisponible(JugadorDTO nuevoJugador) {
-        // Obtener jugadores que están esperando (conectados pero no en partida)
-        List<JugadorDTO> jugadoresEsperando = obtenerJugadoresDisponibles();
+    private boolean agregarDisponible(JugadorDTO jugador) {
+        if (!disponibles.add(jugador.getId())) return false;
+        indiceDisponibles.put(normalizarNombre(jugador.getNombre()), jugador.getId());
+        return true;
+    }
 
-        for (JugadorDTO jugador : jugadoresEsperando) {
-            ManejadorCliente manejador = manejadores.get(jugador.getId());
-            if (manejador != null) {
-                manejador.notificarJugadorDisponible();
-            }
-        }
+    /**
+     * Quita un jugador de los disponibles y del índice por nombre
+     * @param jugador Jugador que deja el lobby
+     * @return true si estaba disponible
+     */
+    private boolean quitarDisponible(JugadorDTO jugador) {
+        if (!disponibles.remove(jugador.getId())) return false;
+        indiceDisponibles.remove(normalizarNombre(jugador.getNombre()), jugador.getId());
+        return true;
+    }
+
+    /**
+     * Entrega un cambio de presencia al publicador del lobby
+     * @param tipo JUGADOR_ENTRA, JUGADOR_SALE o JUGADOR_OCUPADO
+     * @param jugador Jugador que cambió
+     */
+    private void publicarCambio(TipoMensaje tipo, JugadorDTO jugador) {
+        publicadorLobby.registrarCambio(tipo, jugador);
     }
 
     /**
@@ -145,7 +617,7 @@ public class GestorJugadores {
      * @param id ID del jugador
      * @return JugadorDTO o null si no existe
      */
-    public synchronized JugadorDTO obtenerJugador(String id) {
+    public JugadorDTO obtenerJugador(String id) {
         return jugadoresConectados.get(id);
     }
 
@@ -154,64 +626,190 @@ public class GestorJugadores {
      * @param id ID del jugador
      * @return ManejadorCliente o null si no existe
      */
-    public synchronized ManejadorCliente obtenerManejador(String id) {
+    public ManejadorCliente obtenerManejador(String id) {
         return manejadores.get(id);
     }
 
     /**
      * Registra una solicitud de partida pendiente
+     * Un invitado puede tener invitaciones de varios jugadores, y un
+     * solicitante hasta MAXIMO_INVITACIONES enviadas; solo se rechaza repetir
+     * la misma pareja
      * @param solicitud Solicitud de partida
-     * @return true si se registró, false si el invitado ya tiene una solicitud pendiente
+     * @return true si se registró; false si alguno no está libre, la pareja ya
+     *         tenía invitación o el solicitante llegó al máximo
      */
-    public synchronized boolean registrarSolicitudPartida(SolicitudPartidaDTO solicitud) {
+    public boolean registrarSolicitudPartida(SolicitudPartidaDTO solicitud) {
         String idInvitado = solicitud.getIdInvitado();
+        String idSolicitante = solicitud.getIdSolicitante();
 
-        // Verificar que el invitado existe y está disponible
-        JugadorDTO invitado = jugadoresConectados.get(idInvitado);
-        if (invitado == null || invitado.isEnPartida()) {
+        // Verificar que ambos existen y están disponibles
+        if (idInvitado.equals(idSolicitante) || !estaLibre(idInvitado) || !estaLibre(idSolicitante)) {
             return false;
         }
 
-        // Verificar que no tenga una solicitud pendiente
-        if (solicitudesPendientes.containsKey(idInvitado)) {
+        Set<String> invitados = invitadosPorSolicitante.computeIfAbsent(idSolicitante, k -> ConcurrentHashMap.newKeySet());
+        if (invitados.size() >= MAXIMO_INVITACIONES) {
             return false;
         }
 
-        solicitudesPendientes.put(idInvitado, solicitud);
+        boolean[] agregada = {false};
+        solicitudesPendientes.compute(idInvitado, (clave, recibidas) -> {
+            if (recibidas == null) recibidas = new ConcurrentHashMap<>();
+            agregada[0] = recibidas.putIfAbsent(idSolicitante, solicitud) == null;
+            return recibidas;
+        });
+        if (!agregada[0]) {
+            return false;
+        }
+        invitados.add(idInvitado);
+        invitacionesPendientes.incrementAndGet();
+
         System.out.println("[GESTOR] Solicitud de partida registrada: " +
                           solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
         return true;
     }
 
     /**
-     * Obtiene una solicitud pendiente para un jugador
+     * Obtiene la solicitud pendiente más antigua de un jugador
      * @param idInvitado ID del jugador invitado
      * @return SolicitudPartidaDTO o null si no existe
      */
-    public synchronized SolicitudPartidaDTO obtenerSolicitudPendiente(String idInvitado) {
-        return solicitudesPendientes.get(idInvitado);
+    public SolicitudPartidaDTO obtenerSolicitudPendiente(String idInvitado) {
+        Map<String, SolicitudPartidaDTO> recibidas = solicitudesPendientes.get(idInvitado);
+        if (recibidas == null) return null;
+        SolicitudPartidaDTO masAntigua = null;
+        for (SolicitudPartidaDTO solicitud : recibidas.values()) {
+            if (masAntigua == null || solicitud.getTimestamp() < masAntigua.getTimestamp()) {
+                masAntigua = solicitud;
+            }
+        }
+        return masAntigua;
     }
 
     /**
      * Elimina una solicitud pendiente
      * @param idInvitado ID del jugador invitado
+     * @param idSolicitante ID de quien invitó, o null para la más antigua
      * @return Solicitud eliminada o null si no existía
      */
-    public synchronized SolicitudPartidaDTO eliminarSolicitudPendiente(String idInvitado) {
-        SolicitudPartidaDTO solicitud = solicitudesPendientes.remove(idInvitado);
-        if (solicitud != null) {
-            System.out.println("[GESTOR] Solicitud de partida eliminada: " +
-                              solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
+    public SolicitudPartidaDTO eliminarSolicitudPendiente(String idInvitado, String idSolicitante) {
+        Map<String, SolicitudPartidaDTO> recibidas = solicitudesPendientes.get(idInvitado);
+        SolicitudPartidaDTO solicitud = idSolicitante == null
+                ? obtenerSolicitudPendiente(idInvitado)
+                : (recibidas != null ? recibidas.get(idSolicitante) : null);
+        if (solicitud == null || !quitarSolicitud(solicitud)) {
+            return null;
+        }
+        System.out.println("[GESTOR] Solicitud de partida eliminada: " +
+                          solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
+        return solicitud;
+    }
+
+    /**
+     * Acepta una invitación: la quita y aparta a ambos jugadores con reservarPareja
+     * Si otra aceptación ganó antes a cualquiera de los dos, la invitación se
+     * descarta sin crear nada
+     * @param idInvitado ID del jugador invitado
+     * @param idSolicitante ID de quien invitó, o null para la más antigua
+     * @return Solicitud aceptada, o null si ya no estaba pendiente o alguno ya no estaba libre
+     */
+    public SolicitudPartidaDTO aceptarSolicitud(String idInvitado, String idSolicitante) {
+        SolicitudPartidaDTO solicitud = eliminarSolicitudPendiente(idInvitado, idSolicitante);
+        if (solicitud == null || !reservarPareja(solicitud.getIdSolicitante(), solicitud.getIdInvitado())) {
+            return null;
         }
+        invitacionesAceptadas.incrementAndGet();
         return solicitud;
     }
 
+    /**
+     * Quita todas las invitaciones que un jugador envió o recibió
+     * Se usa cuando entra a una partida o se desconecta
+     * @param idJugador ID del jugador
+     * @return Invitaciones quitadas, para avisar a la otra parte de cada una
+     */
+    public List<SolicitudPartidaDTO> cancelarSolicitudesDe(String idJugador) {
+        List<SolicitudPartidaDTO> canceladas = new ArrayList<>();
+
+        Map<String, SolicitudPartidaDTO> recibidas = solicitudesPendientes.get(idJugador);
+        if (recibidas != null) {
+            for (SolicitudPartidaDTO solicitud : recibidas.values()) {
+                if (quitarSolicitud(solicitud)) canceladas.add(solicitud);
+            }
+        }
+
+        Set<String> invitados = invitadosPorSolicitante.get(idJugador);
+        if (invitados != null) {
+            for (String idInvitado : invitados) {
+                Map<String, SolicitudPartidaDTO> delInvitado = solicitudesPendientes.get(idInvitado);
+                SolicitudPartidaDTO solicitud = delInvitado != null ? delInvitado.get(idJugador) : null;
+                if (solicitud != null && quitarSolicitud(solicitud)) canceladas.add(solicitud);
+            }
+        }
+        if (!estados.containsKey(idJugador)) {
+            invitadosPorSolicitante.remove(idJugador);
+        }
+        return canceladas;
+    }
+
+    /**
+     * Quita una invitación de ambos índices si sigue siendo la registrada
+     * @param solicitud Invitación a quitar
+     * @return true si estaba pendiente y este llamado la quitó
+     */
+    private boolean quitarSolicitud(SolicitudPartidaDTO solicitud) {
+        boolean[] quitada = {false};
+        solicitudesPendientes.computeIfPresent(solicitud.getIdInvitado(), (clave, recibidas) -> {
+            quitada[0] = recibidas.remove(solicitud.getIdSolicitante(), solicitud);
+            return recibidas.isEmpty() ? null : recibidas;
+        });
+        if (!quitada[0]) return false;
+
+        Set<String> invitados = invitadosPorSolicitante.get(solicitud.getIdSolicitante());
+        if (invitados != null) {
+            invitados.remove(solicitud.getIdInvitado());
+        }
+        invitacionesPendientes.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Quita una solicitud cuyo plazo venció
+     * Solo la quita si sigue siendo la misma que se programó: si el invitado
+     * ya respondió, o la pareja se volvió a invitar después, no hace nada
+     * @param solicitud Solicitud que se registró con ese plazo
+     * @return true si seguía pendiente y se quitó
+     */
+    public boolean expirarSolicitud(SolicitudPartidaDTO solicitud) {
+        if (!quitarSolicitud(solicitud)) return false;
+        invitacionesExpiradas.incrementAndGet();
+        System.out.println("[GESTOR] Solicitud de partida expirada: " +
+                          solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
+        return true;
+    }
+
+    /**
+     * @return Milisegundos que una invitación espera respuesta
+     */
+    public long getTtlInvitacionMs() {
+        return ttlInvitacionMs;
+    }
+
+    /**
+     * @return Invitaciones pendientes, expiradas y aceptadas desde que arrancó el servidor
+     */
+    public String getEstadisticasInvitaciones() {
+        return invitacionesPendientes.get() + " pendientes, " + invitacionesExpiradas.get() + " expiradas, "
+                + invitacionesAceptadas.get() + " aceptadas";
+    }
+
     /**
      * Verifica si un jugador tiene una solicitud pendiente
      * @param idJugador ID del jugador
-     * @return true si tiene solicitud pendiente
+     * @return true si tiene al menos una invitación recibida sin responder
      */
-    public synchronized boolean tieneSolicitudPendiente(String idJugador) {
+    public boolean tieneSolicitudPendiente(String idJugador) {
         return solicitudesPendientes.containsKey(idJugador);
     }
 }
@@ -0,0 +1,35 @@
+package mx.itson.servidor;
+
+import java.io.IOException;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Canal por el que un ManejadorCliente envía mensajes a su cliente.
+ * Cada transporte del servidor (bloqueante o NIO) aporta su implementación.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public interface ICanalCliente {
+
+    /**
+     * Envía un mensaje al cliente
+     * @param mensaje Mensaje a enviar
+     * @throws IOException si el canal está cerrado o falla la escritura
+     */
+    void enviar(MensajeDTO mensaje) throws IOException;
+
+    /**
+     * Cierra el canal y libera el socket
+     */
+    void cerrar();
+
+    /**
+     * Obtiene la dirección remota del cliente
+     * @return Dirección del cliente como texto
+     */
+    String getDireccionRemota();
+}
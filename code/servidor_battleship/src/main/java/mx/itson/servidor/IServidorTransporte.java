@@ -0,0 +1,43 @@
+package mx.itson.servidor;
+
+/**
+ * Transporte TCP que acepta clientes y los entrega a un ManejadorCliente.
+ * Permite elegir al arranque entre el servidor bloqueante y el reactor NIO.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public interface IServidorTransporte extends Runnable {
+
+    /**
+     * Detiene el transporte y cierra las conexiones
+     */
+    void detener();
+
+    /**
+     * Verifica si el transporte está ejecutando
+     * @return true si está ejecutando
+     */
+    boolean isEjecutando();
+
+    /**
+     * Obtiene el número de clientes conectados
+     * @return Número de conexiones activas
+     */
+    int getClientesConectados();
+
+    /**
+     * Obtiene el resumen del monitor de latidos del transporte
+     * @return Conexiones vigiladas y cerradas por no responder
+     */
+    String getEstadisticasLatidos();
+
+    /**
+     * Obtiene el resumen del límite de mensajes por conexión
+     * @return Mensajes rechazados por clase y conexiones cerradas por exceso
+     */
+    String getEstadisticasLimites();
+}
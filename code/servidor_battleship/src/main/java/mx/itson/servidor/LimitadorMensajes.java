@@ -0,0 +1,206 @@
+package mx.itson.servidor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.itson.utils.enums.TipoMensaje;
+
+/**
+ * Límite de mensajes por conexión con cubetas de fichas
+ * Cada conexión tiene una cubeta por clase de mensaje: se llena al ritmo
+ * configurado hasta su ráfaga y cada mensaje gasta una ficha. Un mensaje
+ * que llega con la cubeta vacía no se procesa; según la política, se
+ * descarta o se cierra la conexión. Así un cliente que inunda el servidor
+ * con SOLICITAR_JUGADORES o ENVIAR_DISPARO solo se frena a sí mismo.
+ * Se comparte entre las conexiones de un transporte, que suman aquí sus contadores.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class LimitadorMensajes {
+
+    /**
+     * Clases de mensaje con presupuesto propio
+     */
+    public enum ClaseMensaje {
+        /** Consultas del lobby; cada una arma una página de jugadores */
+        LOBBY,
+        /** Invitaciones y cola de emparejamiento */
+        INVITACIONES,
+        /** Disparos, naves y confirmaciones de tableros */
+        PARTIDA,
+        /** Registro, reanudación, reloj, latidos y los avisos de una sola vez de la partida */
+        GENERAL;
+
+        /**
+         * @param tipo Tipo del mensaje recibido
+         * @return Clase del mensaje, o null si no se limita (PONG y DESCONEXION)
+         */
+        public static ClaseMensaje de(TipoMensaje tipo) {
+            return switch (tipo) {
+                case SOLICITAR_JUGADORES -> LOBBY;
+                case SOLICITAR_PARTIDA, ACEPTAR_PARTIDA, RECHAZAR_PARTIDA, BUSCAR_PARTIDA, CANCELAR_BUSQUEDA -> INVITACIONES;
+                case COLOCAR_NAVES, ENVIAR_DISPARO, CONFIRMAR_TABLEROS, SOLICITAR_TABLEROS -> PARTIDA;
+                // Un cliente que agotó sus disparos no debe perder el aviso de vista lista ni el abandono
+                case VISTA_LISTA, ABANDONAR_PARTIDA -> GENERAL;
+                case PONG, DESCONEXION -> null;
+                default -> GENERAL;
+            };
+        }
+    }
+
+    /**
+     * Qué hacer con una conexión que se pasa de su presupuesto
+     */
+    public enum Politica {
+        /** Descartar el mensaje y avisar al cliente (por defecto) */
+        DESCARTAR,
+        /** Cerrar la conexión sin guardar el lugar del jugador */
+        DESCONECTAR
+    }
+
+    /**
+     * Presupuesto de una clase de mensaje
+     * @param porSegundo Fichas que recupera la cubeta por segundo
+     * @param rafaga Fichas que caben en la cubeta; es la ráfaga que se admite sin esperar
+     */
+    public record Presupuesto(int porSegundo, int rafaga) {
+        @Override
+        public String toString() {
+            return porSegundo + "/" + rafaga;
+        }
+    }
+
+    /** Presupuestos cuando no se configuran otros; holgados para una persona, no para un bucle */
+    public static final Presupuesto PRESUPUESTO_LOBBY = new Presupuesto(5, 10);
+    public static final Presupuesto PRESUPUESTO_INVITACIONES = new Presupuesto(2, 8);
+    public static final Presupuesto PRESUPUESTO_PARTIDA = new Presupuesto(30, 60);
+    public static final Presupuesto PRESUPUESTO_GENERAL = new Presupuesto(5, 20);
+
+    /** Tiempo mínimo entre dos avisos de exceso a la misma conexión */
+    private static final long INTERVALO_AVISO_NS = 1_000_000_000L;
+
+    private final Map<ClaseMensaje, Presupuesto> presupuestos;
+    private final Politica politica;
+    private final Map<ClaseMensaje, AtomicLong> excedidos;
+    private final AtomicLong conexionesCerradas;
+
+    /**
+     * Constructor
+     * @param presupuestos Presupuesto de cada clase; las que falten usan el de por defecto
+     * @param politica Qué hacer al exceder el presupuesto
+     */
+    public LimitadorMensajes(Map<ClaseMensaje, Presupuesto> presupuestos, Politica politica) {
+        this.presupuestos = new EnumMap<>(ClaseMensaje.class);
+        this.presupuestos.put(ClaseMensaje.LOBBY, PRESUPUESTO_LOBBY);
+        this.presupuestos.put(ClaseMensaje.INVITACIONES, PRESUPUESTO_INVITACIONES);
+        this.presupuestos.put(ClaseMensaje.PARTIDA, PRESUPUESTO_PARTIDA);
+        this.presupuestos.put(ClaseMensaje.GENERAL, PRESUPUESTO_GENERAL);
+        this.presupuestos.putAll(presupuestos);
+        this.politica = politica;
+        this.excedidos = new EnumMap<>(ClaseMensaje.class);
+        for (ClaseMensaje clase : ClaseMensaje.values()) {
+            excedidos.put(clase, new AtomicLong());
+        }
+        this.conexionesCerradas = new AtomicLong();
+    }
+
+    /**
+     * Crea las cubetas de una conexión nueva, llenas
+     * @return Cubetas de la conexión
+     */
+    public Cubetas crearCubetas() {
+        return new Cubetas();
+    }
+
+    /**
+     * @return Política ante un exceso
+     */
+    public Politica getPolitica() {
+        return politica;
+    }
+
+    /**
+     * @return Mensajes rechazados por clase y conexiones cerradas por exceso
+     */
+    public String getEstadisticas() {
+        return "rechazados " + excedidos + ", " + conexionesCerradas.get() + " conexiones cerradas";
+    }
+
+    /**
+     * Registra una conexión cerrada por exceder su presupuesto
+     */
+    void registrarConexionCerrada() {
+        conexionesCerradas.incrementAndGet();
+    }
+
+    /**
+     * Cubetas de una conexión
+     * Solo las usa el thread que lee esa conexión (su thread en el servidor
+     * bloqueante, su bucle de eventos en NIO), así que no se sincronizan
+     */
+    public class Cubetas {
+
+        private final Map<ClaseMensaje, Cubeta> cubetas;
+        private long ultimoAvisoNs;
+
+        private Cubetas() {
+            this.cubetas = new EnumMap<>(ClaseMensaje.class);
+            long ahora = System.nanoTime();
+            for (Map.Entry<ClaseMensaje, Presupuesto> entrada : presupuestos.entrySet()) {
+                cubetas.put(entrada.getKey(), new Cubeta(entrada.getValue().rafaga(), ahora));
+            }
+            this.ultimoAvisoNs = ahora - INTERVALO_AVISO_NS;
+        }
+
+        /**
+         * Gasta una ficha de la clase del mensaje
+         * @param tipo Tipo del mensaje recibido
+         * @return true si el mensaje se puede procesar
+         */
+        public boolean admitir(TipoMensaje tipo) {
+            ClaseMensaje clase = ClaseMensaje.de(tipo);
+            if (clase == null) return true;
+
+            Presupuesto presupuesto = presupuestos.get(clase);
+            Cubeta cubeta = cubetas.get(clase);
+            long ahora = System.nanoTime();
+            cubeta.fichas = Math.min(presupuesto.rafaga(), cubeta.fichas + (ahora - cubeta.recargaNs) * presupuesto.porSegundo() / 1e9);
+            cubeta.recargaNs = ahora;
+            if (cubeta.fichas >= 1) {
+                cubeta.fichas -= 1;
+                return true;
+            }
+            excedidos.get(clase).incrementAndGet();
+            return false;
+        }
+
+        /**
+         * Indica si toca avisar al cliente de un exceso; limita los avisos
+         * para que responder a una inundación no sea otra inundación
+         * @return true como mucho una vez por segundo
+         */
+        public boolean debeAvisar() {
+            long ahora = System.nanoTime();
+            if (ahora - ultimoAvisoNs < INTERVALO_AVISO_NS) return false;
+            ultimoAvisoNs = ahora;
+            return true;
+        }
+    }
+
+    /**
+     * Fichas de una clase en una conexión y el instante en que se recargaron por última vez
+     */
+    private static class Cubeta {
+        private double fichas;
+        private long recargaNs;
+
+        private Cubeta(double fichas, long recargaNs) {
+            this.fichas = fichas;
+            this.recargaNs = recargaNs;
+        }
+    }
+}
@@ -3,18 +3,23 @@ package mx.itson.servidor;
 import mx.itson.utils.dtos.*;
 import mx.itson.utils.enums.*;
 import java.io.*;
-import java.net.Socket;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import mx.itson.exceptions.GestorPartidasException;
+import mx.itson.mappers.TableroNavesMapper;
 import mx.itson.models.IJugador;
 import mx.itson.models.IPartida;
+import mx.itson.subsistema_gestor_partidas.EsperaVistas;
 import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.subsistema_gestor_partidas.ReferenciaPartida;
+import mx.itson.subsistema_gestor_partidas.RegistroCambiosTableros;
 
 /**
  * Maneja la comunicación con un cliente conectado
- * Corre en un thread separado por cada cliente
+ * Recibe los mensajes desde el transporte (thread bloqueante o bucle NIO)
+ * y responde a través de su ICanalCliente
  *
  * @author Leonardo Flores Leyva ID: 00000252390
  * @author Yuri Germán García López ID: 00000252583
@@ -22,52 +27,121 @@ import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
  * @author Jesús Ernesto López Ibarra ID: 00000252663
  * @author Daniel Miramontes Iribe ID: 00000252801
  */
-public class ManejadorCliente implements Runnable {
+public class ManejadorCliente {
 
-    private final Socket socket;
+    // Tiempo máximo que se espera la VISTA_LISTA de ambos clientes antes de iniciar el primer turno
+    private static final long ESPERA_MAXIMA_VISTAS_MS = 3000;
+
+    private final ICanalCliente canal;
     private final GestorJugadores gestorJugadores;
     private final IGestorPartidas gestorPartidas;
-    private ObjectInputStream entrada;
-    private ObjectOutputStream salida;
     private JugadorDTO jugadorAsociado;
-    private boolean conectado;
+    private volatile boolean conectado;
+    private volatile boolean desconexionVoluntaria;
+    private final AtomicBoolean desconectado;
+    private volatile long ultimoMensajeMs;
+    private final LimitadorMensajes limitador;
+    private final LimitadorMensajes.Cubetas cubetas;
 
     /**
      * Constructor
-     * @param socket Socket del cliente
+     * @param canal Canal por el que se envían mensajes al cliente
      * @param gestorJugadores Gestor de jugadores del servidor
      * @param gestorPartidas Gestor de partidas del servidor
+     * @param limitador Límite de mensajes del transporte; de él salen las cubetas de esta conexión
      */
-    public ManejadorCliente(Socket socket, GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas) {
-        this.socket = socket;
+    public ManejadorCliente(ICanalCliente canal, GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas,
+            LimitadorMensajes limitador) {
+        this.canal = canal;
         this.gestorJugadores = gestorJugadores;
         this.gestorPartidas = gestorPartidas;
         this.conectado = true;
+        this.desconectado = new AtomicBoolean(false);
+        this.ultimoMensajeMs = System.currentTimeMillis();
+        this.limitador = limitador;
+        this.cubetas = limitador.crearCubetas();
     }
 
-    @Override
-    public void run() {
-        try {
-            // Configurar streams de comunicación
-            salida = new ObjectOutputStream(socket.getOutputStream());
-            salida.flush();
-            entrada = new ObjectInputStream(socket.getInputStream());
-
-            System.out.println("[MANEJADOR] Cliente conectado desde: " + socket.getInetAddress());
+    /**
+     * Entrega al manejador un mensaje completo recibido por el transporte
+     * @param mensaje Mensaje recibido
+     */
+    public void recibirMensaje(MensajeDTO mensaje) {
+        // Cualquier mensaje cuenta como latido, no solo el PONG
+        ultimoMensajeMs = System.currentTimeMillis();
+        if (!cubetas.admitir(mensaje.getTipo())) {
+            rechazarPorExceso(mensaje);
+            return;
+        }
+        procesarMensaje(mensaje);
+    }
 
-            // Procesar mensajes del cliente
-            while (conectado) {
-                MensajeDTO mensaje = (MensajeDTO) entrada.readObject();
-                procesarMensaje(mensaje);
-            }
+    /**
+     * Responde a un mensaje que excedió el presupuesto de su clase
+     * Al descartar, avisa al cliente como mucho una vez por segundo. Al
+     * desconectar, el cierre cuenta como voluntario: un cliente que inunda
+     * al servidor no conserva su lugar durante la gracia de reconexión
+     * @param mensaje Mensaje que no se procesará
+     */
+    private void rechazarPorExceso(MensajeDTO mensaje) {
+        if (limitador.getPolitica() == LimitadorMensajes.Politica.DESCONECTAR) {
+            System.out.println("[MANEJADOR] Límite excedido con " + mensaje.getTipo() + ", se cierra la conexión");
+            limitador.registrarConexionCerrada();
+            desconexionVoluntaria = true;
+            conectado = false;
+            canal.cerrar();
+            return;
+        }
 
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("[MANEJADOR] Error en comunicación: " + e.getMessage());
-        } finally {
-            desconectar();
+        if (cubetas.debeAvisar()) {
+            System.out.println("[MANEJADOR] Límite excedido con " + mensaje.getTipo() + ", se descartan mensajes");
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.ERROR,
+                "Demasiados mensajes. Espere un momento antes de continuar."
+            ));
         }
     }
 
+    /**
+     * Verifica si el cliente sigue conectado
+     * @return true mientras no se haya desconectado
+     */
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    /**
+     * @return Instante en que llegó el último mensaje del cliente
+     */
+    long getUltimoMensajeMs() {return ultimoMensajeMs;}
+
+    /**
+     * Envía un PING al cliente; lo invoca el MonitorLatidos cuando el cliente lleva un intervalo callado
+     */
+    void enviarLatido() {
+        enviarMensaje(new MensajeDTO(TipoMensaje.PING, "Latido", System.currentTimeMillis()));
+    }
+
+    /**
+     * Cierra esta conexión porque el mismo jugador reanudó su sesión desde otra.
+     * Al desconectarse, este manejador ya no es el del jugador y no toca su registro.
+     */
+    void relevar() {
+        System.out.println("[MANEJADOR] Conexión relevada por una sesión reanudada");
+        conectado = false;
+        canal.cerrar();
+    }
+
+    /**
+     * Cierra la conexión de un cliente que dejó de responder a los latidos.
+     * Cerrar el canal despierta al transporte, que termina igual que tras una
+     * DESCONEXION y llama a desconectar() en su propio thread.
+     */
+    void cerrarPorSilencio() {
+        conectado = false;
+        canal.cerrar();
+    }
+
     /**
      * Procesa un mensaje recibido del cliente
      * @param mensaje Mensaje a procesar
@@ -78,7 +152,9 @@ public class ManejadorCliente implements Runnable {
         switch (mensaje.getTipo()) {
             case REGISTRO_JUGADOR -> procesarRegistro(mensaje);
 
-            case SOLICITAR_JUGADORES -> enviarListaJugadores();
+            case REANUDAR_SESION -> procesarReanudacion(mensaje);
+
+            case SOLICITAR_JUGADORES -> enviarListaJugadores(mensaje.getDatos() instanceof ConsultaJugadoresDTO consulta ? consulta : null);
 
             case SOLICITAR_PARTIDA -> procesarSolicitudPartida(mensaje);
 
@@ -86,13 +162,36 @@ public class ManejadorCliente implements Runnable {
 
             case RECHAZAR_PARTIDA -> procesarRechazarPartida(mensaje);
 
+            case BUSCAR_PARTIDA -> procesarBuscarPartida(mensaje);
+
+            case CANCELAR_BUSQUEDA -> procesarCancelarBusqueda();
+
             case COLOCAR_NAVES -> procesarColocacionNaves(mensaje);
 
             case ENVIAR_DISPARO -> procesarDisparo(mensaje);
 
+            case CONFIRMAR_TABLEROS -> procesarConfirmacionTableros(mensaje);
+
+            case SOLICITAR_TABLEROS -> procesarSolicitudTableros();
+
+            case VISTA_LISTA -> procesarVistaLista();
+
+            case SINCRONIZAR_RELOJ -> enviarMensaje(new MensajeDTO(
+                TipoMensaje.SINCRONIZAR_RELOJ,
+                "Hora del servidor",
+                System.currentTimeMillis()
+            ));
+
+            case PING -> enviarMensaje(new MensajeDTO(TipoMensaje.PONG, "Latido", mensaje.getDatos()));
+
+            case PONG -> { } // Basta con haber llegado
+
             case ABANDONAR_PARTIDA -> procesarAbandonoPartida();
 
-            case DESCONEXION -> conectado = false;
+            case DESCONEXION -> {
+                desconexionVoluntaria = true;
+                conectado = false;
+            }
 
             default -> System.err.println("[MANEJADOR] Tipo de mensaje no manejado: " + mensaje.getTipo());
         }
@@ -103,16 +202,12 @@ public class ManejadorCliente implements Runnable {
      * @param mensaje Mensaje con datos de registro
      */
     private void procesarRegistro(MensajeDTO mensaje) {
-        RegistroJugadorDTO registro = (RegistroJugadorDTO) mensaje.getDatos();
-
-        // Verificar que el nombre no esté duplicado
-        if (!gestorJugadores.nombreDisponible(registro.getNombre())) {
-            // Nombre duplicado
-            MensajeDTO respuesta = new MensajeDTO(
-                    TipoMensaje.NOMBRE_DUPLICADO,
-                    "El nombre '" + registro.getNombre() + "' ya está en uso. Por favor, elija otro."
-            );
-            enviarMensaje(respuesta);
+        if (!(mensaje.getDatos() instanceof RegistroJugadorDTO registro) || registro.getNombre() == null
+                || jugadorAsociado != null) {
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.ERROR,
+                "Registro inválido"
+            ));
             return;
         }
 
@@ -120,106 +215,173 @@ public class ManejadorCliente implements Runnable {
         String id = UUID.randomUUID().toString();
         jugadorAsociado = new JugadorDTO(id, registro.getNombre(), registro.getColor());
 
-        // Registrar en el gestor
+        // Registrar en el gestor; la reserva del nombre es atómica, así que no se consulta antes
         boolean registrado = gestorJugadores.registrarJugador(jugadorAsociado, this);
 
         if (registrado) {
-            // Registro exitoso
+            // Registro exitoso; el token permite recuperar el lugar si la conexión se cae
+            SesionDTO sesion = new SesionDTO(jugadorAsociado, gestorJugadores.abrirSesion(id),
+                    gestorJugadores.getGraciaReconexionMs());
             MensajeDTO respuesta = new MensajeDTO(
                     TipoMensaje.REGISTRO_EXITOSO,
                     "Jugador registrado exitosamente",
-                    jugadorAsociado
+                    sesion
             );
             enviarMensaje(respuesta);
 
             // Enviar lista de jugadores disponibles
             enviarListaJugadores();
         } else {
-            // Error en el registro
+            // Nombre duplicado
+            jugadorAsociado = null;
             MensajeDTO respuesta = new MensajeDTO(
-                    TipoMensaje.ERROR,
-                    "Error al registrar jugador"
+                    TipoMensaje.NOMBRE_DUPLICADO,
+                    "El nombre '" + registro.getNombre() + "' ya está en uso. Por favor, elija otro."
             );
             enviarMensaje(respuesta);
         }
     }
 
     /**
-     * Envía la lista de jugadores disponibles al cliente
+     * Reanuda la sesión de un jugador que perdió la conexión
+     * En lugar de repetir lo que pasó mientras no estaba, responde con una
+     * sola instantánea: tableros, turno y límite si sigue en partida
+     * @param mensaje Mensaje con el token de la sesión
      */
-    private void enviarListaJugadores() {
-        System.out.println("[MANEJADOR] ========== ENVIANDO LISTA DE JUGADORES ==========");
-        List<JugadorDTO> disponibles = gestorJugadores.obtenerJugadoresDisponibles();
+    private void procesarReanudacion(MensajeDTO mensaje) {
+        String token = mensaje.getDatos() instanceof String texto ? texto : null;
+        JugadorDTO jugador = gestorJugadores.obtenerJugadorDeSesion(token);
+        if (jugadorAsociado != null || jugador == null) {
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.SESION_EXPIRADA,
+                "La sesión ya no existe. Por favor, regístrese de nuevo."
+            ));
+            return;
+        }
 
-        // Filtrar para no incluir al propio jugador
-        if (jugadorAsociado != null) {
-            disponibles = new java.util.ArrayList<>(disponibles.stream()
-                    .filter(j -> !j.getId().equals(jugadorAsociado.getId()))
-                    .toList());
+        // Se asocia antes de publicar el manejador, igual que en el registro
+        jugadorAsociado = jugador;
+        String nuevoToken = gestorJugadores.reanudarSesion(jugador.getId(), token, this);
+        if (nuevoToken == null) {
+            jugadorAsociado = null;
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.SESION_EXPIRADA,
+                "La sesión ya no existe. Por favor, regístrese de nuevo."
+            ));
+            return;
         }
 
-        System.out.println("[MANEJADOR] Jugadores disponibles: " + disponibles.size());
+        // El token que se presentó ya no sirve; el cliente debe guardar el nuevo
+        SesionDTO sesion = new SesionDTO(jugador, nuevoToken, gestorJugadores.getGraciaReconexionMs());
+        agregarPartidaASesion(sesion);
+        System.out.println("[MANEJADOR] Reanudando " + sesion);
+        enviarMensaje(new MensajeDTO(
+            TipoMensaje.SESION_REANUDADA,
+            "Sesión reanudada",
+            sesion
+        ));
+        if (!sesion.tienePartida()) {
+            enviarListaJugadores();
+        }
+    }
 
-        if (disponibles.isEmpty()) {
-            // No hay jugadores disponibles
-            MensajeDTO respuesta = new MensajeDTO(
-                    TipoMensaje.SIN_JUGADORES_DISPONIBLES,
-                    "No hay jugadores disponibles en este momento. Esperando..."
-            );
-            System.out.println("[MANEJADOR] Enviando SIN_JUGADORES_DISPONIBLES");
-            System.out.println("[MANEJADOR] Tipo de objeto a enviar: " + respuesta.getClass().getName());
-            enviarMensaje(respuesta);
-        } else {
-            // Enviar lista de jugadores disponibles
-            MensajeDTO respuesta = new MensajeDTO(
-                    TipoMensaje.LISTA_JUGADORES,
-                    "Jugadores disponibles",
-                    disponibles
-            );
-            System.out.println("[MANEJADOR] Enviando LISTA_JUGADORES");
-            System.out.println("[MANEJADOR] Tipo de objeto a enviar: " + respuesta.getClass().getName());
-            System.out.println("[MANEJADOR] Contenido del mensaje: " + respuesta.getContenido());
-            enviarMensaje(respuesta);
+    /**
+     * Agrega a la sesión el estado de la partida en curso del jugador, si tiene una
+     * @param sesion Sesión que se enviará al cliente
+     */
+    private void agregarPartidaASesion(SesionDTO sesion) {
+        try {
+            PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId());
+            if (partida == null || partida.hayGanador()) return;
+
+            RegistroCambiosTableros registro = gestorPartidas.obtenerRegistroTableros(partida.getIdPartida());
+            TableroDTO[] tableros = reiniciarVersionTableros(partida, registro);
+            ArrayList<TableroDTO> vistas = new ArrayList<>();
+            vistas.add(vistaDeTablero(registro, tableros[0]));
+            vistas.add(vistaDeTablero(registro, tableros[1]));
+            sesion.setPartida(partida.getIdPartida(), partida.getOponente(jugadorAsociado.getId()), vistas,
+                    gestorPartidas.obtenerTurno(partida.getIdPartida()));
+        } catch (GestorPartidasException e) {
+            System.err.println("[MANEJADOR] Error al obtener la partida para reanudar: " + e.getMessage());
         }
-        System.out.println("[MANEJADOR] ========== FIN ENVIAR LISTA ==========");
     }
 
     /**
-     * Notifica al cliente que hay un jugador disponible
-     * Llamado por el GestorJugadores cuando un nuevo jugador se conecta
+     * Envía al cliente la primera página del lobby con el filtro que ya tenía
+     * Después de ella solo recibe los cambios de presencia
      */
-    public void notificarJugadorDisponible() {
-        if (jugadorAsociado != null && !jugadorAsociado.isEnPartida())
-            enviarListaJugadores();
+    public void enviarListaJugadores() {
+        enviarListaJugadores(null);
+    }
+
+    /**
+     * Envía al cliente la página del lobby que pidió
+     * @param consulta Prefijo, cursor y tamaño de página, o null para la primera página
+     */
+    private void enviarListaJugadores(ConsultaJugadoresDTO consulta) {
+        ListaJugadoresDTO lista = gestorJugadores.obtenerInstantanea(
+                jugadorAsociado != null ? jugadorAsociado.getId() : null, consulta);
+
+        System.out.println("[MANEJADOR] Enviando LISTA_JUGADORES: " + lista.getJugadores().size()
+                + " jugadores, versión " + lista.getVersion()
+                + (lista.getSiguienteCursor() != null ? " (hay más)" : ""));
+        enviarMensaje(new MensajeDTO(
+                TipoMensaje.LISTA_JUGADORES,
+                "Jugadores disponibles",
+                lista
+        ));
+    }
+
+    /**
+     * Envía al cliente los cambios de presencia del lobby que le faltan
+     * Llamado por el PublicadorLobby al cerrar cada ventana
+     * @param lote Cambios desde la última versión que recibió el cliente
+     */
+    public void enviarLoteLobby(LoteLobbyDTO lote) {
+        enviarMensaje(new MensajeDTO(TipoMensaje.CAMBIOS_LOBBY, "Cambios en el lobby", lote));
     }
 
     /**
      * Envía un mensaje al cliente
+     * Solo lo deja en la cola de salida del canal; no espera a que el socket
+     * del cliente acepte los datos
      * @param mensaje Mensaje a enviar
      */
-    private synchronized void enviarMensaje(MensajeDTO mensaje) {
+    private void enviarMensaje(MensajeDTO mensaje) {
         try {
-            salida.writeObject(mensaje);
-            salida.flush();
-            System.out.println("[MANEJADOR] Mensaje enviado: " + mensaje.getTipo());
+            canal.enviar(mensaje);
+            System.out.println("[MANEJADOR] Mensaje encolado: " + mensaje.getTipo());
         } catch (IOException e) {
             System.err.println("[MANEJADOR] Error al enviar mensaje: " + e.getMessage());
             conectado = false;
         }
     }
 
+    /**
+     * Revisa que los datos de COLOCAR_NAVES sean una lista de naves, elemento por elemento
+     * @param datos Datos recibidos del cliente
+     * @return Naves recibidas, o null si los datos no son una lista no vacía de NaveDTO
+     */
+    private static List<NaveDTO> leerNaves(Object datos) {
+        if (!(datos instanceof List<?> recibidas) || recibidas.isEmpty()) return null;
+        List<NaveDTO> naves = new ArrayList<>(recibidas.size());
+        for (Object nave : recibidas) {
+            if (!(nave instanceof NaveDTO valida)) return null;
+            naves.add(valida);
+        }
+        return naves;
+    }
+
     /**
      * Procesa una solicitud de partida de un jugador
      * @param mensaje Mensaje con la solicitud
      */
     private void procesarSolicitudPartida(MensajeDTO mensaje) {
-        SolicitudPartidaDTO solicitud = (SolicitudPartidaDTO) mensaje.getDatos();
-
-        System.out.println("[MANEJADOR] Solicitud de partida: " +
-                          solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
+        SolicitudPartidaDTO solicitud = mensaje.getDatos() instanceof SolicitudPartidaDTO recibida ? recibida : null;
 
         // Verificar que el solicitante es el jugador asociado
-        if (jugadorAsociado == null || !jugadorAsociado.getId().equals(solicitud.getIdSolicitante())) {
+        if (solicitud == null || jugadorAsociado == null || !jugadorAsociado.getId().equals(solicitud.getIdSolicitante())
+                || solicitud.getIdInvitado() == null) {
             enviarMensaje(new MensajeDTO(
                 TipoMensaje.ERROR,
                 "No autorizado para enviar esta solicitud"
@@ -227,16 +389,22 @@ public class ManejadorCliente implements Runnable {
             return;
         }
 
-        // Registrar solicitud en el gestor
+        System.out.println("[MANEJADOR] Solicitud de partida: " +
+                          solicitud.getNombreSolicitante() + " -> " + solicitud.getNombreInvitado());
+
+        // Registrar solicitud en el gestor con su plazo de respuesta
+        long ttl = gestorJugadores.getTtlInvitacionMs();
+        solicitud.setExpira(System.currentTimeMillis() + ttl);
         boolean registrada = gestorJugadores.registrarSolicitudPartida(solicitud);
 
         if (!registrada) {
             enviarMensaje(new MensajeDTO(
                 TipoMensaje.ERROR,
-                "El jugador no está disponible o ya tiene una invitación pendiente"
+                "El jugador no está disponible, ya lo invitaste o tienes demasiadas invitaciones pendientes"
             ));
             return;
         }
+        gestorPartidas.programarPlazo(ttl, () -> expirarSolicitud(solicitud));
 
         // Obtener manejador del invitado y enviarle la invitación
         ManejadorCliente manejadorInvitado = gestorJugadores.obtenerManejador(solicitud.getIdInvitado());
@@ -258,30 +426,34 @@ public class ManejadorCliente implements Runnable {
 
     /**
      * Procesa la aceptación de una partida
-     * @param mensaje Mensaje de aceptación
+     * Con varias invitaciones en curso gana la primera aceptación que aparta a
+     * ambos jugadores; las demás invitaciones de los dos se retiran
+     * @param mensaje Mensaje de aceptación con la invitación aceptada, o sin
+     *                datos para la más antigua
      */
     private void procesarAceptarPartida(MensajeDTO mensaje) {
         if (jugadorAsociado == null) return;
 
-        // Obtener la solicitud pendiente
-        SolicitudPartidaDTO solicitud = gestorJugadores.eliminarSolicitudPendiente(jugadorAsociado.getId());
+        String idSolicitante = mensaje.getDatos() instanceof SolicitudPartidaDTO aceptada
+                ? aceptada.getIdSolicitante() : null;
+        SolicitudPartidaDTO solicitud = gestorJugadores.aceptarSolicitud(jugadorAsociado.getId(), idSolicitante);
 
         if (solicitud == null) {
             enviarMensaje(new MensajeDTO(
                 TipoMensaje.ERROR,
-                "No hay solicitud pendiente"
+                "La invitación ya no está disponible"
             ));
             return;
         }
 
+        // Ambos ya están EN_PARTIDA; sus otras invitaciones ya no se pueden aceptar
+        cancelarInvitaciones(solicitud.getIdSolicitante(), "entró a otra partida");
+        cancelarInvitaciones(solicitud.getIdInvitado(), "entró a otra partida");
+
         try {
             System.out.println("[MANEJADOR] Partida aceptada: " +
                                 solicitud.getNombreSolicitante() + " vs " + solicitud.getNombreInvitado());
 
-            // Marcar ambos jugadores como en partida
-            gestorJugadores.marcarEnPartida(solicitud.getIdSolicitante());
-            gestorJugadores.marcarEnPartida(solicitud.getIdInvitado());
-
             // Obtener jugadores completos
             JugadorDTO jugador1 = gestorJugadores.obtenerJugador(solicitud.getIdSolicitante());
             JugadorDTO jugador2 = gestorJugadores.obtenerJugador(solicitud.getIdInvitado());
@@ -332,6 +504,9 @@ public class ManejadorCliente implements Runnable {
                 ));
             }
         } catch (GestorPartidasException e) {
+            // La reserva no llegó a partida; ambos vuelven al lobby
+            gestorJugadores.liberarJugador(solicitud.getIdSolicitante());
+            gestorJugadores.liberarJugador(solicitud.getIdInvitado());
             enviarMensaje(new MensajeDTO(
                 TipoMensaje.ERROR,
                 e.getMessage()
@@ -339,15 +514,61 @@ public class ManejadorCliente implements Runnable {
         }
     }
 
+    /**
+     * Retira las invitaciones que un jugador envió o recibió y avisa a la otra parte de cada una
+     * @param idJugador ID del jugador que ya no puede responder ni ser invitado
+     * @param motivo Qué le pasó, para el mensaje a la otra parte
+     */
+    private void cancelarInvitaciones(String idJugador, String motivo) {
+        for (SolicitudPartidaDTO solicitud : gestorJugadores.cancelarSolicitudesDe(idJugador)) {
+            boolean esSolicitante = solicitud.getIdSolicitante().equals(idJugador);
+            String idOtro = esSolicitante ? solicitud.getIdInvitado() : solicitud.getIdSolicitante();
+            String nombre = esSolicitante ? solicitud.getNombreSolicitante() : solicitud.getNombreInvitado();
+            ManejadorCliente manejador = gestorJugadores.obtenerManejador(idOtro);
+            if (manejador != null) {
+                manejador.enviarMensaje(new MensajeDTO(
+                    TipoMensaje.SOLICITUD_CANCELADA,
+                    "La invitación con " + nombre + " se canceló: " + motivo,
+                    solicitud
+                ));
+            }
+        }
+    }
+
+    /**
+     * Vence una invitación que nadie respondió y avisa a ambos jugadores
+     * Se ejecuta en la rueda de temporizadores; si la invitación ya se
+     * aceptó o rechazó, no hace nada
+     * @param solicitud Invitación registrada
+     */
+    private void expirarSolicitud(SolicitudPartidaDTO solicitud) {
+        if (!gestorJugadores.expirarSolicitud(solicitud)) return;
+
+        for (String id : List.of(solicitud.getIdSolicitante(), solicitud.getIdInvitado())) {
+            ManejadorCliente manejador = gestorJugadores.obtenerManejador(id);
+            if (manejador != null) {
+                manejador.enviarMensaje(new MensajeDTO(
+                    TipoMensaje.SOLICITUD_EXPIRADA,
+                    "La invitación de " + solicitud.getNombreSolicitante() + " a "
+                            + solicitud.getNombreInvitado() + " expiró sin respuesta",
+                    solicitud
+                ));
+            }
+        }
+    }
+
     /**
      * Procesa el rechazo de una partida
-     * @param mensaje Mensaje de rechazo
+     * @param mensaje Mensaje de rechazo con la invitación rechazada, o sin
+     *                datos para la más antigua
      */
     private void procesarRechazarPartida(MensajeDTO mensaje) {
         if (jugadorAsociado == null) return;
 
         // Obtener y eliminar la solicitud pendiente
-        SolicitudPartidaDTO solicitud = gestorJugadores.eliminarSolicitudPendiente(jugadorAsociado.getId());
+        String idSolicitante = mensaje.getDatos() instanceof SolicitudPartidaDTO rechazada
+                ? rechazada.getIdSolicitante() : null;
+        SolicitudPartidaDTO solicitud = gestorJugadores.eliminarSolicitudPendiente(jugadorAsociado.getId(), idSolicitante);
 
         if (solicitud == null) {
             enviarMensaje(new MensajeDTO(
@@ -377,6 +598,72 @@ public class ManejadorCliente implements Runnable {
         ));
     }
 
+    /**
+     * Pone al jugador en la cola de emparejamiento automático
+     * @param mensaje Mensaje con la puntuación del jugador (Integer) o sin datos
+     */
+    private void procesarBuscarPartida(MensajeDTO mensaje) {
+        Emparejador emparejador = gestorJugadores.getEmparejador();
+        if (jugadorAsociado == null || emparejador == null) return;
+
+        if (!gestorJugadores.estaDisponible(jugadorAsociado.getId())) {
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.ERROR,
+                "No puedes buscar partida mientras juegas otra"
+            ));
+            return;
+        }
+
+        int puntuacion = mensaje.getDatos() instanceof Integer valor ? valor : 0;
+        boolean encolado = emparejador.encolar(jugadorAsociado.getId(), puntuacion);
+        System.out.println("[MANEJADOR] " + jugadorAsociado.getNombre()
+                + (encolado ? " busca partida" : " ya estaba buscando partida"));
+
+        enviarMensaje(new MensajeDTO(
+            TipoMensaje.BUSCAR_PARTIDA,
+            "Buscando oponente..."
+        ));
+    }
+
+    /**
+     * Saca al jugador de la cola de emparejamiento
+     */
+    private void procesarCancelarBusqueda() {
+        Emparejador emparejador = gestorJugadores.getEmparejador();
+        if (jugadorAsociado == null || emparejador == null) return;
+
+        // Si la ronda ya lo emparejó, la partida sigue y el cliente recibe PARTIDA_INICIADA
+        if (emparejador.cancelar(jugadorAsociado.getId())) {
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.CANCELAR_BUSQUEDA,
+                "Búsqueda cancelada"
+            ));
+        }
+    }
+
+    /**
+     * Avisa al cliente que el emparejador le asignó una partida
+     * Equivale a la aceptación de una invitación, sin pasar por ella
+     * @param emparejamiento Ambos jugadores, con el primero como solicitante
+     * @param idPartida ID de la partida creada
+     * @param nombreOponente Nombre del rival
+     */
+    public void iniciarPartidaEmparejada(SolicitudPartidaDTO emparejamiento, String idPartida, String nombreOponente) {
+        if (jugadorAsociado != null) {
+            cancelarInvitaciones(jugadorAsociado.getId(), "entró a otra partida");
+        }
+        enviarMensaje(new MensajeDTO(
+            TipoMensaje.PARTIDA_INICIADA,
+            "Partida iniciada con " + nombreOponente,
+            emparejamiento
+        ));
+        enviarMensaje(new MensajeDTO(
+            TipoMensaje.COLOCAR_NAVES,
+            "Coloca tus naves en el tablero",
+            idPartida
+        ));
+    }
+
     /**
      * Procesa la colocación de naves de un jugador
      * @param mensaje Mensaje con las naves colocadas
@@ -401,14 +688,28 @@ public class ManejadorCliente implements Runnable {
             }
 
             // Obtener lista de naves del mensaje
-            @SuppressWarnings("unchecked")
-            List<NaveDTO> naves = (List<NaveDTO>) mensaje.getDatos();
+            List<NaveDTO> naves = leerNaves(mensaje.getDatos());
+            if (naves == null) {
+                enviarMensaje(new MensajeDTO(
+                    TipoMensaje.ERROR,
+                    "Error al colocar naves. Verifica que sean válidas."
+                ));
+                return;
+            }
 
             System.out.println("[MANEJADOR] Recibidas " + naves.size() + " naves de " + jugadorAsociado.getNombre());
 
             // Colocar naves en la partida
+            ReferenciaPartida referencia = gestorPartidas.obtenerReferenciaDeJugador(jugadorAsociado.getId());
+            if (referencia == null) {
+                enviarMensaje(new MensajeDTO(
+                    TipoMensaje.ERROR,
+                    "No estás en una partida activa"
+                ));
+                return;
+            }
             PartidaDTO partida = gestorPartidas.colocarNaves(
-                    gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId()).getIdPartida(), 
+                    referencia.idPartida(), 
                     jugadorAsociado.getId(), 
                     naves
             );
@@ -435,6 +736,18 @@ public class ManejadorCliente implements Runnable {
                 ManejadorCliente manejador1 = gestorJugadores.obtenerManejador(partida.getJugador1().getId());
                 ManejadorCliente manejador2 = gestorJugadores.obtenerManejador(partida.getJugador2().getId());
 
+                // Abrir la espera antes de AMBOS_LISTOS para no perder una confirmación temprana.
+                // El primer turno se inicia cuando ambos clientes envían VISTA_LISTA;
+                // si alguno no responde a tiempo, se inicia de todos modos
+                String idPartidaFinal = partida.getIdPartida();
+                EsperaVistas espera = gestorPartidas.iniciarEsperaVistas(idPartidaFinal, ESPERA_MAXIMA_VISTAS_MS, () -> {
+                    System.out.println("[MANEJADOR] Tiempo de espera de vistas agotado. Iniciando partida " + idPartidaFinal);
+                    iniciarPrimerTurno(idPartidaFinal);
+                });
+                if (espera == null) {
+                    return; // El manejador del otro jugador ya está iniciando la partida
+                }
+
                 // Notificar que ambos están listos
                 if (manejador1 != null) {
                     manejador1.enviarMensaje(new MensajeDTO(
@@ -449,88 +762,6 @@ public class ManejadorCliente implements Runnable {
                         "Ambos jugadores han colocado sus naves. ¡Iniciando batalla!"
                     ));
                 }
-
-                // Dar tiempo para que las vistas se inicialicen
-                try {
-                    Thread.sleep(500); // 500ms de delay
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-
-                // Iniciar turno del primer jugador
-                String idEnTurno = partida.getIdJugadorEnTurno();
-                JugadorDTO jugadorEnTurno = partida.getJugador1().getId().equals(idEnTurno)
-                    ? partida.getJugador1() : partida.getJugador2();
-
-                System.out.println("[MANEJADOR] Enviando TURNO_INICIADO a: " + jugadorEnTurno.getNombre() + " (ID: " + idEnTurno + ")");
-
-                // Enviar TURNO_INICIADO solo al jugador que tiene el turno
-                if (partida.getJugador1().getId().equals(idEnTurno)) {
-                    if (manejador1 != null) {
-                        manejador1.enviarMensaje(new MensajeDTO(
-                            TipoMensaje.TURNO_INICIADO,
-                            "Es tu turno. Realiza un disparo.",
-                            jugadorEnTurno
-                        ));
-                        System.out.println("[MANEJADOR] TURNO_INICIADO enviado a jugador 1");
-                    }
-                    // Enviar CAMBIO_TURNO al jugador 2
-                    if (manejador2 != null) {
-                        manejador2.enviarMensaje(new MensajeDTO(
-                            TipoMensaje.CAMBIO_TURNO,
-                            "Turno de " + jugadorEnTurno.getNombre(),
-                            jugadorEnTurno
-                        ));
-                        System.out.println("[MANEJADOR] CAMBIO_TURNO enviado a jugador 2");
-                    }
-                } else {
-                    if (manejador2 != null) {
-                        manejador2.enviarMensaje(new MensajeDTO(
-                            TipoMensaje.TURNO_INICIADO,
-                            "Es tu turno. Realiza un disparo.",
-                            jugadorEnTurno
-                        ));
-                        System.out.println("[MANEJADOR] TURNO_INICIADO enviado a jugador 2");
-                    }
-                    // Enviar CAMBIO_TURNO al jugador 1
-                    if (manejador1 != null) {
-                        manejador1.enviarMensaje(new MensajeDTO(
-                            TipoMensaje.CAMBIO_TURNO,
-                            "Turno de " + jugadorEnTurno.getNombre(),
-                            jugadorEnTurno
-                        ));
-                        System.out.println("[MANEJADOR] CAMBIO_TURNO enviado a jugador 1");
-                    }
-                }
-
-                // Enviar tableros iniciales
-                enviarTablerosAJugadores(partida);
-
-                // Configurar callback de timeout
-                String idPartidaFinal = partida.getIdPartida();
-                gestorPartidas.establecerRespuestaTiempoAgotado(idPartidaFinal, idJugadorTimeout -> {
-                    try {
-                        // Obtener la partida ACTUALIZADA del gestor, no usar el DTO capturado
-                        PartidaDTO partidaActualizada = gestorPartidas.obtenerPartida(idPartidaFinal);
-                        manejarTimeout(partidaActualizada, idJugadorTimeout);
-                    } catch (GestorPartidasException e) {
-                        System.err.println("[MANEJADOR] Error al obtener partida en timeout: " + e.getMessage());
-                    }
-                });
-
-                // Configurar callback de actualización periódica del tiempo
-                gestorPartidas.establecerCallbackActualizacionTiempo(idPartidaFinal, tiempoRestante -> {
-                    try {
-                        // Obtener la partida ACTUALIZADA del gestor
-                        PartidaDTO partidaActualizada = gestorPartidas.obtenerPartida(idPartidaFinal);
-                        enviarActualizacionTiempoAJugadores(partidaActualizada, tiempoRestante);
-                    } catch (GestorPartidasException e) {
-                        System.err.println("[MANEJADOR] Error al obtener partida en actualización tiempo: " + e.getMessage());
-                    }
-                });
-
-                // Iniciar timer del primer turno
-                gestorPartidas.iniciarTemporizador(partida.getIdPartida());
             } else {
                 // Notificar que está esperando al oponente
                 enviarMensaje(new MensajeDTO(
@@ -546,6 +777,63 @@ public class ManejadorCliente implements Runnable {
         }
     }
 
+    /**
+     * Procesa la confirmación de un cliente de que su vista de juego ya está lista.
+     * Cuando confirman ambos jugadores se inicia el primer turno.
+     */
+    private void procesarVistaLista() {
+        if (jugadorAsociado == null) {
+            return;
+        }
+
+        EsperaVistas espera = gestorPartidas.obtenerEsperaVistasDeJugador(jugadorAsociado.getId());
+        if (espera == null || !espera.marcarLista(jugadorAsociado.getId())) {
+            return;
+        }
+
+        try {
+            PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId());
+            if (partida != null) {
+                System.out.println("[MANEJADOR] Vistas listas. Iniciando partida " + partida.getIdPartida());
+                iniciarPrimerTurno(partida.getIdPartida());
+            }
+        } catch (GestorPartidasException e) {
+            System.err.println("[MANEJADOR] Error al obtener partida tras VISTA_LISTA: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Envía el primer turno, los tableros iniciales y arranca el temporizador de una partida
+     * @param idPartida ID de la partida
+     */
+    private void iniciarPrimerTurno(String idPartida) {
+        PartidaDTO partida;
+        try {
+            partida = gestorPartidas.obtenerPartida(idPartida);
+        } catch (GestorPartidasException e) {
+            System.err.println("[MANEJADOR] Error al obtener partida al iniciar: " + e.getMessage());
+            return;
+        }
+        if (partida == null) {
+            return;
+        }
+
+        // Configurar callback de timeout antes de arrancar el timer
+        gestorPartidas.establecerRespuestaTiempoAgotado(idPartida, idJugadorTimeout -> {
+            try {
+                // Obtener la partida ACTUALIZADA del gestor, no usar el DTO capturado
+                PartidaDTO partidaActualizada = gestorPartidas.obtenerPartida(idPartida);
+                manejarTimeout(partidaActualizada, idJugadorTimeout);
+            } catch (GestorPartidasException e) {
+                System.err.println("[MANEJADOR] Error al obtener partida en timeout: " + e.getMessage());
+            }
+        });
+
+        // Iniciar el primer turno con su límite y enviar tableros iniciales
+        iniciarTurno(partida);
+        enviarTablerosAJugadores(partida);
+    }
+
     /**
      * Procesa un disparo de un jugador
      * @param mensaje Mensaje con las coordenadas del disparo
@@ -575,14 +863,28 @@ public class ManejadorCliente implements Runnable {
             }
 
             // Obtener coordenada del disparo
-            CoordenadaDTO coordenada = (CoordenadaDTO) mensaje.getDatos();
+            if (!(mensaje.getDatos() instanceof CoordenadaDTO coordenada)) {
+                enviarMensaje(new MensajeDTO(
+                    TipoMensaje.ERROR,
+                    "Disparo inválido"
+                ));
+                return;
+            }
 
             System.out.println("[MANEJADOR] Disparo de " + jugadorAsociado.getNombre() +
                               " en (" + coordenada.getX() + "," + coordenada.getY() + ")");
 
-            // Procesar disparo en la partida
+            // Procesar disparo en la partida; basta la referencia, el DTO se pide una sola vez después
+            ReferenciaPartida referencia = gestorPartidas.obtenerReferenciaDeJugador(idJugador);
+            if (referencia == null) {
+                enviarMensaje(new MensajeDTO(
+                    TipoMensaje.ERROR,
+                    "No estás en una partida activa"
+                ));
+                return;
+            }
             DisparoDTO disparo = gestorPartidas.procesarDisparo(
-                    gestorPartidas.obtenerPartidaDeJugador(idJugador).getIdPartida(), 
+                    referencia.idPartida(), 
                     idJugador, 
                     coordenada
             );
@@ -597,7 +899,7 @@ public class ManejadorCliente implements Runnable {
             }
             
             // Obtiene la partida después de haber procesado el disparo
-            PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(idJugador);
+            PartidaDTO partida = gestorPartidas.obtenerPartida(referencia.idPartida());
             
             // Obtener manejadores de ambos jugadores
             ManejadorCliente manejador1 = gestorJugadores.obtenerManejador(partida.getJugador1().getId());
@@ -692,42 +994,13 @@ public class ManejadorCliente implements Runnable {
                 gestorJugadores.marcarDisponible(partida.getJugador1().getId());
                 gestorJugadores.marcarDisponible(partida.getJugador2().getId());
 
-                // NO eliminar la partida inmediatamente para evitar ClassCastException
-                // si el otro jugador intenta hacer algo después de terminar
-                // La partida se limpiará eventualmente cuando ambos jugadores se desconecten
-                // gestorPartidas.eliminarPartida(partida.getIdPartida());
-                // TODO PARA ALEJAJANDRA: hay un detallito aquí que falta corregir
+                // La partida se retira después de una gracia breve: los mensajes del otro
+                // jugador que ya venían en camino todavía la encuentran
+                gestorPartidas.retirarPartida(partida.getIdPartida(), CicloVidaPartidas.GRACIA_PARTIDA_TERMINADA_MS);
 
             } else {
-                // Continuar juego - notificar cambio de turno si cambió
-                String idEnTurno = partida.getIdJugadorEnTurno();
-                JugadorDTO jugadorEnTurno = partida.getJugador1().getId().equals(idEnTurno)
-                    ? partida.getJugador1() : partida.getJugador2();
-
-                // Notificar al jugador en turno
-                ManejadorCliente manejadorEnTurno = gestorJugadores.obtenerManejador(idEnTurno);
-                if (manejadorEnTurno != null) {
-                    manejadorEnTurno.enviarMensaje(new MensajeDTO(
-                        TipoMensaje.TURNO_INICIADO,
-                        "Es tu turno. Realiza un disparo.",
-                        jugadorEnTurno
-                    ));
-                }
-
-                // Notificar al otro jugador
-                String idOtro = partida.getJugador1().getId().equals(idEnTurno)
-                    ? partida.getJugador2().getId() : partida.getJugador1().getId();
-                ManejadorCliente manejadorOtro = gestorJugadores.obtenerManejador(idOtro);
-                if (manejadorOtro != null) {
-                    manejadorOtro.enviarMensaje(new MensajeDTO(
-                        TipoMensaje.CAMBIO_TURNO,
-                        "Turno de " + jugadorEnTurno.getNombre(),
-                        jugadorEnTurno
-                    ));
-                }
-
-                // Reiniciar timer para el nuevo turno
-                gestorPartidas.iniciarTemporizador(partida.getIdPartida());
+                // Continuar juego - reiniciar timer y notificar el turno a ambos
+                iniciarTurno(partida);
             }
         } catch (GestorPartidasException e) {
             enviarMensaje(new MensajeDTO(
@@ -739,47 +1012,16 @@ public class ManejadorCliente implements Runnable {
 
     /**
      * Procesa el abandono de una partida por parte de un jugador
-     * @param mensaje Mensaje con datos del jugador que abandona
      */
     private void procesarAbandonoPartida() {
         try {
             System.out.println("[MANEJADOR] Procesando abandono de partida");
 
-            // Obtener la partida actual del jugador
-            PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId());
-
-            if (partida == null) {
+            if (!abandonarPartida(true)) {
                 System.err.println("[MANEJADOR] El jugador no está en ninguna partida");
                 return;
             }
 
-            // Determinar quién es el oponente
-            JugadorDTO oponente = partida.getJugador1().getId().equals(jugadorAsociado.getId())
-                ? partida.getJugador2() : partida.getJugador1();
-
-            System.out.println("[MANEJADOR] Jugador " + jugadorAsociado.getNombre() +
-                             " abandona la partida contra " + oponente.getNombre());
-
-            // Detener timer y liberar recursos de la partida
-            gestorPartidas.liberarRecursos(partida.getIdPartida());
-
-            // Notificar al oponente que la partida fue abandonada
-            ManejadorCliente manejadorOponente = gestorJugadores.obtenerManejador(oponente.getId());
-            if (manejadorOponente != null) {
-                manejadorOponente.enviarMensaje(new MensajeDTO(
-                    TipoMensaje.PARTIDA_ABANDONADA,
-                    jugadorAsociado.getNombre(),
-                    null
-                ));
-            }
-
-            // Marcar ambos jugadores como disponibles
-            gestorJugadores.marcarDisponible(jugadorAsociado.getId());
-            gestorJugadores.marcarDisponible(oponente.getId());
-
-            // Eliminar la partida
-            gestorPartidas.eliminarPartida(partida.getIdPartida());
-
             System.out.println("[MANEJADOR] Partida abandonada exitosamente. Ambos jugadores disponibles.");
 
         } catch (GestorPartidasException e) {
@@ -791,6 +1033,54 @@ public class ManejadorCliente implements Runnable {
         }
     }
 
+    /**
+     * Termina la partida en curso del jugador: avisa al oponente, lo devuelve
+     * al lobby y retira la partida
+     * @param volverAlLobby true si quien sale también queda disponible; false
+     *                      si se está desconectando
+     * @return false si el jugador no tenía una partida en curso
+     * @throws GestorPartidasException Si no se pudo obtener la partida
+     */
+    private boolean abandonarPartida(boolean volverAlLobby) throws GestorPartidasException {
+        // Obtener la partida actual del jugador
+        PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId());
+
+        // Una partida con ganador ya se está retirando por su cuenta
+        if (partida == null || partida.hayGanador()) {
+            return false;
+        }
+
+        // Determinar quién es el oponente
+        JugadorDTO oponente = partida.getJugador1().getId().equals(jugadorAsociado.getId())
+            ? partida.getJugador2() : partida.getJugador1();
+
+        System.out.println("[MANEJADOR] Jugador " + jugadorAsociado.getNombre() +
+                         " abandona la partida contra " + oponente.getNombre());
+
+        // Detener timer y liberar recursos de la partida
+        gestorPartidas.liberarRecursos(partida.getIdPartida());
+
+        // Notificar al oponente que la partida fue abandonada
+        ManejadorCliente manejadorOponente = gestorJugadores.obtenerManejador(oponente.getId());
+        if (manejadorOponente != null) {
+            manejadorOponente.enviarMensaje(new MensajeDTO(
+                TipoMensaje.PARTIDA_ABANDONADA,
+                jugadorAsociado.getNombre(),
+                null
+            ));
+        }
+
+        // Marcar jugadores como disponibles
+        if (volverAlLobby) {
+            gestorJugadores.marcarDisponible(jugadorAsociado.getId());
+        }
+        gestorJugadores.marcarDisponible(oponente.getId());
+
+        // Retirar la partida
+        gestorPartidas.retirarPartida(partida.getIdPartida(), 0);
+        return true;
+    }
+
     /**
      * Maneja el timeout de un turno
      */
@@ -827,155 +1117,252 @@ public class ManejadorCliente implements Runnable {
             ));
         }
 
-        // Notificar al nuevo jugador en turno
-        ManejadorCliente manejadorEnTurno = gestorJugadores.obtenerManejador(idEnTurno);
+        // Reiniciar timer y notificar el nuevo turno
+        iniciarTurno(partida);
+    }
+
+    /**
+     * Inicia el timer del turno actual y avisa a ambos jugadores: TURNO_INICIADO al que
+     * tiene el turno y CAMBIO_TURNO al otro. Los dos mensajes llevan el límite absoluto
+     * del turno; los clientes llevan la cuenta regresiva sin más mensajes del servidor.
+     * @param partida Partida cuyo turno inicia
+     */
+    private void iniciarTurno(PartidaDTO partida) {
+        TurnoDTO turno = gestorPartidas.iniciarTemporizador(partida.getIdPartida());
+        if (turno == null) {
+            return;
+        }
+
+        JugadorDTO jugadorEnTurno = turno.getJugadorEnTurno();
+        String idOtro = partida.getJugador1().getId().equals(jugadorEnTurno.getId())
+            ? partida.getJugador2().getId() : partida.getJugador1().getId();
+
+        System.out.println("[MANEJADOR] Turno de " + jugadorEnTurno.getNombre() + " hasta " + turno.getLimiteTurno());
+
+        ManejadorCliente manejadorEnTurno = gestorJugadores.obtenerManejador(jugadorEnTurno.getId());
         if (manejadorEnTurno != null) {
             manejadorEnTurno.enviarMensaje(new MensajeDTO(
                 TipoMensaje.TURNO_INICIADO,
                 "Es tu turno. Realiza un disparo.",
-                jugadorEnTurno
+                turno
             ));
         }
 
-        // Notificar al otro jugador
-        String idOtro = partida.getJugador1().getId().equals(idEnTurno)
-            ? partida.getJugador2().getId() : partida.getJugador1().getId();
-        JugadorDTO otroJugador = partida.getJugador1().getId().equals(idOtro)
-            ? partida.getJugador1() : partida.getJugador2();
-
         ManejadorCliente manejadorOtro = gestorJugadores.obtenerManejador(idOtro);
         if (manejadorOtro != null) {
             manejadorOtro.enviarMensaje(new MensajeDTO(
                 TipoMensaje.CAMBIO_TURNO,
                 "Turno de " + jugadorEnTurno.getNombre(),
-                jugadorEnTurno
+                turno
             ));
         }
-
-        // Reiniciar timer para el nuevo turno
-        gestorPartidas.iniciarTemporizador(partida.getIdPartida());
     }
 
     /**
-     * Envía actualización del tiempo restante a ambos jugadores
+     * Envía los tableros actualizados a ambos jugadores.
+     * A cada jugador le llegan solo los cambios desde la última versión que confirmó;
+     * los tableros completos se envían si no ha confirmado ninguna o si esa versión ya se descartó.
+     * El tablero del oponente siempre va con niebla de guerra.
      * @param partida La partida actual
-     * @param tiempoRestante Tiempo restante en segundos
      */
-    private void enviarActualizacionTiempoAJugadores(PartidaDTO partida, int tiempoRestante) {
+    private void enviarTablerosAJugadores(PartidaDTO partida) {
+        System.out.println("[MANEJADOR] ========== ENVIANDO TABLEROS ==========");
+
         ManejadorCliente manejador1 = gestorJugadores.obtenerManejador(partida.getJugador1().getId());
         ManejadorCliente manejador2 = gestorJugadores.obtenerManejador(partida.getJugador2().getId());
 
+        TableroDTO completo1 = partida.getTableroDeJugador(partida.getJugador1().getId());
+        TableroDTO completo2 = partida.getTableroDeJugador(partida.getJugador2().getId());
+
+        // Publicar la nueva versión de los tableros; la instantánea de la partida es compartida y no se modifica
+        RegistroCambiosTableros registro = gestorPartidas.obtenerRegistroTableros(partida.getIdPartida());
+        int version = registro != null ? registro.publicar(List.of(completo1, completo2)) : 0;
+        TableroDTO tablero1 = completo1.copiarConVersion(version);
+        TableroDTO tablero2 = completo2.copiarConVersion(version);
+        System.out.println("[MANEJADOR] Versión de tableros: " + version);
+
         if (manejador1 != null) {
-            manejador1.enviarMensaje(new MensajeDTO(
-                TipoMensaje.ACTUALIZAR_TIEMPO_TURNO,
-                "Tiempo restante: " + tiempoRestante + "s",
-                tiempoRestante
-            ));
-        }
+            System.out.println("[MANEJADOR] Enviando tableros a jugador 1 (" + partida.getJugador1().getNombre() + ")");
+            manejador1.enviarTableros(registro, tablero1, tablero2);
+        } else
+            System.err.println("[MANEJADOR] ERROR: manejador1 es null!");
 
         if (manejador2 != null) {
-            manejador2.enviarMensaje(new MensajeDTO(
-                TipoMensaje.ACTUALIZAR_TIEMPO_TURNO,
-                "Tiempo restante: " + tiempoRestante + "s",
-                tiempoRestante
-            ));
-        }
+            System.out.println("[MANEJADOR] Enviando tableros a jugador 2 (" + partida.getJugador2().getNombre() + ")");
+            manejador2.enviarTableros(registro, tablero1, tablero2);
+        } else
+            System.err.println("[MANEJADOR] ERROR: manejador2 es null!");
+
+        System.out.println("[MANEJADOR] ========== TABLEROS ENVIADOS ==========");
     }
 
     /**
-     * Envía los tableros actualizados a ambos jugadores
-     * @param partida La partida actual
+     * Envía a este cliente el delta desde su versión confirmada o, si no es posible, los tableros completos
+     * @param registro Registro de versiones de la partida (null si la partida ya terminó)
+     * @param tablero1 Tablero del jugador 1, con su versión asignada
+     * @param tablero2 Tablero del jugador 2, con su versión asignada
      */
-    private void enviarTablerosAJugadores(PartidaDTO partida) {
-        System.out.println("[MANEJADOR] ========== ENVIANDO TABLEROS ==========");
+    private void enviarTableros(RegistroCambiosTableros registro, TableroDTO tablero1, TableroDTO tablero2) {
+        DeltaTablerosDTO delta = null;
+        if (registro != null && jugadorAsociado != null) {
+            delta = registro.deltaDesde(registro.versionConfirmada(jugadorAsociado.getId()), jugadorAsociado.getId());
+        }
 
-        ManejadorCliente manejador1 = gestorJugadores.obtenerManejador(partida.getJugador1().getId());
-        ManejadorCliente manejador2 = gestorJugadores.obtenerManejador(partida.getJugador2().getId());
+        if (delta != null) {
+            if (delta.getVersionBase() == delta.getVersion()) {
+                System.out.println("[MANEJADOR] Tableros sin cambios para " + jugadorAsociado.getNombre());
+                return;
+            }
+            System.out.println("[MANEJADOR] Enviando " + delta);
+            enviarMensaje(new MensajeDTO(
+                TipoMensaje.DELTA_TABLEROS,
+                "Cambios en tableros",
+                delta
+            ));
+            return;
+        }
 
-        // Obtener tableros originales
-        TableroDTO tablero1Original = partida.getTableroDeJugador(partida.getJugador1().getId());
-        TableroDTO tablero2Original = partida.getTableroDeJugador(partida.getJugador2().getId());
+        // Los tableros son copias con su versión sobre la instantánea compartida, que nadie modifica,
+        // y el stream se reinicia entre mensajes, así que se pueden compartir entre ambos jugadores
+        ArrayList<TableroDTO> tableros = new ArrayList<>();
+        tableros.add(vistaDeTablero(registro, tablero1));
+        tableros.add(vistaDeTablero(registro, tablero2));
+        enviarMensaje(new MensajeDTO(
+            TipoMensaje.ACTUALIZAR_TABLEROS,
+            "Tableros actualizados",
+            tableros
+        ));
+    }
 
-        System.out.println("[MANEJADOR] Tablero1 ID: " + tablero1Original.getIdJugador());
-        System.out.println("[MANEJADOR] Tablero2 ID: " + tablero2Original.getIdJugador());
+    /**
+     * Devuelve el tablero tal como lo puede ver este cliente
+     * @param registro Registro de la partida, que guarda la proyección por versión (puede ser null)
+     * @param tablero Tablero completo
+     * @return El mismo tablero si es del cliente, o su proyección con niebla de guerra
+     */
+    private TableroDTO vistaDeTablero(RegistroCambiosTableros registro, TableroDTO tablero) {
+        if (jugadorAsociado != null && tablero.getIdJugador().equals(jugadorAsociado.getId())) {
+            return tablero;
+        }
+        return registro != null ? registro.proyeccionParaOponente(tablero) : TableroNavesMapper.proyectarParaOponente(tablero);
+    }
 
-        // Contar disparos en cada tablero ANTES de copiar
-        int disparosTablero1 = 0;
-        int disparosTablero2 = 0;
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                EstadoCasilla estado1 = tablero1Original.getCasillas()[i][j];
-                EstadoCasilla estado2 = tablero2Original.getCasillas()[i][j];
+    /**
+     * Registra la versión de tableros que el cliente ya aplicó
+     * @param mensaje Mensaje con la versión confirmada (Integer)
+     */
+    private void procesarConfirmacionTableros(MensajeDTO mensaje) {
+        if (jugadorAsociado == null || !(mensaje.getDatos() instanceof Integer versionConfirmada)) return;
 
-                if (estado1 != EstadoCasilla.VACIA && estado1 != EstadoCasilla.OCUPADA) {
-                    disparosTablero1++;
-                    System.out.println("[MANEJADOR] Tablero1[" + i + "," + j + "]: " + estado1);
-                }
-                if (estado2 != EstadoCasilla.VACIA && estado2 != EstadoCasilla.OCUPADA) {
-                    disparosTablero2++;
-                    System.out.println("[MANEJADOR] Tablero2[" + i + "," + j + "]: " + estado2);
-                }
-            }
+        RegistroCambiosTableros registro = gestorPartidas.obtenerRegistroTablerosDeJugador(jugadorAsociado.getId());
+        if (registro != null) {
+            registro.confirmar(jugadorAsociado.getId(), versionConfirmada);
         }
-        System.out.println("[MANEJADOR] Total disparos tablero1: " + disparosTablero1);
-        System.out.println("[MANEJADOR] Total disparos tablero2: " + disparosTablero2);
+    }
 
-        // CREAR COPIAS PROFUNDAS para enviar
-        System.out.println("[MANEJADOR] Creando copias profundas de los tableros...");
-        TableroDTO tablero1Copia = tablero1Original.copiarProfundo();
-        TableroDTO tablero2Copia = tablero2Original.copiarProfundo();
-        System.out.println("[MANEJADOR] Copias creadas exitosamente");
+    /**
+     * Reenvía los tableros completos a este cliente (su copia local quedó desfasada)
+     */
+    private void procesarSolicitudTableros() {
+        if (jugadorAsociado == null) return;
 
-        // Enviar ambos tableros al jugador 1
-        if (manejador1 != null) {
-            ArrayList<TableroDTO> tableros = new ArrayList<>();
-            tableros.add(tablero1Copia);
-            tableros.add(tablero2Copia);
-            System.out.println("[MANEJADOR] Enviando tableros a jugador 1 (" + partida.getJugador1().getNombre() + ")");
-            manejador1.enviarMensaje(new MensajeDTO(
-                TipoMensaje.ACTUALIZAR_TABLEROS,
-                "Tableros actualizados",
-                tableros
-            ));
-        } else 
-            System.err.println("[MANEJADOR] ERROR: manejador1 es null!");
+        try {
+            PartidaDTO partida = gestorPartidas.obtenerPartidaDeJugador(jugadorAsociado.getId());
+            if (partida == null) return;
 
-        // Enviar ambos tableros al jugador 2 (crear nuevas copias para evitar problemas de referencia)
-        if (manejador2 != null) {
-            ArrayList<TableroDTO> tableros = new ArrayList<>();
-            tableros.add(tablero1Original.copiarProfundo());
-            tableros.add(tablero2Original.copiarProfundo());
-            System.out.println("[MANEJADOR] Enviando tableros a jugador 2 (" + partida.getJugador2().getNombre() + ")");
-            manejador2.enviarMensaje(new MensajeDTO(
-                TipoMensaje.ACTUALIZAR_TABLEROS,
-                "Tableros actualizados",
-                tableros
-            ));
-        } else
-            System.err.println("[MANEJADOR] ERROR: manejador2 es null!");
-        
-        System.out.println("[MANEJADOR] ========== TABLEROS ENVIADOS ==========");
+            RegistroCambiosTableros registro = gestorPartidas.obtenerRegistroTableros(partida.getIdPartida());
+            TableroDTO[] tableros = reiniciarVersionTableros(partida, registro);
+            System.out.println("[MANEJADOR] Resincronizando tableros de " + jugadorAsociado.getNombre() + " (v" + tableros[0].getVersion() + ")");
+            enviarTableros(registro, tableros[0], tableros[1]);
+        } catch (GestorPartidasException e) {
+            System.err.println("[MANEJADOR] Error al resincronizar tableros: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publica los tableros actuales como versión nueva y olvida la que este
+     * cliente había confirmado, para que lo siguiente que reciba sea completo
+     * @param partida Partida del jugador
+     * @param registro Registro de versiones de la partida (puede ser null)
+     * @return Tableros del jugador 1 y del jugador 2, con la versión asignada
+     */
+    private TableroDTO[] reiniciarVersionTableros(PartidaDTO partida, RegistroCambiosTableros registro) {
+        TableroDTO completo1 = partida.getTableroDeJugador(partida.getJugador1().getId());
+        TableroDTO completo2 = partida.getTableroDeJugador(partida.getJugador2().getId());
+
+        int version = 0;
+        if (registro != null) {
+            registro.descartarConfirmacion(jugadorAsociado.getId());
+            version = registro.publicar(List.of(completo1, completo2));
+        }
+        return new TableroDTO[] {completo1.copiarConVersion(version), completo2.copiarConVersion(version)};
     }
 
     /**
      * Desconecta el cliente y libera recursos
+     * Lo invoca el transporte cuando la conexión termina; es idempotente.
+     * Tras una DESCONEXION el jugador sale de inmediato; si la conexión se
+     * cayó, queda suspendido durante la gracia por si reanuda su sesión
      */
-    private void desconectar() {
-        try {
-            conectado = false;
+    public void desconectar() {
+        if (!desconectado.compareAndSet(false, true)) return;
+        conectado = false;
 
-            if (jugadorAsociado != null) 
-                gestorJugadores.eliminarJugador(jugadorAsociado.getId());
+        if (jugadorAsociado != null) {
+            String id = jugadorAsociado.getId();
+            ManejadorCliente actual = gestorJugadores.obtenerManejador(id);
+            if (actual != null && actual != this) {
+                // Otra conexión ya reanudó la sesión; el jugador ya no es de este manejador
+                System.out.println("[MANEJADOR] Conexión anterior de " + jugadorAsociado.getNombre() + " cerrada");
+            } else if (!desconexionVoluntaria && suspenderSesion()) {
+                System.out.println("[MANEJADOR] Conexión de " + jugadorAsociado.getNombre() + " perdida; se guarda su lugar");
+            } else {
+                cerrarSesion("se desconectó");
+            }
+        }
 
-            if (entrada != null) entrada.close();
-            if (salida != null) salida.close();
-            if (socket != null && !socket.isClosed()) socket.close();
+        canal.cerrar();
 
-            System.out.println("[MANEJADOR] Cliente desconectado");
+        System.out.println("[MANEJADOR] Cliente desconectado");
+    }
 
-        } catch (IOException e) {
-            System.err.println("[MANEJADOR] Error al cerrar conexión: " + e.getMessage());
+    /**
+     * Suspende al jugador y programa el vencimiento de la gracia en la rueda
+     * @return false si no se pudo suspender (el jugador ya no estaba registrado con este manejador)
+     */
+    private boolean suspenderSesion() {
+        long generacion = gestorJugadores.suspenderJugador(jugadorAsociado.getId(), this);
+        if (generacion < 0) return false;
+
+        // Las invitaciones no esperan la gracia: quien invitó no debe quedarse esperando respuesta
+        cancelarInvitaciones(jugadorAsociado.getId(), "perdió la conexión");
+        gestorPartidas.programarPlazo(gestorJugadores.getGraciaReconexionMs(), () -> expirarSesion(generacion));
+        return true;
+    }
+
+    /**
+     * Vence la gracia de un jugador suspendido; si reanudó antes, no hace nada
+     * @param generacion Generación de la suspensión que se programó
+     */
+    private void expirarSesion(long generacion) {
+        if (!gestorJugadores.expirarSuspension(jugadorAsociado.getId(), generacion)) return;
+        System.out.println("[MANEJADOR] Venció la gracia de " + jugadorAsociado.getNombre());
+        cerrarSesion("no volvió a conectarse");
+    }
+
+    /**
+     * Saca al jugador del servidor: abandona su partida, lo elimina y retira sus invitaciones
+     * @param motivo Qué le pasó, para el mensaje a quienes tenían invitaciones con él
+     */
+    private void cerrarSesion(String motivo) {
+        // Una desconexión a media partida cuenta como abandono: el oponente no se queda esperando
+        try {
+            abandonarPartida(false);
+        } catch (GestorPartidasException e) {
+            System.err.println("[MANEJADOR] Error al cerrar la partida al desconectar: " + e.getMessage());
         }
+        gestorJugadores.eliminarJugador(jugadorAsociado.getId());
+        cancelarInvitaciones(jugadorAsociado.getId(), motivo);
     }
 
     /**
@@ -0,0 +1,126 @@
+package mx.itson.servidor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latidos de las conexiones de un transporte
+ * Cada intervalo revisa cuánto lleva callado cada cliente: al primer
+ * intervalo sin mensajes le envía un PING y, si acumula los latidos perdidos
+ * configurados, cierra su canal. El cierre sigue el mismo camino que una
+ * DESCONEXION, así que el jugador sale del lobby y su partida se da por
+ * abandonada. Sin esto, una conexión TCP medio abierta conserva su thread,
+ * su registro y su partida para siempre.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class MonitorLatidos {
+
+    /** Intervalo entre latidos cuando no se configura otro */
+    public static final long INTERVALO_LATIDO_MS = 15_000;
+
+    /** Latidos sin respuesta tras los que se da por muerta la conexión */
+    public static final int LATIDOS_PERDIDOS = 3;
+
+    private final long intervaloMs;
+    private final int latidosPerdidos;
+    private final Set<ManejadorCliente> manejadores;
+    private final AtomicLong desconexionesPorSilencio;
+    private final ScheduledExecutorService planificador;
+
+    /**
+     * Constructor
+     * @param nombre Nombre del thread del monitor
+     * @param intervaloMs Milisegundos entre latidos
+     * @param latidosPerdidos Latidos sin respuesta antes de desconectar
+     */
+    public MonitorLatidos(String nombre, long intervaloMs, int latidosPerdidos) {
+        this.intervaloMs = intervaloMs;
+        this.latidosPerdidos = latidosPerdidos;
+        this.manejadores = ConcurrentHashMap.newKeySet();
+        this.desconexionesPorSilencio = new AtomicLong();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa las revisiones
+     * Se revisa dos veces por intervalo: con una sola, un cliente que solo
+     * contesta los PING llega a la revisión siguiente con un poco menos de un
+     * intervalo de silencio, no recibe PING y puede cerrarse en la otra
+     */
+    public void iniciar() {
+        long periodo = Math.max(1, intervaloMs / 2);
+        planificador.scheduleWithFixedDelay(() -> {
+            try {
+                revisar();
+            } catch (RuntimeException e) {
+                System.err.println("[LATIDOS] Error al revisar conexiones: " + e.getMessage());
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene las revisiones
+     */
+    public void detener() {
+        planificador.shutdownNow();
+        manejadores.clear();
+    }
+
+    /**
+     * Empieza a vigilar una conexión recién aceptada
+     * @param manejador Manejador de la conexión
+     */
+    public void vigilar(ManejadorCliente manejador) {
+        manejadores.add(manejador);
+    }
+
+    /**
+     * @return Milisegundos de silencio tras los que se cierra una conexión
+     */
+    public long getSilencioMaximoMs() {
+        return intervaloMs * latidosPerdidos;
+    }
+
+    /**
+     * @return Conexiones vigiladas y cuántas se cerraron por no responder
+     */
+    public String getEstadisticas() {
+        return manejadores.size() + " vigiladas, " + desconexionesPorSilencio.get() + " cerradas por silencio";
+    }
+
+    /**
+     * Envía PING a las conexiones calladas y cierra las que ya no responden;
+     * las que se desconectaron por su cuenta dejan de vigilarse
+     */
+    private void revisar() {
+        long ahora = System.currentTimeMillis();
+        for (ManejadorCliente manejador : manejadores) {
+            if (!manejador.isConectado()) {
+                manejadores.remove(manejador);
+                continue;
+            }
+            long silencio = ahora - manejador.getUltimoMensajeMs();
+            if (silencio >= getSilencioMaximoMs()) {
+                manejadores.remove(manejador);
+                desconexionesPorSilencio.incrementAndGet();
+                System.out.println("[LATIDOS] Sin respuesta en " + silencio + " ms, se cierra la conexión");
+                manejador.cerrarPorSilencio();
+            } else if (silencio >= intervaloMs) {
+                manejador.enviarLatido();
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package mx.itson.servidor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import mx.itson.utils.dtos.CambioLobbyDTO;
+import mx.itson.utils.dtos.ConsultaJugadoresDTO;
+import mx.itson.utils.dtos.JugadorDTO;
+import mx.itson.utils.dtos.ListaJugadoresDTO;
+import mx.itson.utils.dtos.LoteLobbyDTO;
+import mx.itson.utils.enums.TipoMensaje;
+
+/**
+ * Agrupa los cambios de presencia del lobby por ventanas de tiempo
+ * El primer cambio de una ventana programa un envío; los que llegan antes de
+ * que se cumpla solo reemplazan el cambio pendiente de su jugador. Al cerrar
+ * la ventana cada suscriptor recibe a lo más un CAMBIOS_LOBBY con lo que le
+ * falta, y los que ya tienen una lista igual o más nueva no reciben nada.
+ * Así el costo depende de cuántas ventanas tienen cambios y no de cuántos
+ * eventos ocurren en ellas
+ *
+ * Cada suscriptor solo tiene cargadas algunas páginas del lobby, así que su
+ * lote se filtra a los cambios que caen en lo que ya vio: mismo prefijo y
+ * nombre hasta la última clave de su última página. Lo que queda fuera le
+ * llega con la página que lo cubra
+ *
+ * El candado solo cubre tomar los cambios pendientes y las páginas; el
+ * reparto de una ventana se hace fuera de él para que registrar un cambio
+ * no espere a que se recorran todos los suscriptores. La versión de cada
+ * vista avanza con un reemplazo atómico en el mapa, así que una página
+ * nueva que llegue durante el reparto gana y ese suscriptor no recibe el lote
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class PublicadorLobby {
+
+    private final GestorJugadores gestorJugadores;
+    private final long ventanaMs;
+    private final ScheduledExecutorService planificador;
+    private final ReentrantLock candado;
+
+    // Vistas inmutables; se reemplazan completas con replace/compute
+    private final ConcurrentHashMap<String, VistaLobby> vistas; // Key: ID del suscriptor
+
+    // Todo lo siguiente está protegido por el candado
+    private final Map<String, CambioLobbyDTO> pendientes; // Key: ID del jugador que cambió
+    private long version;
+    private boolean envioProgramado;
+    private long cambiosRecibidos;
+    private long lotesEnviados;
+
+    /**
+     * Constructor
+     * @param gestorJugadores Gestor del que se leen los suscriptores (jugadores disponibles)
+     * @param ventanaMs Duración de la ventana de agrupación en milisegundos
+     */
+    public PublicadorLobby(GestorJugadores gestorJugadores, long ventanaMs) {
+        this.gestorJugadores = gestorJugadores;
+        this.ventanaMs = ventanaMs;
+        this.candado = new ReentrantLock();
+        this.pendientes = new LinkedHashMap<>();
+        this.vistas = new ConcurrentHashMap<>();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "Thread-PublicadorLobby");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Registra un cambio de presencia para el siguiente envío
+     * @param tipo JUGADOR_ENTRA, JUGADOR_SALE o JUGADOR_OCUPADO
+     * @param jugador Jugador que cambió
+     */
+    public void registrarCambio(TipoMensaje tipo, JugadorDTO jugador) {
+        candado.lock();
+        try {
+            cambiosRecibidos++;
+            // Solo cuenta el último estado del jugador; se mueve al final para conservar el orden
+            pendientes.remove(jugador.getId());
+            pendientes.put(jugador.getId(), new CambioLobbyDTO(tipo, ++version, jugador));
+
+            if (!envioProgramado) {
+                envioProgramado = true;
+                planificador.schedule(this::publicar, ventanaMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Toma una página del lobby para un suscriptor y anota hasta dónde la tiene
+     * La primera página reinicia su versión; una continuación solo amplía el
+     * rango de nombres del que recibe cambios
+     * @param idSuscriptor ID del jugador que la pide (no se incluye a sí mismo), o null
+     * @param consulta Página pedida, o null para la primera con el filtro que ya tenía
+     * @return Jugadores de la página con la versión que reflejan
+     */
+    public ListaJugadoresDTO instantanea(String idSuscriptor, ConsultaJugadoresDTO consulta) {
+        candado.lock();
+        try {
+            VistaLobby vista = idSuscriptor != null ? vistas.get(idSuscriptor) : null;
+            String prefijo;
+            int tamanio = ConsultaJugadoresDTO.TAMANIO_PAGINA_POR_DEFECTO;
+            if (consulta != null) {
+                prefijo = normalizarPrefijo(consulta.getPrefijo());
+                tamanio = Math.clamp(consulta.getTamanioPagina(), 1, GestorJugadores.TAMANIO_PAGINA_MAXIMO);
+            } else {
+                prefijo = vista != null ? vista.prefijo : null;
+            }
+
+            // Un cursor solo vale si continúa la vista que el servidor tiene registrada
+            boolean continuacion = consulta != null && consulta.getCursor() != null
+                    && vista != null && Objects.equals(prefijo, vista.prefijo);
+            String cursor = continuacion ? consulta.getCursor() : null;
+
+            List<String> claves = new ArrayList<>(tamanio + 1);
+            List<JugadorDTO> pagina = gestorJugadores.consultarDisponibles(prefijo, cursor, tamanio, idSuscriptor, claves);
+            String siguienteCursor = claves.size() > pagina.size() ? claves.get(pagina.size() - 1) : null;
+
+            long versionPagina = continuacion ? vista.version : version;
+            if (idSuscriptor != null) {
+                if (continuacion) {
+                    // El reparto pudo avanzar la versión de la vista desde que se leyó; se conserva la más nueva
+                    VistaLobby ampliada = vistas.computeIfPresent(idSuscriptor,
+                            (id, actual) -> new VistaLobby(actual.version, actual.prefijo, siguienteCursor));
+                    if (ampliada != null) versionPagina = ampliada.version;
+                } else {
+                    vistas.put(idSuscriptor, new VistaLobby(version, prefijo, siguienteCursor));
+                }
+            }
+            return new ListaJugadoresDTO(versionPagina, pagina, siguienteCursor, continuacion);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Deja de seguir la versión de un jugador que se desconectó
+     * @param idSuscriptor ID del jugador
+     */
+    public void olvidar(String idSuscriptor) {
+        vistas.remove(idSuscriptor);
+    }
+
+    /**
+     * @return Cambios recibidos y lotes enviados desde que arrancó el servidor
+     */
+    public String getEstadisticas() {
+        candado.lock();
+        try {
+            return cambiosRecibidos + " cambios, " + lotesEnviados + " lotes enviados";
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Cierra la ventana actual: envía a cada suscriptor atrasado los cambios que le faltan
+     * Solo toma los pendientes bajo el candado; el recorrido de suscriptores va fuera
+     */
+    private void publicar() {
+        List<CambioLobbyDTO> todos;
+        long hasta;
+        candado.lock();
+        try {
+            envioProgramado = false;
+            if (pendientes.isEmpty()) return;
+            todos = new ArrayList<>(pendientes.values());
+            hasta = version;
+            pendientes.clear();
+        } finally {
+            candado.unlock();
+        }
+
+        long menorPendiente = todos.get(0).getVersion();
+        for (CambioLobbyDTO cambio : todos) {
+            menorPendiente = Math.min(menorPendiente, cambio.getVersion());
+        }
+
+        // El lote completo se comparte entre todos los suscriptores sin filtro que no vieron ninguno de los cambios
+        String[] claves = new String[todos.size()];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = GestorJugadores.normalizarNombre(todos.get(i).getJugador().getNombre());
+        }
+        int enviados = 0;
+
+        for (String id : gestorJugadores.idsDisponibles()) {
+            VistaLobby vista = vistas.get(id);
+            // Sin lista inicial todavía, o con una lista que ya incluye todo
+            if (vista == null || vista.version >= hasta) continue;
+
+            List<CambioLobbyDTO> cambios = todos;
+            if (vista.version >= menorPendiente || !vista.cubreTodo()) {
+                cambios = new ArrayList<>();
+                for (int i = 0; i < claves.length; i++) {
+                    CambioLobbyDTO cambio = todos.get(i);
+                    if (cambio.getVersion() > vista.version && vista.incluye(claves[i])) cambios.add(cambio);
+                }
+                // Nada de lo que tiene cargado cambió; conserva su versión para que el siguiente lote encadene
+                if (cambios.isEmpty()) continue;
+            }
+
+            ManejadorCliente manejador = gestorJugadores.obtenerManejador(id);
+            if (manejador == null) continue;
+            // Si pidió una página mientras tanto, esa página ya trae estos cambios
+            if (!vistas.replace(id, vista, vista.conVersion(hasta))) continue;
+            manejador.enviarLoteLobby(new LoteLobbyDTO(vista.version, hasta, cambios));
+            enviados++;
+        }
+
+        candado.lock();
+        try {
+            lotesEnviados += enviados;
+        } finally {
+            candado.unlock();
+        }
+        System.out.println("[LOBBY] Versión " + hasta + ": " + todos.size() + " cambios a " + enviados + " jugadores");
+    }
+
+    /**
+     * Detiene el hilo de envíos; los cambios pendientes se descartan
+     */
+    public void detener() {
+        planificador.shutdownNow();
+    }
+
+    /**
+     * Normaliza el prefijo de búsqueda como los nombres del índice
+     * @param prefijo Texto que escribió el jugador
+     * @return Prefijo normalizado, o null si está vacío
+     */
+    private static String normalizarPrefijo(String prefijo) {
+        if (prefijo == null || prefijo.isBlank()) return null;
+        return GestorJugadores.normalizarNombre(prefijo.strip());
+    }
+
+    /**
+     * Parte del lobby que un suscriptor tiene cargada y la versión en que la tiene
+     * Inmutable: cada cambio reemplaza la vista en el mapa
+     */
+    private static final class VistaLobby {
+        private final long version;
+        private final String prefijo; // null = sin filtro
+        private final String limite; // Última clave cargada; null = hasta el final
+
+        private VistaLobby(long version, String prefijo, String limite) {
+            this.version = version;
+            this.prefijo = prefijo;
+            this.limite = limite;
+        }
+
+        private VistaLobby conVersion(long nuevaVersion) {
+            return new VistaLobby(nuevaVersion, prefijo, limite);
+        }
+
+        private boolean cubreTodo() {
+            return prefijo == null && limite == null;
+        }
+
+        private boolean incluye(String clave) {
+            return (prefijo == null || clave.startsWith(prefijo))
+                    && (limite == null || clave.compareTo(limite) <= 0);
+        }
+    }
+}
@@ -18,6 +18,7 @@ public class ServidorDescubrimiento implements Runnable {
     private static final int PUERTO_DISCOVERY = 5000;
     private static final String MENSAJE_DISCOVERY = "BATTLESHIP_DISCOVERY";
     private static final String RESPUESTA_DISCOVERY = "BATTLESHIP_SERVER";
+    private static final String PROTOCOLO_MARCOS = "MARCOS";
 
     private DatagramSocket socket;
     private boolean ejecutando;
@@ -80,8 +81,9 @@ public class ServidorDescubrimiento implements Runnable {
             // Obtener la dirección IP local del servidor
             String ipServidor = InetAddress.getLocalHost().getHostAddress();
 
-            // Construir respuesta: "BATTLESHIP_SERVER:<IP>:<PUERTO_TCP>"
-            String respuesta = RESPUESTA_DISCOVERY + ":" + ipServidor + ":5000";
+            // Construir respuesta: "BATTLESHIP_SERVER:<IP>:<PUERTO_TCP>:MARCOS"
+            // MARCOS indica que el servidor acepta la negociación de formato de mensajes
+            String respuesta = RESPUESTA_DISCOVERY + ":" + ipServidor + ":5000:" + PROTOCOLO_MARCOS;
 
             byte[] datos = respuesta.getBytes();
             DatagramPacket paqueteRespuesta = new DatagramPacket(
@@ -0,0 +1,135 @@
+package mx.itson.servidor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+
+/**
+ * Servidor TCP basado en NIO (reactor). Acepta conexiones con un
+ * ServerSocketChannel y las reparte entre un número fijo de BucleEventos,
+ * de modo que los jugadores inactivos no ocupan un thread cada uno.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ServidorNIO implements IServidorTransporte {
+
+    private static final int PUERTO_TCP = 5000;
+
+    private final GestorJugadores gestorJugadores;
+    private final IGestorPartidas gestorPartidas;
+    private final BucleEventos[] bucles;
+    private final ConfiguracionServidor configuracion;
+    private final MonitorLatidos monitorLatidos;
+    private final LimitadorMensajes limitador;
+    private ServerSocketChannel canalServidor;
+    private volatile boolean ejecutando;
+    private int siguienteBucle;
+
+    /**
+     * Constructor
+     * @param gestorJugadores Gestor de jugadores compartido
+     * @param gestorPartidas Gestor de partidas compartido
+     * @param configuracion Opciones de arranque (bucles de eventos, cola de salida, formato)
+     */
+    public ServidorNIO(GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas, ConfiguracionServidor configuracion) {
+        this.gestorJugadores = gestorJugadores;
+        this.gestorPartidas = gestorPartidas;
+        this.configuracion = configuracion;
+        this.bucles = new BucleEventos[configuracion.getHilosEventos()];
+        this.monitorLatidos = configuracion.crearMonitorLatidos("Thread-Latidos-NIO");
+        this.limitador = configuracion.crearLimitadorMensajes();
+        this.ejecutando = false;
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < bucles.length; i++) {
+                bucles[i] = new BucleEventos("Thread-NIO-" + (i + 1));
+                bucles[i].iniciar();
+            }
+
+            canalServidor = ServerSocketChannel.open();
+            canalServidor.bind(new InetSocketAddress(PUERTO_TCP));
+            ejecutando = true;
+            monitorLatidos.iniciar();
+
+            System.out.println("[NIO] Servidor NIO iniciado en puerto " + PUERTO_TCP +
+                               " con " + bucles.length + " bucles de eventos");
+
+            while (ejecutando) {
+                // El thread aceptador bloquea; la E/S de los clientes la hacen los bucles
+                SocketChannel canalCliente = canalServidor.accept();
+                canalCliente.configureBlocking(false);
+
+                BucleEventos bucle = bucles[siguienteBucle];
+                siguienteBucle = (siguienteBucle + 1) % bucles.length;
+
+                CanalNIO canal = new CanalNIO(canalCliente, bucle, configuracion.getFormatoPreferido(),
+                        configuracion.crearColaSalida());
+                ManejadorCliente manejador = new ManejadorCliente(canal, gestorJugadores, gestorPartidas, limitador);
+                bucle.registrar(canal, manejador);
+                monitorLatidos.vigilar(manejador);
+
+                System.out.println("[NIO] Nueva conexión aceptada: " + canal.getDireccionRemota());
+            }
+
+        } catch (IOException e) {
+            if (ejecutando) {
+                System.err.println("[NIO] Error al aceptar conexiones: " + e.getMessage());
+            }
+        } finally {
+            detener();
+        }
+    }
+
+    @Override
+    public void detener() {
+        ejecutando = false;
+        monitorLatidos.detener();
+
+        try {
+            if (canalServidor != null && canalServidor.isOpen()) {
+                canalServidor.close();
+                System.out.println("[NIO] Canal del servidor cerrado");
+            }
+        } catch (IOException e) {
+            System.err.println("[NIO] Error al cerrar canal del servidor: " + e.getMessage());
+        }
+
+        for (BucleEventos bucle : bucles) {
+            if (bucle != null) bucle.detener();
+        }
+        System.out.println("[NIO] Servidor NIO detenido");
+    }
+
+    @Override
+    public boolean isEjecutando() {
+        return ejecutando;
+    }
+
+    @Override
+    public int getClientesConectados() {
+        int total = 0;
+        for (BucleEventos bucle : bucles) {
+            if (bucle != null) total += bucle.getConexiones();
+        }
+        return total;
+    }
+
+    @Override
+    public String getEstadisticasLatidos() {
+        return monitorLatidos.getEstadisticas();
+    }
+
+    @Override
+    public String getEstadisticasLimites() {
+        return limitador.getEstadisticas();
+    }
+}
@@ -3,13 +3,13 @@ package mx.itson.servidor;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
 
 /**
- * Servidor TCP que acepta conexiones de clientes
- * Crea un thread (ManejadorCliente) por cada cliente conectado
+ * Servidor TCP bloqueante que acepta conexiones de clientes
+ * Crea un thread lector y uno escritor (CanalBloqueante + ManejadorCliente) por cada cliente conectado
  *
  * @author Leonardo Flores Leyva ID: 00000252390
  * @author Yuri Germán García López ID: 00000252583
@@ -17,14 +17,19 @@ import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
  * @author Jesús Ernesto López Ibarra ID: 00000252663
  * @author Daniel Miramontes Iribe ID: 00000252801
  */
-public class ServidorTCP implements Runnable {
+public class ServidorTCP implements IServidorTransporte {
 
     private static final int PUERTO_TCP = 5000;
 
     private ServerSocket serverSocket;
     private final GestorJugadores gestorJugadores;
     private final IGestorPartidas gestorPartidas;
-    private final List<Thread> hilosClientes;
+    private final Set<Thread> hilosClientes;
+    private final ConfiguracionServidor configuracion;
+    private final Thread.Builder constructorHilos;
+    private final Thread.Builder constructorEscritores;
+    private final MonitorLatidos monitorLatidos;
+    private final LimitadorMensajes limitador;
     private boolean ejecutando;
 
     /**
@@ -33,9 +38,25 @@ public class ServidorTCP implements Runnable {
      * @param gestorPartidas Gestor de partidas compartido
      */
     public ServidorTCP(GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas) {
+        this(gestorJugadores, gestorPartidas, new ConfiguracionServidor());
+    }
+
+    /**
+     * Constructor
+     * @param gestorJugadores Gestor de jugadores compartido
+     * @param gestorPartidas Gestor de partidas compartido
+     * @param configuracion Opciones de arranque (hilos virtuales, cola de salida)
+     */
+    public ServidorTCP(GestorJugadores gestorJugadores, IGestorPartidas gestorPartidas, ConfiguracionServidor configuracion) {
         this.gestorJugadores = gestorJugadores;
         this.gestorPartidas = gestorPartidas;
-        this.hilosClientes = new ArrayList<>();
+        this.configuracion = configuracion;
+        // La modifican el aceptador, cada cliente al terminar y detener(), que puede llamarse desde otro thread
+        this.hilosClientes = ConcurrentHashMap.newKeySet();
+        this.constructorHilos = configuracion.crearConstructorHilos("Cliente-");
+        this.constructorEscritores = configuracion.crearConstructorHilos("Escritor-");
+        this.monitorLatidos = configuracion.crearMonitorLatidos("Thread-Latidos-TCP");
+        this.limitador = configuracion.crearLimitadorMensajes();
         this.ejecutando = false;
     }
 
@@ -44,6 +65,7 @@ public class ServidorTCP implements Runnable {
         try {
             serverSocket = new ServerSocket(PUERTO_TCP);
             ejecutando = true;
+            monitorLatidos.iniciar();
 
             System.out.println("[TCP] Servidor TCP iniciado en puerto " + PUERTO_TCP);
             System.out.println("[TCP] Esperando conexiones de clientes...");
@@ -54,11 +76,21 @@ public class ServidorTCP implements Runnable {
 
                 System.out.println("[TCP] Nueva conexión aceptada: " + socketCliente.getInetAddress());
 
-                // Crear manejador para este cliente
-                ManejadorCliente manejador = new ManejadorCliente(socketCliente, gestorJugadores, gestorPartidas);
-
-                // Iniciar thread para este cliente
-                Thread hiloCliente = new Thread(manejador);
+                // Crear canal y manejador para este cliente
+                CanalBloqueante canal = new CanalBloqueante(socketCliente,
+                        configuracion.crearColaSalida(), constructorEscritores, configuracion.getFormatoPreferido(),
+                        configuracion.crearGobernador(), tiempoMaximoLectura());
+                ManejadorCliente manejador = new ManejadorCliente(canal, gestorJugadores, gestorPartidas, limitador);
+                monitorLatidos.vigilar(manejador);
+
+                // Iniciar thread para este cliente (de plataforma o virtual); se quita solo al terminar
+                Thread hiloCliente = constructorHilos.unstarted(() -> {
+                    try {
+                        canal.atender(manejador);
+                    } finally {
+                        hilosClientes.remove(Thread.currentThread());
+                    }
+                });
                 hilosClientes.add(hiloCliente);
                 hiloCliente.start();
 
@@ -74,11 +106,23 @@ public class ServidorTCP implements Runnable {
         }
     }
 
+    /**
+     * El monitor de latidos cierra antes las conexiones calladas; el SO_TIMEOUT,
+     * un intervalo después, solo cubre el caso en que el monitor no alcance a hacerlo
+     * @return Milisegundos que puede bloquearse una lectura
+     */
+    private int tiempoMaximoLectura() {
+        return (int) Math.min(Integer.MAX_VALUE,
+                monitorLatidos.getSilencioMaximoMs() + configuracion.getIntervaloLatidoMs());
+    }
+
     /**
      * Detiene el servidor TCP y todos los threads de clientes
      */
+    @Override
     public void detener() {
         ejecutando = false;
+        monitorLatidos.detener();
 
         // Cerrar server socket
         try {
@@ -105,6 +149,7 @@ public class ServidorTCP implements Runnable {
      * Verifica si el servidor está ejecutando
      * @return true si está ejecutando
      */
+    @Override
     public boolean isEjecutando() {
         return ejecutando;
     }
@@ -113,7 +158,18 @@ public class ServidorTCP implements Runnable {
      * Obtiene el número de clientes conectados
      * @return Número de threads activos
      */
+    @Override
     public int getClientesConectados() {
         return (int) hilosClientes.stream().filter(Thread::isAlive).count();
     }
+
+    @Override
+    public String getEstadisticasLatidos() {
+        return monitorLatidos.getEstadisticas();
+    }
+
+    @Override
+    public String getEstadisticasLimites() {
+        return limitador.getEstadisticas();
+    }
 }
@@ -2,6 +2,7 @@ package mx.itson.servidor;
 
 import java.util.Scanner;
 import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.factory.TableroFactory;
 import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
 
 /**
@@ -17,9 +18,12 @@ import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
 public class Servidor_battleship {
 
     private static ServidorDescubrimiento servidorDiscovery;
-    private static ServidorTCP servidorTCP;
+    private static IServidorTransporte servidorTCP;
+    private static ConfiguracionServidor configuracion;
     private static GestorJugadores gestorJugadores;
     private static IGestorPartidas gestorPartidas;
+    private static Emparejador emparejador;
+    private static CicloVidaPartidas cicloVidaPartidas;
 
     public static void main(String[] args) {
         System.out.println("═══════════════════════════════════════════════════");
@@ -28,6 +32,7 @@ public class Servidor_battleship {
         System.out.println();
 
         try {
+            configuracion = ConfiguracionServidor.desdeArgumentos(args);
             iniciarServidor();
             mostrarMenu();
         } catch (Exception e) {
@@ -44,12 +49,27 @@ public class Servidor_battleship {
         System.out.println("[SERVIDOR] Iniciando servicios...");
 
         // 1. Crear gestor de jugadores
-        gestorJugadores = new GestorJugadores();
-        System.out.println("[SERVIDOR] ✓ Gestor de jugadores creado");
-
-        // 2. Crear gestor de partidas
+        gestorJugadores = new GestorJugadores(configuracion.getVentanaLobbyMs(), configuracion.getTtlInvitacionMs(),
+                configuracion.getGraciaReconexionMs());
+        System.out.println("[SERVIDOR] ✓ Gestor de jugadores creado (ventana del lobby " + configuracion.getVentanaLobbyMs()
+                + " ms, invitaciones de " + configuracion.getTtlInvitacionMs() + " ms, gracia de reconexión de "
+                + configuracion.getGraciaReconexionMs() + " ms)");
+
+        // 2. Crear gestor de partidas con el motor de tableros configurado
+        TableroFactory.setMotorTableroNaves(configuracion.getMotorTablero());
         gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
-        System.out.println("[SERVIDOR] ✓ Gestor de partidas creado");
+        System.out.println("[SERVIDOR] ✓ Gestor de partidas creado (tableros " + configuracion.getMotorTablero() + ")");
+
+        // 2.1 Cola de emparejamiento automático (BUSCAR_PARTIDA)
+        emparejador = new Emparejador(gestorJugadores, gestorPartidas, configuracion.getIntervaloEmparejamientoMs());
+        gestorJugadores.setEmparejador(emparejador);
+        emparejador.iniciar();
+        System.out.println("[SERVIDOR] ✓ Emparejador iniciado (rondas cada " + configuracion.getIntervaloEmparejamientoMs() + " ms)");
+
+        // 2.2 Barrido de partidas terminadas o huérfanas
+        cicloVidaPartidas = new CicloVidaPartidas(gestorJugadores, gestorPartidas, configuracion.getIntervaloBarridoPartidasMs());
+        cicloVidaPartidas.iniciar();
+        System.out.println("[SERVIDOR] ✓ Barrido de partidas iniciado (cada " + configuracion.getIntervaloBarridoPartidasMs() + " ms)");
 
         // 3. Iniciar servidor UDP de descubrimiento
         servidorDiscovery = new ServidorDescubrimiento();
@@ -57,11 +77,18 @@ public class Servidor_battleship {
         hiloDiscovery.start();
         System.out.println("[SERVIDOR] ✓ Servidor de descubrimiento UDP iniciado");
 
-        // 4. Iniciar servidor TCP para conexiones
-        servidorTCP = new ServidorTCP(gestorJugadores, gestorPartidas);
+        // 4. Iniciar servidor TCP para conexiones (bloqueante por defecto)
+        boolean usaNIO = configuracion.getTransporte() == ConfiguracionServidor.Transporte.NIO;
+        servidorTCP = usaNIO
+                ? new ServidorNIO(gestorJugadores, gestorPartidas, configuracion)
+                : new ServidorTCP(gestorJugadores, gestorPartidas, configuracion);
         Thread hiloTCP = new Thread(servidorTCP, "Thread-TCP");
         hiloTCP.start();
-        System.out.println("[SERVIDOR] ✓ Servidor TCP iniciado");
+        System.out.println("[SERVIDOR] ✓ Servidor TCP iniciado (transporte " + configuracion.getTransporte() +
+                (!usaNIO && configuracion.isHilosVirtuales() ? ", hilos virtuales" : "") +
+                ", formato preferido " + configuracion.getFormatoPreferido() +
+                ", latido cada " + configuracion.getIntervaloLatidoMs() + " ms, " + configuracion.getLatidosPerdidos() + " perdidos" +
+                ", exceso de mensajes: " + configuracion.getPoliticaLimite() + ")");
 
         // Esperar un momento para que los servidores se inicien
         try {
@@ -133,6 +160,13 @@ public class Servidor_battleship {
         System.out.println("Jugadores conectados: " + gestorJugadores.cantidadJugadores());
         System.out.println("Jugadores disponibles: " + gestorJugadores.obtenerJugadoresDisponibles().size());
         System.out.println("Clientes TCP activos: " + servidorTCP.getClientesConectados());
+        System.out.println("Latidos: " + servidorTCP.getEstadisticasLatidos());
+        System.out.println("Límite de mensajes: " + servidorTCP.getEstadisticasLimites());
+        System.out.println("Lobby: " + gestorJugadores.getEstadisticasLobby());
+        System.out.println("Emparejamiento: " + emparejador.getEstadisticas());
+        System.out.println("Invitaciones: " + gestorJugadores.getEstadisticasInvitaciones());
+        System.out.println("Sesiones: " + gestorJugadores.getEstadisticasSesiones());
+        System.out.println("Partidas: " + cicloVidaPartidas.getEstadisticas());
         System.out.println("═════════════════════════════════");
     }
 
@@ -174,6 +208,18 @@ public class Servidor_battleship {
             servidorTCP.detener();
         }
 
+        if (emparejador != null) {
+            emparejador.detener();
+        }
+
+        if (cicloVidaPartidas != null) {
+            cicloVidaPartidas.detener();
+        }
+
+        if (gestorJugadores != null) {
+            gestorJugadores.detener();
+        }
+
         System.out.println("[SERVIDOR] ✓ Servicios detenidos");
         System.out.println("\n═══════════════════════════════════════════════════");
         System.out.println("     SERVIDOR BATTLESHIP FINALIZADO                ");
@@ -0,0 +1,175 @@
+package mx.itson.subsistema_gestor_partidas;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import mx.itson.exceptions.GestorPartidasException;
+import mx.itson.exceptions.ModelException;
+import mx.itson.mappers.PartidaMapper;
+import mx.itson.models.IPartida;
+import mx.itson.utils.dtos.PartidaDTO;
+
+/**
+ * ActorPartida.java
+ *
+ * Buzón de una partida. Los comandos (colocar naves, disparar, vencer un
+ * turno, construir el DTO) se encolan y se ejecutan uno a la vez en un
+ * ejecutor compartido por todas las partidas: una partida nunca corre en
+ * dos hilos a la vez, pero partidas distintas avanzan en paralelo sin
+ * esperarse entre sí.
+ *
+ * Quien ya está dentro de un comando de esta partida (por ejemplo, el aviso
+ * de tiempo agotado que vuelve a pedir la partida) ejecuta el comando en el
+ * mismo hilo en lugar de esperarse a sí mismo.
+ *
+ * El actor guarda el último PartidaDTO construido junto con la versión de la
+ * partida que reflejaba; mientras la versión no cambie, las consultas
+ * reciben esa misma instantánea con el tiempo restante al día.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+final class ActorPartida {
+
+    /** Comandos que se ejecutan seguidos antes de ceder el hilo a otra partida */
+    private static final int COMANDOS_POR_TURNO = 32;
+
+    /**
+     * Operación sobre la partida que se ejecuta dentro del buzón.
+     *
+     * @param <T> Tipo del resultado
+     */
+    @FunctionalInterface
+    interface Comando<T> {
+        T ejecutar(IPartida partida) throws ModelException, GestorPartidasException;
+    }
+
+    private final IPartida partida;
+    private final Executor ejecutor;
+    private final Queue<Runnable> buzon;
+    private final AtomicInteger pendientes;
+    private volatile Thread hiloActual;
+
+    // Solo se usan dentro del buzón
+    private PartidaDTO instantanea;
+    private long versionInstantanea;
+
+    /**
+     * Constructor
+     * @param partida Partida que atiende el actor
+     * @param ejecutor Ejecutor compartido en el que se vacía el buzón
+     */
+    ActorPartida(IPartida partida, Executor ejecutor) {
+        this.partida = partida;
+        this.ejecutor = ejecutor;
+        this.buzon = new ConcurrentLinkedQueue<>();
+        this.pendientes = new AtomicInteger();
+    }
+
+    /**
+     * @return Partida del modelo; fuera del buzón solo debe leerse
+     */
+    IPartida getPartida() {return partida;}
+
+    /**
+     * Devuelve la instantánea de la partida; solo se vuelve a mapear si la
+     * versión cambió desde la última. Debe llamarse dentro del buzón.
+     * La instantánea es compartida: quien la recibe no debe modificarla.
+     *
+     * @param partida Partida del actor
+     * @return DTO de la partida con el tiempo restante actual
+     * @throws ModelException Si falla el mapeo
+     */
+    PartidaDTO instantanea(IPartida partida) throws ModelException {
+        // La versión se lee antes de mapear: un cambio a la mitad deja la instantánea marcada como vieja
+        long version = partida.getVersion();
+        if (instantanea == null || version != versionInstantanea) {
+            instantanea = PartidaMapper.toDTO(partida);
+            versionInstantanea = version;
+        }
+        return instantanea.copiarConTiempo(partida.getTiempoRestante());
+    }
+
+    /**
+     * Encola un comando sin esperar su resultado.
+     *
+     * @param <T> Tipo del resultado
+     * @param comando Comando a ejecutar
+     * @return Resultado futuro del comando
+     */
+    <T> CompletableFuture<T> enviar(Comando<T> comando) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        buzon.offer(() -> {
+            try {
+                resultado.complete(comando.ejecutar(partida));
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        // Solo quien encuentra el buzón vacío programa el vaciado
+        if (pendientes.getAndIncrement() == 0) {
+            ejecutor.execute(this::vaciar);
+        }
+        return resultado;
+    }
+
+    /**
+     * Encola un comando y espera su resultado.
+     *
+     * @param <T> Tipo del resultado
+     * @param comando Comando a ejecutar
+     * @return Resultado del comando
+     * @throws GestorPartidasException Si el comando falla
+     */
+    <T> T pedir(Comando<T> comando) throws GestorPartidasException {
+        if (Thread.currentThread() == hiloActual) {
+            try {
+                return comando.ejecutar(partida);
+            } catch (ModelException ex) {
+                throw new GestorPartidasException(ex.getMessage(), ex);
+            }
+        }
+        try {
+            return enviar(comando).join();
+        } catch (CompletionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof GestorPartidasException e) throw e;
+            if (causa instanceof RuntimeException e) throw e;
+            if (causa instanceof Error e) throw e;
+            throw new GestorPartidasException(causa.getMessage(), causa);
+        }
+    }
+
+    /**
+     * Ejecuta los comandos encolados; si quedan más después de un turno,
+     * se vuelve a programar para no acaparar el hilo del ejecutor.
+     */
+    private void vaciar() {
+        hiloActual = Thread.currentThread();
+        int ejecutados = 0;
+        try {
+            while (ejecutados < COMANDOS_POR_TURNO) {
+                Runnable comando = buzon.poll();
+                if (comando == null) break;
+                comando.run();
+                ejecutados++;
+            }
+        } finally {
+            hiloActual = null;
+        }
+        if (pendientes.addAndGet(-ejecutados) > 0) {
+            ejecutor.execute(this::vaciar);
+        }
+    }
+}
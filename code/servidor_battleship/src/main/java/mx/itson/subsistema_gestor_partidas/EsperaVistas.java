@@ -0,0 +1,72 @@
+package mx.itson.subsistema_gestor_partidas;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * EsperaVistas.java
+ *
+ * Lleva la cuenta de qué jugadores de una partida ya tienen lista la vista
+ * de juego después de AMBOS_LISTOS. El primer turno se inicia una sola vez:
+ * cuando confirma el último jugador o cuando se agota el tiempo de espera,
+ * lo que ocurra primero.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+public class EsperaVistas {
+
+    private final String idJugador1;
+    private final String idJugador2;
+    private final Set<String> listos;
+    private final AtomicBoolean iniciada;
+
+    /**
+     * Constructor
+     * @param idJugador1 ID del primer jugador de la partida
+     * @param idJugador2 ID del segundo jugador de la partida
+     */
+    public EsperaVistas(String idJugador1, String idJugador2) {
+        this.idJugador1 = idJugador1;
+        this.idJugador2 = idJugador2;
+        this.listos = ConcurrentHashMap.newKeySet();
+        this.iniciada = new AtomicBoolean(false);
+    }
+
+    /**
+     * Registra que la vista de un jugador está lista.
+     * @param idJugador ID del jugador que confirmó
+     * @return true solo para quien debe iniciar el primer turno
+     */
+    public boolean marcarLista(String idJugador) {
+        if (!idJugador.equals(idJugador1) && !idJugador.equals(idJugador2)) return false;
+        listos.add(idJugador);
+        return listos.size() == 2 && iniciada.compareAndSet(false, true);
+    }
+
+    /**
+     * Se llama al agotarse el tiempo de espera.
+     * @return true si ningún jugador había completado la espera y el primer turno
+     * debe iniciarse de todos modos
+     */
+    public boolean expirar() {return iniciada.compareAndSet(false, true);}
+
+    /**
+     * @return true si el primer turno ya se inició
+     */
+    public boolean isIniciada() {return iniciada.get();}
+
+    /**
+     * @return Cantidad de jugadores que confirmaron su vista
+     */
+    public int getListos() {return listos.size();}
+}
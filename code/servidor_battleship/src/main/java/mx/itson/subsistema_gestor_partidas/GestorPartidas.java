@@ -2,23 +2,34 @@ package mx.itson.subsistema_gestor_partidas;
 
 import mx.itson.utils.dtos.JugadorDTO;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import mx.itson.exceptions.GestorPartidasException;
 import mx.itson.exceptions.ModelException;
 import mx.itson.factory.JugadorFactory;
 import mx.itson.factory.PartidaFactory;
+import mx.itson.mappers.JugadorMapper;
 import mx.itson.mappers.NaveMapper;
 import mx.itson.mappers.PartidaMapper;
+import mx.itson.models.IJugador;
 import mx.itson.models.IPartida;
 import mx.itson.utils.dtos.CoordenadaDTO;
 import mx.itson.utils.dtos.DisparoDTO;
 import mx.itson.utils.dtos.NaveDTO;
 import mx.itson.utils.dtos.PartidaDTO;
+import mx.itson.utils.dtos.TurnoDTO;
 
 /**
  * Gestor centralizado de partidas activas en el servidor
- * Thread-safe para manejo concurrente
+ * Solo enruta: cada partida es un ActorPartida con su propio buzón, y todas
+ * comparten un ejecutor con un hilo por núcleo. No hay candado global, así
+ * que los disparos de partidas distintas no se forman detrás de uno solo
  *
  * @author Leonardo Flores Leyva ID: 00000252390
  * @author Yuri Germán García López ID: 00000252583
@@ -28,15 +39,36 @@ import mx.itson.utils.dtos.PartidaDTO;
  */
 public class GestorPartidas implements IGestorPartidas{
 
-    private final Map<String, IPartida> partidas; // Key: ID de partida
+    private final Map<String, ActorPartida> actores; // Key: ID de partida
     private final Map<String, String> jugadorAPartida; // Key: ID de jugador, Value: ID de partida
+    private final Map<String, RegistroCambiosTableros> registrosTableros; // Key: ID de partida
+    private final Map<String, EsperaVistas> esperasVistas; // Key: ID de partida
+
+    // Un solo ejecutor para los buzones de todas las partidas
+    private final ExecutorService ejecutorPartidas;
+    private final AtomicLong partidasRetiradas;
+
+    // Una sola rueda para los temporizadores de todas las partidas
+    private static final long DURACION_TIC_MS = 100;
+    private static final int HILOS_TEMPORIZADORES = 2;
+    private final RuedaTemporizadores rueda;
 
     /**
      * Constructor
      */
     public GestorPartidas() {
-        this.partidas = new ConcurrentHashMap<>();
+        this.actores = new ConcurrentHashMap<>();
         this.jugadorAPartida = new ConcurrentHashMap<>();
+        this.registrosTableros = new ConcurrentHashMap<>();
+        this.esperasVistas = new ConcurrentHashMap<>();
+        this.rueda = new RuedaTemporizadores(DURACION_TIC_MS, HILOS_TEMPORIZADORES);
+        this.partidasRetiradas = new AtomicLong();
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutorPartidas = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread hilo = new Thread(r, "Thread-Partidas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
     }
 
     /**
@@ -48,25 +80,32 @@ public class GestorPartidas implements IGestorPartidas{
      * @throws mx.itson.exceptions.GestorPartidasException
      */
     @Override
-    public synchronized PartidaDTO crearPartida(JugadorDTO jugador1, JugadorDTO jugador2) throws GestorPartidasException {
-        
+    public PartidaDTO crearPartida(JugadorDTO jugador1, JugadorDTO jugador2) throws GestorPartidasException {
         try {
             IPartida partidaNueva = PartidaFactory.crearPartida(
                     UUID.randomUUID().toString(), // Se crea un ID al azar
                     JugadorFactory.crearJugador(jugador1.getId(), jugador1.getNombre(), jugador1.getColor().toString()), // Se crea jugador 1 en el modelo
-                    JugadorFactory.crearJugador(jugador2.getId(), jugador2.getNombre(), jugador2.getColor().toString()) // Se crea jugador 2 en el modelo
+                    JugadorFactory.crearJugador(jugador2.getId(), jugador2.getNombre(), jugador2.getColor().toString()), // Se crea jugador 2 en el modelo
+                    rueda
             );
-            
-//            Partida partida = new Partida(jugador1, jugador2);
-            
-            partidas.put(partidaNueva.getIdPartida(), partidaNueva);
-            jugadorAPartida.put(jugador1.getId(), partidaNueva.getIdPartida());
-            jugadorAPartida.put(jugador2.getId(), partidaNueva.getIdPartida());
-            
-            System.out.println("[GESTOR_PARTIDAS] Partida creada: " + partidaNueva.getIdPartida());
-            
+            String idPartida = partidaNueva.getIdPartida();
+
+            // Nadie más conoce la partida todavía, así que el DTO se arma sin pasar por el buzón
             PartidaDTO partida = PartidaMapper.toDTO(partidaNueva);
-            
+
+            // El actor y su registro se publican antes que la entrada de los jugadores que lleva a ellos
+            registrosTableros.put(idPartida, new RegistroCambiosTableros());
+            ActorPartida actor = new ActorPartida(partidaNueva, ejecutorPartidas);
+            // El vencimiento del turno entra al buzón: la rueda no toca la partida
+            partidaNueva.establecerEntregaVencimiento(generacion -> actor.enviar(p -> {
+                p.alVencerTurno(generacion);
+                return null;
+            }));
+            actores.put(idPartida, actor);
+            jugadorAPartida.put(jugador1.getId(), idPartida);
+            jugadorAPartida.put(jugador2.getId(), idPartida);
+
+            System.out.println("[GESTOR_PARTIDAS] Partida creada: " + idPartida);
             return partida;
         } catch (ModelException ex) {
             System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, (String) null, ex);
@@ -82,32 +121,40 @@ public class GestorPartidas implements IGestorPartidas{
      * @throws mx.itson.exceptions.GestorPartidasException
      */
     @Override
-    public synchronized PartidaDTO obtenerPartidaDeJugador(String idJugador) throws GestorPartidasException{
+    public PartidaDTO obtenerPartidaDeJugador(String idJugador) throws GestorPartidasException{
         String idPartida = jugadorAPartida.get(idJugador);
-        try {
-            return (idPartida == null) ? null : PartidaMapper.toDTO(partidas.get(idPartida));
-        } catch (ModelException ex) {
-            System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
-            throw new GestorPartidasException(ex.getMessage(), ex);
-        }
+        return (idPartida == null) ? null : obtenerPartida(idPartida);
+    }
+
+    /**
+     * Obtiene el ID de la partida de un jugador y quién tiene el turno
+     * No pasa por el buzón ni construye el DTO
+     *
+     * @param idJugador ID del jugador
+     * @return Referencia a la partida, o null si el jugador no está en ninguna
+     */
+    @Override
+    public ReferenciaPartida obtenerReferenciaDeJugador(String idJugador) {
+        String idPartida = jugadorAPartida.get(idJugador);
+        ActorPartida actor = (idPartida != null) ? actores.get(idPartida) : null;
+        if (actor == null) return null;
+        IPartida partida = actor.getPartida();
+        return new ReferenciaPartida(idPartida, partida.getIdJugadorEnTurno(), partida.getVersion());
     }
 
     /**
      * Obtiene una partida por su ID
+     * El DTO es la instantánea del buzón de la partida; solo se reconstruye
+     * si la partida cambió desde la última consulta
      *
      * @param idPartida ID de la partida
      * @return La partida o null si no existe
      * @throws mx.itson.exceptions.GestorPartidasException
      */
     @Override
-    public synchronized PartidaDTO obtenerPartida(String idPartida) throws GestorPartidasException{
-        try {
-            IPartida partida = partidas.get(idPartida);
-            return (partida != null) ? PartidaMapper.toDTO(partida) : null;
-        } catch (ModelException ex) {
-            System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
-            throw new GestorPartidasException(ex.getMessage(), ex);
-        }
+    public PartidaDTO obtenerPartida(String idPartida) throws GestorPartidasException{
+        ActorPartida actor = actores.get(idPartida);
+        return (actor != null) ? actor.pedir(actor::instantanea) : null;
     }
 
     /**
@@ -117,8 +164,9 @@ public class GestorPartidas implements IGestorPartidas{
      * @return La partida del modelo o null si no existe
      */
     @Override
-    public synchronized IPartida obtenerPartidaModelo(String idPartida) {
-        return partidas.get(idPartida);
+    public IPartida obtenerPartidaModelo(String idPartida) {
+        ActorPartida actor = actores.get(idPartida);
+        return (actor != null) ? actor.getPartida() : null;
     }
 
     /**
@@ -132,19 +180,61 @@ public class GestorPartidas implements IGestorPartidas{
     
     /**
      * Elimina una partida del gestor
+     * Primero deja de enrutarla; la liberación de recursos se encola en su
+     * buzón después de los comandos que ya estaban encolados, sin esperarla
      *
      * @param idPartida ID de la partida
      */
     @Override
-    public synchronized void eliminarPartida(String idPartida) {
-        IPartida partida = partidas.remove(idPartida);
-        if (partida != null) {
-            jugadorAPartida.remove(partida.getJugador1().getId());
-            jugadorAPartida.remove(partida.getJugador2().getId());
+    public void eliminarPartida(String idPartida) {
+        ActorPartida actor = actores.remove(idPartida);
+        registrosTableros.remove(idPartida);
+        esperasVistas.remove(idPartida);
+        if (actor != null) {
+            IPartida partida = actor.getPartida();
+            // Si el jugador ya entró a otra partida, su entrada apunta a esa y se queda
+            jugadorAPartida.remove(partida.getJugador1().getId(), idPartida);
+            jugadorAPartida.remove(partida.getJugador2().getId(), idPartida);
+            actor.enviar(p -> {
+                p.liberarRecursos();
+                return null;
+            });
+            partidasRetiradas.incrementAndGet();
             System.out.println("[GESTOR_PARTIDAS] Partida eliminada: " + idPartida);
         }
     }
 
+    /**
+     * Retira una partida terminada, ya o después de la gracia indicada
+     *
+     * @param idPartida ID de la partida
+     * @param graciaMs Milisegundos antes de retirarla; 0 para retirarla ya
+     */
+    @Override
+    public void retirarPartida(String idPartida, long graciaMs) {
+        if (graciaMs <= 0) {
+            eliminarPartida(idPartida);
+        } else {
+            rueda.programar(graciaMs, () -> eliminarPartida(idPartida));
+        }
+    }
+
+    /**
+     * Obtiene los IDs de las partidas vivas
+     *
+     * @return Copia de los IDs
+     */
+    @Override
+    public List<String> obtenerIdsPartidas() {return new ArrayList<>(actores.keySet());}
+
+    /**
+     * Obtiene cuántas partidas se han retirado
+     *
+     * @return Partidas retiradas desde que arrancó el gestor
+     */
+    @Override
+    public long cantidadPartidasRetiradas() {return partidasRetiradas.get();}
+
     /**
      * Verifica si un jugador está en una partida activa
      *
@@ -152,7 +242,7 @@ public class GestorPartidas implements IGestorPartidas{
      * @return true si está en una partida
      */
     @Override
-    public synchronized boolean jugadorEnPartida(String idJugador) {return jugadorAPartida.containsKey(idJugador);}
+    public boolean jugadorEnPartida(String idJugador) {return jugadorAPartida.containsKey(idJugador);}
 
     /**
      * Obtiene el número de partidas activas
@@ -160,23 +250,31 @@ public class GestorPartidas implements IGestorPartidas{
      * @return Número de partidas
      */
     @Override
-    public synchronized int cantidadPartidas() {return partidas.size();}
+    public int cantidadPartidas() {return actores.size();}
 
     /**
      * Obtiene todas las partidas activas
+     * Se pide el DTO a todos los buzones a la vez y luego se esperan las respuestas
      *
      * @return Lista de partidas
      * @throws mx.itson.exceptions.GestorPartidasException
      */
     @Override
-    public synchronized List<PartidaDTO> obtenerTodasPartidas() throws GestorPartidasException {
-        List<IPartida> partidasActuales = new ArrayList(this.partidas.values());
+    public List<PartidaDTO> obtenerTodasPartidas() throws GestorPartidasException {
+        List<CompletableFuture<PartidaDTO>> pedidos = new ArrayList<>();
+        for (ActorPartida actor : actores.values()) {
+            pedidos.add(actor.enviar(actor::instantanea));
+        }
+        List<PartidaDTO> partidasActuales = new ArrayList<>(pedidos.size());
         try {
-            return (partidasActuales.isEmpty()) ? new ArrayList<>() : PartidaMapper.toDTOList(partidasActuales);
-        } catch (ModelException ex) {
+            for (CompletableFuture<PartidaDTO> pedido : pedidos) {
+                partidasActuales.add(pedido.join());
+            }
+        } catch (CompletionException ex) {
             System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
-            throw new GestorPartidasException(ex.getMessage(), ex);
+            throw new GestorPartidasException(ex.getCause().getMessage(), ex.getCause());
         }
+        return partidasActuales;
     }
 
     /**
@@ -191,49 +289,82 @@ public class GestorPartidas implements IGestorPartidas{
      */
     @Override
     public PartidaDTO colocarNaves(String idPartida, String idJugador, List<NaveDTO> naves) throws GestorPartidasException {
+        ActorPartida actor = obtenerActor(idPartida);
         try {
-            IPartida partida = partidas.get(idPartida);
-            return (partida.colocarNaves(idJugador, NaveMapper.toEntityList(naves))) ?
-                    PartidaMapper.toDTO(partida) :
-                    null;
-        } catch (ModelException ex) {
+            return actor.pedir(partida -> (partida.colocarNaves(idJugador, NaveMapper.toEntityList(naves))) ?
+                    actor.instantanea(partida) :
+                    null);
+        } catch (GestorPartidasException ex) {
             System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
-            throw new GestorPartidasException(ex.getMessage(), ex);
+            throw ex;
         }
     }
     
     /**
      * Establece el callback para notificar cuando se agota el tiempo de un turno.
+     * La rueda solo entrega el vencimiento al buzón: la verificación del
+     * timer, el cambio de turno y el callback corren como un comando más de
+     * la partida, en orden con los disparos
      *
      * @param idPartida ID de la partida
      * @param callback Consumer que recibe el ID del jugador que perdió el turno
      */
     @Override
     public void establecerRespuestaTiempoAgotado(String idPartida, Consumer<String> callback){
-        IPartida partida = partidas.get(idPartida);
-        if(partida != null) partida.establecerRespuestaTiempoAgotado(callback);
+        ActorPartida actor = actores.get(idPartida);
+        if(actor != null) actor.enviar(partida -> {
+            partida.establecerRespuestaTiempoAgotado(callback);
+            return null;
+        });
     }
 
     /**
-     * Establece el callback para actualizaciones periódicas del tiempo restante del turno.
+     * Inicia el temporizador del turno actual de una partida.
      *
      * @param idPartida ID de la partida
-     * @param callback Consumer que recibe el tiempo restante en segundos
+     * @return Turno con su límite absoluto, o null si la partida no existe
      */
     @Override
-    public void establecerCallbackActualizacionTiempo(String idPartida, Consumer<Integer> callback){
-        IPartida partida = partidas.get(idPartida);
-        if(partida != null) partida.establecerCallbackActualizacionTiempo(callback);
+    public TurnoDTO iniciarTemporizador(String idPartida) {
+        ActorPartida actor = actores.get(idPartida);
+        if (actor == null) return null;
+        try {
+            return actor.pedir(partida -> {
+                long limite = partida.iniciarTemporizador();
+                String idEnTurno = partida.getIdJugadorEnTurno();
+                IJugador jugadorEnTurno = partida.getJugador1().getId().equals(idEnTurno) ? partida.getJugador1() : partida.getJugador2();
+                return new TurnoDTO(JugadorMapper.toDTO(jugadorEnTurno), limite, partida.getDuracionTurno());
+            });
+        } catch (GestorPartidasException ex) {
+            System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
+            return null;
+        }
     }
-
+    
     /**
-     * Inicia el temporizador del turno actual de una partida.
+     * Obtiene el turno en curso sin reiniciar su temporizador.
      *
      * @param idPartida ID de la partida
+     * @return Turno con su límite absoluto, o null si la partida no existe o el temporizador no corre
      */
     @Override
-    public void iniciarTemporizador(String idPartida) {partidas.get(idPartida).iniciarTemporizador();}
-    
+    public TurnoDTO obtenerTurno(String idPartida) {
+        ActorPartida actor = actores.get(idPartida);
+        if (actor == null) return null;
+        try {
+            return actor.pedir(partida -> {
+                long limite = partida.getLimiteTurno();
+                if (limite == 0) return null;
+                String idEnTurno = partida.getIdJugadorEnTurno();
+                IJugador jugadorEnTurno = partida.getJugador1().getId().equals(idEnTurno) ? partida.getJugador1() : partida.getJugador2();
+                return new TurnoDTO(JugadorMapper.toDTO(jugadorEnTurno), limite, partida.getDuracionTurno());
+            });
+        } catch (GestorPartidasException ex) {
+            System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
+            return null;
+        }
+    }
+
     /**
      * Libera los recursos asociados a una partida (temporizadores, threads, etc.).
      *
@@ -241,30 +372,111 @@ public class GestorPartidas implements IGestorPartidas{
      */
     @Override
     public void liberarRecursos(String idPartida){
-        IPartida partida = partidas.get(idPartida);
-        if(partida != null) partida.liberarRecursos();
+        ActorPartida actor = actores.get(idPartida);
+        if(actor != null) actor.enviar(partida -> {
+            partida.liberarRecursos();
+            return null;
+        });
+        registrosTableros.remove(idPartida);
+        esperasVistas.remove(idPartida);
+    }
+
+    /**
+     * Obtiene el registro de versiones de los tableros de una partida.
+     *
+     * @param idPartida ID de la partida
+     * @return Registro de la partida, o null si la partida ya liberó sus recursos
+     */
+    @Override
+    public RegistroCambiosTableros obtenerRegistroTableros(String idPartida) {return registrosTableros.get(idPartida);}
+
+    /**
+     * Obtiene el registro de versiones de los tableros de la partida de un jugador.
+     *
+     * @param idJugador ID del jugador
+     * @return Registro de la partida del jugador, o null si no tiene
+     */
+    @Override
+    public RegistroCambiosTableros obtenerRegistroTablerosDeJugador(String idJugador) {
+        String idPartida = jugadorAPartida.get(idJugador);
+        return idPartida != null ? registrosTableros.get(idPartida) : null;
+    }
+
+    /**
+     * Abre la espera de vistas de una partida y programa su plazo en la rueda.
+     *
+     * @param idPartida ID de la partida
+     * @param esperaMaximaMs Milisegundos a esperar antes de iniciar de todos modos
+     * @param alExpirar Acción a ejecutar si el plazo vence antes de que confirmen ambos
+     * @return Espera de la partida, o null si la partida no existe o la espera ya estaba abierta
+     */
+    @Override
+    public EsperaVistas iniciarEsperaVistas(String idPartida, long esperaMaximaMs, Runnable alExpirar) {
+        ActorPartida actor = actores.get(idPartida);
+        if (actor == null) return null;
+        IPartida partida = actor.getPartida();
+        EsperaVistas espera = new EsperaVistas(partida.getJugador1().getId(), partida.getJugador2().getId());
+        // Los dos jugadores pueden terminar de colocar a la vez; solo se abre una espera por partida
+        if (esperasVistas.putIfAbsent(idPartida, espera) != null) return null;
+        rueda.programar(esperaMaximaMs, () -> {
+            if (espera.expirar()) alExpirar.run();
+        });
+        return espera;
+    }
+
+    /**
+     * Obtiene la espera de vistas de la partida de un jugador.
+     *
+     * @param idJugador ID del jugador
+     * @return Espera de la partida del jugador, o null si no hay ninguna abierta
+     */
+    @Override
+    public EsperaVistas obtenerEsperaVistasDeJugador(String idJugador) {
+        String idPartida = jugadorAPartida.get(idJugador);
+        return idPartida != null ? esperasVistas.get(idPartida) : null;
+    }
+
+    /**
+     * Programa una tarea en la rueda de temporizadores de las partidas.
+     *
+     * @param retrasoMs Milisegundos hasta el vencimiento
+     * @param tarea Tarea a ejecutar al vencer
+     */
+    @Override
+    public void programarPlazo(long retrasoMs, Runnable tarea) {
+        rueda.programar(retrasoMs, tarea);
     }
     
     @Override
     public DisparoDTO procesarDisparo(String idPartida, String idJugador, CoordenadaDTO coordenada) throws GestorPartidasException {
-        try {
-            IPartida partida = partidas.get(idPartida);
-            
-            // Valida que exista la partida (colocado aquí en caso de que se reutilice el subsistema)
-            if(partida == null)return null;
-            
+        ActorPartida actor = actores.get(idPartida);
+
+        // Valida que exista la partida (colocado aquí en caso de que se reutilice el subsistema)
+        if(actor == null)return null;
+
+        // El turno se verifica dentro del buzón; como el vencimiento del turno también pasa por él, nada cambia entre la verificación y el disparo
+        return actor.pedir(partida -> {
             // Verifica que el jugador tenga el turno
             if(!partida.verificarJugadorTurno(idJugador))throw new GestorPartidasException("No es tu turno.");
-            
+
             // Verifica que el disparo sea válido (Técnicamente nunca da false en la implementación del método)
             if(!partida.validarDisparo(idJugador, coordenada))throw new GestorPartidasException("Disparo inválido.");
-            
+
             // Procesa el disparo y regresa el resultado
             return partida.procesarDisparo(idJugador, coordenada);
-            
-        } catch (ModelException ex) {
-            System.getLogger(GestorPartidas.class.getName()).log(System.Logger.Level.ERROR, ex.getMessage(), ex);
-            throw new GestorPartidasException(ex.getMessage(), ex);
-        }
+        });
+    }
+
+    /**
+     * Obtiene el actor de una partida que debe existir.
+     *
+     * @param idPartida ID de la partida
+     * @return Actor de la partida
+     * @throws GestorPartidasException Si la partida no existe
+     */
+    private ActorPartida obtenerActor(String idPartida) throws GestorPartidasException {
+        ActorPartida actor = actores.get(idPartida);
+        if (actor == null) throw new GestorPartidasException("La partida " + idPartida + " no existe.");
+        return actor;
     }
 }
\ No newline at end of file
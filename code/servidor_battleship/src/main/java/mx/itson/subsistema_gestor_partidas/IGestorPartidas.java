@@ -9,6 +9,7 @@ import mx.itson.utils.dtos.DisparoDTO;
 import mx.itson.utils.dtos.JugadorDTO;
 import mx.itson.utils.dtos.NaveDTO;
 import mx.itson.utils.dtos.PartidaDTO;
+import mx.itson.utils.dtos.TurnoDTO;
 
 /**
  * IGestorPartidas.java
@@ -50,6 +51,15 @@ public interface IGestorPartidas {
      */
     public PartidaDTO obtenerPartidaDeJugador(String idJugador) throws GestorPartidasException;
 
+    /**
+     * Obtiene el ID de la partida de un jugador y quién tiene el turno,
+     * sin construir el DTO de la partida.
+     *
+     * @param idJugador ID del jugador
+     * @return Referencia a la partida del jugador, o null si no está en ninguna
+     */
+    public ReferenciaPartida obtenerReferenciaDeJugador(String idJugador);
+
     /**
      * Obtiene una partida por su ID.
      *
@@ -83,6 +93,30 @@ public interface IGestorPartidas {
      */
     public void eliminarPartida(String idPartida) throws GestorPartidasException;
 
+    /**
+     * Retira una partida que llegó a su fin después de un periodo de gracia,
+     * para que los mensajes que ya venían en camino todavía la encuentren.
+     * Retirarla la quita del gestor igual que eliminarPartida.
+     *
+     * @param idPartida ID de la partida
+     * @param graciaMs Milisegundos antes de retirarla; 0 para retirarla ya
+     */
+    public void retirarPartida(String idPartida, long graciaMs);
+
+    /**
+     * Obtiene los IDs de las partidas que siguen en el gestor, sin construir sus DTOs.
+     *
+     * @return Copia de los IDs de las partidas vivas
+     */
+    public List<String> obtenerIdsPartidas();
+
+    /**
+     * Obtiene cuántas partidas se han retirado desde que arrancó el gestor.
+     *
+     * @return Partidas retiradas
+     */
+    public long cantidadPartidasRetiradas();
+
     /**
      * Coloca las naves de un jugador en su tablero.
      *
@@ -103,19 +137,20 @@ public interface IGestorPartidas {
     public void establecerRespuestaTiempoAgotado(String idPartida, Consumer<String> callback);
 
     /**
-     * Establece el callback para actualizaciones periódicas del tiempo restante.
+     * Inicia el temporizador del turno actual de una partida.
      *
      * @param idPartida ID de la partida
-     * @param callback Consumer que recibe el tiempo restante en segundos
+     * @return Turno con su límite absoluto, o null si la partida no existe
      */
-    public void establecerCallbackActualizacionTiempo(String idPartida, Consumer<Integer> callback);
+    public TurnoDTO iniciarTemporizador(String idPartida);
 
     /**
-     * Inicia el temporizador del turno actual de una partida.
+     * Obtiene el turno en curso sin reiniciar su temporizador.
      *
      * @param idPartida ID de la partida
+     * @return Turno con su límite absoluto, o null si la partida no existe o el temporizador no corre
      */
-    public void iniciarTemporizador(String idPartida);
+    public TurnoDTO obtenerTurno(String idPartida);
 
     /**
      * Libera los recursos asociados a una partida (temporizadores, executors, etc.).
@@ -158,4 +193,50 @@ public interface IGestorPartidas {
      */
     public List<PartidaDTO> obtenerTodasPartidas() throws GestorPartidasException;
 
+    /**
+     * Obtiene el registro de versiones de los tableros de una partida.
+     * Se crea junto con la partida y se elimina al liberar sus recursos.
+     *
+     * @param idPartida ID de la partida
+     * @return Registro de cambios de los tableros, o null si la partida no existe o ya terminó
+     */
+    public RegistroCambiosTableros obtenerRegistroTableros(String idPartida);
+
+    /**
+     * Obtiene el registro de versiones de los tableros de la partida de un jugador,
+     * sin construir el DTO de la partida.
+     *
+     * @param idJugador ID del jugador
+     * @return Registro de cambios de los tableros, o null si el jugador no tiene partida en curso
+     */
+    public RegistroCambiosTableros obtenerRegistroTablerosDeJugador(String idJugador);
+
+    /**
+     * Abre la espera de las vistas de juego de una partida cuyos jugadores
+     * ya colocaron sus naves.
+     *
+     * @param idPartida ID de la partida
+     * @param esperaMaximaMs Milisegundos a esperar antes de iniciar de todos modos
+     * @param alExpirar Acción a ejecutar si el plazo vence antes de que confirmen ambos
+     * @return Espera de la partida, o null si la partida no existe o la espera ya estaba abierta
+     */
+    public EsperaVistas iniciarEsperaVistas(String idPartida, long esperaMaximaMs, Runnable alExpirar);
+
+    /**
+     * Obtiene la espera de vistas de la partida de un jugador.
+     *
+     * @param idJugador ID del jugador
+     * @return Espera de la partida del jugador, o null si no hay ninguna abierta
+     */
+    public EsperaVistas obtenerEsperaVistasDeJugador(String idJugador);
+
+    /**
+     * Programa una tarea en la rueda de temporizadores compartida por el servidor.
+     * Sirve para plazos que no pertenecen a una partida, como las invitaciones.
+     *
+     * @param retrasoMs Milisegundos hasta el vencimiento
+     * @param tarea Tarea a ejecutar al vencer; debe revisar por sí misma si sigue vigente
+     */
+    public void programarPlazo(long retrasoMs, Runnable tarea);
+
 }
\ No newline at end of file
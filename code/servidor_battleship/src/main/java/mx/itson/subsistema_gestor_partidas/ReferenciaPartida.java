@@ -0,0 +1,32 @@
+package mx.itson.subsistema_gestor_partidas;
+
+/**
+ * ReferenciaPartida.java
+ *
+ * Lo mínimo para enrutar una acción a la partida de un jugador: su ID, quién
+ * tiene el turno y la versión del estado. Se obtiene sin construir el
+ * PartidaDTO, así que sirve para validar y despachar disparos o naves.
+ *
+ * @param idPartida ID de la partida
+ * @param idJugadorEnTurno ID del jugador en turno, o null si el juego aún no empieza
+ * @param version Versión del estado de la partida al momento de la consulta
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+public record ReferenciaPartida(String idPartida, String idJugadorEnTurno, long version) {
+
+    /**
+     * @param idJugador ID de un jugador de la partida
+     * @return true si ese jugador tiene el turno
+     */
+    public boolean tieneTurno(String idJugador) {return idJugador.equals(idJugadorEnTurno);}
+}
@@ -0,0 +1,308 @@
+package mx.itson.subsistema_gestor_partidas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import mx.itson.mappers.TableroNavesMapper;
+import mx.itson.utils.dtos.CambioCasillaDTO;
+import mx.itson.utils.dtos.CambioNaveDTO;
+import mx.itson.utils.dtos.DeltaTablerosDTO;
+import mx.itson.utils.dtos.NaveDTO;
+import mx.itson.utils.dtos.TableroDTO;
+import mx.itson.utils.enums.EstadoCasilla;
+import mx.itson.utils.enums.EstadoNave;
+
+/**
+ * RegistroCambiosTableros.java
+ *
+ * Versiona los tableros de una partida. Cada vez que se publican los tableros
+ * se comparan con la última publicación y las casillas o naves distintas se
+ * guardan con el número de versión nuevo; con eso se arma el delta desde la
+ * versión que confirmó cada jugador. Los cambios que ambos jugadores ya
+ * confirmaron se descartan.
+ *
+ * Cada jugador ve su tablero completo y el del oponente con niebla de guerra:
+ * sin casillas ocupadas ni naves a flote. La proyección del tablero de cada
+ * jugador se calcula una vez por versión.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ *
+ */
+public class RegistroCambiosTableros {
+
+    /** Valor de versión confirmada de un jugador que aún no confirma ninguna */
+    public static final int SIN_CONFIRMAR = -1;
+
+    private record CasillaVersionada(int version, CambioCasillaDTO cambio) {}
+    private record NaveVersionada(int version, CambioNaveDTO cambio, NaveDTO nave) {}
+
+    private final ReentrantLock candado;
+    private final Map<String, EstadoCasilla[][]> casillasPublicadas; // Key: ID del dueño del tablero
+    private final Map<String, EstadoNave[]> estadosNavesPublicados;
+    private final Map<String, int[]> impactosPublicados;
+    private final List<CasillaVersionada> cambiosCasillas;
+    private final List<NaveVersionada> cambiosNaves;
+    private final Map<String, Integer> versionesConfirmadas; // Key: ID del jugador
+    private final Map<String, TableroDTO> proyecciones; // Key: ID del dueño del tablero
+    private int version;
+    private int versionMinima; // Versión base más antigua desde la que se puede armar un delta
+
+    /**
+     * Constructor
+     */
+    public RegistroCambiosTableros() {
+        this.candado = new ReentrantLock();
+        this.casillasPublicadas = new HashMap<>();
+        this.estadosNavesPublicados = new HashMap<>();
+        this.impactosPublicados = new HashMap<>();
+        this.cambiosCasillas = new ArrayList<>();
+        this.cambiosNaves = new ArrayList<>();
+        this.versionesConfirmadas = new HashMap<>();
+        this.proyecciones = new HashMap<>();
+        this.version = 0;
+        this.versionMinima = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Publica el estado actual de los tableros y registra lo que cambió
+     *
+     * @param tableros Tableros de la partida
+     * @return Versión vigente después de publicar (igual a la anterior si nada cambió)
+     */
+    public int publicar(List<TableroDTO> tableros) {
+        candado.lock();
+        try {
+            int siguiente = version + 1;
+            boolean hayCambios = false;
+            boolean tableroNuevo = false;
+
+            for (TableroDTO tablero : tableros) {
+                String idJugador = tablero.getIdJugador();
+                EstadoCasilla[][] actuales = tablero.getCasillas();
+                EstadoCasilla[][] previas = casillasPublicadas.get(idJugador);
+                List<NaveDTO> naves = tablero.getNaves();
+                EstadoNave[] estadosPrevios = estadosNavesPublicados.get(idJugador);
+
+                if (previas == null || estadosPrevios == null || estadosPrevios.length != naves.size()) {
+                    guardarTablero(tablero);
+                    tableroNuevo = true;
+                    continue;
+                }
+
+                for (int i = 0; i < actuales.length; i++) {
+                    for (int j = 0; j < actuales[i].length; j++) {
+                        if (actuales[i][j] != previas[i][j]) {
+                            previas[i][j] = actuales[i][j];
+                            cambiosCasillas.add(new CasillaVersionada(siguiente,
+                                    new CambioCasillaDTO(idJugador, i, j, actuales[i][j])));
+                            hayCambios = true;
+                        }
+                    }
+                }
+
+                int[] impactosPrevios = impactosPublicados.get(idJugador);
+                for (int k = 0; k < naves.size(); k++) {
+                    NaveDTO nave = naves.get(k);
+                    if (nave.getEstado() != estadosPrevios[k] || nave.getImpactosRecibidos() != impactosPrevios[k]) {
+                        estadosPrevios[k] = nave.getEstado();
+                        impactosPrevios[k] = nave.getImpactosRecibidos();
+                        cambiosNaves.add(new NaveVersionada(siguiente,
+                                new CambioNaveDTO(idJugador, k, nave.getEstado(), nave.getImpactosRecibidos()), nave));
+                        hayCambios = true;
+                    }
+                }
+            }
+
+            if (hayCambios || tableroNuevo) {
+                version = siguiente;
+            }
+            if (tableroNuevo) {
+                // Un tablero sin estado previo no se puede describir con cambios
+                cambiosCasillas.clear();
+                cambiosNaves.clear();
+                versionMinima = version;
+            }
+            return version;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Arma el delta que ve un jugador desde una versión base hasta la versión vigente
+     *
+     * @param versionBase Versión que el cliente ya tiene aplicada
+     * @param idVisor ID del jugador que recibirá el delta
+     * @return Delta con el estado final de lo que cambió, o null si hay que enviar los tableros completos
+     */
+    public DeltaTablerosDTO deltaDesde(int versionBase, String idVisor) {
+        candado.lock();
+        try {
+            if (versionBase < versionMinima || versionBase > version) {
+                return null;
+            }
+
+            // Si una casilla o nave cambió varias veces, solo importa su último estado
+            Map<String, CambioCasillaDTO> casillas = new LinkedHashMap<>();
+            for (CasillaVersionada registro : cambiosCasillas) {
+                if (registro.version() > versionBase) {
+                    CambioCasillaDTO cambio = registro.cambio();
+                    casillas.put(cambio.getIdJugador() + ":" + cambio.getX() + ":" + cambio.getY(), cambio);
+                }
+            }
+            Map<String, NaveVersionada> naves = new LinkedHashMap<>();
+            for (NaveVersionada registro : cambiosNaves) {
+                if (registro.version() > versionBase) {
+                    naves.put(registro.cambio().getIdJugador() + ":" + registro.cambio().getIndice(), registro);
+                }
+            }
+
+            List<CambioCasillaDTO> casillasVisibles = new ArrayList<>(casillas.size());
+            for (CambioCasillaDTO cambio : casillas.values()) {
+                if (cambio.getIdJugador().equals(idVisor) || cambio.getEstado() != EstadoCasilla.OCUPADA) {
+                    casillasVisibles.add(cambio);
+                } else {
+                    casillasVisibles.add(new CambioCasillaDTO(cambio.getIdJugador(), cambio.getX(), cambio.getY(), EstadoCasilla.VACIA));
+                }
+            }
+
+            // Del oponente solo se revelan las naves hundidas, completas
+            List<CambioNaveDTO> navesVisibles = new ArrayList<>(naves.size());
+            for (NaveVersionada registro : naves.values()) {
+                CambioNaveDTO cambio = registro.cambio();
+                if (cambio.getIdJugador().equals(idVisor)) {
+                    navesVisibles.add(cambio);
+                } else if (cambio.getEstado() == EstadoNave.HUNDIDA) {
+                    CambioNaveDTO revelada = new CambioNaveDTO(cambio.getIdJugador(), cambio.getIndice(),
+                            cambio.getEstado(), cambio.getImpactosRecibidos());
+                    revelada.setNave(registro.nave());
+                    navesVisibles.add(revelada);
+                }
+            }
+            return new DeltaTablerosDTO(versionBase, version, casillasVisibles, navesVisibles);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la vista que el oponente tiene de un tablero, calculándola solo si cambió la versión
+     *
+     * @param tablero Tablero completo, con su versión asignada
+     * @return Proyección con niebla de guerra
+     */
+    public TableroDTO proyeccionParaOponente(TableroDTO tablero) {
+        candado.lock();
+        try {
+            TableroDTO proyeccion = proyecciones.get(tablero.getIdJugador());
+            if (proyeccion == null || proyeccion.getVersion() != tablero.getVersion()) {
+                proyeccion = TableroNavesMapper.proyectarParaOponente(tablero);
+                proyecciones.put(tablero.getIdJugador(), proyeccion);
+            }
+            return proyeccion;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Registra la versión que un jugador confirmó haber aplicado
+     *
+     * @param idJugador ID del jugador
+     * @param versionConfirmada Versión confirmada
+     */
+    public void confirmar(String idJugador, int versionConfirmada) {
+        candado.lock();
+        try {
+            if (versionConfirmada > version) return;
+            versionesConfirmadas.merge(idJugador, versionConfirmada, Math::max);
+            descartarConfirmados();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Olvida la confirmación de un jugador; el siguiente envío a ese jugador será completo
+     *
+     * @param idJugador ID del jugador
+     */
+    public void descartarConfirmacion(String idJugador) {
+        candado.lock();
+        try {
+            versionesConfirmadas.remove(idJugador);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la última versión confirmada por un jugador
+     *
+     * @param idJugador ID del jugador
+     * @return Versión confirmada o SIN_CONFIRMAR
+     */
+    public int versionConfirmada(String idJugador) {
+        candado.lock();
+        try {
+            return versionesConfirmadas.getOrDefault(idJugador, SIN_CONFIRMAR);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    public int getVersion() {
+        candado.lock();
+        try {
+            return version;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private void guardarTablero(TableroDTO tablero) {
+        EstadoCasilla[][] casillas = tablero.getCasillas();
+        EstadoCasilla[][] copia = new EstadoCasilla[casillas.length][];
+        for (int i = 0; i < casillas.length; i++) {
+            copia[i] = casillas[i].clone();
+        }
+        List<NaveDTO> naves = tablero.getNaves();
+        EstadoNave[] estados = new EstadoNave[naves.size()];
+        int[] impactos = new int[naves.size()];
+        for (int k = 0; k < naves.size(); k++) {
+            estados[k] = naves.get(k).getEstado();
+            impactos[k] = naves.get(k).getImpactosRecibidos();
+        }
+        casillasPublicadas.put(tablero.getIdJugador(), copia);
+        estadosNavesPublicados.put(tablero.getIdJugador(), estados);
+        impactosPublicados.put(tablero.getIdJugador(), impactos);
+    }
+
+    /**
+     * Quita los cambios que ya aplicaron todos los jugadores que confirman versiones
+     */
+    private void descartarConfirmados() {
+        int minima = Integer.MAX_VALUE;
+        for (int confirmada : versionesConfirmadas.values()) {
+            minima = Math.min(minima, confirmada);
+        }
+        if (minima == Integer.MAX_VALUE || minima <= versionMinima) return;
+
+        final int limite = minima;
+        cambiosCasillas.removeIf(registro -> registro.version() <= limite);
+        cambiosNaves.removeIf(registro -> registro.version() <= limite);
+        versionMinima = limite;
+    }
+}
@@ -0,0 +1,266 @@
+package mx.itson.subsistema_gestor_partidas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RuedaTemporizadores.java
+ *
+ * Planificador de plazos compartido por todas las partidas del servidor.
+ * Es una rueda de tiempo jerárquica de tres niveles con 64 ranuras cada uno:
+ * el nivel 0 avanza una ranura por tic, el nivel 1 una cada 64 tics y el
+ * nivel 2 una cada 4096 tics. Programar y cancelar son O(1) porque cada ranura
+ * es una lista doblemente enlazada; al dar la vuelta un nivel, la ranura
+ * correspondiente del nivel superior se reparte en los niveles inferiores.
+ *
+ * Un solo hilo avanza la rueda y las tareas vencidas se ejecutan en un grupo
+ * pequeño de hilos, de modo que miles de partidas no cuestan un hilo cada una.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+public class RuedaTemporizadores {
+
+    private static final int BITS_NIVEL = 6;
+    private static final int RANURAS = 1 << BITS_NIVEL;
+    private static final int MASCARA = RANURAS - 1;
+    private static final int NIVELES = 3;
+    private static final long ALCANCE_MAXIMO = (1L << (BITS_NIVEL * NIVELES)) - 1;
+
+    private final long nanosPorTic;
+    private final long inicio;
+    private final Temporizador[][] ranuras;
+    private final ExecutorService ejecutores;
+    private final ReentrantLock candado;
+    private final Thread hiloTics;
+
+    // Siguiente tic por procesar; todos los temporizadores en la rueda vencen en este tic o después
+    private long ticActual;
+    private int programados;
+    private volatile boolean activa;
+
+    /**
+     * Temporizador programado en la rueda. Se usa solo para cancelarlo.
+     */
+    public final class Temporizador {
+
+        private final Runnable tarea;
+        private long vencimiento;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+
+        private Temporizador(Runnable tarea, long vencimiento) {
+            this.tarea = tarea;
+            this.vencimiento = vencimiento;
+        }
+
+        /**
+         * Cancela el temporizador si todavía no vence.
+         * @return true si se quitó de la rueda antes de ejecutarse
+         */
+        public boolean cancelar() {
+            candado.lock();
+            try {
+                if (anterior == null) return false; // Ya venció o ya se canceló
+                desenlazar(this);
+                programados--;
+                return true;
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Constructor
+     * @param duracionTicMs Resolución de la rueda en milisegundos
+     * @param hilosEjecutores Cantidad de hilos que ejecutan las tareas vencidas
+     */
+    public RuedaTemporizadores(long duracionTicMs, int hilosEjecutores) {
+        this.nanosPorTic = TimeUnit.MILLISECONDS.toNanos(duracionTicMs);
+        this.inicio = System.nanoTime();
+        this.candado = new ReentrantLock();
+        this.ranuras = new Temporizador[NIVELES][RANURAS];
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            for (int i = 0; i < RANURAS; i++) {
+                // Centinela: lista circular vacía
+                Temporizador centinela = new Temporizador(null, 0);
+                centinela.anterior = centinela;
+                centinela.siguiente = centinela;
+                ranuras[nivel][i] = centinela;
+            }
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutores = Executors.newFixedThreadPool(hilosEjecutores, r -> {
+            Thread hilo = new Thread(r, "Thread-Temporizador-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        this.activa = true;
+        this.hiloTics = new Thread(this::avanzar, "Thread-RuedaTemporizadores");
+        this.hiloTics.setDaemon(true);
+        this.hiloTics.start();
+    }
+
+    /**
+     * Programa una tarea para dentro de cierto tiempo.
+     * @param retrasoMs Milisegundos hasta el vencimiento
+     * @param tarea Tarea a ejecutar en el grupo de hilos de la rueda
+     * @return Temporizador para cancelar la tarea
+     */
+    public Temporizador programar(long retrasoMs, Runnable tarea) {
+        long tics = Math.max(0, (TimeUnit.MILLISECONDS.toNanos(retrasoMs) + nanosPorTic - 1) / nanosPorTic);
+        candado.lock();
+        try {
+            Temporizador temporizador = new Temporizador(tarea, ticActual + tics);
+            insertar(temporizador);
+            programados++;
+            return temporizador;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * @return Cantidad de temporizadores pendientes en la rueda
+     */
+    public int getProgramados() {
+        candado.lock();
+        try {
+            return programados;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Detiene el hilo de la rueda y el grupo de ejecutores. Los temporizadores pendientes se descartan.
+     */
+    public void detener() {
+        activa = false;
+        hiloTics.interrupt();
+        ejecutores.shutdown();
+    }
+
+    /**
+     * Ciclo del hilo de la rueda: procesa cada tic vencido y duerme hasta el siguiente.
+     */
+    private void avanzar() {
+        List<Runnable> vencidas = new ArrayList<>();
+        while (activa) {
+            long ticReal = (System.nanoTime() - inicio) / nanosPorTic;
+
+            candado.lock();
+            try {
+                while (ticActual <= ticReal) {
+                    procesarTic(vencidas);
+                }
+            } finally {
+                candado.unlock();
+            }
+
+            for (Runnable tarea : vencidas) {
+                try {
+                    ejecutores.execute(tarea);
+                } catch (RuntimeException e) {
+                    System.err.println("[RUEDA] No se pudo ejecutar tarea: " + e.getMessage());
+                }
+            }
+            vencidas.clear();
+
+            long siguiente = inicio + (ticReal + 1) * nanosPorTic;
+            long espera = siguiente - System.nanoTime();
+            if (espera > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Procesa el tic actual: reparte los niveles superiores si el nivel 0 dio la vuelta
+     * y recoge las tareas de la ranura que vence. Se llama con el candado tomado.
+     */
+    private void procesarTic(List<Runnable> vencidas) {
+        int indice = (int) (ticActual & MASCARA);
+        if (indice == 0) {
+            int indice1 = (int) ((ticActual >>> BITS_NIVEL) & MASCARA);
+            redistribuir(1, indice1);
+            if (indice1 == 0) {
+                redistribuir(2, (int) ((ticActual >>> (2 * BITS_NIVEL)) & MASCARA));
+            }
+        }
+
+        Temporizador centinela = ranuras[0][indice];
+        while (centinela.siguiente != centinela) {
+            Temporizador temporizador = centinela.siguiente;
+            desenlazar(temporizador);
+            if (temporizador.vencimiento > ticActual) {
+                // Plazo más allá del alcance de la rueda: se vuelve a colocar
+                insertar(temporizador);
+                continue;
+            }
+            programados--;
+            vencidas.add(temporizador.tarea);
+        }
+        ticActual++;
+    }
+
+    private void redistribuir(int nivel, int indice) {
+        Temporizador centinela = ranuras[nivel][indice];
+        while (centinela.siguiente != centinela) {
+            Temporizador temporizador = centinela.siguiente;
+            desenlazar(temporizador);
+            insertar(temporizador);
+        }
+    }
+
+    private void insertar(Temporizador temporizador) {
+        long vencimiento = temporizador.vencimiento;
+        long distancia = vencimiento - ticActual;
+        Temporizador centinela;
+        if (distancia < 0) {
+            centinela = ranuras[0][(int) (ticActual & MASCARA)];
+        } else if (distancia < RANURAS) {
+            centinela = ranuras[0][(int) (vencimiento & MASCARA)];
+        } else if (distancia < (1L << (2 * BITS_NIVEL))) {
+            centinela = ranuras[1][(int) ((vencimiento >>> BITS_NIVEL) & MASCARA)];
+        } else {
+            if (distancia > ALCANCE_MAXIMO) {
+                vencimiento = ticActual + ALCANCE_MAXIMO;
+            }
+            centinela = ranuras[2][(int) ((vencimiento >>> (2 * BITS_NIVEL)) & MASCARA)];
+        }
+
+        temporizador.anterior = centinela.anterior;
+        temporizador.siguiente = centinela;
+        centinela.anterior.siguiente = temporizador;
+        centinela.anterior = temporizador;
+    }
+
+    private static void desenlazar(Temporizador temporizador) {
+        temporizador.anterior.siguiente = temporizador.siguiente;
+        temporizador.siguiente.anterior = temporizador.anterior;
+        temporizador.anterior = null;
+        temporizador.siguiente = null;
+    }
+}
@@ -0,0 +1,135 @@
+package mx.itson.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import mx.itson.exceptions.ModelException;
+import mx.itson.factory.JugadorFactory;
+import mx.itson.subsistema_gestor_partidas.RuedaTemporizadores;
+import mx.itson.utils.dtos.CoordenadaDTO;
+import mx.itson.utils.enums.OrientacionNave;
+import mx.itson.utils.enums.TipoNave;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vencimientos del turno frente a los disparos
+ * La rueda de la prueba guarda las tareas que se le programan para poder
+ * entregarlas a mano, como si el vencimiento hubiera salido de la rueda justo
+ * antes de que el disparo llegara a la partida. Un vencimiento así ya no
+ * corresponde al turno y no debe cambiarlo ni avisar de un timeout.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+class PartidaTemporizadorTest {
+
+    /** Inicio (y), columna (x) y longitud de cada nave, todas horizontales */
+    private static final int[][] FLOTA = {
+        {0, 0, 4}, {5, 0, 4}, {0, 2, 3}, {4, 2, 3}, {0, 4, 2}, {3, 4, 2},
+        {6, 4, 2}, {0, 6, 2}, {3, 6, 1}, {5, 6, 1}, {7, 6, 1}
+    };
+
+    private final List<Runnable> vencimientos = new ArrayList<>();
+    private final List<String> timeouts = new ArrayList<>();
+    private RuedaTemporizadores rueda;
+    private Partida partida;
+
+    @BeforeEach
+    void preparar() throws ModelException {
+        rueda = new RuedaTemporizadores(10, 1) {
+            @Override
+            public Temporizador programar(long retrasoMs, Runnable tarea) {
+                vencimientos.add(tarea);
+                return super.programar(retrasoMs, tarea);
+            }
+        };
+        partida = new Partida("partida", JugadorFactory.crearJugador("j1", "Ana", "ROJO"),
+                JugadorFactory.crearJugador("j2", "Beto", "AZUL"), rueda);
+        partida.establecerRespuestaTiempoAgotado(timeouts::add);
+        assertTrue(partida.colocarNaves("j1", crearFlota()));
+        assertTrue(partida.colocarNaves("j2", crearFlota()));
+    }
+
+    @AfterEach
+    void detener() {
+        partida.liberarRecursos();
+        rueda.detener();
+    }
+
+    @Test
+    void vencimientoSinDisparoCambiaElTurno() {
+        String enTurno = partida.getIdJugadorEnTurno();
+        partida.iniciarTemporizador();
+
+        entregarUltimoVencimiento();
+
+        assertNotEquals(enTurno, partida.getIdJugadorEnTurno());
+        assertEquals(List.of(enTurno), timeouts);
+    }
+
+    @Test
+    void vencimientoAtrasadoNoCambiaElTurnoDespuesDeUnAgua() throws ModelException {
+        String enTurno = partida.getIdJugadorEnTurno();
+        partida.iniciarTemporizador();
+
+        // Agua: el turno pasa al otro jugador y el vencimiento de Ana ya no cuenta
+        partida.procesarDisparo(enTurno, new CoordenadaDTO(9, 9));
+        String siguiente = partida.getIdJugadorEnTurno();
+        assertNotEquals(enTurno, siguiente);
+
+        entregarUltimoVencimiento();
+
+        assertEquals(siguiente, partida.getIdJugadorEnTurno());
+        assertTrue(timeouts.isEmpty(), "Se avisó un timeout de un turno que ya terminó");
+    }
+
+    @Test
+    void vencimientoAtrasadoNoCambiaElTurnoDespuesDeUnImpacto() throws ModelException {
+        String enTurno = partida.getIdJugadorEnTurno();
+        partida.iniciarTemporizador();
+
+        // Impacto: el jugador conserva el turno hasta que el manejador reinicie el timer
+        partida.procesarDisparo(enTurno, new CoordenadaDTO(0, 0));
+        assertEquals(enTurno, partida.getIdJugadorEnTurno());
+
+        entregarUltimoVencimiento();
+
+        assertEquals(enTurno, partida.getIdJugadorEnTurno());
+        assertTrue(timeouts.isEmpty(), "Se avisó un timeout de un turno que ya terminó");
+    }
+
+    private void entregarUltimoVencimiento() {
+        vencimientos.get(vencimientos.size() - 1).run();
+    }
+
+    private static List<Nave> crearFlota() throws ModelException {
+        List<Nave> naves = new ArrayList<>();
+        for (int[] nave : FLOTA) {
+            Coordenada[] coordenadas = new Coordenada[nave[2]];
+            for (int i = 0; i < nave[2]; i++) {
+                coordenadas[i] = new Coordenada(nave[1], nave[0] + i);
+            }
+            TipoNave tipo = switch (nave[2]) {
+                case 4 -> TipoNave.PORTAAVIONES;
+                case 3 -> TipoNave.CRUCERO;
+                case 2 -> TipoNave.SUBMARINO;
+                default -> TipoNave.BARCO;
+            };
+            naves.add(new Nave(tipo, OrientacionNave.HORIZONTAL, coordenadas));
+        }
+        return naves;
+    }
+}
@@ -0,0 +1,295 @@
+package mx.itson.models;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import mx.itson.exceptions.ModelException;
+import mx.itson.utils.enums.EstadoCasilla;
+import mx.itson.utils.enums.OrientacionNave;
+import mx.itson.utils.enums.TipoNave;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Paridad entre TableroNavesServidor y TableroNavesBits
+ * Las dos implementaciones reciben las mismas flotas y los mismos disparos
+ * (al azar, con semilla fija) y, después de cada paso, deben responder lo
+ * mismo: resultado del disparo, estado de cada casilla, nave en cada
+ * coordenada y naves hundidas. Los errores también deben coincidir.
+ *
+ * @author Leonardo Flores Leyva
+ * ID: 00000252390
+ * @author Yuri Germán García López
+ * ID: 00000252583
+ * @author Alejandra García Preciado
+ * ID: 00000252444
+ * @author Jesús Ernesto López Ibarra
+ * ID: 00000252663
+ * @author Daniel Miramontes Iribe
+ * ID: 00000252801
+ */
+class TableroNavesParidadTest {
+
+    private static final int TAMANIO = 10;
+    private static final int PARTIDAS = 300;
+
+    /** Flota completa: tipo y longitud de cada nave */
+    private static final TipoNave[] FLOTA = {
+        TipoNave.PORTAAVIONES, TipoNave.PORTAAVIONES,
+        TipoNave.CRUCERO, TipoNave.CRUCERO,
+        TipoNave.SUBMARINO, TipoNave.SUBMARINO, TipoNave.SUBMARINO, TipoNave.SUBMARINO,
+        TipoNave.BARCO, TipoNave.BARCO, TipoNave.BARCO
+    };
+
+    @Test
+    void laFlotaDeLaPruebaEsLaDelTablero() {
+        assertEquals(TableroNavesServidor.totalFlota(), FLOTA.length);
+    }
+
+    @Test
+    void flotasAlAzarQuedanIgualesAlColocarse() throws ModelException {
+        Random azar = new Random(11);
+        for (int partida = 0; partida < PARTIDAS; partida++) {
+            List<Posicion> flota = flotaAlAzar(azar);
+            ITableroNaves objetos = new TableroNavesServidor(TAMANIO);
+            ITableroNaves bits = new TableroNavesBits(TAMANIO);
+
+            assertTrue(objetos.colocarNaves(crearNaves(flota)));
+            assertTrue(bits.colocarNaves(crearNaves(flota)));
+            compararTableros(objetos, bits, "partida " + partida);
+            assertTrue(bits.navesColocadas());
+            assertEquals(objetos.getTotalNaves(), bits.getTotalNaves());
+        }
+    }
+
+    @Test
+    void disparosAlAzarDanLosMismosResultados() throws ModelException {
+        Random azar = new Random(42);
+        for (int partida = 0; partida < PARTIDAS; partida++) {
+            List<Posicion> flota = flotaAlAzar(azar);
+            ITableroNaves objetos = new TableroNavesServidor(TAMANIO);
+            ITableroNaves bits = new TableroNavesBits(TAMANIO);
+            objetos.colocarNaves(crearNaves(flota));
+            bits.colocarNaves(crearNaves(flota));
+
+            // Todas las casillas en orden aleatorio, con disparos repetidos intercalados
+            List<Coordenada> disparos = new ArrayList<>();
+            for (int x = 0; x < TAMANIO; x++) {
+                for (int y = 0; y < TAMANIO; y++) {
+                    disparos.add(new Coordenada(x, y));
+                }
+            }
+            Collections.shuffle(disparos, azar);
+            List<Coordenada> hechos = new ArrayList<>();
+
+            for (int i = 0; i < disparos.size(); i++) {
+                String contexto = "partida " + partida + ", disparo " + i;
+                Coordenada disparo = disparos.get(i);
+                assertEquals(objetos.recibirImpacto(disparo), bits.recibirImpacto(disparo), contexto);
+                hechos.add(disparo);
+
+                if (azar.nextInt(4) == 0) {
+                    Coordenada repetido = hechos.get(azar.nextInt(hechos.size()));
+                    assertThrows(ModelException.class, () -> objetos.recibirImpacto(repetido), contexto);
+                    assertThrows(ModelException.class, () -> bits.recibirImpacto(repetido), contexto);
+                }
+                compararTableros(objetos, bits, contexto);
+            }
+            assertTrue(objetos.todasNavesHundidas());
+            assertTrue(bits.todasNavesHundidas());
+        }
+    }
+
+    @Test
+    void hundirUnaNaveMarcaTodasSusCasillas() throws ModelException {
+        List<Posicion> flota = flotaAlAzar(new Random(7));
+        ITableroNaves objetos = new TableroNavesServidor(TAMANIO);
+        ITableroNaves bits = new TableroNavesBits(TAMANIO);
+        objetos.colocarNaves(crearNaves(flota));
+        bits.colocarNaves(crearNaves(flota));
+
+        for (Posicion posicion : flota) {
+            Coordenada[] coordenadas = posicion.coordenadas();
+            for (int i = 0; i < coordenadas.length; i++) {
+                EstadoCasilla esperado = i == coordenadas.length - 1
+                        ? EstadoCasilla.IMPACTADA_HUNDIDA : EstadoCasilla.IMPACTADA_AVERIADA;
+                assertEquals(esperado, objetos.recibirImpacto(coordenadas[i]));
+                assertEquals(esperado, bits.recibirImpacto(coordenadas[i]));
+            }
+            for (Coordenada coordenada : coordenadas) {
+                assertEquals(EstadoCasilla.IMPACTADA_HUNDIDA, bits.obtenerEstadoCasilla(coordenada.obtenerX(), coordenada.obtenerY()));
+            }
+            compararTableros(objetos, bits, posicion.tipo() + " hundido");
+        }
+        assertEquals(FLOTA.length, bits.getNavesHundidas());
+    }
+
+    @Test
+    void flotasInvalidasSeRechazanSinDejarRastro() throws ModelException {
+        Random azar = new Random(3);
+        for (int partida = 0; partida < PARTIDAS; partida++) {
+            List<Posicion> flota = flotaAlAzar(azar);
+            List<Posicion> invalida = new ArrayList<>(flota);
+            switch (partida % 3) {
+                // Dos naves en la misma casilla
+                case 0 -> invalida.set(FLOTA.length - 1, new Posicion(TipoNave.BARCO, OrientacionNave.HORIZONTAL,
+                        new Coordenada[] {flota.get(0).coordenadas()[0]}));
+                // Una nave de menos
+                case 1 -> invalida.remove(azar.nextInt(invalida.size()));
+                // Una nave de más
+                default -> invalida.add(flota.get(FLOTA.length - 1));
+            }
+
+            ITableroNaves objetos = new TableroNavesServidor(TAMANIO);
+            ITableroNaves bits = new TableroNavesBits(TAMANIO);
+            assertThrows(ModelException.class, () -> objetos.colocarNaves(crearNaves(invalida)));
+            assertThrows(ModelException.class, () -> bits.colocarNaves(crearNaves(invalida)));
+            compararTableros(objetos, bits, "flota inválida " + partida);
+            assertNull(bits.getNaves());
+
+            // Tras el rechazo, la flota válida se coloca igual en ambos
+            assertTrue(objetos.colocarNaves(crearNaves(flota)));
+            assertTrue(bits.colocarNaves(crearNaves(flota)));
+            compararTableros(objetos, bits, "flota válida " + partida);
+        }
+    }
+
+    @Test
+    void añadirYEliminarNavesCoincide() throws ModelException {
+        List<Posicion> flota = flotaAlAzar(new Random(5));
+        ITableroNaves objetos = new TableroNavesServidor(TAMANIO);
+        ITableroNaves bits = new TableroNavesBits(TAMANIO);
+
+        for (Posicion posicion : flota) {
+            assertTrue(objetos.añadirNave(posicion.crear()));
+            assertTrue(bits.añadirNave(posicion.crear()));
+            compararTableros(objetos, bits, "añadir " + posicion.tipo());
+        }
+        for (int i = 0; i < flota.size(); i += 2) {
+            Posicion posicion = flota.get(i);
+            assertTrue(objetos.eliminarNave(posicion.crear()));
+            assertTrue(bits.eliminarNave(posicion.crear()));
+            compararTableros(objetos, bits, "eliminar " + posicion.tipo());
+        }
+        assertThrows(ModelException.class, () -> objetos.añadirNave(flota.get(1).crear()));
+        assertThrows(ModelException.class, () -> bits.añadirNave(flota.get(1).crear()));
+        assertThrows(ModelException.class, () -> objetos.recibirImpacto(null));
+        assertThrows(ModelException.class, () -> bits.recibirImpacto(null));
+    }
+
+    /**
+     * Compara todo lo que el resto del servidor puede observar de los dos tableros
+     */
+    private static void compararTableros(ITableroNaves objetos, ITableroNaves bits, String contexto) {
+        Casilla[][] casillasObjetos = objetos.getCasillas();
+        Casilla[][] casillasBits = bits.getCasillas();
+        for (int x = 0; x < TAMANIO; x++) {
+            for (int y = 0; y < TAMANIO; y++) {
+                String casilla = contexto + ", casilla (" + x + ", " + y + ")";
+                EstadoCasilla estado = objetos.obtenerEstadoCasilla(x, y);
+                assertEquals(estado, bits.obtenerEstadoCasilla(x, y), casilla);
+                assertEquals(estado, casillasObjetos[x][y].obtenerEstado(), casilla);
+                assertEquals(estado, casillasBits[x][y].obtenerEstado(), casilla);
+                assertEquals(describir(objetos.encontrarNaveEnCoordenada(new Coordenada(x, y))),
+                        describir(bits.encontrarNaveEnCoordenada(new Coordenada(x, y))), casilla);
+            }
+        }
+        assertEquals(objetos.getNavesHundidas(), bits.getNavesHundidas(), contexto);
+        assertEquals(objetos.todasNavesHundidas(), bits.todasNavesHundidas(), contexto);
+        assertEquals(objetos.navesColocadas(), bits.navesColocadas(), contexto);
+        assertArrayEquals(describir(objetos.getNaves()), describir(bits.getNaves()), contexto);
+    }
+
+    private static String describir(Nave nave) {
+        if (nave == null) return null;
+        StringBuilder texto = new StringBuilder()
+                .append(nave.getTipo()).append(' ')
+                .append(nave.getEstado()).append(' ')
+                .append(nave.getImpactosRecibidos());
+        for (Coordenada coordenada : nave.obtenerCoordenadas()) {
+            texto.append(" (").append(coordenada.obtenerX()).append(',').append(coordenada.obtenerY()).append(')');
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Las naves de TableroNavesServidor no tienen orden; se comparan ordenadas
+     */
+    private static String[] describir(List<Nave> naves) {
+        if (naves == null) return null;
+        List<String> descripciones = new ArrayList<>();
+        for (Nave nave : naves) {
+            descripciones.add(describir(nave));
+        }
+        Collections.sort(descripciones);
+        return descripciones.toArray(String[]::new);
+    }
+
+    /**
+     * Acomoda la flota completa al azar sin encimar naves
+     */
+    private static List<Posicion> flotaAlAzar(Random azar) {
+        boolean[][] ocupadas = new boolean[TAMANIO][TAMANIO];
+        List<Posicion> flota = new ArrayList<>();
+        for (TipoNave tipo : FLOTA) {
+            int longitud = longitud(tipo);
+            while (true) {
+                boolean horizontal = azar.nextBoolean();
+                int x = azar.nextInt(horizontal ? TAMANIO : TAMANIO - longitud + 1);
+                int y = azar.nextInt(horizontal ? TAMANIO - longitud + 1 : TAMANIO);
+                Coordenada[] coordenadas = new Coordenada[longitud];
+                boolean libre = true;
+                for (int i = 0; i < longitud && libre; i++) {
+                    coordenadas[i] = horizontal ? new Coordenada(x, y + i) : new Coordenada(x + i, y);
+                    libre = !ocupadas[coordenadas[i].obtenerX()][coordenadas[i].obtenerY()];
+                }
+                if (!libre) continue;
+                for (Coordenada coordenada : coordenadas) {
+                    ocupadas[coordenada.obtenerX()][coordenada.obtenerY()] = true;
+                }
+                flota.add(new Posicion(tipo, horizontal ? OrientacionNave.HORIZONTAL : OrientacionNave.VERICAL, coordenadas));
+                break;
+            }
+        }
+        return flota;
+    }
+
+    private static int longitud(TipoNave tipo) {
+        return switch (tipo) {
+            case PORTAAVIONES -> 4;
+            case CRUCERO -> 3;
+            case SUBMARINO -> 2;
+            case BARCO -> 1;
+        };
+    }
+
+    /**
+     * Cada tablero recibe sus propias naves: los impactos cambian el estado de la nave
+     */
+    private static List<Nave> crearNaves(List<Posicion> flota) throws ModelException {
+        List<Nave> naves = new ArrayList<>();
+        for (Posicion posicion : flota) {
+            naves.add(posicion.crear());
+        }
+        return naves;
+    }
+
+    /**
+     * Lugar de una nave en una flota generada
+     */
+    private record Posicion(TipoNave tipo, OrientacionNave orientacion, Coordenada[] coordenadas) {
+        Nave crear() throws ModelException {
+            Coordenada[] copia = new Coordenada[coordenadas.length];
+            for (int i = 0; i < coordenadas.length; i++) {
+                copia[i] = new Coordenada(coordenadas[i].obtenerX(), coordenadas[i].obtenerY());
+            }
+            return new Nave(tipo, orientacion, copia);
+        }
+    }
+}
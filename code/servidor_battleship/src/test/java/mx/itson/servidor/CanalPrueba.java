@@ -0,0 +1,58 @@
+package mx.itson.servidor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.enums.TipoMensaje;
+
+/**
+ * Canal de cliente en memoria para las pruebas
+ * Guarda lo que el servidor le envía en lugar de escribirlo en un socket.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class CanalPrueba implements ICanalCliente {
+
+    private final Queue<MensajeDTO> recibidos = new ConcurrentLinkedQueue<>();
+    private volatile boolean cerrado;
+
+    @Override
+    public void enviar(MensajeDTO mensaje) {
+        recibidos.offer(mensaje);
+    }
+
+    @Override
+    public void cerrar() {
+        cerrado = true;
+    }
+
+    @Override
+    public String getDireccionRemota() {
+        return "prueba";
+    }
+
+    /**
+     * @return true si el servidor cerró el canal
+     */
+    boolean isCerrado() {
+        return cerrado;
+    }
+
+    /**
+     * @param tipo Tipo de mensaje
+     * @return Mensajes recibidos de ese tipo, en orden de llegada
+     */
+    List<MensajeDTO> recibidos(TipoMensaje tipo) {
+        List<MensajeDTO> deTipo = new ArrayList<>();
+        for (MensajeDTO mensaje : recibidos) {
+            if (mensaje.getTipo() == tipo) deTipo.add(mensaje);
+        }
+        return deTipo;
+    }
+}
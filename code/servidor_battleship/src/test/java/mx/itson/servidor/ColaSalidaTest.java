@@ -0,0 +1,97 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import mx.itson.utils.dtos.DeltaTablerosDTO;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Desborde de la cola de salida de un cliente lento
+ * Con DESCARTAR_OBSOLETOS una cola llena debe hacer lugar quitando la
+ * actualización más antigua que ya tiene otra más nueva detrás, sin perder
+ * el orden de lo demás; los mensajes que no se reemplazan nunca se quitan.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class ColaSalidaTest {
+
+    @Test
+    void unDeltaNuevoReemplazaAlAnteriorConLaColaLlena() {
+        ColaSalida cola = new ColaSalida(3, ColaSalida.PoliticaDesborde.DESCARTAR_OBSOLETOS);
+        assertTrue(cola.encolar(delta(0, 1)));
+        assertTrue(cola.encolar(mensaje(TipoMensaje.RESULTADO_DISPARO)));
+        assertTrue(cola.encolar(mensaje(TipoMensaje.TURNO_INICIADO)));
+
+        assertTrue(cola.encolar(delta(0, 2)), "El cliente lento debió conservar la conexión");
+
+        assertEquals(List.of("RESULTADO_DISPARO", "TURNO_INICIADO", "DELTA_TABLEROS 0-2"), vaciar(cola));
+        assertEquals(1, cola.getDescartados());
+    }
+
+    @Test
+    void unDeltaConOtroDetrasHaceLugarParaCualquierMensaje() {
+        ColaSalida cola = new ColaSalida(3, ColaSalida.PoliticaDesborde.DESCARTAR_OBSOLETOS);
+        assertTrue(cola.encolar(delta(0, 1)));
+        assertTrue(cola.encolar(mensaje(TipoMensaje.RESULTADO_DISPARO)));
+        assertTrue(cola.encolar(delta(0, 2)));
+
+        assertTrue(cola.encolar(mensaje(TipoMensaje.TURNO_INICIADO)));
+
+        assertEquals(List.of("RESULTADO_DISPARO", "DELTA_TABLEROS 0-2", "TURNO_INICIADO"), vaciar(cola));
+    }
+
+    @Test
+    void sinActualizacionesObsoletasLaColaLlenaSeDesborda() {
+        ColaSalida cola = new ColaSalida(2, ColaSalida.PoliticaDesborde.DESCARTAR_OBSOLETOS);
+        assertTrue(cola.encolar(mensaje(TipoMensaje.LISTA_JUGADORES)));
+        assertTrue(cola.encolar(mensaje(TipoMensaje.LISTA_JUGADORES)));
+
+        // Cada página de jugadores es de una consulta distinta; ninguna reemplaza a otra
+        assertFalse(cola.encolar(mensaje(TipoMensaje.LISTA_JUGADORES)));
+        assertEquals(0, cola.getDescartados());
+    }
+
+    @Test
+    void conDesconectarNoSeDescartaNada() {
+        ColaSalida cola = new ColaSalida(1, ColaSalida.PoliticaDesborde.DESCONECTAR);
+        assertTrue(cola.encolar(delta(0, 1)));
+
+        assertFalse(cola.encolar(delta(0, 2)));
+        assertEquals(List.of("DELTA_TABLEROS 0-1"), vaciar(cola));
+    }
+
+    private static MensajeDTO mensaje(TipoMensaje tipo) {
+        return new MensajeDTO(tipo, tipo.name());
+    }
+
+    private static MensajeDTO delta(int versionBase, int version) {
+        return new MensajeDTO(TipoMensaje.DELTA_TABLEROS, "Cambios en tableros",
+                new DeltaTablerosDTO(versionBase, version, new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * Saca todo lo pendiente en orden, con la versión de los deltas para distinguirlos
+     */
+    private static List<String> vaciar(ColaSalida cola) {
+        List<String> orden = new ArrayList<>();
+        MensajeDTO mensaje;
+        while ((mensaje = cola.sacar()) != null) {
+            String texto = mensaje.getTipo().name();
+            if (mensaje.getDatos() instanceof DeltaTablerosDTO delta) {
+                texto += " " + delta.getVersionBase() + "-" + delta.getVersion();
+            }
+            orden.add(texto);
+        }
+        return orden;
+    }
+}
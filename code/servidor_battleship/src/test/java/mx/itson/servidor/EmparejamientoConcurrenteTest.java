@@ -0,0 +1,224 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.models.IJugador;
+import mx.itson.models.IPartida;
+import mx.itson.servidor.LimitadorMensajes.ClaseMensaje;
+import mx.itson.servidor.LimitadorMensajes.Presupuesto;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.subsistema_gestor_partidas.ReferenciaPartida;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.dtos.RegistroJugadorDTO;
+import mx.itson.utils.dtos.SesionDTO;
+import mx.itson.utils.dtos.SolicitudPartidaDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de concurrencia del apartado de jugadores
+ * Cada jugador tiene su propio hilo, como en el servidor: todos se invitan,
+ * luego aceptan invitaciones y entran a la cola de emparejamiento al mismo
+ * tiempo mientras el emparejador hace sus rondas. Pase lo que pase, ningún
+ * jugador puede terminar en dos partidas ni quedar apartado sin partida.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class EmparejamientoConcurrenteTest {
+
+    private static final int JUGADORES = 200;
+    private static final int INVITACIONES_POR_JUGADOR = 3;
+    private static final long INTERVALO_RONDAS_MS = 5;
+    private static final long ESPERA_MAXIMA_MS = 10_000;
+
+    private GestorJugadores gestorJugadores;
+    private IGestorPartidas gestorPartidas;
+    private Emparejador emparejador;
+    private LimitadorMensajes limitador;
+
+    @BeforeEach
+    void preparar() {
+        gestorJugadores = new GestorJugadores();
+        gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
+        emparejador = new Emparejador(gestorJugadores, gestorPartidas, INTERVALO_RONDAS_MS);
+        gestorJugadores.setEmparejador(emparejador);
+
+        // La prueba manda ráfagas que un cliente real no manda; el límite no debe estorbar
+        Map<ClaseMensaje, Presupuesto> sinLimite = new EnumMap<>(ClaseMensaje.class);
+        for (ClaseMensaje clase : ClaseMensaje.values()) {
+            sinLimite.put(clase, new Presupuesto(1_000_000, 1_000_000));
+        }
+        limitador = new LimitadorMensajes(sinLimite, LimitadorMensajes.Politica.DESCARTAR);
+    }
+
+    @AfterEach
+    void detener() {
+        emparejador.detener();
+        gestorJugadores.detener();
+    }
+
+    @RepeatedTest(5)
+    void ningunJugadorQuedaEnDosPartidas() throws Exception {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < JUGADORES; i++) {
+            clientes.add(registrar("Jugador" + i));
+        }
+        emparejador.iniciar();
+
+        CyclicBarrier salida = new CyclicBarrier(JUGADORES);
+        ExecutorService hilos = Executors.newFixedThreadPool(JUGADORES);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (Cliente cliente : clientes) {
+                tareas.add(hilos.submit(() -> {
+                    jugar(cliente, clientes, salida);
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        esperarRondas(clientes);
+        emparejador.detener();
+
+        Map<String, String> partidaDe = new HashMap<>();
+        for (String idPartida : gestorPartidas.obtenerIdsPartidas()) {
+            IPartida partida = gestorPartidas.obtenerPartidaModelo(idPartida);
+            for (IJugador jugador : List.of(partida.getJugador1(), partida.getJugador2())) {
+                String otra = partidaDe.put(jugador.getId(), idPartida);
+                assertNull(otra, jugador.getNombre() + " está en " + otra + " y en " + idPartida);
+            }
+        }
+        assertFalse(partidaDe.isEmpty(), "No se creó ninguna partida");
+
+        for (Cliente cliente : clientes) {
+            String idPartida = partidaDe.get(cliente.id);
+            int iniciadas = cliente.canal.recibidos(TipoMensaje.PARTIDA_INICIADA).size();
+            if (idPartida != null) {
+                ReferenciaPartida referencia = gestorPartidas.obtenerReferenciaDeJugador(cliente.id);
+                assertNotNull(referencia, cliente.nombre + " no apunta a su partida");
+                assertEquals(idPartida, referencia.idPartida());
+                assertFalse(gestorJugadores.estaLibre(cliente.id), cliente.nombre + " juega pero sigue libre");
+                assertEquals(1, iniciadas, cliente.nombre + " recibió " + iniciadas + " PARTIDA_INICIADA");
+            } else {
+                // Una reserva que no llegó a partida debe devolver al jugador al lobby
+                assertTrue(gestorJugadores.estaLibre(cliente.id), cliente.nombre + " quedó apartado sin partida");
+                assertEquals(0, iniciadas, cliente.nombre + " recibió PARTIDA_INICIADA sin partida");
+            }
+        }
+    }
+
+    @Test
+    void reservarParejaRechazaJugadorSuspendido() {
+        Cliente ana = registrar("Ana");
+        Cliente beto = registrar("Beto");
+
+        assertTrue(gestorJugadores.suspenderJugador(ana.id, ana.manejador) >= 0);
+        assertFalse(gestorJugadores.reservarPareja(ana.id, beto.id));
+        assertFalse(gestorJugadores.reservarPareja(beto.id, ana.id));
+        assertTrue(gestorJugadores.estaLibre(beto.id), "La reserva fallida dejó apartado al otro jugador");
+
+        String token = ((SesionDTO) ana.canal.recibidos(TipoMensaje.REGISTRO_EXITOSO).get(0).getDatos()).getToken();
+        assertNotNull(gestorJugadores.reanudarSesion(ana.id, token, ana.manejador));
+        assertTrue(gestorJugadores.reservarPareja(ana.id, beto.id));
+    }
+
+    /**
+     * Lo que hace cada jugador en su hilo: invita, espera a los demás y
+     * luego busca partida y acepta invitaciones a la vez que el resto
+     */
+    private void jugar(Cliente cliente, List<Cliente> clientes, CyclicBarrier salida) throws Exception {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        for (int i = 0; i < INVITACIONES_POR_JUGADOR; i++) {
+            Cliente invitado = clientes.get(azar.nextInt(clientes.size()));
+            if (invitado == cliente) continue;
+            cliente.enviar(TipoMensaje.SOLICITAR_PARTIDA, new SolicitudPartidaDTO(
+                    cliente.id, cliente.nombre, invitado.id, invitado.nombre));
+        }
+        salida.await(30, TimeUnit.SECONDS);
+
+        if (azar.nextBoolean()) {
+            cliente.enviar(TipoMensaje.BUSCAR_PARTIDA, azar.nextInt(3) * 50);
+        }
+        for (int i = 0; i < INVITACIONES_POR_JUGADOR; i++) {
+            cliente.enviar(TipoMensaje.ACEPTAR_PARTIDA, null);
+            Thread.yield();
+        }
+        if (azar.nextBoolean()) {
+            cliente.enviar(TipoMensaje.BUSCAR_PARTIDA, azar.nextInt(3) * 50);
+        }
+    }
+
+    /**
+     * Espera a que el emparejador deje de crear partidas: a lo más queda un
+     * jugador en la cola y el número de partidas ya no cambia
+     */
+    private void esperarRondas(List<Cliente> clientes) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (System.currentTimeMillis() < limite) {
+            int partidas = gestorPartidas.cantidadPartidas();
+            Thread.sleep(20 * INTERVALO_RONDAS_MS);
+            long buscando = clientes.stream().filter(c -> emparejador.estaBuscando(c.id)).count();
+            if (buscando <= 1 && gestorPartidas.cantidadPartidas() == partidas) return;
+        }
+    }
+
+    private Cliente registrar(String nombre) {
+        CanalPrueba canal = new CanalPrueba();
+        ManejadorCliente manejador = new ManejadorCliente(canal, gestorJugadores, gestorPartidas, limitador);
+        manejador.recibirMensaje(new MensajeDTO(TipoMensaje.REGISTRO_JUGADOR, "Registro",
+                new RegistroJugadorDTO(nombre, Color.BLUE)));
+        List<MensajeDTO> exitos = canal.recibidos(TipoMensaje.REGISTRO_EXITOSO);
+        assertEquals(1, exitos.size(), "No se registró " + nombre);
+        String id = ((SesionDTO) exitos.get(0).getDatos()).getJugador().getId();
+        return new Cliente(id, nombre, canal, manejador);
+    }
+
+    /**
+     * Jugador conectado por un canal en memoria
+     */
+    private static final class Cliente {
+        private final String id;
+        private final String nombre;
+        private final CanalPrueba canal;
+        private final ManejadorCliente manejador;
+
+        private Cliente(String id, String nombre, CanalPrueba canal, ManejadorCliente manejador) {
+            this.id = id;
+            this.nombre = nombre;
+            this.canal = canal;
+            this.manejador = manejador;
+        }
+
+        private void enviar(TipoMensaje tipo, Object datos) {
+            manejador.recibirMensaje(new MensajeDTO(tipo, tipo.name(), datos));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.servidor.LimitadorMensajes.ClaseMensaje;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.utils.dtos.ConsultaJugadoresDTO;
+import mx.itson.utils.dtos.JugadorDTO;
+import mx.itson.utils.dtos.ListaJugadoresDTO;
+import mx.itson.utils.dtos.MensajeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Carga sobre GestorJugadores con miles de jugadores
+ * La primera prueba siempre corre: registra 10 000 jugadores desde varios
+ * hilos, cada nombre dos veces con distinta capitalización, y revisa que
+ * cada nombre quede reservado una sola vez y que la lista, las páginas y
+ * las marcas de partida cuadren. La segunda mide registro, lista y marcas
+ * por segundo; es lenta, así que solo corre si se pide:
+ *
+ * mvn test -Dtest=GestorJugadoresCargaTest -Dbenchmark=true
+ *
+ * Los resultados quedan en target/surefire-reports, en la salida de esta
+ * clase, con la etiqueta [CARGA]. Mientras se mide, la bitácora del
+ * servidor se descarta para no medir la consola.
+ *
+ * Referencia en 1 procesador con JDK 21, ya con el reparto del lobby fuera
+ * del candado del publicador (antes, marcar+liberar con 50 000 jugadores y
+ * 8 hilos daba 623/s porque cada cambio esperaba el reparto completo):
+ *
+ * jugadores hilos  registro/s  lista completa/s  página(50)/s  marcar+liberar/s
+ *     10000     1       36779               632            16510             14985
+ *     10000     8       95628               753            85633             29235
+ *     50000     1       63206                29            65729             46645
+ *     50000     8       71235                52            40417             50951
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class GestorJugadoresCargaTest {
+
+    private static final int JUGADORES = 10_000;
+    private static final int HILOS = 8;
+    private static final int TAMANIO_PAGINA = 50;
+
+    private final List<GestorJugadores> gestores = new ArrayList<>();
+    private IGestorPartidas gestorPartidas;
+    private LimitadorMensajes limitador;
+    private PrintStream consola;
+
+    @BeforeEach
+    void preparar() {
+        gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
+        limitador = new LimitadorMensajes(new EnumMap<>(ClaseMensaje.class), LimitadorMensajes.Politica.DESCARTAR);
+        consola = System.out;
+    }
+
+    @AfterEach
+    void detener() {
+        System.setOut(consola);
+        gestores.forEach(GestorJugadores::detener);
+    }
+
+    @Test
+    void registroListaYMarcasCuadranCon10MilJugadores() throws Exception {
+        GestorJugadores gestor = crearGestor();
+        ManejadorCliente manejador = crearManejador(gestor);
+        List<JugadorDTO> jugadores = crearJugadores(JUGADORES);
+        silenciar();
+
+        // Cada nombre llega dos veces desde hilos distintos; solo una puede ganar
+        AtomicInteger registrados = new AtomicInteger();
+        List<JugadorDTO> repetidos = new ArrayList<>();
+        for (JugadorDTO jugador : jugadores) {
+            repetidos.add(new JugadorDTO(UUID.randomUUID().toString(), jugador.getNombre().toUpperCase(Locale.ROOT), Color.RED));
+        }
+        List<JugadorDTO> intentos = new ArrayList<>(jugadores);
+        intentos.addAll(repetidos);
+        Collections.shuffle(intentos);
+        enParalelo(intentos, jugador -> {
+            if (gestor.registrarJugador(jugador, manejador)) registrados.incrementAndGet();
+        });
+
+        assertEquals(JUGADORES, registrados.get());
+        assertEquals(JUGADORES, gestor.cantidadJugadores());
+        List<JugadorDTO> disponibles = gestor.obtenerJugadoresDisponibles();
+        assertEquals(JUGADORES, disponibles.size());
+        Set<String> nombres = new HashSet<>();
+        for (JugadorDTO jugador : disponibles) {
+            assertTrue(nombres.add(jugador.getNombre().toLowerCase(Locale.ROOT)), "Nombre repetido: " + jugador.getNombre());
+        }
+        // Las páginas las recorre un jugador registrado, que no se ve a sí mismo
+        String suscriptor = disponibles.get(JUGADORES - 1).getId();
+        assertEquals(JUGADORES - 1, recorrerPaginas(gestor, suscriptor));
+
+        // La mitad entra a partida a la vez; la lista y las páginas pierden exactamente a esos
+        List<JugadorDTO> mitad = disponibles.subList(0, JUGADORES / 2);
+        AtomicInteger marcados = new AtomicInteger();
+        enParalelo(mitad, jugador -> {
+            if (gestor.marcarEnPartida(jugador.getId())) marcados.incrementAndGet();
+        });
+        assertEquals(JUGADORES / 2, marcados.get());
+        assertEquals(JUGADORES - JUGADORES / 2, gestor.obtenerJugadoresDisponibles().size());
+        assertEquals(JUGADORES - JUGADORES / 2 - 1, recorrerPaginas(gestor, suscriptor));
+        for (JugadorDTO jugador : mitad) {
+            assertFalse(gestor.marcarEnPartida(jugador.getId()));
+        }
+
+        enParalelo(mitad, jugador -> gestor.liberarJugador(jugador.getId()));
+        assertEquals(JUGADORES, gestor.obtenerJugadoresDisponibles().size());
+        assertEquals(JUGADORES - 1, recorrerPaginas(gestor, suscriptor));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void rendimientoDeRegistroListaYMarcas() throws Exception {
+        List<String> filas = new ArrayList<>();
+        for (int cantidad : new int[] {10_000, 50_000}) {
+            for (int hilos : new int[] {1, HILOS}) {
+                // La primera vuelta calienta el JIT y no se reporta
+                medir(cantidad, hilos);
+                filas.add(medir(cantidad, hilos));
+            }
+        }
+        System.setOut(consola);
+        System.out.println("[CARGA] " + Runtime.getRuntime().availableProcessors() + " procesadores, " + Runtime.version());
+        System.out.println("[CARGA] jugadores hilos  registro/s  lista completa/s  página(" + TAMANIO_PAGINA + ")/s  marcar+liberar/s");
+        filas.forEach(fila -> System.out.println("[CARGA] " + fila));
+    }
+
+    /**
+     * Mide las cuatro operaciones sobre un gestor nuevo
+     * @return Fila de resultados
+     */
+    private String medir(int cantidad, int hilos) throws Exception {
+        GestorJugadores gestor = crearGestor();
+        ManejadorCliente manejador = crearManejador(gestor);
+        List<JugadorDTO> jugadores = crearJugadores(cantidad);
+        silenciar();
+
+        long inicio = System.nanoTime();
+        enParalelo(jugadores, hilos, jugador -> gestor.registrarJugador(jugador, manejador));
+        double registro = porSegundo(cantidad, inicio);
+
+        int listas = Math.max(20, 2_000_000 / cantidad);
+        inicio = System.nanoTime();
+        enParalelo(Collections.nCopies(listas, jugadores.get(0)), hilos, jugador -> gestor.obtenerJugadoresDisponibles());
+        double lista = porSegundo(listas, inicio);
+
+        inicio = System.nanoTime();
+        enParalelo(jugadores, hilos, jugador -> gestor.obtenerInstantanea(jugador.getId(),
+                new ConsultaJugadoresDTO(jugador.getNombre().substring(0, 8), null, TAMANIO_PAGINA)));
+        double pagina = porSegundo(cantidad, inicio);
+
+        inicio = System.nanoTime();
+        enParalelo(jugadores, hilos, jugador -> {
+            gestor.marcarEnPartida(jugador.getId());
+            gestor.liberarJugador(jugador.getId());
+        });
+        double marcas = porSegundo(cantidad, inicio);
+
+        gestor.detener();
+        System.setOut(consola);
+        return String.format(Locale.ROOT, "%9d %5d %11.0f %17.0f %16.0f %17.0f", cantidad, hilos, registro, lista, pagina, marcas);
+    }
+
+    private GestorJugadores crearGestor() {
+        GestorJugadores gestor = new GestorJugadores();
+        gestores.add(gestor);
+        return gestor;
+    }
+
+    /**
+     * Todos los jugadores de un gestor comparten un manejador cuyo canal tira lo que recibe
+     */
+    private ManejadorCliente crearManejador(GestorJugadores gestor) {
+        return new ManejadorCliente(new CanalDescarte(), gestor, gestorPartidas, limitador);
+    }
+
+    /**
+     * Nombres con un prefijo común por cada cien jugadores, para que las páginas filtradas tengan contenido
+     */
+    private static List<JugadorDTO> crearJugadores(int cantidad) {
+        List<JugadorDTO> jugadores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            jugadores.add(new JugadorDTO(UUID.randomUUID().toString(), String.format("Jugador%07d", i), Color.BLUE));
+        }
+        return jugadores;
+    }
+
+    /**
+     * Recorre el lobby página por página como lo haría un cliente
+     * El cursor solo continúa la vista de un suscriptor registrado
+     * @return Jugadores vistos en total
+     */
+    private static int recorrerPaginas(GestorJugadores gestor, String idSuscriptor) {
+        int vistos = 0;
+        String cursor = null;
+        do {
+            ListaJugadoresDTO pagina = gestor.obtenerInstantanea(idSuscriptor,
+                    new ConsultaJugadoresDTO(null, cursor, GestorJugadores.TAMANIO_PAGINA_MAXIMO));
+            vistos += pagina.getJugadores().size();
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return vistos;
+    }
+
+    private static double porSegundo(int operaciones, long inicioNanos) {
+        return operaciones * 1e9 / (System.nanoTime() - inicioNanos);
+    }
+
+    private static void enParalelo(List<JugadorDTO> jugadores, Operacion operacion) throws Exception {
+        enParalelo(jugadores, HILOS, operacion);
+    }
+
+    /**
+     * Reparte los jugadores entre los hilos y espera a que todos terminen
+     */
+    private static void enParalelo(List<JugadorDTO> jugadores, int hilos, Operacion operacion) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            int porHilo = (jugadores.size() + hilos - 1) / hilos;
+            for (int desde = 0; desde < jugadores.size(); desde += porHilo) {
+                List<JugadorDTO> parte = jugadores.subList(desde, Math.min(jugadores.size(), desde + porHilo));
+                tareas.add(ejecutor.submit(() -> {
+                    for (JugadorDTO jugador : parte) operacion.aplicar(jugador);
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * El servidor escribe una línea por registro y por cambio de estado; se descarta mientras se mide
+     */
+    private static void silenciar() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @FunctionalInterface
+    private interface Operacion {
+        void aplicar(JugadorDTO jugador);
+    }
+
+    /**
+     * Canal que acepta y descarta todo lo que se le envía
+     */
+    private static final class CanalDescarte implements ICanalCliente {
+        @Override
+        public void enviar(MensajeDTO mensaje) {}
+
+        @Override
+        public void cerrar() {}
+
+        @Override
+        public String getDireccionRemota() {
+            return "carga";
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import mx.itson.servidor.LimitadorMensajes.ClaseMensaje;
+import mx.itson.servidor.LimitadorMensajes.Presupuesto;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cubetas de fichas del límite de mensajes
+ * Una conexión admite su ráfaga, luego rechaza hasta que la cubeta se
+ * recarga al ritmo configurado, y agotar una clase no frena a las demás.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class LimitadorMensajesTest {
+
+    private static final int POR_SEGUNDO = 10;
+    private static final int RAFAGA = 3;
+
+    @Test
+    void admiteLaRafagaYLuegoRechaza() {
+        LimitadorMensajes.Cubetas cubetas = crearLimitador().crearCubetas();
+        for (int i = 0; i < RAFAGA; i++) {
+            assertTrue(cubetas.admitir(TipoMensaje.ENVIAR_DISPARO), "Disparo " + i + " dentro de la ráfaga");
+        }
+        assertFalse(cubetas.admitir(TipoMensaje.ENVIAR_DISPARO));
+    }
+
+    @Test
+    void seRecargaAlRitmoConfigurado() throws InterruptedException {
+        LimitadorMensajes.Cubetas cubetas = crearLimitador().crearCubetas();
+        while (cubetas.admitir(TipoMensaje.ENVIAR_DISPARO)) {
+            // Vaciar la cubeta
+        }
+
+        // A 10 por segundo, en 250 ms vuelven dos fichas; nunca más que la ráfaga
+        Thread.sleep(250);
+        int admitidos = 0;
+        while (cubetas.admitir(TipoMensaje.ENVIAR_DISPARO)) {
+            admitidos++;
+        }
+        assertTrue(admitidos >= 2 && admitidos <= RAFAGA, "Admitidos después de recargar: " + admitidos);
+    }
+
+    @Test
+    void agotarLosDisparosNoFrenaLosAvisosDeLaPartida() {
+        LimitadorMensajes limitador = crearLimitador();
+        LimitadorMensajes.Cubetas cubetas = limitador.crearCubetas();
+        while (cubetas.admitir(TipoMensaje.ENVIAR_DISPARO)) {
+            // Agotar la clase PARTIDA
+        }
+
+        assertTrue(cubetas.admitir(TipoMensaje.VISTA_LISTA));
+        assertTrue(cubetas.admitir(TipoMensaje.ABANDONAR_PARTIDA));
+        assertTrue(cubetas.admitir(TipoMensaje.SOLICITAR_JUGADORES));
+        assertEquals(ClaseMensaje.PARTIDA, ClaseMensaje.de(TipoMensaje.ENVIAR_DISPARO));
+    }
+
+    @Test
+    void pongYDesconexionNoSeLimitan() {
+        LimitadorMensajes.Cubetas cubetas = crearLimitador().crearCubetas();
+        for (int i = 0; i < RAFAGA * 10; i++) {
+            assertTrue(cubetas.admitir(TipoMensaje.PONG));
+            assertTrue(cubetas.admitir(TipoMensaje.DESCONEXION));
+        }
+    }
+
+    private static LimitadorMensajes crearLimitador() {
+        Map<ClaseMensaje, Presupuesto> presupuestos = new EnumMap<>(ClaseMensaje.class);
+        for (ClaseMensaje clase : ClaseMensaje.values()) {
+            presupuestos.put(clase, new Presupuesto(POR_SEGUNDO, RAFAGA));
+        }
+        return new LimitadorMensajes(presupuestos, LimitadorMensajes.Politica.DESCARTAR);
+    }
+}
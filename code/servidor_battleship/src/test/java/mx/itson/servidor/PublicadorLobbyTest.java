@@ -0,0 +1,127 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.servidor.LimitadorMensajes.ClaseMensaje;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.utils.dtos.CambioLobbyDTO;
+import mx.itson.utils.dtos.ListaJugadoresDTO;
+import mx.itson.utils.dtos.LoteLobbyDTO;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.dtos.RegistroJugadorDTO;
+import mx.itson.utils.dtos.SesionDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lotes del lobby que recibe un suscriptor
+ * Cada lote debe partir de la versión que el suscriptor ya tiene (su última
+ * página o su último lote) para que el cliente lo pueda encadenar.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class PublicadorLobbyTest {
+
+    private static final long VENTANA_MS = 20;
+    private static final long ESPERA_MS = 2_000;
+
+    private GestorJugadores gestorJugadores;
+    private IGestorPartidas gestorPartidas;
+    private LimitadorMensajes limitador;
+
+    @BeforeEach
+    void preparar() {
+        gestorJugadores = new GestorJugadores(VENTANA_MS);
+        gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
+        limitador = new LimitadorMensajes(new EnumMap<>(ClaseMensaje.class), LimitadorMensajes.Politica.DESCARTAR);
+    }
+
+    @AfterEach
+    void detener() {
+        gestorJugadores.detener();
+    }
+
+    @Test
+    void cadaLoteEncadenaConLaVersionDelSuscriptor() throws InterruptedException {
+        CanalPrueba ana = registrar("Ana");
+        long versionLista = ultimaLista(ana).getVersion();
+
+        registrar("Beto");
+        LoteLobbyDTO primero = esperarLote(ana, 1);
+        assertEquals(versionLista, primero.getVersionBase());
+        assertEquals(List.of("Beto"), nombres(primero));
+
+        registrar("Carla");
+        LoteLobbyDTO segundo = esperarLote(ana, 2);
+        assertEquals(primero.getVersion(), segundo.getVersionBase());
+        assertEquals(List.of("Carla"), nombres(segundo));
+    }
+
+    @Test
+    void unaPaginaNuevaReiniciaLaCadena() throws InterruptedException {
+        CanalPrueba ana = registrar("Ana");
+        ManejadorCliente manejadorAna = gestorJugadores.obtenerManejador(idDe(ana));
+        registrar("Beto");
+        esperarLote(ana, 1);
+
+        manejadorAna.enviarListaJugadores();
+        long versionLista = ultimaLista(ana).getVersion();
+
+        registrar("Carla");
+        LoteLobbyDTO lote = esperarLote(ana, 2);
+        assertEquals(versionLista, lote.getVersionBase());
+        assertEquals(List.of("Carla"), nombres(lote));
+    }
+
+    private CanalPrueba registrar(String nombre) {
+        CanalPrueba canal = new CanalPrueba();
+        ManejadorCliente manejador = new ManejadorCliente(canal, gestorJugadores, gestorPartidas, limitador);
+        manejador.recibirMensaje(new MensajeDTO(TipoMensaje.REGISTRO_JUGADOR, "Registro",
+                new RegistroJugadorDTO(nombre, Color.BLUE)));
+        assertEquals(1, canal.recibidos(TipoMensaje.REGISTRO_EXITOSO).size(), "No se registró " + nombre);
+        return canal;
+    }
+
+    private static String idDe(CanalPrueba canal) {
+        MensajeDTO exito = canal.recibidos(TipoMensaje.REGISTRO_EXITOSO).get(0);
+        return ((SesionDTO) exito.getDatos()).getJugador().getId();
+    }
+
+    private static ListaJugadoresDTO ultimaLista(CanalPrueba canal) {
+        List<MensajeDTO> listas = canal.recibidos(TipoMensaje.LISTA_JUGADORES);
+        return (ListaJugadoresDTO) listas.get(listas.size() - 1).getDatos();
+    }
+
+    /**
+     * Espera a que el canal tenga cierta cantidad de lotes y devuelve el último
+     */
+    private static LoteLobbyDTO esperarLote(CanalPrueba canal, int cantidad) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        List<MensajeDTO> lotes = canal.recibidos(TipoMensaje.CAMBIOS_LOBBY);
+        while (lotes.size() < cantidad && System.currentTimeMillis() < limite) {
+            Thread.sleep(VENTANA_MS);
+            lotes = canal.recibidos(TipoMensaje.CAMBIOS_LOBBY);
+        }
+        assertEquals(cantidad, lotes.size(), "Lotes recibidos");
+        return (LoteLobbyDTO) lotes.get(cantidad - 1).getDatos();
+    }
+
+    private static List<String> nombres(LoteLobbyDTO lote) {
+        List<String> nombres = new ArrayList<>();
+        for (CambioLobbyDTO cambio : lote.getCambios()) {
+            nombres.add(cambio.getJugador().getNombre());
+        }
+        return nombres;
+    }
+}
@@ -0,0 +1,174 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.util.EnumMap;
+import java.util.List;
+import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.servidor.LimitadorMensajes.ClaseMensaje;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.dtos.RegistroJugadorDTO;
+import mx.itson.utils.dtos.SesionDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reanudación de sesiones tras perder la conexión
+ * Dentro de la gracia el jugador recupera su lugar con un manejador nuevo y
+ * un token nuevo; una suspensión vencida o un token ya canjeado se rechazan,
+ * y una conexión anterior que seguía abierta queda relevada.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class ReanudacionSesionTest {
+
+    private static final long VENTANA_MS = 20;
+    private static final long TTL_INVITACION_MS = 60_000;
+    private static final long GRACIA_MS = 60_000; // No vence durante la prueba
+
+    private GestorJugadores gestorJugadores;
+    private IGestorPartidas gestorPartidas;
+    private LimitadorMensajes limitador;
+
+    @BeforeEach
+    void preparar() {
+        gestorJugadores = new GestorJugadores(VENTANA_MS, TTL_INVITACION_MS, GRACIA_MS);
+        gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
+        limitador = new LimitadorMensajes(new EnumMap<>(ClaseMensaje.class), LimitadorMensajes.Politica.DESCARTAR);
+    }
+
+    @AfterEach
+    void detener() {
+        gestorJugadores.detener();
+    }
+
+    @Test
+    void reanudarDentroDeLaGraciaDevuelveElLugar() {
+        Cliente ana = registrar("Ana");
+        registrar("Beto");
+
+        // Sin DESCONEXION el servidor lo toma como conexión perdida
+        ana.manejador.desconectar();
+        assertFalse(gestorJugadores.estaDisponible(ana.id), "Un jugador suspendido no debe verse en el lobby");
+        assertTrue(ana.canal.isCerrado());
+
+        Cliente nuevo = conectar();
+        nuevo.enviar(TipoMensaje.REANUDAR_SESION, ana.token);
+
+        SesionDTO sesion = sesionReanudada(nuevo);
+        assertEquals(ana.id, sesion.getJugador().getId());
+        assertFalse(sesion.tienePartida());
+        assertSame(nuevo.manejador, gestorJugadores.obtenerManejador(ana.id));
+        assertTrue(gestorJugadores.estaDisponible(ana.id), "Al reanudar debe volver al lobby");
+        assertFalse(nuevo.canal.recibidos(TipoMensaje.LISTA_JUGADORES).isEmpty());
+    }
+
+    @Test
+    void cadaReanudacionCanjeaElToken() {
+        Cliente ana = registrar("Ana");
+        ana.manejador.desconectar();
+
+        Cliente segunda = conectar();
+        segunda.enviar(TipoMensaje.REANUDAR_SESION, ana.token);
+        String tokenNuevo = sesionReanudada(segunda).getToken();
+        assertNotNull(tokenNuevo);
+        assertNotEquals(ana.token, tokenNuevo);
+
+        // El token anterior ya no sirve, ni siquiera con la conexión caída otra vez
+        segunda.manejador.desconectar();
+        Cliente conTokenViejo = conectar();
+        conTokenViejo.enviar(TipoMensaje.REANUDAR_SESION, ana.token);
+        assertEquals(1, conTokenViejo.canal.recibidos(TipoMensaje.SESION_EXPIRADA).size());
+
+        Cliente conTokenNuevo = conectar();
+        conTokenNuevo.enviar(TipoMensaje.REANUDAR_SESION, tokenNuevo);
+        assertNotEquals(tokenNuevo, sesionReanudada(conTokenNuevo).getToken());
+    }
+
+    @Test
+    void reanudarTrasVencerLaSuspensionSeRechaza() {
+        Cliente ana = registrar("Ana");
+
+        long generacion = gestorJugadores.suspenderJugador(ana.id, ana.manejador);
+        assertTrue(generacion >= 0);
+        assertTrue(gestorJugadores.expirarSuspension(ana.id, generacion));
+
+        Cliente nuevo = conectar();
+        nuevo.enviar(TipoMensaje.REANUDAR_SESION, ana.token);
+        assertEquals(1, nuevo.canal.recibidos(TipoMensaje.SESION_EXPIRADA).size());
+        assertTrue(nuevo.canal.recibidos(TipoMensaje.SESION_REANUDADA).isEmpty());
+        assertFalse(gestorJugadores.estaDisponible(ana.id));
+    }
+
+    @Test
+    void reanudarConLaConexionAnteriorAbiertaLaReleva() {
+        Cliente ana = registrar("Ana");
+
+        // La conexión anterior se cayó sin que el servidor lo notara
+        Cliente nuevo = conectar();
+        nuevo.enviar(TipoMensaje.REANUDAR_SESION, ana.token);
+        sesionReanudada(nuevo);
+
+        assertTrue(ana.canal.isCerrado(), "La conexión anterior debió relevarse");
+        assertSame(nuevo.manejador, gestorJugadores.obtenerManejador(ana.id));
+
+        // Cuando el transporte anterior termina, ya no toca al jugador
+        ana.manejador.desconectar();
+        assertSame(nuevo.manejador, gestorJugadores.obtenerManejador(ana.id));
+        assertTrue(gestorJugadores.estaDisponible(ana.id));
+    }
+
+    private Cliente conectar() {
+        CanalPrueba canal = new CanalPrueba();
+        return new Cliente(canal, new ManejadorCliente(canal, gestorJugadores, gestorPartidas, limitador));
+    }
+
+    private Cliente registrar(String nombre) {
+        Cliente cliente = conectar();
+        cliente.enviar(TipoMensaje.REGISTRO_JUGADOR, new RegistroJugadorDTO(nombre, Color.BLUE));
+        List<MensajeDTO> exitos = cliente.canal.recibidos(TipoMensaje.REGISTRO_EXITOSO);
+        assertEquals(1, exitos.size(), "No se registró " + nombre);
+        SesionDTO sesion = (SesionDTO) exitos.get(0).getDatos();
+        cliente.id = sesion.getJugador().getId();
+        cliente.token = sesion.getToken();
+        return cliente;
+    }
+
+    private static SesionDTO sesionReanudada(Cliente cliente) {
+        List<MensajeDTO> reanudadas = cliente.canal.recibidos(TipoMensaje.SESION_REANUDADA);
+        assertEquals(1, reanudadas.size(), "La sesión no se reanudó");
+        return (SesionDTO) reanudadas.get(0).getDatos();
+    }
+
+    /**
+     * Conexión por un canal en memoria, con la sesión que obtuvo al registrarse
+     */
+    private static final class Cliente {
+        private final CanalPrueba canal;
+        private final ManejadorCliente manejador;
+        private String id;
+        private String token;
+
+        private Cliente(CanalPrueba canal, ManejadorCliente manejador) {
+            this.canal = canal;
+            this.manejador = manejador;
+        }
+
+        private void enviar(TipoMensaje tipo, Object datos) {
+            manejador.recibirMensaje(new MensajeDTO(tipo, tipo.name(), datos));
+        }
+    }
+}
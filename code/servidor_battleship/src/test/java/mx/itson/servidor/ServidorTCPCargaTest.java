@@ -0,0 +1,247 @@
+package mx.itson.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.itson.factory.GestorPartidasFactory;
+import mx.itson.subsistema_gestor_partidas.IGestorPartidas;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.dtos.RegistroJugadorDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import mx.itson.utils.protocolo.FormatoMensajes;
+import mx.itson.utils.protocolo.IConexionMensajes;
+import mx.itson.utils.protocolo.NegociacionProtocolo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Carga de conexiones sobre ServidorTCP con threads de plataforma y virtuales
+ * Levanta el servidor en el puerto 5000 una vez por modo y abre conexiones
+ * ociosas (negocian el formato binario y no envían nada más) hasta llegar a
+ * la cantidad pedida. Con esas conexiones abiertas, un grupo de conexiones
+ * activas se registra y sincroniza el reloj en bucle, que es la ida y vuelta
+ * más corta del protocolo. Por cada modo reporta cuántas conexiones quedaron
+ * abiertas, cuánto tardaron en abrirse, los threads de plataforma vivos, el
+ * heap usado, la memoria residente y las idas y vueltas por segundo con su
+ * latencia. Es lenta y abre miles de sockets, así que solo corre si se pide:
+ *
+ * mvn test -Dtest=ServidorTCPCargaTest -Dbenchmark=true [-Dconexiones=8000] [-Dactivas=200] [-Dsegundos=10] [-Dmodo=virtual]
+ *
+ * Sin -Dmodo mide los dos modos en el mismo proceso; la memoria residente
+ * no baja al terminar el primero, así que para compararla conviene correr
+ * cada modo por separado.
+ *
+ * Cliente y servidor comparten el proceso: cada conexión gasta dos
+ * descriptores, así que ulimit -n acota las conexiones a la mitad. Los
+ * latidos se espacian para que el monitor no cierre a las ociosas durante la
+ * medición. Los resultados quedan en target/surefire-reports, en la salida de
+ * esta clase, con la etiqueta [CARGA-TCP].
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class ServidorTCPCargaTest {
+
+    private static final int PUERTO_TCP = 5000;
+    private static final int CONEXIONES = Integer.getInteger("conexiones", 8000);
+    private static final int ACTIVAS = Integer.getInteger("activas", 200);
+    private static final int SEGUNDOS = Integer.getInteger("segundos", 10);
+    private static final String MODO = System.getProperty("modo", "");
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void conexionesOciosasYActivasPorModo() throws Exception {
+        PrintStream consola = System.out;
+        PrintStream errores = System.err;
+        List<String> filas = new ArrayList<>();
+        try {
+            // El servidor escribe una línea por conexión; se descarta mientras se mide
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+            for (boolean virtuales : new boolean[] {false, true}) {
+                String nombre = virtuales ? "virtual" : "plataforma";
+                if (MODO.isEmpty() || MODO.equals(nombre)) filas.add(medir(virtuales));
+            }
+        } finally {
+            System.setOut(consola);
+            System.setErr(errores);
+        }
+        System.out.println("[CARGA-TCP] " + Runtime.getRuntime().availableProcessors() + " procesadores, "
+                + Runtime.version() + ", " + CONEXIONES + " ociosas + " + ACTIVAS + " activas durante " + SEGUNDOS + " s");
+        System.out.println("[CARGA-TCP] modo        abiertas  apertura ms  threads  heap MB  RSS MB  idas y vueltas/s  p50 ms  p99 ms");
+        filas.forEach(fila -> System.out.println("[CARGA-TCP] " + fila));
+    }
+
+    /**
+     * Levanta el servidor en un modo, lo carga y lo detiene
+     * @param virtuales true para --hilos-virtuales=true
+     * @return Fila de resultados
+     */
+    private String medir(boolean virtuales) throws Exception {
+        String modo = virtuales ? "virtual" : "plataforma";
+        ConfiguracionServidor configuracion = ConfiguracionServidor.desdeArgumentos(new String[] {
+                "--hilos-virtuales=" + virtuales,
+                "--latido-ms=600000",
+                "--limite-general=1000000/1000000"});
+        GestorJugadores gestorJugadores = new GestorJugadores();
+        IGestorPartidas gestorPartidas = GestorPartidasFactory.crearGestorPartidas();
+        ServidorTCP servidor = new ServidorTCP(gestorJugadores, gestorPartidas, configuracion);
+        Thread hiloServidor = new Thread(servidor, "Servidor-Carga");
+        hiloServidor.start();
+
+        List<IConexionMensajes> conexiones = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            esperarPuerto();
+
+            // Ociosas: se abren en tandas para no desbordar la cola de aceptación
+            long inicio = System.nanoTime();
+            int abiertas = 0;
+            for (int desde = 0; desde < CONEXIONES; desde += 500) {
+                List<Future<IConexionMensajes>> tanda = new ArrayList<>();
+                for (int i = desde; i < Math.min(CONEXIONES, desde + 500); i++) {
+                    tanda.add(clientes.submit(ServidorTCPCargaTest::conectar));
+                }
+                for (Future<IConexionMensajes> conexion : tanda) {
+                    try {
+                        conexiones.add(conexion.get(30, TimeUnit.SECONDS));
+                        abiertas++;
+                    } catch (Exception e) {
+                        // Se cuenta como no abierta; el límite del modo es justo lo que se mide
+                    }
+                }
+            }
+            long aperturaMs = (System.nanoTime() - inicio) / 1_000_000;
+            Thread.sleep(1000);
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.gc();
+            long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+            String rss = memoriaResidenteMb();
+
+            // Activas: cada una en su thread virtual, registrada y sincronizando el reloj sin pausa
+            AtomicLong idasYVueltas = new AtomicLong();
+            ConcurrentLinkedQueue<long[]> latencias = new ConcurrentLinkedQueue<>();
+            long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(SEGUNDOS);
+            List<Future<?>> activas = new ArrayList<>();
+            for (int i = 0; i < ACTIVAS; i++) {
+                String nombre = (virtuales ? "V" : "P") + i;
+                activas.add(clientes.submit(() -> {
+                    IConexionMensajes conexion = conectar();
+                    conexiones.add(conexion);
+                    enviar(conexion, new MensajeDTO(TipoMensaje.REGISTRO_JUGADOR, "", new RegistroJugadorDTO(nombre, Color.BLUE)));
+                    esperar(conexion, TipoMensaje.REGISTRO_EXITOSO);
+                    long[] propias = new long[1 << 16];
+                    int cuenta = 0;
+                    while (System.nanoTime() < fin) {
+                        long envio = System.nanoTime();
+                        enviar(conexion, new MensajeDTO(TipoMensaje.SINCRONIZAR_RELOJ, ""));
+                        esperar(conexion, TipoMensaje.SINCRONIZAR_RELOJ);
+                        if (cuenta < propias.length) propias[cuenta++] = System.nanoTime() - envio;
+                        idasYVueltas.incrementAndGet();
+                    }
+                    latencias.add(Arrays.copyOf(propias, cuenta));
+                    return null;
+                }));
+            }
+            for (Future<?> activa : activas) {
+                activa.get(SEGUNDOS + 60L, TimeUnit.SECONDS);
+            }
+            long[] todas = latencias.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            assertTrue(todas.length > 0, "Ninguna conexión activa completó una ida y vuelta");
+            assertEquals(CONEXIONES, abiertas, "El modo " + modo + " no abrió todas las ociosas");
+
+            return String.format(Locale.ROOT, "%-11s %8d %12d %8d %8d %7s %17.0f %7.2f %7.2f",
+                    modo, abiertas, aperturaMs, threads, heapMb, rss,
+                    idasYVueltas.get() / (double) SEGUNDOS,
+                    todas[todas.length / 2] / 1e6, todas[(int) (todas.length * 0.99)] / 1e6);
+        } finally {
+            clientes.shutdownNow();
+            clientes.awaitTermination(10, TimeUnit.SECONDS);
+            synchronized (conexiones) {
+                for (IConexionMensajes conexion : conexiones) {
+                    try {
+                        conexion.cerrar();
+                    } catch (IOException e) {
+                        // Ya cerrada
+                    }
+                }
+            }
+            servidor.detener();
+            hiloServidor.join(10_000);
+            gestorJugadores.detener();
+            // Los lectores del servidor terminan al ver cerrados sus sockets
+            Thread.sleep(2000);
+        }
+    }
+
+    private static IConexionMensajes conectar() throws IOException {
+        Socket socket = new Socket("localhost", PUERTO_TCP);
+        return NegociacionProtocolo.negociarCliente(socket.getInputStream(), socket.getOutputStream(), FormatoMensajes.BINARIO);
+    }
+
+    private static void enviar(IConexionMensajes conexion, MensajeDTO mensaje) throws IOException {
+        conexion.enviar(mensaje);
+        conexion.finLote();
+    }
+
+    /**
+     * Lee hasta el mensaje esperado; los cambios del lobby que llegan entre medio se ignoran
+     */
+    private static void esperar(IConexionMensajes conexion, TipoMensaje tipo) throws IOException, ClassNotFoundException {
+        while (conexion.recibir().getTipo() != tipo) {
+            // Siguiente mensaje
+        }
+    }
+
+    /**
+     * Espera a que el servidor acepte conexiones
+     */
+    private static void esperarPuerto() throws InterruptedException {
+        for (int intento = 0; intento < 100; intento++) {
+            try (Socket prueba = new Socket("localhost", PUERTO_TCP)) {
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        throw new IllegalStateException("El servidor no abrió el puerto " + PUERTO_TCP);
+    }
+
+    /**
+     * @return Memoria residente del proceso según /proc, o "-" fuera de Linux
+     */
+    private static String memoriaResidenteMb() {
+        try {
+            for (String linea : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (linea.startsWith("VmRSS:")) {
+                    return String.valueOf(Long.parseLong(linea.replaceAll("\\D", "")) >> 10);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Sin /proc
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,63 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import mx.itson.utils.enums.EstadoCasilla;
+
+/**
+ * CambioCasillaDTO - Nuevo estado de una casilla dentro de un DeltaTablerosDTO
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CambioCasillaDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String idJugador; // Dueño del tablero
+    private int x;
+    private int y;
+    private EstadoCasilla estado;
+
+    /**
+     * Constructor vacío
+     */
+    public CambioCasillaDTO() {}
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param idJugador Dueño del tablero
+     * @param x
+     * @param y
+     * @param estado Estado de la casilla en la versión del delta
+     */
+    public CambioCasillaDTO(String idJugador, int x, int y, EstadoCasilla estado) {
+        this.idJugador = idJugador;
+        this.x = x;
+        this.y = y;
+        this.estado = estado;
+    }
+
+    // Getters y Setters
+    public String getIdJugador() {return idJugador;}
+
+    public void setIdJugador(String idJugador) {this.idJugador = idJugador;}
+
+    public int getX() {return x;}
+
+    public void setX(int x) {this.x = x;}
+
+    public int getY() {return y;}
+
+    public void setY(int y) {this.y = y;}
+
+    public EstadoCasilla getEstado() {return estado;}
+
+    public void setEstado(EstadoCasilla estado) {this.estado = estado;}
+
+    @Override
+    public String toString() {return "(" + x + ", " + y + ")=" + estado;}
+}
@@ -0,0 +1,63 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import mx.itson.utils.enums.TipoMensaje;
+
+/**
+ * CambioLobbyDTO - Cambio de presencia de un jugador en el lobby
+ *
+ * El tipo (JUGADOR_ENTRA, JUGADOR_SALE o JUGADOR_OCUPADO) indica qué le pasó
+ * al jugador. Los cambios viajan agrupados en un LoteLobbyDTO; la versión es
+ * la del último cambio de ese jugador dentro de la ventana.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CambioLobbyDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private TipoMensaje tipo;
+    private long version;
+    private JugadorDTO jugador;
+
+    /**
+     * Constructor vacío
+     */
+    public CambioLobbyDTO() {
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param tipo JUGADOR_ENTRA, JUGADOR_SALE o JUGADOR_OCUPADO
+     * @param version Versión del lobby después de este cambio
+     * @param jugador Jugador que entró, salió o quedó ocupado
+     */
+    public CambioLobbyDTO(TipoMensaje tipo, long version, JugadorDTO jugador) {
+        this.tipo = tipo;
+        this.version = version;
+        this.jugador = jugador;
+    }
+
+    // Getters y Setters
+    public TipoMensaje getTipo() {return tipo;}
+
+    public void setTipo(TipoMensaje tipo) {this.tipo = tipo;}
+
+    public long getVersion() {return version;}
+
+    public void setVersion(long version) {this.version = version;}
+
+    public JugadorDTO getJugador() {return jugador;}
+
+    public void setJugador(JugadorDTO jugador) {this.jugador = jugador;}
+
+    @Override
+    public String toString() {
+        return "CambioLobbyDTO{" + tipo + ", version=" + version + ", jugador=" + (jugador != null ? jugador.getNombre() : null) + "}";
+    }
+}
@@ -0,0 +1,72 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import mx.itson.utils.enums.EstadoNave;
+
+/**
+ * CambioNaveDTO - Nuevo estado de una nave dentro de un DeltaTablerosDTO
+ *
+ * En el tablero propio la nave se identifica por su posición en la lista de
+ * naves, que no cambia durante la partida. En el tablero del oponente solo
+ * llegan naves hundidas y el cambio trae la nave completa para agregarla.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CambioNaveDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String idJugador; // Dueño del tablero
+    private int indice;
+    private EstadoNave estado;
+    private int impactosRecibidos;
+    private NaveDTO nave; // Solo cuando el cambio revela la nave al oponente
+
+    /**
+     * Constructor vacío
+     */
+    public CambioNaveDTO() {}
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param idJugador Dueño del tablero
+     * @param indice Posición de la nave en TableroDTO.getNaves()
+     * @param estado
+     * @param impactosRecibidos
+     */
+    public CambioNaveDTO(String idJugador, int indice, EstadoNave estado, int impactosRecibidos) {
+        this.idJugador = idJugador;
+        this.indice = indice;
+        this.estado = estado;
+        this.impactosRecibidos = impactosRecibidos;
+    }
+
+    // Getters y Setters
+    public String getIdJugador() {return idJugador;}
+
+    public void setIdJugador(String idJugador) {this.idJugador = idJugador;}
+
+    public int getIndice() {return indice;}
+
+    public void setIndice(int indice) {this.indice = indice;}
+
+    public EstadoNave getEstado() {return estado;}
+
+    public void setEstado(EstadoNave estado) {this.estado = estado;}
+
+    public int getImpactosRecibidos() {return impactosRecibidos;}
+
+    public void setImpactosRecibidos(int impactosRecibidos) {this.impactosRecibidos = impactosRecibidos;}
+
+    public NaveDTO getNave() {return nave;}
+
+    public void setNave(NaveDTO nave) {this.nave = nave;}
+
+    @Override
+    public String toString() {return "nave[" + indice + "]=" + estado + " (" + impactosRecibidos + ")";}
+}
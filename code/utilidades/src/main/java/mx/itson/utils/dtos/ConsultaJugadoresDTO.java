@@ -0,0 +1,66 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+
+/**
+ * ConsultaJugadoresDTO - Página del lobby que pide el cliente con SOLICITAR_JUGADORES
+ *
+ * Sin cursor se pide la primera página, que reinicia la versión del lobby del
+ * cliente. Con cursor se pide la continuación: los jugadores cuyo nombre
+ * normalizado va después del cursor, con el mismo prefijo.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ConsultaJugadoresDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Tamaño de página cuando el cliente no pide otro */
+    public static final int TAMANIO_PAGINA_POR_DEFECTO = 50;
+
+    private String prefijo;
+    private String cursor;
+    private int tamanioPagina;
+
+    /**
+     * Constructor vacío
+     */
+    public ConsultaJugadoresDTO() {
+        this.tamanioPagina = TAMANIO_PAGINA_POR_DEFECTO;
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param prefijo Prefijo del nombre a buscar, o null para todos
+     * @param cursor Cursor que devolvió la página anterior, o null para la primera
+     * @param tamanioPagina Máximo de jugadores en la página
+     */
+    public ConsultaJugadoresDTO(String prefijo, String cursor, int tamanioPagina) {
+        this.prefijo = prefijo;
+        this.cursor = cursor;
+        this.tamanioPagina = tamanioPagina;
+    }
+
+    // Getters y Setters
+    public String getPrefijo() {return prefijo;}
+
+    public void setPrefijo(String prefijo) {this.prefijo = prefijo;}
+
+    public String getCursor() {return cursor;}
+
+    public void setCursor(String cursor) {this.cursor = cursor;}
+
+    public int getTamanioPagina() {return tamanioPagina;}
+
+    public void setTamanioPagina(int tamanioPagina) {this.tamanioPagina = tamanioPagina;}
+
+    @Override
+    public String toString() {
+        return "ConsultaJugadoresDTO{prefijo=" + prefijo + ", cursor=" + cursor + ", tamanio=" + tamanioPagina + "}";
+    }
+}
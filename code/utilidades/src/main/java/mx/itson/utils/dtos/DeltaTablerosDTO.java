@@ -0,0 +1,75 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DeltaTablerosDTO - Cambios en los tableros de una partida entre dos versiones
+ *
+ * Contiene el estado final de cada casilla y nave que cambió desde versionBase
+ * hasta version. Se puede aplicar sobre cualquier copia local cuya versión esté
+ * entre ambas; si la copia local es anterior a versionBase hay que pedir los
+ * tableros completos.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class DeltaTablerosDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int versionBase;
+    private int version;
+    private List<CambioCasillaDTO> casillas;
+    private List<CambioNaveDTO> naves;
+
+    /**
+     * Constructor vacío
+     */
+    public DeltaTablerosDTO() {
+        this.casillas = new ArrayList<>();
+        this.naves = new ArrayList<>();
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param versionBase Versión confirmada por el cliente
+     * @param version Versión que resulta de aplicar los cambios
+     * @param casillas Casillas que cambiaron
+     * @param naves Naves que cambiaron
+     */
+    public DeltaTablerosDTO(int versionBase, int version, List<CambioCasillaDTO> casillas, List<CambioNaveDTO> naves) {
+        this.versionBase = versionBase;
+        this.version = version;
+        this.casillas = casillas;
+        this.naves = naves;
+    }
+
+    // Getters y Setters
+    public int getVersionBase() {return versionBase;}
+
+    public void setVersionBase(int versionBase) {this.versionBase = versionBase;}
+
+    public int getVersion() {return version;}
+
+    public void setVersion(int version) {this.version = version;}
+
+    public List<CambioCasillaDTO> getCasillas() {return casillas;}
+
+    public void setCasillas(List<CambioCasillaDTO> casillas) {this.casillas = casillas;}
+
+    public List<CambioNaveDTO> getNaves() {return naves;}
+
+    public void setNaves(List<CambioNaveDTO> naves) {this.naves = naves;}
+
+    @Override
+    public String toString() {
+        return "DeltaTablerosDTO{v" + versionBase + "->v" + version
+                + ", casillas=" + casillas.size() + ", naves=" + naves.size() + '}';
+    }
+}
@@ -0,0 +1,84 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ListaJugadoresDTO - Página del lobby, enviada con LISTA_JUGADORES
+ *
+ * La versión es la del último cambio de presencia que ya está incluido en la
+ * lista. Los lotes CAMBIOS_LOBBY que siguen parten de ella. Una página de
+ * continuación se agrega a lo que el cliente ya tiene sin cambiar su versión;
+ * el siguiente cursor es null cuando ya no hay más jugadores que mostrar.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ListaJugadoresDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long version;
+    private List<JugadorDTO> jugadores;
+    private String siguienteCursor;
+    private boolean continuacion;
+
+    /**
+     * Constructor vacío
+     */
+    public ListaJugadoresDTO() {
+        this.jugadores = new ArrayList<>();
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param version Versión del lobby que refleja la lista
+     * @param jugadores Jugadores disponibles
+     */
+    public ListaJugadoresDTO(long version, List<JugadorDTO> jugadores) {
+        this(version, jugadores, null, false);
+    }
+
+    /**
+     * Constructor para una página del lobby
+     *
+     * @param version Versión del lobby que refleja la lista
+     * @param jugadores Jugadores disponibles de la página
+     * @param siguienteCursor Cursor para pedir la página siguiente, o null si es la última
+     * @param continuacion true si continúa una página anterior en lugar de reemplazar la lista
+     */
+    public ListaJugadoresDTO(long version, List<JugadorDTO> jugadores, String siguienteCursor, boolean continuacion) {
+        this.version = version;
+        this.jugadores = jugadores;
+        this.siguienteCursor = siguienteCursor;
+        this.continuacion = continuacion;
+    }
+
+    // Getters y Setters
+    public long getVersion() {return version;}
+
+    public void setVersion(long version) {this.version = version;}
+
+    public List<JugadorDTO> getJugadores() {return jugadores;}
+
+    public void setJugadores(List<JugadorDTO> jugadores) {this.jugadores = jugadores;}
+
+    public String getSiguienteCursor() {return siguienteCursor;}
+
+    public void setSiguienteCursor(String siguienteCursor) {this.siguienteCursor = siguienteCursor;}
+
+    public boolean isContinuacion() {return continuacion;}
+
+    public void setContinuacion(boolean continuacion) {this.continuacion = continuacion;}
+
+    @Override
+    public String toString() {
+        return "ListaJugadoresDTO{version=" + version + ", jugadores=" + (jugadores != null ? jugadores.size() : 0)
+                + (continuacion ? ", continuacion" : "") + ", siguiente=" + siguienteCursor + "}";
+    }
+}
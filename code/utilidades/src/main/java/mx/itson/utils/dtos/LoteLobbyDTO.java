@@ -0,0 +1,65 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LoteLobbyDTO - Cambios de presencia acumulados en una ventana, enviado con CAMBIOS_LOBBY
+ *
+ * Contiene el último cambio de cada jugador que cambió entre versionBase y
+ * version. El cliente lo aplica si ya conoce versionBase; si su versión es
+ * menor, le faltan cambios y debe pedir la lista completa.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class LoteLobbyDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long versionBase;
+    private long version;
+    private List<CambioLobbyDTO> cambios;
+
+    /**
+     * Constructor vacío
+     */
+    public LoteLobbyDTO() {
+        this.cambios = new ArrayList<>();
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param versionBase Versión que el cliente debe tener para aplicar el lote
+     * @param version Versión del lobby después de aplicarlo
+     * @param cambios Último cambio de cada jugador en la ventana
+     */
+    public LoteLobbyDTO(long versionBase, long version, List<CambioLobbyDTO> cambios) {
+        this.versionBase = versionBase;
+        this.version = version;
+        this.cambios = cambios;
+    }
+
+    // Getters y Setters
+    public long getVersionBase() {return versionBase;}
+
+    public void setVersionBase(long versionBase) {this.versionBase = versionBase;}
+
+    public long getVersion() {return version;}
+
+    public void setVersion(long version) {this.version = version;}
+
+    public List<CambioLobbyDTO> getCambios() {return cambios;}
+
+    public void setCambios(List<CambioLobbyDTO> cambios) {this.cambios = cambios;}
+
+    @Override
+    public String toString() {
+        return "LoteLobbyDTO{" + versionBase + "->" + version + ", cambios=" + (cambios != null ? cambios.size() : 0) + "}";
+    }
+}
@@ -165,5 +165,27 @@ public class PartidaDTO {
         }
         return null;
     }
+
+    /**
+     * Copia superficial con otro tiempo restante
+     * Jugadores y tableros se comparten, así que una instantánea en caché
+     * se puede entregar con el reloj al día sin volver a mapear la partida
+     * @param tiempoRestante Segundos que le quedan al turno
+     * @return Nueva instancia que comparte todo lo demás con esta
+     */
+    public PartidaDTO copiarConTiempo(int tiempoRestante) {
+        PartidaDTO copia = new PartidaDTO();
+        copia.idPartida = this.idPartida;
+        copia.jugador1 = this.jugador1;
+        copia.jugador2 = this.jugador2;
+        copia.tableroJugador1 = this.tableroJugador1;
+        copia.tableroJugador2 = this.tableroJugador2;
+        copia.ambosJugadoresListos = this.ambosJugadoresListos;
+        copia.idJugadorEnTurno = this.idJugadorEnTurno;
+        copia.estadoPartida = this.estadoPartida;
+        copia.idGanador = this.idGanador;
+        copia.tiempoRestante = tiempoRestante;
+        return copia;
+    }
     
 }
\ No newline at end of file
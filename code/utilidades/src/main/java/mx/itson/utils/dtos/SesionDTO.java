@@ -0,0 +1,102 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SesionDTO - Sesión reanudable del jugador, enviada con REGISTRO_EXITOSO y SESION_REANUDADA
+ *
+ * Al registrarse solo lleva el jugador, el token y la gracia. Al reanudar
+ * lleva además, si el jugador sigue en partida, una sola instantánea de lo
+ * que necesita para continuar: ambos tableros (el del oponente con niebla de
+ * guerra), el oponente y el turno con su límite absoluto. El turno es null
+ * mientras la partida no ha empezado, y los tableros van sin naves propias
+ * si el jugador aún no las colocaba.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class SesionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private JugadorDTO jugador;
+    private String token;
+    private long graciaMs;
+    private String idPartida;
+    private JugadorDTO oponente;
+    private List<TableroDTO> tableros;
+    private TurnoDTO turno;
+
+    /**
+     * Constructor vacío
+     */
+    public SesionDTO() {
+        this.tableros = new ArrayList<>();
+    }
+
+    /**
+     * Constructor de una sesión sin partida
+     *
+     * @param jugador Jugador dueño de la sesión
+     * @param token Token con el que el cliente reanuda la sesión
+     * @param graciaMs Milisegundos que el servidor guarda el lugar del jugador tras perder la conexión
+     */
+    public SesionDTO(JugadorDTO jugador, String token, long graciaMs) {
+        this();
+        this.jugador = jugador;
+        this.token = token;
+        this.graciaMs = graciaMs;
+    }
+
+    /**
+     * Agrega a la sesión el estado de la partida en curso
+     *
+     * @param idPartida ID de la partida
+     * @param oponente Rival del jugador
+     * @param tableros Tablero propio completo y el del oponente con niebla de guerra
+     * @param turno Turno en curso con su límite, o null si aún no empieza
+     */
+    public void setPartida(String idPartida, JugadorDTO oponente, List<TableroDTO> tableros, TurnoDTO turno) {
+        this.idPartida = idPartida;
+        this.oponente = oponente;
+        this.tableros = tableros;
+        this.turno = turno;
+    }
+
+    /**
+     * @return true si la sesión trae el estado de una partida
+     */
+    public boolean tienePartida() {return idPartida != null;}
+
+    // Getters y Setters
+    public JugadorDTO getJugador() {return jugador;}
+
+    public void setJugador(JugadorDTO jugador) {this.jugador = jugador;}
+
+    public String getToken() {return token;}
+
+    public void setToken(String token) {this.token = token;}
+
+    public long getGraciaMs() {return graciaMs;}
+
+    public void setGraciaMs(long graciaMs) {this.graciaMs = graciaMs;}
+
+    public String getIdPartida() {return idPartida;}
+
+    public JugadorDTO getOponente() {return oponente;}
+
+    public List<TableroDTO> getTableros() {return tableros;}
+
+    public TurnoDTO getTurno() {return turno;}
+
+    @Override
+    public String toString() {
+        return "SesionDTO{" + (jugador != null ? jugador.getNombre() : null)
+                + (tienePartida() ? ", partida=" + idPartida + ", turno=" + turno : ", sin partida") + "}";
+    }
+}
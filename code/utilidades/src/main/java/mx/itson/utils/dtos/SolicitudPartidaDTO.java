@@ -21,6 +21,7 @@ public class SolicitudPartidaDTO implements Serializable {
     private String idInvitado;
     private String nombreInvitado;
     private long timestamp;
+    private long expira; // Instante en que vence, en milisegundos del reloj del servidor; 0 si no vence
 
     /**
      * Constructor por defecto
@@ -85,6 +86,14 @@ public class SolicitudPartidaDTO implements Serializable {
         this.timestamp = timestamp;
     }
 
+    public long getExpira() {
+        return expira;
+    }
+
+    public void setExpira(long expira) {
+        this.expira = expira;
+    }
+
     @Override
     public String toString() {
         return "SolicitudPartidaDTO{" +
@@ -26,6 +26,7 @@ public class TableroDTO implements Serializable {
     private List<NaveDTO> naves;
     private int navesHundidas;
     private int totalNaves;
+    private int version; // Versión de los tableros de la partida cuando se tomó este estado
 
     /**
      * Constructor vacío
@@ -107,6 +108,14 @@ public class TableroDTO implements Serializable {
         this.totalNaves = totalNaves;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Verifica si todas las naves están hundidas
      *
@@ -116,6 +125,25 @@ public class TableroDTO implements Serializable {
         return navesHundidas >= totalNaves && totalNaves > 0;
     }
 
+    /**
+     * Crea una copia superficial con otra versión
+     * Casillas y naves se comparten; sirve para publicar un tablero que
+     * pertenece a una instantánea compartida sin modificarlo
+     * @param version Versión de la copia
+     * @return Nueva instancia con los mismos datos y la versión indicada
+     */
+    public TableroDTO copiarConVersion(int version) {
+        TableroDTO copia = new TableroDTO();
+        copia.idJugador = this.idJugador;
+        copia.nombreJugador = this.nombreJugador;
+        copia.casillas = this.casillas;
+        copia.naves = this.naves;
+        copia.navesHundidas = this.navesHundidas;
+        copia.totalNaves = this.totalNaves;
+        copia.version = version;
+        return copia;
+    }
+
     /**
      * Crea una copia profunda del tablero
      * @return Nueva instancia de TableroDTO con los mismos datos
@@ -126,6 +154,7 @@ public class TableroDTO implements Serializable {
         copia.nombreJugador = this.nombreJugador;
         copia.navesHundidas = this.navesHundidas;
         copia.totalNaves = this.totalNaves;
+        copia.version = this.version;
 
         // Copiar naves
         if (this.naves != null) {
@@ -0,0 +1,63 @@
+package mx.itson.utils.dtos;
+
+import java.io.Serializable;
+
+/**
+ * TurnoDTO - Inicio de un turno, enviado con TURNO_INICIADO y CAMBIO_TURNO
+ *
+ * El límite es un instante absoluto en el reloj del servidor (milisegundos de
+ * época). El cliente lo convierte a su propio reloj con el desfase que midió
+ * al conectarse y lleva la cuenta regresiva localmente.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class TurnoDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private JugadorDTO jugadorEnTurno;
+    private long limiteTurno;
+    private int duracionSegundos;
+
+    /**
+     * Constructor vacío
+     */
+    public TurnoDTO() {
+    }
+
+    /**
+     * Constructor con parámetros
+     *
+     * @param jugadorEnTurno Jugador que tiene el turno
+     * @param limiteTurno Instante en que vence el turno, en milisegundos del reloj del servidor
+     * @param duracionSegundos Duración total del turno
+     */
+    public TurnoDTO(JugadorDTO jugadorEnTurno, long limiteTurno, int duracionSegundos) {
+        this.jugadorEnTurno = jugadorEnTurno;
+        this.limiteTurno = limiteTurno;
+        this.duracionSegundos = duracionSegundos;
+    }
+
+    // Getters y Setters
+    public JugadorDTO getJugadorEnTurno() {return jugadorEnTurno;}
+
+    public void setJugadorEnTurno(JugadorDTO jugadorEnTurno) {this.jugadorEnTurno = jugadorEnTurno;}
+
+    public long getLimiteTurno() {return limiteTurno;}
+
+    public void setLimiteTurno(long limiteTurno) {this.limiteTurno = limiteTurno;}
+
+    public int getDuracionSegundos() {return duracionSegundos;}
+
+    public void setDuracionSegundos(int duracionSegundos) {this.duracionSegundos = duracionSegundos;}
+
+    @Override
+    public String toString() {
+        return "TurnoDTO{" + (jugadorEnTurno != null ? jugadorEnTurno.getNombre() : null)
+                + ", limite=" + limiteTurno + ", duracion=" + duracionSegundos + "s}";
+    }
+}
@@ -6,55 +6,107 @@ package mx.itson.utils.enums;
 
 /**
  * Tipos de mensajes para la comunicación
+ * Cada tipo lleva un código fijo que es el que viaja en el formato binario;
+ * los códigos van por bloques para poder agregar tipos sin mover los demás.
+ * Un tipo nuevo toma un código libre de su bloque y uno retirado no se reutiliza.
  * 
  * @author alejajandra
  */
 public enum TipoMensaje {
     // Registro de jugador
-    REGISTRO_JUGADOR,
-    REGISTRO_EXITOSO,
-    NOMBRE_DUPLICADO,
+    REGISTRO_JUGADOR(1),
+    REGISTRO_EXITOSO(2),
+    NOMBRE_DUPLICADO(3),
+    REANUDAR_SESION(4), // Cliente que perdió la conexión vuelve con su token de sesión en lugar de registrarse
+    SESION_REANUDADA(5), // Servidor devuelve el lugar del jugador y, si está en partida, una instantánea para continuarla
+    SESION_EXPIRADA(6), // Servidor no reconoce el token (la gracia venció); el cliente debe registrarse de nuevo
     
     // Lista de jugadores
-    SOLICITAR_JUGADORES,
-    LISTA_JUGADORES,
-    SIN_JUGADORES_DISPONIBLES,
-    JUGADOR_DISPONIBLE,
+    SOLICITAR_JUGADORES(10),
+    LISTA_JUGADORES(11),
+    SIN_JUGADORES_DISPONIBLES(12),
+    JUGADOR_DISPONIBLE(13),
+    CAMBIOS_LOBBY(14), // Servidor envía los cambios de presencia acumulados en una ventana
+    JUGADOR_ENTRA(15), // Tipo de cambio: un jugador quedó disponible en el lobby
+    JUGADOR_SALE(16), // Tipo de cambio: un jugador se desconectó
+    JUGADOR_OCUPADO(17), // Tipo de cambio: un jugador entró a una partida
     
     // Gestión de partida (invitaciones)
-    SOLICITAR_PARTIDA, // Cliente A envía al servidor para invitar a B
-    INVITACION_RECIBIDA, // Servidor envía a cliente B notificando invitación de A
-    ACEPTAR_PARTIDA, // Cliente B acepta la invitación
-    RECHAZAR_PARTIDA, // Cliente B rechaza la invitación
-    PARTIDA_ACEPTADA, // Servidor notifica a A que B aceptó
-    PARTIDA_RECHAZADA, // Servidor notifica a A que B rechazó
-    PARTIDA_INICIADA, // Servidor notifica a ambos que la partida comienza
-    PARTIDA_CANCELADA, // Servidor notifica que la partida fue cancelada
+    SOLICITAR_PARTIDA(20), // Cliente A envía al servidor para invitar a B
+    INVITACION_RECIBIDA(21), // Servidor envía a cliente B notificando invitación de A
+    ACEPTAR_PARTIDA(22), // Cliente B acepta la invitación
+    RECHAZAR_PARTIDA(23), // Cliente B rechaza la invitación
+    PARTIDA_ACEPTADA(24), // Servidor notifica a A que B aceptó
+    PARTIDA_RECHAZADA(25), // Servidor notifica a A que B rechazó
+    SOLICITUD_EXPIRADA(26), // Servidor notifica a A y B que la invitación venció sin respuesta
+    SOLICITUD_CANCELADA(27), // Servidor retira una invitación porque uno de los dos entró a otra partida o se desconectó
+    PARTIDA_INICIADA(28), // Servidor notifica a ambos que la partida comienza
+    PARTIDA_CANCELADA(29), // Servidor notifica que la partida fue cancelada
+    BUSCAR_PARTIDA(30), // Cliente entra a la cola de emparejamiento; el servidor lo confirma con el mismo tipo
+    CANCELAR_BUSQUEDA(31), // Cliente sale de la cola de emparejamiento; el servidor lo confirma con el mismo tipo
 
     // Configuración de naves
-    COLOCAR_NAVES, // Cliente envía configuración de sus naves
-    NAVES_COLOCADAS, // Servidor confirma que las naves fueron colocadas
-    ESPERANDO_OPONENTE_NAVES, // Servidor notifica que está esperando al oponente
-    AMBOS_LISTOS, // Servidor notifica que ambos jugadores colocaron naves
+    COLOCAR_NAVES(40), // Cliente envía configuración de sus naves
+    NAVES_COLOCADAS(41), // Servidor confirma que las naves fueron colocadas
+    ESPERANDO_OPONENTE_NAVES(42), // Servidor notifica que está esperando al oponente
+    AMBOS_LISTOS(43), // Servidor notifica que ambos jugadores colocaron naves
+    VISTA_LISTA(44), // Cliente confirma que su vista de juego está lista para el primer turno
 
     // Juego (disparos y turnos)
-    TURNO_INICIADO, // Servidor notifica inicio de turno
-    SOLICITAR_DISPARO, // Servidor solicita disparo al jugador en turno
-    ENVIAR_DISPARO, // Cliente envía coordenadas de disparo
-    RESULTADO_DISPARO, // Servidor envía resultado del disparo
-    ACTUALIZAR_TABLEROS, // Servidor envía estado actualizado de tableros
-    CAMBIO_TURNO, // Servidor notifica cambio de turno
-    TURNO_TIMEOUT, // Servidor notifica que se acabó el tiempo del turno
-    ACTUALIZAR_TIEMPO_TURNO, // Servidor envía actualización del tiempo restante del turno
+    TURNO_INICIADO(50), // Servidor notifica inicio de turno
+    SOLICITAR_DISPARO(51), // Servidor solicita disparo al jugador en turno
+    ENVIAR_DISPARO(52), // Cliente envía coordenadas de disparo
+    RESULTADO_DISPARO(53), // Servidor envía resultado del disparo
+    ACTUALIZAR_TABLEROS(54), // Servidor envía estado actualizado de tableros
+    DELTA_TABLEROS(55), // Servidor envía solo los cambios desde la última versión confirmada
+    CONFIRMAR_TABLEROS(56), // Cliente confirma la versión de tableros que ya aplicó
+    SOLICITAR_TABLEROS(57), // Cliente pide los tableros completos (resincronización)
+    CAMBIO_TURNO(58), // Servidor notifica cambio de turno
+    TURNO_TIMEOUT(59), // Servidor notifica que se acabó el tiempo del turno
 
     // Fin de partida
-    PARTIDA_GANADA, // Servidor notifica al ganador
-    PARTIDA_PERDIDA, // Servidor notifica al perdedor
-    PARTIDA_FINALIZADA, // Servidor notifica fin de partida
-    ABANDONAR_PARTIDA, // Cliente notifica que abandona la partida
-    PARTIDA_ABANDONADA, // Servidor notifica que el oponente abandonó
+    PARTIDA_GANADA(70), // Servidor notifica al ganador
+    PARTIDA_PERDIDA(71), // Servidor notifica al perdedor
+    PARTIDA_FINALIZADA(72), // Servidor notifica fin de partida
+    ABANDONAR_PARTIDA(73), // Cliente notifica que abandona la partida
+    PARTIDA_ABANDONADA(74), // Servidor notifica que el oponente abandonó
 
     // General
-    ERROR,
-    DESCONEXION
+    SINCRONIZAR_RELOJ(80), // Cliente pide la hora del servidor al conectarse; el servidor responde con ella
+    PING(81), // Latido: quien lo recibe responde PONG con los mismos datos
+    PONG(82), // Respuesta a un PING
+    ERROR(83),
+    DESCONEXION(84);
+
+    private static final TipoMensaje[] POR_CODIGO = new TipoMensaje[256];
+
+    static {
+        for (TipoMensaje tipo : values()) {
+            if (POR_CODIGO[tipo.codigo] != null) {
+                throw new ExceptionInInitializerError("Código de mensaje repetido: " + tipo.codigo);
+            }
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final int codigo;
+
+    private TipoMensaje(int codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * @return Código del tipo en el protocolo binario; no cambia al reordenar el enum
+     */
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * @param codigo Código leído de un marco
+     * @return Tipo con ese código, o null si ninguno lo usa
+     */
+    public static TipoMensaje desdeCodigo(int codigo) {
+        return codigo >= 0 && codigo < POR_CODIGO.length ? POR_CODIGO[codigo] : null;
+    }
 }
@@ -0,0 +1,672 @@
+package mx.itson.utils.protocolo;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import mx.itson.utils.dtos.*;
+import mx.itson.utils.enums.*;
+
+/**
+ * Codificador binario compacto para MensajeDTO.
+ *
+ * Formato del marco:
+ * [opcode: 1 byte = código de TipoMensaje] [contenido: cadena] [datos: etiqueta + valor]
+ *
+ * Los DTOs del proyecto se escriben campo por campo; TipoMensaje viaja con su
+ * código fijo, los demás enums como su ordinal y los IDs con forma de UUID
+ * como 16 bytes. Un objeto sin codificador propio se envía con serialización
+ * de Java como último recurso, por lo que al agregar un DTO nuevo conviene
+ * agregar también su etiqueta aquí (y, si solo se puede serializar, su
+ * paquete o clase en FILTRO_SERIALIZADO).
+ *
+ * Un marco viene de la red: toda cantidad o longitud leída se compara con
+ * los bytes que quedan antes de reservar memoria para ella.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CodificadorBinario implements ICodificadorMensajes {
+
+    // Etiquetas del campo datos
+    private static final byte NULO = 0;
+    private static final byte CADENA = 1;
+    private static final byte ENTERO = 2;
+    private static final byte LISTA = 3;
+    private static final byte COORDENADA = 4;
+    private static final byte DISPARO = 5;
+    private static final byte TABLERO = 6;
+    private static final byte JUGADOR = 7;
+    private static final byte NAVE = 8;
+    private static final byte SOLICITUD = 9;
+    private static final byte REGISTRO = 10;
+    private static final byte ESTADISTICA = 11;
+    private static final byte DELTA_TABLEROS = 12;
+    private static final byte LARGO = 13;
+    private static final byte TURNO = 14;
+    private static final byte LISTA_JUGADORES = 15;
+    private static final byte CAMBIO_LOBBY = 16;
+    private static final byte LOTE_LOBBY = 17;
+    private static final byte CONSULTA_JUGADORES = 18;
+    private static final byte SESION = 19;
+    private static final byte SERIALIZADO = 127;
+
+    // Formas de un identificador
+    private static final byte ID_NULO = 0;
+    private static final byte ID_UUID = 1;
+    private static final byte ID_TEXTO = 2;
+
+    /**
+     * Clases que se aceptan dentro de la etiqueta SERIALIZADO: los DTOs y
+     * enums del proyecto y lo que ellos contienen (listas, fechas, colores);
+     * cualquier otra clase se rechaza antes de instanciarse
+     */
+    private static final ObjectInputFilter FILTRO_SERIALIZADO = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=10000;maxarray=10000;"
+            + "mx.itson.utils.dtos.*;mx.itson.utils.enums.*;"
+            + "java.lang.Enum;java.lang.Number;java.lang.String;java.lang.Integer;java.lang.Long;"
+            + "java.lang.Double;java.lang.Float;java.lang.Boolean;"
+            + "java.util.ArrayList;java.util.LinkedList;java.util.Arrays$ArrayList;java.util.CollSer;"
+            + "java.util.Collections$*;java.time.*;java.awt.Color;java.awt.color.*;!*");
+
+    private static final EstadoCasilla[] ESTADOS_CASILLA = EstadoCasilla.values();
+    private static final byte SIN_ENUM = -1;
+
+    @Override
+    public byte[] codificar(MensajeDTO mensaje) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream salida = new DataOutputStream(bytes);
+
+        salida.writeByte(mensaje.getTipo().getCodigo());
+        escribirCadena(salida, mensaje.getContenido());
+        escribirDatos(salida, mensaje.getDatos());
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public MensajeDTO decodificar(byte[] datos, int inicio, int longitud) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos, inicio, longitud));
+
+        int opcode = entrada.readUnsignedByte();
+        TipoMensaje tipo = TipoMensaje.desdeCodigo(opcode);
+        if (tipo == null) {
+            throw new IOException("Opcode de mensaje desconocido: " + opcode);
+        }
+        String contenido = leerCadena(entrada);
+        Object valor = leerDatos(entrada);
+        return new MensajeDTO(tipo, contenido, valor);
+    }
+
+    // ---------------------------------------------------------------- datos
+
+    private void escribirDatos(DataOutputStream salida, Object datos) throws IOException {
+        switch (datos) {
+            case null -> salida.writeByte(NULO);
+            case String cadena -> {
+                salida.writeByte(CADENA);
+                escribirCadena(salida, cadena);
+            }
+            case Integer entero -> {
+                salida.writeByte(ENTERO);
+                salida.writeInt(entero);
+            }
+            case Long largo -> {
+                salida.writeByte(LARGO);
+                salida.writeLong(largo);
+            }
+            case List<?> lista -> {
+                salida.writeByte(LISTA);
+                escribirVarInt(salida, lista.size());
+                for (Object elemento : lista) {
+                    escribirDatos(salida, elemento);
+                }
+            }
+            case CoordenadaDTO coordenada -> {
+                salida.writeByte(COORDENADA);
+                escribirCoordenada(salida, coordenada);
+            }
+            case DisparoDTO disparo -> {
+                salida.writeByte(DISPARO);
+                escribirDisparo(salida, disparo);
+            }
+            case TableroDTO tablero -> {
+                salida.writeByte(TABLERO);
+                escribirTablero(salida, tablero);
+            }
+            case JugadorDTO jugador -> {
+                salida.writeByte(JUGADOR);
+                escribirJugador(salida, jugador);
+            }
+            case NaveDTO nave -> {
+                salida.writeByte(NAVE);
+                escribirNave(salida, nave);
+            }
+            case SolicitudPartidaDTO solicitud -> {
+                salida.writeByte(SOLICITUD);
+                escribirId(salida, solicitud.getIdSolicitante());
+                escribirCadena(salida, solicitud.getNombreSolicitante());
+                escribirId(salida, solicitud.getIdInvitado());
+                escribirCadena(salida, solicitud.getNombreInvitado());
+                salida.writeLong(solicitud.getTimestamp());
+                salida.writeLong(solicitud.getExpira());
+            }
+            case RegistroJugadorDTO registro -> {
+                salida.writeByte(REGISTRO);
+                escribirCadena(salida, registro.getNombre());
+                escribirColor(salida, registro.getColor());
+            }
+            case EstadisticaDTO estadistica -> {
+                salida.writeByte(ESTADISTICA);
+                escribirCadena(salida, estadistica.getNombreJugador());
+                salida.writeBoolean(estadistica.isEsGanador());
+                salida.writeInt(estadistica.getTotalDisparos());
+                salida.writeInt(estadistica.getAciertos());
+                salida.writeInt(estadistica.getBarcosHundidos());
+                salida.writeDouble(estadistica.getPorcentajePrecision());
+            }
+            case DeltaTablerosDTO delta -> {
+                salida.writeByte(DELTA_TABLEROS);
+                escribirDelta(salida, delta);
+            }
+            case TurnoDTO turno -> {
+                salida.writeByte(TURNO);
+                escribirTurno(salida, turno);
+            }
+            case ListaJugadoresDTO lista -> {
+                salida.writeByte(LISTA_JUGADORES);
+                salida.writeLong(lista.getVersion());
+                escribirVarInt(salida, lista.getJugadores().size());
+                for (JugadorDTO jugador : lista.getJugadores()) {
+                    escribirJugador(salida, jugador);
+                }
+                escribirCadena(salida, lista.getSiguienteCursor());
+                salida.writeBoolean(lista.isContinuacion());
+            }
+            case ConsultaJugadoresDTO consulta -> {
+                salida.writeByte(CONSULTA_JUGADORES);
+                escribirCadena(salida, consulta.getPrefijo());
+                escribirCadena(salida, consulta.getCursor());
+                escribirVarInt(salida, consulta.getTamanioPagina());
+            }
+            case CambioLobbyDTO cambio -> {
+                salida.writeByte(CAMBIO_LOBBY);
+                escribirCambioLobby(salida, cambio);
+            }
+            case LoteLobbyDTO lote -> {
+                salida.writeByte(LOTE_LOBBY);
+                salida.writeLong(lote.getVersionBase());
+                salida.writeLong(lote.getVersion());
+                escribirVarInt(salida, lote.getCambios().size());
+                for (CambioLobbyDTO cambio : lote.getCambios()) {
+                    escribirCambioLobby(salida, cambio);
+                }
+            }
+            case SesionDTO sesion -> {
+                salida.writeByte(SESION);
+                escribirSesion(salida, sesion);
+            }
+            case Serializable otro -> {
+                salida.writeByte(SERIALIZADO);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objetos = new ObjectOutputStream(bytes)) {
+                    objetos.writeObject(otro);
+                }
+                escribirVarInt(salida, bytes.size());
+                bytes.writeTo(salida);
+            }
+            default -> throw new IOException("Tipo de datos no codificable: " + datos.getClass().getName());
+        }
+    }
+
+    private Object leerDatos(DataInputStream entrada) throws IOException {
+        byte etiqueta = entrada.readByte();
+        switch (etiqueta) {
+            case NULO:
+                return null;
+            case CADENA:
+                return leerCadena(entrada);
+            case ENTERO:
+                return entrada.readInt();
+            case LARGO:
+                return entrada.readLong();
+            case LISTA: {
+                int tamanio = leerCantidad(entrada);
+                List<Object> lista = new ArrayList<>(tamanio);
+                for (int i = 0; i < tamanio; i++) {
+                    lista.add(leerDatos(entrada));
+                }
+                return lista;
+            }
+            case COORDENADA:
+                return leerCoordenada(entrada);
+            case DISPARO:
+                return leerDisparo(entrada);
+            case TABLERO:
+                return leerTablero(entrada);
+            case JUGADOR:
+                return leerJugador(entrada);
+            case NAVE:
+                return leerNave(entrada);
+            case SOLICITUD: {
+                SolicitudPartidaDTO solicitud = new SolicitudPartidaDTO(
+                        leerId(entrada), leerCadena(entrada), leerId(entrada), leerCadena(entrada));
+                solicitud.setTimestamp(entrada.readLong());
+                solicitud.setExpira(entrada.readLong());
+                return solicitud;
+            }
+            case REGISTRO:
+                return new RegistroJugadorDTO(leerCadena(entrada), leerColor(entrada));
+            case ESTADISTICA: {
+                EstadisticaDTO estadistica = new EstadisticaDTO(leerCadena(entrada), entrada.readBoolean(),
+                        entrada.readInt(), entrada.readInt(), entrada.readInt());
+                estadistica.setPorcentajePrecision(entrada.readDouble());
+                return estadistica;
+            }
+            case DELTA_TABLEROS:
+                return leerDelta(entrada);
+            case TURNO:
+                return leerTurno(entrada);
+            case LISTA_JUGADORES: {
+                long version = entrada.readLong();
+                int tamanio = leerCantidad(entrada);
+                List<JugadorDTO> jugadores = new ArrayList<>(tamanio);
+                for (int i = 0; i < tamanio; i++) {
+                    jugadores.add(leerJugador(entrada));
+                }
+                return new ListaJugadoresDTO(version, jugadores, leerCadena(entrada), entrada.readBoolean());
+            }
+            case CONSULTA_JUGADORES:
+                return new ConsultaJugadoresDTO(leerCadena(entrada), leerCadena(entrada), leerVarInt(entrada));
+            case CAMBIO_LOBBY:
+                return leerCambioLobby(entrada);
+            case LOTE_LOBBY: {
+                long versionBase = entrada.readLong();
+                long version = entrada.readLong();
+                int tamanio = leerCantidad(entrada);
+                List<CambioLobbyDTO> cambios = new ArrayList<>(tamanio);
+                for (int i = 0; i < tamanio; i++) {
+                    cambios.add(leerCambioLobby(entrada));
+                }
+                return new LoteLobbyDTO(versionBase, version, cambios);
+            }
+            case SESION:
+                return leerSesion(entrada);
+            case SERIALIZADO: {
+                byte[] bytes = new byte[leerCantidad(entrada)];
+                entrada.readFully(bytes);
+                try (ObjectInputStream objetos = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    objetos.setObjectInputFilter(FILTRO_SERIALIZADO);
+                    return objetos.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Clase desconocida en datos serializados: " + e.getMessage(), e);
+                }
+            }
+            default:
+                throw new IOException("Etiqueta de datos desconocida: " + etiqueta);
+        }
+    }
+
+    // ---------------------------------------------------------------- DTOs
+
+    private void escribirCoordenada(DataOutputStream salida, CoordenadaDTO coordenada) throws IOException {
+        salida.writeByte(coordenada.getX());
+        salida.writeByte(coordenada.getY());
+    }
+
+    private CoordenadaDTO leerCoordenada(DataInputStream entrada) throws IOException {
+        return new CoordenadaDTO(entrada.readByte(), entrada.readByte());
+    }
+
+    private void escribirDisparo(DataOutputStream salida, DisparoDTO disparo) throws IOException {
+        salida.writeBoolean(disparo.getCoordenada() != null);
+        if (disparo.getCoordenada() != null) escribirCoordenada(salida, disparo.getCoordenada());
+        escribirEnum(salida, disparo.getResultado());
+        LocalDateTime fecha = disparo.getFechaHora();
+        salida.writeLong(fecha != null ? fecha.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE);
+        escribirCadena(salida, disparo.getNombreJugador());
+        escribirCadena(salida, disparo.getMensaje());
+    }
+
+    private DisparoDTO leerDisparo(DataInputStream entrada) throws IOException {
+        DisparoDTO disparo = new DisparoDTO();
+        if (entrada.readBoolean()) disparo.setCoordenada(leerCoordenada(entrada));
+        disparo.setResultado(leerEnum(entrada, ResultadoDisparo.values()));
+        long fecha = entrada.readLong();
+        disparo.setFechaHora(fecha != Long.MIN_VALUE
+                ? LocalDateTime.ofEpochSecond(Math.floorDiv(fecha, 1000), Math.floorMod(fecha, 1000) * 1_000_000, ZoneOffset.UTC)
+                : null);
+        disparo.setNombreJugador(leerCadena(entrada));
+        disparo.setMensaje(leerCadena(entrada));
+        return disparo;
+    }
+
+    private void escribirJugador(DataOutputStream salida, JugadorDTO jugador) throws IOException {
+        escribirId(salida, jugador.getId());
+        escribirCadena(salida, jugador.getNombre());
+        escribirColor(salida, jugador.getColor());
+        salida.writeBoolean(jugador.isEnPartida());
+    }
+
+    private JugadorDTO leerJugador(DataInputStream entrada) throws IOException {
+        JugadorDTO jugador = new JugadorDTO(leerId(entrada), leerCadena(entrada), leerColor(entrada));
+        jugador.setEnPartida(entrada.readBoolean());
+        return jugador;
+    }
+
+    private void escribirNave(DataOutputStream salida, NaveDTO nave) throws IOException {
+        escribirEnum(salida, nave.getTipo());
+        escribirEnum(salida, nave.getEstado());
+        escribirEnum(salida, nave.getOrientacion());
+        CoordenadaDTO[] coordenadas = nave.getCoordenadas();
+        salida.writeByte(coordenadas != null ? coordenadas.length : SIN_ENUM);
+        if (coordenadas != null) {
+            for (CoordenadaDTO coordenada : coordenadas) escribirCoordenada(salida, coordenada);
+        }
+        salida.writeByte(nave.getImpactosRecibidos());
+        salida.writeByte(nave.getLongitudTotal());
+    }
+
+    private NaveDTO leerNave(DataInputStream entrada) throws IOException {
+        NaveDTO nave = new NaveDTO();
+        nave.setTipo(leerEnum(entrada, TipoNave.values()));
+        nave.setEstado(leerEnum(entrada, EstadoNave.values()));
+        nave.setOrientacion(leerEnum(entrada, OrientacionNave.values()));
+        int cantidad = entrada.readByte();
+        if (cantidad >= 0) {
+            CoordenadaDTO[] coordenadas = new CoordenadaDTO[cantidad];
+            for (int i = 0; i < cantidad; i++) coordenadas[i] = leerCoordenada(entrada);
+            nave.setCoordenadas(coordenadas);
+        }
+        nave.setImpactosRecibidos(entrada.readByte());
+        nave.setLongitudTotal(entrada.readByte());
+        return nave;
+    }
+
+    private void escribirTablero(DataOutputStream salida, TableroDTO tablero) throws IOException {
+        escribirId(salida, tablero.getIdJugador());
+        escribirCadena(salida, tablero.getNombreJugador());
+
+        EstadoCasilla[][] casillas = tablero.getCasillas();
+        int filas = casillas != null ? casillas.length : 0;
+        int columnas = filas > 0 ? casillas[0].length : 0;
+        salida.writeByte(filas);
+        salida.writeByte(columnas);
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                escribirEnum(salida, casillas[i][j]);
+            }
+        }
+
+        List<NaveDTO> naves = tablero.getNaves();
+        escribirVarInt(salida, naves != null ? naves.size() : 0);
+        if (naves != null) {
+            for (NaveDTO nave : naves) escribirNave(salida, nave);
+        }
+        salida.writeByte(tablero.getNavesHundidas());
+        salida.writeByte(tablero.getTotalNaves());
+        salida.writeInt(tablero.getVersion());
+    }
+
+    private TableroDTO leerTablero(DataInputStream entrada) throws IOException {
+        TableroDTO tablero = new TableroDTO();
+        tablero.setIdJugador(leerId(entrada));
+        tablero.setNombreJugador(leerCadena(entrada));
+
+        int filas = entrada.readUnsignedByte();
+        int columnas = entrada.readUnsignedByte();
+        if (filas * columnas > entrada.available()) {
+            throw new IOException("Tablero de " + filas + "x" + columnas + " mayor que el resto del marco");
+        }
+        EstadoCasilla[][] casillas = new EstadoCasilla[filas][columnas];
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                casillas[i][j] = leerEnum(entrada, ESTADOS_CASILLA);
+            }
+        }
+        tablero.setCasillas(casillas);
+
+        int cantidadNaves = leerCantidad(entrada);
+        List<NaveDTO> naves = new ArrayList<>(cantidadNaves);
+        for (int i = 0; i < cantidadNaves; i++) naves.add(leerNave(entrada));
+        tablero.setNaves(naves);
+        tablero.setNavesHundidas(entrada.readByte());
+        tablero.setTotalNaves(entrada.readByte());
+        tablero.setVersion(entrada.readInt());
+        return tablero;
+    }
+
+    private void escribirDelta(DataOutputStream salida, DeltaTablerosDTO delta) throws IOException {
+        salida.writeInt(delta.getVersionBase());
+        salida.writeInt(delta.getVersion());
+        escribirVarInt(salida, delta.getCasillas().size());
+        for (CambioCasillaDTO cambio : delta.getCasillas()) {
+            escribirId(salida, cambio.getIdJugador());
+            salida.writeByte(cambio.getX());
+            salida.writeByte(cambio.getY());
+            escribirEnum(salida, cambio.getEstado());
+        }
+        escribirVarInt(salida, delta.getNaves().size());
+        for (CambioNaveDTO cambio : delta.getNaves()) {
+            escribirId(salida, cambio.getIdJugador());
+            salida.writeByte(cambio.getIndice());
+            escribirEnum(salida, cambio.getEstado());
+            salida.writeByte(cambio.getImpactosRecibidos());
+            salida.writeBoolean(cambio.getNave() != null);
+            if (cambio.getNave() != null) escribirNave(salida, cambio.getNave());
+        }
+    }
+
+    private DeltaTablerosDTO leerDelta(DataInputStream entrada) throws IOException {
+        int versionBase = entrada.readInt();
+        int version = entrada.readInt();
+
+        int cantidadCasillas = leerCantidad(entrada);
+        List<CambioCasillaDTO> casillas = new ArrayList<>(cantidadCasillas);
+        for (int i = 0; i < cantidadCasillas; i++) {
+            casillas.add(new CambioCasillaDTO(leerId(entrada), entrada.readByte(), entrada.readByte(),
+                    leerEnum(entrada, ESTADOS_CASILLA)));
+        }
+
+        int cantidadNaves = leerCantidad(entrada);
+        List<CambioNaveDTO> naves = new ArrayList<>(cantidadNaves);
+        for (int i = 0; i < cantidadNaves; i++) {
+            CambioNaveDTO cambio = new CambioNaveDTO(leerId(entrada), entrada.readUnsignedByte(),
+                    leerEnum(entrada, EstadoNave.values()), entrada.readByte());
+            if (entrada.readBoolean()) cambio.setNave(leerNave(entrada));
+            naves.add(cambio);
+        }
+        return new DeltaTablerosDTO(versionBase, version, casillas, naves);
+    }
+
+    private void escribirTurno(DataOutputStream salida, TurnoDTO turno) throws IOException {
+        salida.writeBoolean(turno.getJugadorEnTurno() != null);
+        if (turno.getJugadorEnTurno() != null) escribirJugador(salida, turno.getJugadorEnTurno());
+        salida.writeLong(turno.getLimiteTurno());
+        escribirVarInt(salida, turno.getDuracionSegundos());
+    }
+
+    private TurnoDTO leerTurno(DataInputStream entrada) throws IOException {
+        JugadorDTO jugador = entrada.readBoolean() ? leerJugador(entrada) : null;
+        return new TurnoDTO(jugador, entrada.readLong(), leerVarInt(entrada));
+    }
+
+    private void escribirSesion(DataOutputStream salida, SesionDTO sesion) throws IOException {
+        escribirJugador(salida, sesion.getJugador());
+        escribirCadena(salida, sesion.getToken());
+        salida.writeLong(sesion.getGraciaMs());
+        escribirId(salida, sesion.getIdPartida());
+        if (!sesion.tienePartida()) return;
+
+        escribirJugador(salida, sesion.getOponente());
+        escribirVarInt(salida, sesion.getTableros().size());
+        for (TableroDTO tablero : sesion.getTableros()) escribirTablero(salida, tablero);
+        TurnoDTO turno = sesion.getTurno();
+        salida.writeBoolean(turno != null);
+        if (turno != null) escribirTurno(salida, turno);
+    }
+
+    private SesionDTO leerSesion(DataInputStream entrada) throws IOException {
+        SesionDTO sesion = new SesionDTO(leerJugador(entrada), leerCadena(entrada), entrada.readLong());
+        String idPartida = leerId(entrada);
+        if (idPartida == null) return sesion;
+
+        JugadorDTO oponente = leerJugador(entrada);
+        int cantidad = leerCantidad(entrada);
+        List<TableroDTO> tableros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) tableros.add(leerTablero(entrada));
+        TurnoDTO turno = entrada.readBoolean() ? leerTurno(entrada) : null;
+        sesion.setPartida(idPartida, oponente, tableros, turno);
+        return sesion;
+    }
+
+    // ---------------------------------------------------------------- primitivos
+
+    private void escribirCambioLobby(DataOutputStream salida, CambioLobbyDTO cambio) throws IOException {
+        salida.writeByte(cambio.getTipo() != null ? cambio.getTipo().getCodigo() : 0);
+        salida.writeLong(cambio.getVersion());
+        escribirJugador(salida, cambio.getJugador());
+    }
+
+    private CambioLobbyDTO leerCambioLobby(DataInputStream entrada) throws IOException {
+        int codigo = entrada.readUnsignedByte();
+        TipoMensaje tipo = TipoMensaje.desdeCodigo(codigo);
+        if (codigo != 0 && tipo == null) {
+            throw new IOException("Tipo de cambio desconocido: " + codigo);
+        }
+        return new CambioLobbyDTO(tipo, entrada.readLong(), leerJugador(entrada));
+    }
+
+    private void escribirEnum(DataOutputStream salida, Enum<?> valor) throws IOException {
+        salida.writeByte(valor != null ? valor.ordinal() : SIN_ENUM);
+    }
+
+    private <E extends Enum<E>> E leerEnum(DataInputStream entrada, E[] valores) throws IOException {
+        int ordinal = entrada.readByte();
+        if (ordinal == SIN_ENUM) return null;
+        if (ordinal < 0 || ordinal >= valores.length) {
+            throw new IOException("Ordinal fuera de rango: " + ordinal);
+        }
+        return valores[ordinal];
+    }
+
+    private void escribirColor(DataOutputStream salida, Color color) throws IOException {
+        salida.writeBoolean(color != null);
+        if (color != null) salida.writeInt(color.getRGB());
+    }
+
+    private Color leerColor(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? new Color(entrada.readInt(), true) : null;
+    }
+
+    /**
+     * Escribe un identificador; si tiene forma de UUID ocupa 16 bytes en lugar de 36
+     */
+    private void escribirId(DataOutputStream salida, String id) throws IOException {
+        if (id == null) {
+            salida.writeByte(ID_NULO);
+            return;
+        }
+        UUID uuid = comoUUID(id);
+        if (uuid != null) {
+            salida.writeByte(ID_UUID);
+            salida.writeLong(uuid.getMostSignificantBits());
+            salida.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            salida.writeByte(ID_TEXTO);
+            escribirCadena(salida, id);
+        }
+    }
+
+    private String leerId(DataInputStream entrada) throws IOException {
+        byte forma = entrada.readByte();
+        return switch (forma) {
+            case ID_NULO -> null;
+            case ID_UUID -> new UUID(entrada.readLong(), entrada.readLong()).toString();
+            case ID_TEXTO -> leerCadena(entrada);
+            default -> throw new IOException("Forma de identificador desconocida: " + forma);
+        };
+    }
+
+    private static UUID comoUUID(String id) {
+        if (id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Solo si el texto vuelve a producirse idéntico (minúsculas, sin ceros omitidos)
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void escribirCadena(DataOutputStream salida, String cadena) throws IOException {
+        if (cadena == null) {
+            escribirVarInt(salida, 0);
+            return;
+        }
+        byte[] bytes = cadena.getBytes(StandardCharsets.UTF_8);
+        escribirVarInt(salida, bytes.length + 1);
+        salida.write(bytes);
+    }
+
+    private String leerCadena(DataInputStream entrada) throws IOException {
+        int longitud = leerVarInt(entrada);
+        if (longitud == 0) return null;
+        if (longitud - 1 > entrada.available()) {
+            throw new IOException("Cadena de " + (longitud - 1) + " bytes mayor que el resto del marco");
+        }
+        byte[] bytes = new byte[longitud - 1];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void escribirVarInt(DataOutputStream salida, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            salida.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.writeByte(valor);
+    }
+
+    /**
+     * Lee la cantidad de elementos o bytes que siguen; cada uno ocupa al menos
+     * un byte, así que una cantidad mayor que lo que queda del marco es un
+     * marco corrupto o malicioso y se rechaza antes de reservar memoria
+     */
+    private int leerCantidad(DataInputStream entrada) throws IOException {
+        int cantidad = leerVarInt(entrada);
+        if (cantidad > entrada.available()) {
+            throw new IOException("Cantidad " + cantidad + " mayor que los " + entrada.available()
+                    + " bytes que quedan del marco");
+        }
+        return cantidad;
+    }
+
+    private int leerVarInt(DataInputStream entrada) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                if (valor < 0) throw new IOException("Longitud negativa");
+                return valor;
+            }
+        }
+        throw new IOException("Entero variable demasiado largo");
+    }
+}
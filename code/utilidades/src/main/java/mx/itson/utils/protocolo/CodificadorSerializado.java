@@ -0,0 +1,44 @@
+package mx.itson.utils.protocolo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Codificador que usa serialización de Java, un stream independiente por marco.
+ * Permite enviar mensajes por canales no bloqueantes sin mantener un
+ * ObjectOutputStream abierto sobre el socket.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class CodificadorSerializado implements ICodificadorMensajes {
+
+    @Override
+    public byte[] codificar(MensajeDTO mensaje) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream salida = new ObjectOutputStream(bytes)) {
+            salida.writeObject(mensaje);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public MensajeDTO decodificar(byte[] datos, int inicio, int longitud) throws IOException {
+        try (ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(datos, inicio, longitud))) {
+            Object objeto = entrada.readObject();
+            if (!(objeto instanceof MensajeDTO mensaje)) {
+                throw new IOException("El marco no contiene un MensajeDTO");
+            }
+            return mensaje;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Clase desconocida en el marco: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package mx.itson.utils.protocolo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Conexión que envía cada mensaje como un marco: 4 bytes con la longitud
+ * seguidos del contenido generado por un ICodificadorMensajes.
+ * Es el formato que entiende el transporte NIO del servidor.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ConexionMarcos implements IConexionMensajes {
+
+    /** Tamaño máximo aceptado para un marco (1 MB) */
+    public static final int TAMANO_MAXIMO_MARCO = 1024 * 1024;
+
+    private final DataInputStream entrada;
+    private final DataOutputStream salida;
+    private final ICodificadorMensajes codificador;
+
+    /**
+     * Constructor
+     * @param entrada Stream de entrada del socket
+     * @param salida Stream de salida del socket
+     * @param codificador Codificador del contenido de los marcos
+     */
+    public ConexionMarcos(InputStream entrada, OutputStream salida, ICodificadorMensajes codificador) {
+        this.entrada = new DataInputStream(new BufferedInputStream(entrada));
+        this.salida = new DataOutputStream(new BufferedOutputStream(salida));
+        this.codificador = codificador;
+    }
+
+    @Override
+    public void enviar(MensajeDTO mensaje) throws IOException {
+        byte[] contenido = codificador.codificar(mensaje);
+        salida.writeInt(contenido.length);
+        salida.write(contenido);
+        salida.flush();
+    }
+
+    @Override
+    public MensajeDTO recibir() throws IOException {
+        int longitud = entrada.readInt();
+        if (longitud < 0 || longitud > TAMANO_MAXIMO_MARCO) {
+            throw new IOException("Longitud de marco inválida: " + longitud);
+        }
+        byte[] contenido = new byte[longitud];
+        entrada.readFully(contenido);
+        return codificador.decodificar(contenido, 0, longitud);
+    }
+
+    @Override
+    public void cerrar() throws IOException {
+        try {
+            entrada.close();
+        } finally {
+            salida.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package mx.itson.utils.protocolo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Conexión que usa el protocolo original: un ObjectOutputStream y un
+ * ObjectInputStream abiertos sobre el socket durante toda la sesión.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class ConexionObjetos implements IConexionMensajes {
+
+    private final ObjectOutputStream salida;
+    private final ObjectInputStream entrada;
+    private final GobernadorSerializacion gobernador;
+
+    /**
+     * Constructor. Reinicia el stream de salida después de cada mensaje.
+     * @param entrada Stream de entrada del socket
+     * @param salida Stream de salida del socket
+     * @throws IOException si hay error al abrir los streams
+     */
+    public ConexionObjetos(InputStream entrada, OutputStream salida) throws IOException {
+        this(entrada, salida, GobernadorSerializacion.porMensaje());
+    }
+
+    /**
+     * Constructor. Escribe primero la cabecera de salida para que el otro
+     * extremo pueda abrir su ObjectInputStream sin bloquearse.
+     * @param entrada Stream de entrada del socket
+     * @param salida Stream de salida del socket
+     * @param gobernador Política de reinicio y contadores del stream de salida
+     * @throws IOException si hay error al abrir los streams
+     */
+    public ConexionObjetos(InputStream entrada, OutputStream salida, GobernadorSerializacion gobernador) throws IOException {
+        this.gobernador = gobernador;
+        this.salida = new SalidaGobernada(gobernador.contar(salida), gobernador);
+        this.salida.flush();
+        this.entrada = new ObjectInputStream(entrada);
+    }
+
+    @Override
+    public void enviar(MensajeDTO mensaje) throws IOException {
+        salida.writeObject(mensaje);
+        if (gobernador.reiniciarTrasMensaje()) {
+            reiniciar();
+        }
+        salida.flush();
+    }
+
+    @Override
+    public void finLote() throws IOException {
+        if (gobernador.reiniciarAlVaciarCola()) {
+            reiniciar();
+            salida.flush();
+        }
+    }
+
+    public GobernadorSerializacion getGobernador() {return gobernador;}
+
+    private void reiniciar() throws IOException {
+        salida.reset();
+        gobernador.reiniciado();
+    }
+
+    @Override
+    public MensajeDTO recibir() throws IOException, ClassNotFoundException {
+        Object objeto = entrada.readObject();
+        if (!(objeto instanceof MensajeDTO mensaje)) {
+            throw new IOException("Se esperaba MensajeDTO pero se recibió: " +
+                    (objeto != null ? objeto.getClass().getName() : "null"));
+        }
+        return mensaje;
+    }
+
+    @Override
+    public void cerrar() throws IOException {
+        try {
+            entrada.close();
+        } finally {
+            salida.close();
+        }
+    }
+
+    /**
+     * ObjectOutputStream que avisa al gobernador cada vez que asigna una referencia nueva.
+     * replaceObject solo se invoca para objetos que aún no están en la tabla de referencias.
+     */
+    private static final class SalidaGobernada extends ObjectOutputStream {
+
+        private final GobernadorSerializacion gobernador;
+
+        SalidaGobernada(OutputStream salida, GobernadorSerializacion gobernador) throws IOException {
+            super(salida);
+            this.gobernador = gobernador;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object objeto) {
+            gobernador.objetoNuevo();
+            return objeto;
+        }
+    }
+}
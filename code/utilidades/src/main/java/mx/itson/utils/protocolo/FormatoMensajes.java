@@ -0,0 +1,49 @@
+package mx.itson.utils.protocolo;
+
+/**
+ * Formatos de contenido de marco que cliente y servidor pueden negociar.
+ * El id es el byte que viaja en el preámbulo de NegociacionProtocolo.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public enum FormatoMensajes {
+    /** Serialización de Java de un MensajeDTO por marco */
+    SERIALIZADO(1),
+    /** Codificación binaria compacta escrita a mano */
+    BINARIO(2);
+
+    private final int id;
+
+    FormatoMensajes(int id) {
+        this.id = id;
+    }
+
+    public int getId() {return id;}
+
+    /**
+     * Busca el formato con el id indicado
+     * @param id Id recibido en la negociación
+     * @return Formato correspondiente o null si no se conoce
+     */
+    public static FormatoMensajes desdeId(int id) {
+        for (FormatoMensajes formato : values()) {
+            if (formato.id == id) return formato;
+        }
+        return null;
+    }
+
+    /**
+     * Crea el codificador de este formato
+     * @return Codificador nuevo
+     */
+    public ICodificadorMensajes crearCodificador() {
+        return switch (this) {
+            case SERIALIZADO -> new CodificadorSerializado();
+            case BINARIO -> new CodificadorBinario();
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package mx.itson.utils.protocolo;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Decide cuándo reiniciar (reset) el ObjectOutputStream de una ConexionObjetos
+ * y lleva sus contadores.
+ *
+ * Mientras no se reinicia, el stream guarda una referencia a cada objeto que
+ * ha escrito; además, un objeto que se vuelve a escribir viaja como referencia
+ * a la primera copia y el otro extremo no ve sus cambios. Reiniciar libera esa
+ * tabla y obliga a escribir los objetos de nuevo.
+ *
+ * Los contadores los actualiza solo el thread que escribe; se pueden leer desde otros threads.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public class GobernadorSerializacion {
+
+    /**
+     * Momento en que se reinicia el stream
+     */
+    public enum Politica {
+        /** Después de cada mensaje; ningún objeto se comparte entre mensajes */
+        POR_MENSAJE,
+        /**
+         * Al terminar el mensaje con el que se alcanzan los bytes límite desde el último reinicio.
+         * Un objeto que cambia y se reenvía antes del reinicio llega con su estado anterior.
+         */
+        POR_BYTES,
+        /**
+         * Cuando la cola de salida se vacía; los mensajes de una misma ráfaga comparten
+         * descriptores de clase y tienen la misma advertencia que POR_BYTES
+         */
+        POR_LOTE
+    }
+
+    private final Politica politica;
+    private final long limiteBytes;
+
+    private volatile long bytesEscritos;
+    private volatile long bytesDesdeReinicio;
+    private volatile long mensajes;
+    private volatile long reinicios;
+    private volatile int objetosReferenciados;
+    private volatile int maximoObjetosReferenciados;
+
+    /**
+     * Constructor
+     * @param politica Cuándo reiniciar
+     * @param limiteBytes Bytes entre reinicios para POR_BYTES (se ignora en las demás políticas)
+     */
+    public GobernadorSerializacion(Politica politica, long limiteBytes) {
+        this.politica = politica;
+        this.limiteBytes = limiteBytes;
+    }
+
+    /**
+     * Gobernador que reinicia después de cada mensaje
+     * @return Gobernador nuevo
+     */
+    public static GobernadorSerializacion porMensaje() {
+        return new GobernadorSerializacion(Politica.POR_MENSAJE, 0);
+    }
+
+    /**
+     * Envuelve el stream del socket para contar los bytes que escribe el ObjectOutputStream
+     * @param destino Stream del socket
+     * @return Stream que cuenta y delega
+     */
+    OutputStream contar(OutputStream destino) {
+        return new FilterOutputStream(destino) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                sumarBytes(1);
+            }
+
+            @Override
+            public void write(byte[] b, int inicio, int longitud) throws IOException {
+                out.write(b, inicio, longitud);
+                sumarBytes(longitud);
+            }
+        };
+    }
+
+    /**
+     * El stream asignó una referencia a un objeto que no había escrito desde el último reinicio
+     */
+    void objetoNuevo() {
+        int total = objetosReferenciados + 1;
+        objetosReferenciados = total;
+        if (total > maximoObjetosReferenciados) maximoObjetosReferenciados = total;
+    }
+
+    /**
+     * Se terminó de escribir un mensaje
+     * @return true si hay que reiniciar antes de hacer flush
+     */
+    boolean reiniciarTrasMensaje() {
+        mensajes++;
+        return switch (politica) {
+            case POR_MENSAJE -> true;
+            case POR_BYTES -> bytesDesdeReinicio >= limiteBytes;
+            case POR_LOTE -> false;
+        };
+    }
+
+    /**
+     * La cola de salida quedó vacía
+     * @return true si hay que reiniciar
+     */
+    boolean reiniciarAlVaciarCola() {
+        return politica == Politica.POR_LOTE && objetosReferenciados > 0;
+    }
+
+    /**
+     * El stream se reinició
+     */
+    void reiniciado() {
+        reinicios++;
+        bytesDesdeReinicio = 0;
+        objetosReferenciados = 0;
+    }
+
+    private void sumarBytes(long cantidad) {
+        bytesEscritos += cantidad;
+        bytesDesdeReinicio += cantidad;
+    }
+
+    public Politica getPolitica() {return politica;}
+
+    public long getBytesEscritos() {return bytesEscritos;}
+
+    public long getBytesDesdeReinicio() {return bytesDesdeReinicio;}
+
+    public long getMensajes() {return mensajes;}
+
+    public long getReinicios() {return reinicios;}
+
+    /** Objetos retenidos por la tabla de referencias del stream en este momento */
+    public int getObjetosReferenciados() {return objetosReferenciados;}
+
+    /** Mayor tamaño que ha alcanzado la tabla de referencias */
+    public int getMaximoObjetosReferenciados() {return maximoObjetosReferenciados;}
+
+    @Override
+    public String toString() {
+        return politica + ": " + mensajes + " mensajes, " + bytesEscritos + " bytes, "
+                + reinicios + " reinicios, referencias " + objetosReferenciados + " (máx " + maximoObjetosReferenciados + ")";
+    }
+}
@@ -0,0 +1,35 @@
+package mx.itson.utils.protocolo;
+
+import java.io.IOException;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Convierte un MensajeDTO en los bytes de un marco y viceversa.
+ * El prefijo de longitud del marco lo agrega quien transporta los bytes.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public interface ICodificadorMensajes {
+
+    /**
+     * Codifica un mensaje
+     * @param mensaje Mensaje a codificar
+     * @return Contenido del marco
+     * @throws IOException si el mensaje no se puede codificar
+     */
+    byte[] codificar(MensajeDTO mensaje) throws IOException;
+
+    /**
+     * Decodifica el contenido de un marco
+     * @param datos Arreglo que contiene el marco
+     * @param inicio Posición donde inicia el contenido
+     * @param longitud Longitud del contenido
+     * @return Mensaje decodificado
+     * @throws IOException si el contenido no es válido
+     */
+    MensajeDTO decodificar(byte[] datos, int inicio, int longitud) throws IOException;
+}
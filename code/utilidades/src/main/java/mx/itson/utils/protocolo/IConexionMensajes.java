@@ -0,0 +1,46 @@
+package mx.itson.utils.protocolo;
+
+import java.io.IOException;
+import mx.itson.utils.dtos.MensajeDTO;
+
+/**
+ * Conexión bloqueante capaz de enviar y recibir MensajeDTO completos.
+ * Oculta el formato en que los mensajes viajan por el socket para que
+ * cliente y servidor no dependan directamente de los streams.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public interface IConexionMensajes {
+
+    /**
+     * Envía un mensaje completo por la conexión
+     * @param mensaje Mensaje a enviar
+     * @throws IOException si hay error al escribir
+     */
+    void enviar(MensajeDTO mensaje) throws IOException;
+
+    /**
+     * Bloquea hasta recibir un mensaje completo
+     * @return Mensaje recibido
+     * @throws IOException si hay error al leer o la conexión se cerró
+     * @throws ClassNotFoundException si el contenido no se puede reconstruir
+     */
+    MensajeDTO recibir() throws IOException, ClassNotFoundException;
+
+    /**
+     * Avisa que por ahora no hay más mensajes por enviar.
+     * Las conexiones que no necesitan hacer nada en ese momento la dejan vacía.
+     * @throws IOException si hay error al escribir
+     */
+    default void finLote() throws IOException {}
+
+    /**
+     * Cierra los streams de la conexión
+     * @throws IOException si hay error al cerrar
+     */
+    void cerrar() throws IOException;
+}
@@ -0,0 +1,174 @@
+package mx.itson.utils.protocolo;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Negociación del formato de mensajes al abrir la conexión TCP.
+ *
+ * El cliente envía el preámbulo "BSHP" + versión + cantidad + ids de los
+ * formatos que soporta, en orden de preferencia. El servidor responde
+ * "BSHP" + id elegido (0 si no hay ninguno en común) y a partir de ahí
+ * ambos usan ConexionMarcos con ese formato.
+ *
+ * Un cliente anterior a la negociación abre directamente su ObjectOutputStream,
+ * cuya cabecera empieza con 0xACED; el servidor lo detecta y sigue con ConexionObjetos.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+public final class NegociacionProtocolo {
+
+    private static final byte[] MAGICO = {'B', 'S', 'H', 'P'};
+    private static final int VERSION = 1;
+    private static final int SIN_FORMATO = 0;
+    private static final int CABECERA_OBJETOS = 0xACED;
+    private static final int LONGITUD_CABECERA = MAGICO.length + 2;
+
+    private NegociacionProtocolo() {}
+
+    /**
+     * Negocia desde el lado del cliente
+     * @param entrada Stream de entrada del socket
+     * @param salida Stream de salida del socket
+     * @param formatos Formatos soportados, el preferido primero
+     * @return Conexión con el formato elegido por el servidor
+     * @throws IOException si el servidor no responde a la negociación o no hay formato común
+     */
+    public static IConexionMensajes negociarCliente(InputStream entrada, OutputStream salida,
+            FormatoMensajes... formatos) throws IOException {
+        byte[] preambulo = new byte[LONGITUD_CABECERA + formatos.length];
+        System.arraycopy(MAGICO, 0, preambulo, 0, MAGICO.length);
+        preambulo[MAGICO.length] = VERSION;
+        preambulo[MAGICO.length + 1] = (byte) formatos.length;
+        for (int i = 0; i < formatos.length; i++) {
+            preambulo[LONGITUD_CABECERA + i] = (byte) formatos[i].getId();
+        }
+        salida.write(preambulo);
+        salida.flush();
+
+        byte[] respuesta = new byte[MAGICO.length + 1];
+        new DataInputStream(entrada).readFully(respuesta);
+        verificarMagico(respuesta, 0);
+
+        FormatoMensajes elegido = FormatoMensajes.desdeId(respuesta[MAGICO.length]);
+        if (elegido == null) {
+            throw new IOException("El servidor no aceptó ningún formato de mensajes");
+        }
+        return new ConexionMarcos(entrada, salida, elegido.crearCodificador());
+    }
+
+    /**
+     * Negocia desde el lado del servidor sobre streams bloqueantes.
+     * Si el cliente no negocia (envía la cabecera de ObjectStream) se usa ConexionObjetos.
+     * @param entrada Stream de entrada del socket
+     * @param salida Stream de salida del socket
+     * @param preferido Formato que el servidor elige si el cliente lo ofrece
+     * @param gobernador Gobernador del ObjectOutputStream si el cliente no negocia
+     * @return Conexión lista para recibir mensajes
+     * @throws IOException si el preámbulo no es válido
+     */
+    public static IConexionMensajes aceptarServidor(InputStream entrada, OutputStream salida,
+            FormatoMensajes preferido, GobernadorSerializacion gobernador) throws IOException {
+        PushbackInputStream lectura = new PushbackInputStream(entrada, 2);
+        DataInputStream datos = new DataInputStream(lectura);
+
+        int inicio = datos.readUnsignedShort();
+        lectura.unread(new byte[]{(byte) (inicio >> 8), (byte) inicio});
+        if (inicio == CABECERA_OBJETOS) {
+            return new ConexionObjetos(lectura, salida, gobernador);
+        }
+
+        byte[] cabecera = new byte[LONGITUD_CABECERA];
+        datos.readFully(cabecera);
+        verificarMagico(cabecera, 0);
+        byte[] ofrecidos = new byte[Byte.toUnsignedInt(cabecera[MAGICO.length + 1])];
+        datos.readFully(ofrecidos);
+
+        FormatoMensajes elegido = elegir(ofrecidos, preferido);
+        salida.write(respuesta(elegido));
+        salida.flush();
+        if (elegido == null) {
+            throw new IOException("El cliente no ofreció ningún formato conocido");
+        }
+        return new ConexionMarcos(lectura, salida, elegido.crearCodificador());
+    }
+
+    /**
+     * Lee el preámbulo del cliente desde un buffer no bloqueante (modo lectura).
+     * Si el preámbulo aún no está completo no consume nada.
+     * @param buffer Bytes recibidos, con position al inicio del preámbulo
+     * @param preferido Formato que el servidor elige si el cliente lo ofrece
+     * @return Formato elegido, o null si faltan bytes
+     * @throws IOException si el cliente no negocia o no ofrece ningún formato conocido
+     */
+    public static FormatoMensajes leerPreambulo(ByteBuffer buffer, FormatoMensajes preferido) throws IOException {
+        int inicio = buffer.position();
+        if (buffer.remaining() >= 2 && (buffer.getShort(inicio) & 0xFFFF) == CABECERA_OBJETOS) {
+            throw new IOException("Cliente sin negociación de formato (ObjectStream)");
+        }
+        if (buffer.remaining() < LONGITUD_CABECERA) {
+            return null;
+        }
+        for (int i = 0; i < MAGICO.length; i++) {
+            if (buffer.get(inicio + i) != MAGICO[i]) {
+                throw new IOException("Preámbulo de negociación inválido");
+            }
+        }
+        int cantidad = Byte.toUnsignedInt(buffer.get(inicio + MAGICO.length + 1));
+        if (buffer.remaining() < LONGITUD_CABECERA + cantidad) {
+            return null;
+        }
+
+        byte[] ofrecidos = new byte[cantidad];
+        buffer.position(inicio + LONGITUD_CABECERA);
+        buffer.get(ofrecidos);
+
+        FormatoMensajes elegido = elegir(ofrecidos, preferido);
+        if (elegido == null) {
+            throw new IOException("El cliente no ofreció ningún formato conocido");
+        }
+        return elegido;
+    }
+
+    /**
+     * Construye la respuesta del servidor
+     * @param elegido Formato elegido, o null si no hubo coincidencia
+     * @return Bytes de la respuesta
+     */
+    public static byte[] respuesta(FormatoMensajes elegido) {
+        byte[] respuesta = new byte[MAGICO.length + 1];
+        System.arraycopy(MAGICO, 0, respuesta, 0, MAGICO.length);
+        respuesta[MAGICO.length] = (byte) (elegido != null ? elegido.getId() : SIN_FORMATO);
+        return respuesta;
+    }
+
+    /**
+     * El formato preferido del servidor gana si el cliente lo ofrece;
+     * si no, el primero que ofrezca el cliente y el servidor conozca
+     */
+    private static FormatoMensajes elegir(byte[] ofrecidos, FormatoMensajes preferido) {
+        FormatoMensajes primeroConocido = null;
+        for (byte id : ofrecidos) {
+            FormatoMensajes formato = FormatoMensajes.desdeId(id);
+            if (formato == preferido && formato != null) return formato;
+            if (primeroConocido == null) primeroConocido = formato;
+        }
+        return primeroConocido;
+    }
+
+    private static void verificarMagico(byte[] bytes, int inicio) throws IOException {
+        for (int i = 0; i < MAGICO.length; i++) {
+            if (bytes[inicio + i] != MAGICO[i]) {
+                throw new IOException("Preámbulo de negociación inválido");
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package mx.itson.utils.protocolo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import mx.itson.utils.dtos.*;
+import mx.itson.utils.enums.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ida y vuelta de cada mensaje del protocolo por los formatos negociables
+ * Hay una muestra por cada TipoMensaje con los datos que el servidor envía o
+ * recibe con ese tipo; decodificar lo codificado debe devolver los mismos
+ * valores, campo por campo.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class CodificadorBinarioTest {
+
+    private static final String ID_ANA = UUID.randomUUID().toString();
+    private static final String ID_BETO = "jugador-sin-uuid"; // Los IDs que no son UUID viajan como texto
+    private static final String ID_PARTIDA = UUID.randomUUID().toString();
+
+    @Test
+    void cadaTipoDeMensajeTieneUnaMuestra() {
+        Set<TipoMensaje> faltantes = EnumSet.allOf(TipoMensaje.class);
+        faltantes.removeAll(muestras().keySet());
+        assertTrue(faltantes.isEmpty(), "Tipos sin muestra: " + faltantes);
+    }
+
+    @Test
+    void cadaMuestraVuelveIgualEnCadaFormato() throws IOException {
+        for (FormatoMensajes formato : FormatoMensajes.values()) {
+            ICodificadorMensajes codificador = formato.crearCodificador();
+            for (MensajeDTO mensaje : muestras().values()) {
+                byte[] bytes = codificador.codificar(mensaje);
+                MensajeDTO leido = codificador.decodificar(bytes, 0, bytes.length);
+                assertMismoValor(mensaje, leido, formato + " " + mensaje.getTipo());
+            }
+        }
+    }
+
+    @Test
+    void elOpcodeEsElCodigoFijoDelTipo() throws IOException {
+        CodificadorBinario codificador = new CodificadorBinario();
+        for (TipoMensaje tipo : TipoMensaje.values()) {
+            byte[] bytes = codificador.codificar(new MensajeDTO(tipo, null));
+            assertEquals(tipo.getCodigo(), Byte.toUnsignedInt(bytes[0]), tipo.name());
+        }
+    }
+
+    @Test
+    void decodificaDesdeUnDesplazamiento() throws IOException {
+        CodificadorBinario codificador = new CodificadorBinario();
+        MensajeDTO mensaje = muestras().get(TipoMensaje.CAMBIOS_LOBBY);
+        byte[] bytes = codificador.codificar(mensaje);
+        byte[] conRelleno = new byte[bytes.length + 7];
+        System.arraycopy(bytes, 0, conRelleno, 3, bytes.length);
+
+        assertMismoValor(mensaje, codificador.decodificar(conRelleno, 3, bytes.length), "con relleno");
+    }
+
+    @Test
+    void rechazaUnMarcoTruncado() throws IOException {
+        CodificadorBinario codificador = new CodificadorBinario();
+        byte[] bytes = codificador.codificar(muestras().get(TipoMensaje.ACTUALIZAR_TABLEROS));
+
+        assertThrows(IOException.class, () -> codificador.decodificar(bytes, 0, bytes.length / 2));
+    }
+
+    @Test
+    void rechazaUnOpcodeDesconocido() {
+        byte[] bytes = {(byte) 0xFF, 0, 0};
+        assertThrows(IOException.class, () -> new CodificadorBinario().decodificar(bytes, 0, bytes.length));
+    }
+
+    // ---------------------------------------------------------------- muestras
+
+    /**
+     * Una muestra por tipo, con los datos que lleva en el servidor o el cliente
+     */
+    private static Map<TipoMensaje, MensajeDTO> muestras() {
+        JugadorDTO ana = jugador(ID_ANA, "Ana", Color.BLUE);
+        JugadorDTO beto = jugador(ID_BETO, "Beto", new Color(10, 20, 30, 40));
+        beto.setEnPartida(true);
+        SolicitudPartidaDTO solicitud = new SolicitudPartidaDTO(ID_ANA, "Ana", ID_BETO, "Beto");
+        solicitud.setExpira(solicitud.getTimestamp() + 30_000);
+        TurnoDTO turno = new TurnoDTO(ana, System.currentTimeMillis() + 30_000, 30);
+
+        SesionDTO sesion = new SesionDTO(ana, UUID.randomUUID().toString(), 30_000);
+        SesionDTO sesionEnPartida = new SesionDTO(ana, UUID.randomUUID().toString(), 30_000);
+        sesionEnPartida.setPartida(ID_PARTIDA, beto, tableros(), turno);
+
+        DisparoDTO disparo = new DisparoDTO(new CoordenadaDTO(3, 4), ResultadoDisparo.IMPACTO_AVERIADA, "Ana", "Impacto");
+        // El formato binario guarda la hora con precisión de milisegundos
+        disparo.setFechaHora(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        DeltaTablerosDTO delta = new DeltaTablerosDTO(4, 5,
+                new ArrayList<>(List.of(new CambioCasillaDTO(ID_BETO, 3, 4, EstadoCasilla.IMPACTADA_AVERIADA))),
+                new ArrayList<>(List.of(new CambioNaveDTO(ID_BETO, 0, EstadoNave.AVERIADA, 1))));
+        LoteLobbyDTO lote = new LoteLobbyDTO(7, 9, List.of(
+                new CambioLobbyDTO(TipoMensaje.JUGADOR_ENTRA, 8, ana),
+                new CambioLobbyDTO(TipoMensaje.JUGADOR_OCUPADO, 9, beto)));
+
+        Map<TipoMensaje, MensajeDTO> muestras = new EnumMap<>(TipoMensaje.class);
+        agregar(muestras, TipoMensaje.REGISTRO_JUGADOR, new RegistroJugadorDTO("Ana", Color.BLUE));
+        agregar(muestras, TipoMensaje.REGISTRO_EXITOSO, sesion);
+        agregar(muestras, TipoMensaje.NOMBRE_DUPLICADO, null);
+        agregar(muestras, TipoMensaje.REANUDAR_SESION, sesion.getToken());
+        agregar(muestras, TipoMensaje.SESION_REANUDADA, sesionEnPartida);
+        agregar(muestras, TipoMensaje.SESION_EXPIRADA, null);
+        agregar(muestras, TipoMensaje.SOLICITAR_JUGADORES, new ConsultaJugadoresDTO("an", "ana", 20));
+        agregar(muestras, TipoMensaje.LISTA_JUGADORES, new ListaJugadoresDTO(12, List.of(ana, beto), "beto", true));
+        agregar(muestras, TipoMensaje.SIN_JUGADORES_DISPONIBLES, null);
+        agregar(muestras, TipoMensaje.JUGADOR_DISPONIBLE, ana);
+        agregar(muestras, TipoMensaje.CAMBIOS_LOBBY, lote);
+        agregar(muestras, TipoMensaje.JUGADOR_ENTRA, new CambioLobbyDTO(TipoMensaje.JUGADOR_ENTRA, 1, ana));
+        agregar(muestras, TipoMensaje.JUGADOR_SALE, new CambioLobbyDTO(TipoMensaje.JUGADOR_SALE, 2, ana));
+        agregar(muestras, TipoMensaje.JUGADOR_OCUPADO, new CambioLobbyDTO(TipoMensaje.JUGADOR_OCUPADO, 3, beto));
+        agregar(muestras, TipoMensaje.SOLICITAR_PARTIDA, solicitud);
+        agregar(muestras, TipoMensaje.INVITACION_RECIBIDA, solicitud);
+        agregar(muestras, TipoMensaje.ACEPTAR_PARTIDA, solicitud);
+        agregar(muestras, TipoMensaje.RECHAZAR_PARTIDA, solicitud);
+        agregar(muestras, TipoMensaje.PARTIDA_ACEPTADA, solicitud);
+        agregar(muestras, TipoMensaje.PARTIDA_RECHAZADA, solicitud);
+        agregar(muestras, TipoMensaje.SOLICITUD_EXPIRADA, solicitud);
+        agregar(muestras, TipoMensaje.SOLICITUD_CANCELADA, solicitud);
+        agregar(muestras, TipoMensaje.PARTIDA_INICIADA, solicitud);
+        agregar(muestras, TipoMensaje.PARTIDA_CANCELADA, null);
+        agregar(muestras, TipoMensaje.BUSCAR_PARTIDA, null);
+        agregar(muestras, TipoMensaje.CANCELAR_BUSQUEDA, null);
+        agregar(muestras, TipoMensaje.COLOCAR_NAVES, new ArrayList<>(naves()));
+        agregar(muestras, TipoMensaje.NAVES_COLOCADAS, null);
+        agregar(muestras, TipoMensaje.ESPERANDO_OPONENTE_NAVES, null);
+        agregar(muestras, TipoMensaje.AMBOS_LISTOS, null);
+        agregar(muestras, TipoMensaje.VISTA_LISTA, null);
+        agregar(muestras, TipoMensaje.TURNO_INICIADO, turno);
+        agregar(muestras, TipoMensaje.SOLICITAR_DISPARO, null);
+        agregar(muestras, TipoMensaje.ENVIAR_DISPARO, new CoordenadaDTO(9, 0));
+        agregar(muestras, TipoMensaje.RESULTADO_DISPARO, disparo);
+        agregar(muestras, TipoMensaje.ACTUALIZAR_TABLEROS, tableros());
+        agregar(muestras, TipoMensaje.DELTA_TABLEROS, delta);
+        agregar(muestras, TipoMensaje.CONFIRMAR_TABLEROS, 5);
+        agregar(muestras, TipoMensaje.SOLICITAR_TABLEROS, null);
+        agregar(muestras, TipoMensaje.CAMBIO_TURNO, turno);
+        agregar(muestras, TipoMensaje.TURNO_TIMEOUT, null);
+        agregar(muestras, TipoMensaje.PARTIDA_GANADA, new EstadisticaDTO("Ana", true, 30, 17, 5));
+        agregar(muestras, TipoMensaje.PARTIDA_PERDIDA, new EstadisticaDTO("Beto", false, 29, 12, 3));
+        agregar(muestras, TipoMensaje.PARTIDA_FINALIZADA, null);
+        agregar(muestras, TipoMensaje.ABANDONAR_PARTIDA, ana);
+        agregar(muestras, TipoMensaje.PARTIDA_ABANDONADA, null);
+        agregar(muestras, TipoMensaje.SINCRONIZAR_RELOJ, System.currentTimeMillis());
+        agregar(muestras, TipoMensaje.PING, System.currentTimeMillis());
+        agregar(muestras, TipoMensaje.PONG, System.currentTimeMillis());
+        agregar(muestras, TipoMensaje.ERROR, null);
+        agregar(muestras, TipoMensaje.DESCONEXION, null);
+        return muestras;
+    }
+
+    private static void agregar(Map<TipoMensaje, MensajeDTO> muestras, TipoMensaje tipo, Object datos) {
+        muestras.put(tipo, new MensajeDTO(tipo, "Mensaje de prueba: " + tipo + " ñ", datos));
+    }
+
+    private static JugadorDTO jugador(String id, String nombre, Color color) {
+        return new JugadorDTO(id, nombre, color);
+    }
+
+    private static List<NaveDTO> naves() {
+        List<NaveDTO> naves = new ArrayList<>();
+        naves.add(new NaveDTO(TipoNave.PORTAAVIONES, EstadoNave.INTACTA, OrientacionNave.HORIZONTAL,
+                new CoordenadaDTO[] {new CoordenadaDTO(0, 0), new CoordenadaDTO(1, 0), new CoordenadaDTO(2, 0),
+                        new CoordenadaDTO(3, 0)}, 0));
+        naves.add(new NaveDTO(TipoNave.BARCO, EstadoNave.AVERIADA, OrientacionNave.VERICAL,
+                new CoordenadaDTO[] {new CoordenadaDTO(3, 4)}, 1));
+        return naves;
+    }
+
+    private static List<TableroDTO> tableros() {
+        TableroDTO propio = new TableroDTO(ID_ANA, "Ana", 10);
+        propio.setNaves(naves());
+        propio.setTotalNaves(2);
+        propio.setVersion(5);
+        TableroDTO rival = new TableroDTO(ID_BETO, "Beto", 10);
+        rival.getCasillas()[3][4] = EstadoCasilla.IMPACTADA_AVERIADA;
+        rival.getCasillas()[9][9] = EstadoCasilla.IMPACTADA_VACIA;
+        rival.setNavesHundidas(1);
+        rival.setVersion(5);
+        return new ArrayList<>(List.of(propio, rival));
+    }
+
+    // ---------------------------------------------------------------- comparación
+
+    /**
+     * Compara dos valores campo por campo; los DTOs no implementan equals
+     */
+    private static void assertMismoValor(Object esperado, Object real, String ruta) {
+        if (esperado == null || real == null) {
+            assertEquals(esperado, real, ruta);
+        } else if (esperado instanceof List<?> lista) {
+            List<?> otra = assertInstancia(List.class, real, ruta);
+            assertEquals(lista.size(), otra.size(), ruta + ".size");
+            for (int i = 0; i < lista.size(); i++) {
+                assertMismoValor(lista.get(i), otra.get(i), ruta + "[" + i + "]");
+            }
+        } else if (esperado.getClass().isArray()) {
+            assertEquals(esperado.getClass(), real.getClass(), ruta);
+            assertEquals(Array.getLength(esperado), Array.getLength(real), ruta + ".length");
+            for (int i = 0; i < Array.getLength(esperado); i++) {
+                assertMismoValor(Array.get(esperado, i), Array.get(real, i), ruta + "[" + i + "]");
+            }
+        } else if (esperado.getClass().getPackageName().equals(MensajeDTO.class.getPackageName())) {
+            assertEquals(esperado.getClass(), real.getClass(), ruta);
+            for (Field campo : esperado.getClass().getDeclaredFields()) {
+                if (Modifier.isStatic(campo.getModifiers())) continue;
+                campo.setAccessible(true);
+                try {
+                    assertMismoValor(campo.get(esperado), campo.get(real), ruta + "." + campo.getName());
+                } catch (IllegalAccessException e) {
+                    throw new AssertionError(ruta + "." + campo.getName(), e);
+                }
+            }
+        } else {
+            assertEquals(esperado, real, ruta);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T assertInstancia(Class<T> tipo, Object valor, String ruta) {
+        assertTrue(tipo.isInstance(valor), ruta + ": se esperaba " + tipo.getSimpleName() + " pero llegó " + valor.getClass());
+        return (T) valor;
+    }
+}
@@ -0,0 +1,156 @@
+package mx.itson.utils.protocolo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import mx.itson.utils.dtos.MensajeDTO;
+import mx.itson.utils.enums.TipoMensaje;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Negociación del formato al abrir la conexión, sobre un socket local
+ * Un servidor que prefiere el formato binario debe seguir atendiendo a un
+ * cliente anterior que abre directamente su ObjectOutputStream, y elegir su
+ * formato preferido solo cuando el cliente lo ofrece.
+ *
+ * @author Leonardo Flores Leyva ID: 00000252390
+ * @author Yuri Germán García López ID: 00000252583
+ * @author Alejandra García Preciado ID: 00000252444
+ * @author Jesús Ernesto López Ibarra ID: 00000252663
+ * @author Daniel Miramontes Iribe ID: 00000252801
+ */
+class NegociacionProtocoloTest {
+
+    private static final long ESPERA_SEGUNDOS = 5;
+
+    private ServerSocket servidor;
+    private ExecutorService hilos;
+
+    @BeforeEach
+    void preparar() throws IOException {
+        servidor = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        servidor.setSoTimeout((int) TimeUnit.SECONDS.toMillis(ESPERA_SEGUNDOS));
+        hilos = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void cerrar() throws IOException {
+        hilos.shutdownNow();
+        servidor.close();
+    }
+
+    @Test
+    void servidorBinarioAtiendeAUnClienteDeObjetos() throws Exception {
+        try (Socket cliente = new Socket(servidor.getInetAddress(), servidor.getLocalPort())) {
+            Future<IConexionMensajes> aceptada = hilos.submit(this::aceptarPrefiriendoBinario);
+            // El constructor espera la cabecera del servidor, que solo llega cuando este acepta
+            IConexionMensajes conexionCliente = new ConexionObjetos(cliente.getInputStream(), cliente.getOutputStream());
+            IConexionMensajes conexionServidor = aceptada.get(ESPERA_SEGUNDOS, TimeUnit.SECONDS);
+
+            assertInstanceOf(ConexionObjetos.class, conexionServidor);
+            intercambiar(conexionCliente, conexionServidor);
+        }
+    }
+
+    @Test
+    void servidorBinarioEligeBinarioSiElClienteLoOfrece() throws Exception {
+        try (Socket cliente = new Socket(servidor.getInetAddress(), servidor.getLocalPort())) {
+            Future<IConexionMensajes> aceptada = hilos.submit(this::aceptarPrefiriendoBinario);
+            // El cliente prefiere serializado, pero el servidor elige su preferido si está en la lista
+            IConexionMensajes conexionCliente = NegociacionProtocolo.negociarCliente(cliente.getInputStream(),
+                    cliente.getOutputStream(), FormatoMensajes.SERIALIZADO, FormatoMensajes.BINARIO);
+            IConexionMensajes conexionServidor = aceptada.get(ESPERA_SEGUNDOS, TimeUnit.SECONDS);
+
+            assertInstanceOf(ConexionMarcos.class, conexionServidor);
+            // Si no coincidieran los formatos, el primer marco no se podría decodificar
+            intercambiar(conexionCliente, conexionServidor);
+        }
+    }
+
+    @Test
+    void clienteSoloSerializadoRecibeSerializado() throws Exception {
+        try (Socket cliente = new Socket(servidor.getInetAddress(), servidor.getLocalPort())) {
+            Future<IConexionMensajes> aceptada = hilos.submit(this::aceptarPrefiriendoBinario);
+            IConexionMensajes conexionCliente = NegociacionProtocolo.negociarCliente(cliente.getInputStream(),
+                    cliente.getOutputStream(), FormatoMensajes.SERIALIZADO);
+            IConexionMensajes conexionServidor = aceptada.get(ESPERA_SEGUNDOS, TimeUnit.SECONDS);
+
+            intercambiar(conexionCliente, conexionServidor);
+        }
+        assertEquals(FormatoMensajes.SERIALIZADO, NegociacionProtocolo.leerPreambulo(
+                ByteBuffer.wrap(preambuloDeCliente(FormatoMensajes.SERIALIZADO)), FormatoMensajes.BINARIO));
+    }
+
+    @Test
+    void elPreambuloNoBloqueanteEsperaLosBytesQueFaltan() throws IOException {
+        byte[] preambulo = preambuloDeCliente(FormatoMensajes.SERIALIZADO, FormatoMensajes.BINARIO);
+
+        for (int recibidos = 0; recibidos < preambulo.length; recibidos++) {
+            ByteBuffer parcial = ByteBuffer.wrap(preambulo, 0, recibidos);
+            assertNull(NegociacionProtocolo.leerPreambulo(parcial, FormatoMensajes.BINARIO), recibidos + " bytes");
+            assertEquals(0, parcial.position(), "Un preámbulo incompleto no debe consumirse");
+        }
+
+        ByteBuffer completo = ByteBuffer.wrap(preambulo);
+        assertEquals(FormatoMensajes.BINARIO, NegociacionProtocolo.leerPreambulo(completo, FormatoMensajes.BINARIO));
+        assertEquals(preambulo.length, completo.position());
+    }
+
+    @Test
+    void elPreambuloNoBloqueanteRechazaUnClienteDeObjetos() throws IOException {
+        ByteArrayOutputStream cabecera = new ByteArrayOutputStream();
+        new ObjectOutputStream(cabecera).flush();
+
+        assertThrows(IOException.class,
+                () -> NegociacionProtocolo.leerPreambulo(ByteBuffer.wrap(cabecera.toByteArray()), FormatoMensajes.BINARIO));
+    }
+
+    private IConexionMensajes aceptarPrefiriendoBinario() throws IOException {
+        Socket aceptado = servidor.accept();
+        return NegociacionProtocolo.aceptarServidor(aceptado.getInputStream(), aceptado.getOutputStream(),
+                FormatoMensajes.BINARIO, GobernadorSerializacion.porMensaje());
+    }
+
+    /**
+     * Un mensaje en cada sentido; la respuesta lleva los datos de la petición
+     */
+    private static void intercambiar(IConexionMensajes cliente, IConexionMensajes servidor) throws Exception {
+        cliente.enviar(new MensajeDTO(TipoMensaje.PING, "Latido", 42L));
+        MensajeDTO recibido = servidor.recibir();
+        assertEquals(TipoMensaje.PING, recibido.getTipo());
+        assertEquals(42L, recibido.getDatos());
+
+        servidor.enviar(new MensajeDTO(TipoMensaje.PONG, "Latido", recibido.getDatos()));
+        servidor.finLote();
+        MensajeDTO respuesta = cliente.recibir();
+        assertEquals(TipoMensaje.PONG, respuesta.getTipo());
+        assertEquals(42L, respuesta.getDatos());
+    }
+
+    /**
+     * Preámbulo que envía negociarCliente, capturado sin socket
+     */
+    private static byte[] preambuloDeCliente(FormatoMensajes... formatos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        // Sin respuesta del servidor la negociación falla después de escribir el preámbulo
+        assertThrows(IOException.class, () -> NegociacionProtocolo.negociarCliente(
+                new ByteArrayInputStream(new byte[0]), salida, formatos));
+        return salida.toByteArray();
+    }
+}